@@ -14,13 +14,14 @@
 package ch.qos.logback.classic.gaffer;
 
 
+import ch.qos.logback.classic.ClassicConstants
 import ch.qos.logback.classic.Level
 import ch.qos.logback.classic.Logger
 import ch.qos.logback.classic.LoggerContext
 import ch.qos.logback.classic.jmx.JMXConfigurator
 import ch.qos.logback.classic.jmx.MBeanUtil
 import ch.qos.logback.classic.net.ReceiverBase
-import ch.qos.logback.classic.turbo.ReconfigureOnChangeFilter
+import ch.qos.logback.classic.joran.ReconfigureOnChangeTask
 import ch.qos.logback.classic.turbo.TurboFilter
 import ch.qos.logback.core.Appender
 import ch.qos.logback.core.CoreConstants
@@ -51,21 +52,23 @@ public class ConfigurationDelegate extends ContextAwareBase {
 
 
   void scan(String scanPeriodStr = null) {
-    ReconfigureOnChangeFilter rocf = new ReconfigureOnChangeFilter();
-    rocf.setContext(context);
+    ReconfigureOnChangeTask rocTask = new ReconfigureOnChangeTask();
+    rocTask.setContext(context);
     if (scanPeriodStr) {
       try {
         Duration duration = Duration.valueOf(scanPeriodStr);
-        rocf.setRefreshPeriod(duration.getMilliseconds());
-        addInfo("Setting ReconfigureOnChangeFilter scanning period to "
+        rocTask.setRefreshPeriod(duration.getMilliseconds());
+        addInfo("Setting ReconfigureOnChangeTask scanning period to "
                 + duration);
       } catch (NumberFormatException nfe) {
         addError("Error while converting [" + scanAttrib + "] to long", nfe);
       }
     }
-    rocf.start();
-    addInfo("Adding ReconfigureOnChangeFilter as a turbo filter");
-    context.addTurboFilter(rocf);
+    rocTask.start();
+    addInfo("Registering ReconfigureOnChangeTask with the context");
+    // stopped when the context is reset
+    context.register(rocTask);
+    context.putObject(ClassicConstants.RECONFIGURE_ON_CHANGE_TASK, rocTask);
   }
 
   void statusListener(Class listenerClass) {
@@ -20,6 +20,11 @@ public class ClassicConstants {
   public static final String USER_MDC_KEY = "user";
 
   public static final String LOGBACK_CONTEXT_SELECTOR = "logback.ContextSelector";
+  /**
+   * System property selecting the MDC adapter. Set it to "persistent" for
+   * {@link ch.qos.logback.classic.util.PersistentMDCAdapter}.
+   */
+  public static final String LOGBACK_MDC_ADAPTER = "logback.MDCAdapter";
   public static final String JNDI_CONFIGURATION_RESOURCE = "java:comp/env/logback/configuration-resource";
   public static final String JNDI_CONTEXT_NAME = "java:comp/env/logback/context-name";
 
@@ -44,6 +49,18 @@ public class ClassicConstants {
   public static final String REQUEST_METHOD = "req.method";
   public static final String REQUEST_X_FORWARDED_FOR = "req.xForwardedFor";
 
+  /**
+   * The key used in locating the cache of rendered stack traces, shared by
+   * throwable converters, in the context's object map.
+   */
+  public static final String STACK_TRACE_RENDERING_CACHE = "STACK_TRACE_RENDERING_CACHE";
+
+  /**
+   * The key used in locating the task scanning configuration files for
+   * changes in the context's object map.
+   */
+  public static final String RECONFIGURE_ON_CHANGE_TASK = "RECONFIGURE_ON_CHANGE_TASK";
+
   public static final String GAFFER_CONFIGURATOR_FQCN = "ch.qos.logback.classic.gaffer.GafferConfigurator";
 
   public static final String FINALIZE_SESSION = "FINALIZE_SESSION";
@@ -57,6 +57,13 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   // inherited form a parent.
   transient private int effectiveLevelInt;
 
+  // The MDC level overrides applying to this logger, including those
+  // inherited from its ancestors, and the finest level they may enable.
+  // Requests at a coarser level than minOverrideLevelInt skip the overrides
+  // with a single comparison.
+  transient private MDCLevelOverride[] levelOverrides;
+  transient private int minOverrideLevelInt = MDCLevelOverride.NO_OVERRIDE;
+
   /**
    * The parent of this category. All categories have at least one ancestor
    * which is the root category.
@@ -199,6 +206,62 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
     }
   }
 
+  /**
+   * Recompute the level overrides applying to this logger and its
+   * descendants.
+   * 
+   * @param inheritedOverrides
+   *          the overrides applying to the parent logger, possibly null
+   * @param overrideList
+   *          all the overrides of the logger context
+   */
+  synchronized void applyLevelOverrides(MDCLevelOverride[] inheritedOverrides,
+      List<MDCLevelOverride> overrideList) {
+    List<MDCLevelOverride> applicable = new ArrayList<MDCLevelOverride>();
+    if (inheritedOverrides != null) {
+      Collections.addAll(applicable, inheritedOverrides);
+    }
+    for (MDCLevelOverride override : overrideList) {
+      if (override.appliesTo(name)) {
+        applicable.add(override);
+      }
+    }
+    int minLevelInt = MDCLevelOverride.NO_OVERRIDE;
+    for (MDCLevelOverride override : applicable) {
+      minLevelInt = Math.min(minLevelInt, override.getMinLevelInt());
+    }
+    levelOverrides = applicable.isEmpty() ? null : applicable
+        .toArray(new MDCLevelOverride[applicable.size()]);
+    minOverrideLevelInt = minLevelInt;
+
+    if (childrenList != null) {
+      for (Logger child : childrenList) {
+        child.applyLevelOverrides(levelOverrides, overrideList);
+      }
+    }
+  }
+
+  /**
+   * Whether an MDC level override enables the given level for the current
+   * thread although it is below the effective level of this logger.
+   */
+  private boolean isLevelOverridden(int levelInt) {
+    if (minOverrideLevelInt > levelInt) {
+      return false;
+    }
+    MDCLevelOverride[] overrides = levelOverrides;
+    if (overrides == null) {
+      // reset concurrently
+      return false;
+    }
+    for (int i = 0; i < overrides.length; i++) {
+      if (overrides[i].getLevelInt() <= levelInt) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Remove all previously added appenders from this logger instance.
    * <p/>
@@ -322,11 +385,15 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
     }
     childrenList.add(childLogger);
     childLogger.effectiveLevelInt = this.effectiveLevelInt;
+    childLogger.levelOverrides = this.levelOverrides;
+    childLogger.minOverrideLevelInt = this.minOverrideLevelInt;
     return childLogger;
   }
 
   private void localLevelReset() {
     effectiveLevelInt = Level.DEBUG_INT;
+    levelOverrides = null;
+    minOverrideLevelInt = MDCLevelOverride.NO_OVERRIDE;
     if (isRootLogger()) {
       level = Level.DEBUG;
     } else {
@@ -368,6 +435,8 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
     childLogger = new Logger(childName, this, this.loggerContext);
     childrenList.add(childLogger);
     childLogger.effectiveLevelInt = this.effectiveLevelInt;
+    childLogger.levelOverrides = this.levelOverrides;
+    childLogger.minOverrideLevelInt = this.minOverrideLevelInt;
     return childLogger;
   }
 
@@ -386,7 +455,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
             params, t);
 
     if (decision == FilterReply.NEUTRAL) {
-      if (effectiveLevelInt > level.levelInt) {
+      if (effectiveLevelInt > level.levelInt && !isLevelOverridden(level.levelInt)) {
         return;
       }
     } else if (decision == FilterReply.DENY) {
@@ -404,7 +473,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
         marker, this, level, msg, param, t);
 
     if (decision == FilterReply.NEUTRAL) {
-      if (effectiveLevelInt > level.levelInt) {
+      if (effectiveLevelInt > level.levelInt && !isLevelOverridden(level.levelInt)) {
         return;
       }
     } else if (decision == FilterReply.DENY) {
@@ -423,7 +492,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
         marker, this, level, msg, param1, param2, t);
 
     if (decision == FilterReply.NEUTRAL) {
-      if (effectiveLevelInt > level.levelInt) {
+      if (effectiveLevelInt > level.levelInt && !isLevelOverridden(level.levelInt)) {
         return;
       }
     } else if (decision == FilterReply.DENY) {
@@ -489,7 +558,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   public boolean isDebugEnabled(Marker marker) {
     final FilterReply decision = callTurboFilters(marker, Level.DEBUG);
     if (decision == FilterReply.NEUTRAL) {
-      return effectiveLevelInt <= Level.DEBUG_INT;
+      return effectiveLevelInt <= Level.DEBUG_INT || isLevelOverridden(Level.DEBUG_INT);
     } else if (decision == FilterReply.DENY) {
       return false;
     } else if (decision == FilterReply.ACCEPT) {
@@ -586,7 +655,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   public boolean isInfoEnabled(Marker marker) {
     FilterReply decision = callTurboFilters(marker, Level.INFO);
     if (decision == FilterReply.NEUTRAL) {
-      return effectiveLevelInt <= Level.INFO_INT;
+      return effectiveLevelInt <= Level.INFO_INT || isLevelOverridden(Level.INFO_INT);
     } else if (decision == FilterReply.DENY) {
       return false;
     } else if (decision == FilterReply.ACCEPT) {
@@ -643,7 +712,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   public boolean isTraceEnabled(Marker marker) {
     final FilterReply decision = callTurboFilters(marker, Level.TRACE);
     if (decision == FilterReply.NEUTRAL) {
-      return effectiveLevelInt <= Level.TRACE_INT;
+      return effectiveLevelInt <= Level.TRACE_INT || isLevelOverridden(Level.TRACE_INT);
     } else if (decision == FilterReply.DENY) {
       return false;
     } else if (decision == FilterReply.ACCEPT) {
@@ -660,7 +729,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   public boolean isErrorEnabled(Marker marker) {
     FilterReply decision = callTurboFilters(marker, Level.ERROR);
     if (decision == FilterReply.NEUTRAL) {
-      return effectiveLevelInt <= Level.ERROR_INT;
+      return effectiveLevelInt <= Level.ERROR_INT || isLevelOverridden(Level.ERROR_INT);
     } else if (decision == FilterReply.DENY) {
       return false;
     } else if (decision == FilterReply.ACCEPT) {
@@ -677,7 +746,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   public boolean isWarnEnabled(Marker marker) {
     FilterReply decision = callTurboFilters(marker, Level.WARN);
     if (decision == FilterReply.NEUTRAL) {
-      return effectiveLevelInt <= Level.WARN_INT;
+      return effectiveLevelInt <= Level.WARN_INT || isLevelOverridden(Level.WARN_INT);
     } else if (decision == FilterReply.DENY) {
       return false;
     } else if (decision == FilterReply.ACCEPT) {
@@ -691,7 +760,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   public boolean isEnabledFor(Marker marker, Level level) {
     FilterReply decision = callTurboFilters(marker, level);
     if (decision == FilterReply.NEUTRAL) {
-      return effectiveLevelInt <= level.levelInt;
+      return effectiveLevelInt <= level.levelInt || isLevelOverridden(level.levelInt);
     } else if (decision == FilterReply.DENY) {
       return false;
     } else if (decision == FilterReply.ACCEPT) {
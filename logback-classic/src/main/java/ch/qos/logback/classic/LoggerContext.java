@@ -15,6 +15,7 @@ package ch.qos.logback.classic;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import ch.qos.logback.classic.util.LoggerNameUtil;
 import org.slf4j.ILoggerFactory;
@@ -57,6 +58,7 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
 
   private LoggerContextVO loggerContextRemoteView;
   private final TurboFilterList turboFilterList = new TurboFilterList();
+  private final List<MDCLevelOverride> levelOverrideList = new CopyOnWriteArrayList<MDCLevelOverride>();
   private boolean packagingDataEnabled = DEFAULT_PACKAGING_STATE;
 
   private int maxCallerDataDepth = ClassicConstants.DEFAULT_MAX_CALLEDER_DATA_DEPTH;
@@ -202,8 +204,8 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
 
   /**
    * This method clears all internal properties, except internal status messages,
-   * closes all appenders, removes any turboFilters, fires an OnReset event,
-   * removes all status listeners, removes all context listeners
+   * closes all appenders, removes any turboFilters and level overrides, fires
+   * an OnReset event, removes all status listeners, removes all context listeners
    * (except those which are reset resistant).
    * <p/>
    * As mentioned above, internal status messages survive resets.
@@ -215,6 +217,7 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
     initEvaluatorMap();
     root.recursiveReset();
     resetTurboFilterList();
+    resetLevelOverrideList();
     fireOnReset();
     resetListenersExceptResetResistant();
     resetStatusListeners();
@@ -246,6 +249,41 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
     turboFilterList.clear();
   }
 
+  public List<MDCLevelOverride> getLevelOverrideList() {
+    return Collections.unmodifiableList(levelOverrideList);
+  }
+
+  /**
+   * Add an MDC level override. Only started overrides take effect.
+   */
+  public synchronized void addLevelOverride(MDCLevelOverride levelOverride) {
+    levelOverrideList.add(levelOverride);
+    // overrides are inherited, make sure the designated loggers exist
+    for (String loggerName : levelOverride.getLoggerNames()) {
+      getLogger(loggerName);
+    }
+    root.applyLevelOverrides(null, levelOverrideList);
+  }
+
+  public synchronized boolean removeLevelOverride(MDCLevelOverride levelOverride) {
+    boolean removed = levelOverrideList.remove(levelOverride);
+    if (removed) {
+      root.applyLevelOverrides(null, levelOverrideList);
+    }
+    return removed;
+  }
+
+  /**
+   * Stop all registered level overrides and then clear the registration list.
+   */
+  public synchronized void resetLevelOverrideList() {
+    for (MDCLevelOverride levelOverride : levelOverrideList) {
+      levelOverride.stop();
+    }
+    levelOverrideList.clear();
+    root.applyLevelOverrides(null, levelOverrideList);
+  }
+
   final FilterReply getTurboFilterChainDecision_0_3OrMore(final Marker marker,
                                                           final Logger logger, final Level level, final String format,
                                                           final Object[] params, final Throwable t) {
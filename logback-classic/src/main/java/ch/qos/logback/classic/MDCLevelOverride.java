@@ -0,0 +1,176 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.turbo.MDCValueLevelPair;
+import ch.qos.logback.classic.util.MDCWatchedValues;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.spi.LifeCycle;
+
+/**
+ * Enables one or more logger subtrees at a finer level, but only for threads
+ * whose MDC carries given values for a key. For example, to debug a single
+ * request in production, tagged as such by a servlet filter:
+ *
+ * <pre>
+ * &lt;levelOverride&gt;
+ *   &lt;key&gt;debugRequest&lt;/key&gt;
+ *   &lt;logger&gt;com.mycompany&lt;/logger&gt;
+ *   &lt;MDCValueLevelPair&gt;
+ *     &lt;value&gt;true&lt;/value&gt;
+ *     &lt;level&gt;DEBUG&lt;/level&gt;
+ *   &lt;/MDCValueLevelPair&gt;
+ * &lt;/levelOverride&gt;
+ * </pre>
+ *
+ * Unlike {@link ch.qos.logback.classic.turbo.DynamicThresholdFilter}, an
+ * override is not consulted on every logging request. Loggers outside the
+ * overridden subtrees, and requests below the finest level an override may
+ * enable, pay a single integer comparison. Within the subtrees, the level
+ * associated with the MDC value is read from a per-thread cache maintained by
+ * the MDC adapter.
+ * <p/>
+ * Overrides only lower the threshold of loggers; requests denied by turbo
+ * filters remain denied. When no logger is given, the override applies to
+ * the root logger and thus to all loggers.
+ *
+ * @since 1.1.4
+ */
+public class MDCLevelOverride extends ContextAwareBase implements LifeCycle {
+
+  static final int NO_OVERRIDE = Integer.MAX_VALUE;
+
+  private String key;
+  private final List<String> loggerNames = new ArrayList<String>();
+  private final Map<String, Level> valueLevelMap = new HashMap<String, Level>();
+  // the finest level this override may enable
+  private int minLevelInt = NO_OVERRIDE;
+  private boolean started;
+
+  // when supported by the MDC adapter, the level is recomputed only when the
+  // value of the key changes in the MDC
+  private MDCWatchedValues watchedValues;
+  private MDCWatchedValues.Watch levelWatch;
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * The MDC key whose value selects the level.
+   */
+  public void setKey(String key) {
+    this.key = key;
+  }
+
+  /**
+   * Add the name of a logger whose subtree is subject to this override.
+   */
+  public void addLogger(String loggerName) {
+    if (Logger.ROOT_LOGGER_NAME.equalsIgnoreCase(loggerName)) {
+      loggerName = Logger.ROOT_LOGGER_NAME;
+    }
+    loggerNames.add(loggerName);
+  }
+
+  public List<String> getLoggerNames() {
+    return loggerNames;
+  }
+
+  /**
+   * Add a new MDCValueLevelPair. All keys must be unique.
+   */
+  public void addMDCValueLevelPair(MDCValueLevelPair mdcValueLevelPair) {
+    if (valueLevelMap.containsKey(mdcValueLevelPair.getValue())) {
+      addError(mdcValueLevelPair.getValue() + " has been already set");
+    } else {
+      valueLevelMap.put(mdcValueLevelPair.getValue(), mdcValueLevelPair.getLevel());
+    }
+  }
+
+  public void start() {
+    if (key == null) {
+      addError("No key name was specified");
+      return;
+    }
+    if (valueLevelMap.isEmpty()) {
+      addError("No MDCValueLevelPair was specified for key [" + key + "]");
+      return;
+    }
+    if (loggerNames.isEmpty()) {
+      loggerNames.add(Logger.ROOT_LOGGER_NAME);
+    }
+    minLevelInt = NO_OVERRIDE;
+    for (Level level : valueLevelMap.values()) {
+      if (level != null) {
+        minLevelInt = Math.min(minLevelInt, level.levelInt);
+      }
+    }
+    watchedValues = MDCWatchedValues.getInstance();
+    if (watchedValues != null) {
+      levelWatch = new MDCWatchedValues.Watch(key) {
+        @Override
+        protected int compute(String mdcValue) {
+          return levelIntFor(mdcValue);
+        }
+      };
+      watchedValues.register(levelWatch);
+    }
+    started = true;
+  }
+
+  public void stop() {
+    started = false;
+    if (levelWatch != null) {
+      watchedValues.unregister(levelWatch);
+      levelWatch = null;
+    }
+  }
+
+  public boolean isStarted() {
+    return started;
+  }
+
+  int getMinLevelInt() {
+    return minLevelInt;
+  }
+
+  boolean appliesTo(String loggerName) {
+    return started && loggerNames.contains(loggerName);
+  }
+
+  private int levelIntFor(String mdcValue) {
+    Level level = mdcValue == null ? null : valueLevelMap.get(mdcValue);
+    return level == null ? NO_OVERRIDE : level.levelInt;
+  }
+
+  /**
+   * Returns the level int enabled by this override for the current thread,
+   * {@link #NO_OVERRIDE} if none.
+   */
+  int getLevelInt() {
+    MDCWatchedValues.Watch watch = levelWatch;
+    if (watch != null) {
+      return watchedValues.get(watch);
+    }
+    return levelIntFor(MDC.get(key));
+  }
+}
@@ -19,6 +19,7 @@ import java.util.List;
 import org.slf4j.Marker;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMarker;
 import ch.qos.logback.core.boolex.EvaluationException;
 import ch.qos.logback.core.boolex.EventEvaluatorBase;
 
@@ -31,9 +32,15 @@ import ch.qos.logback.core.boolex.EventEvaluatorBase;
 public class OnMarkerEvaluator extends EventEvaluatorBase<ILoggingEvent> {
 
   List<String> markerList = new ArrayList<String>();
+  // the ids of the markers in markerList, see LogbackMarker
+  int[] markerIds = new int[0];
 
   public void addMarker(String markerStr) {
     markerList.add(markerStr);
+    int[] newMarkerIds = new int[markerIds.length + 1];
+    System.arraycopy(markerIds, 0, newMarkerIds, 0, markerIds.length);
+    newMarkerIds[markerIds.length] = LogbackMarker.getId(markerStr);
+    markerIds = newMarkerIds;
   }
 
   /**
@@ -48,8 +55,8 @@ public class OnMarkerEvaluator extends EventEvaluatorBase<ILoggingEvent> {
       return false;
     }
 
-    for (String markerStr : markerList) {
-      if (eventsMarker.contains(markerStr)) {
+    for (int markerId : markerIds) {
+      if (LogbackMarker.contains(eventsMarker, markerId)) {
         return true;
       }
     }
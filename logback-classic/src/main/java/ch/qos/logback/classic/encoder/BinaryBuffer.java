@@ -0,0 +1,172 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A growable byte array with variable length integer encoding, reused from
+ * one event to the next by {@link BinaryEncoder} and from one record to the
+ * next by {@link BinaryEventReader}.
+ */
+class BinaryBuffer {
+
+  byte[] buf;
+  int length;
+  // read position, used when decoding
+  int position;
+
+  BinaryBuffer(int initialCapacity) {
+    buf = new byte[initialCapacity];
+  }
+
+  void reset() {
+    length = 0;
+    position = 0;
+  }
+
+  void ensureCapacity(int extra) {
+    int required = length + extra;
+    if (required > buf.length) {
+      byte[] newBuf = new byte[Math.max(required, buf.length << 1)];
+      System.arraycopy(buf, 0, newBuf, 0, length);
+      buf = newBuf;
+    }
+  }
+
+  void writeByte(int b) {
+    ensureCapacity(1);
+    buf[length++] = (byte) b;
+  }
+
+  void writeBytes(byte[] bytes, int offset, int len) {
+    ensureCapacity(len);
+    System.arraycopy(bytes, offset, buf, length, len);
+    length += len;
+  }
+
+  void writeInt(int i) {
+    ensureCapacity(4);
+    buf[length++] = (byte) (i >>> 24);
+    buf[length++] = (byte) (i >>> 16);
+    buf[length++] = (byte) (i >>> 8);
+    buf[length++] = (byte) i;
+  }
+
+  void writeLong(long l) {
+    writeInt((int) (l >>> 32));
+    writeInt((int) l);
+  }
+
+  void writeVarInt(int i) {
+    writeVarLong(i & 0xFFFFFFFFL);
+  }
+
+  void writeVarLong(long l) {
+    ensureCapacity(10);
+    while ((l & ~0x7FL) != 0) {
+      buf[length++] = (byte) ((l & 0x7F) | 0x80);
+      l >>>= 7;
+    }
+    buf[length++] = (byte) l;
+  }
+
+  void writeSignedVarLong(long l) {
+    // zig-zag encoding so that small negative values remain small
+    writeVarLong((l << 1) ^ (l >> 63));
+  }
+
+  /**
+   * Write a string in-line, preceded by its length in bytes plus one. A
+   * length of zero denotes a null string.
+   */
+  void writeString(String s) {
+    if (s == null) {
+      writeVarInt(0);
+      return;
+    }
+    byte[] bytes = s.getBytes(BinaryFormat.UTF8);
+    writeVarInt(bytes.length + 1);
+    writeBytes(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Append a record made of the given type, the length of the payload and
+   * the payload itself.
+   */
+  void writeRecord(byte type, BinaryBuffer payload) {
+    writeRecord(type, payload.buf, 0, payload.length);
+  }
+
+  void writeRecord(byte type, byte[] payload, int offset, int len) {
+    writeByte(type);
+    writeVarInt(len);
+    writeBytes(payload, offset, len);
+  }
+
+  void writeTo(OutputStream os) throws IOException {
+    os.write(buf, 0, length);
+  }
+
+  int readByte() {
+    if (position >= length) {
+      throw new IllegalStateException("Truncated record");
+    }
+    return buf[position++] & 0xFF;
+  }
+
+  int readInt() {
+    return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+  }
+
+  long readLong() {
+    return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+  }
+
+  int readVarInt() {
+    return (int) readVarLong();
+  }
+
+  long readVarLong() {
+    long result = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = readByte();
+      result |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return result;
+  }
+
+  long readSignedVarLong() {
+    long l = readVarLong();
+    return (l >>> 1) ^ -(l & 1);
+  }
+
+  String readString() {
+    int len = readVarInt();
+    if (len == 0) {
+      return null;
+    }
+    len--;
+    if (position + len > length) {
+      throw new IllegalStateException("Truncated record");
+    }
+    String s = new String(buf, position, len, BinaryFormat.UTF8);
+    position += len;
+    return s;
+  }
+}
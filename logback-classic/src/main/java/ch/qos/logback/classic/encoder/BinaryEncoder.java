@@ -0,0 +1,332 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import static ch.qos.logback.classic.encoder.BinaryFormat.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.spi.ClassPackagingData;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+/**
+ * Writes logging events in a compact, length-prefixed binary format.
+ *
+ * <p>Logger names, thread names, message patterns, MDC keys and stack frame
+ * components are interned into a dictionary and referred to by their id.
+ * The dictionary is reset every {@link #setBlockSize(int) blockSize} events
+ * so that each block can be decoded independently. When the encoder is
+ * closed, an index of the blocks and their first timestamp is appended to
+ * the output, allowing {@link BinaryEventReader} to seek by time.
+ *
+ * <p>Files written by this encoder can be printed with
+ * {@link BinaryLogDecoder}.
+ *
+ * @since 1.1.4
+ */
+public class BinaryEncoder extends EncoderBase<ILoggingEvent> {
+
+  private int blockSize = DEFAULT_BLOCK_SIZE;
+  private boolean immediateFlush = true;
+
+  private final BinaryBuffer out = new BinaryBuffer(1024);
+  private final BinaryBuffer payload = new BinaryBuffer(1024);
+
+  private final Map<String, Integer> dictionary = new HashMap<String, Integer>();
+  private int nextId;
+
+  private int eventsInBlock;
+  private long blockBaseTime;
+  private LoggerContextVO currentContextVO;
+
+  // number of bytes written since the last call to init()
+  private long position;
+  private final List<long[]> blockIndex = new ArrayList<long[]>();
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * The number of events after which the dictionary is reset and a new
+   * block, that is a new entry in the time index, is started. Larger blocks
+   * compress better, smaller blocks allow finer-grained seeking. The
+   * default value is 1024.
+   */
+  public void setBlockSize(int blockSize) {
+    this.blockSize = blockSize;
+  }
+
+  public boolean isImmediateFlush() {
+    return immediateFlush;
+  }
+
+  /**
+   * If set to true, the default, the underlying OutputStream is flushed
+   * after each event.
+   */
+  public void setImmediateFlush(boolean immediateFlush) {
+    this.immediateFlush = immediateFlush;
+  }
+
+  @Override
+  public void start() {
+    if (blockSize < 1) {
+      addError("blockSize must be a positive integer, was " + blockSize);
+      return;
+    }
+    super.start();
+  }
+
+  @Override
+  public void init(OutputStream os) throws IOException {
+    super.init(os);
+    position = 0;
+    blockIndex.clear();
+    eventsInBlock = 0;
+
+    out.reset();
+    payload.reset();
+    payload.writeInt(MAGIC);
+    payload.writeVarInt(VERSION);
+    out.writeRecord(HEADER, payload);
+    flushOut();
+  }
+
+  public void doEncode(ILoggingEvent event) throws IOException {
+    out.reset();
+    long timeStamp = event.getTimeStamp();
+    if (eventsInBlock == 0 || eventsInBlock >= blockSize) {
+      startBlock(timeStamp);
+    }
+    eventsInBlock++;
+
+    LoggerContextVO contextVO = event.getLoggerContextVO();
+    if (contextVO != null && contextVO != currentContextVO) {
+      writeContext(contextVO);
+    }
+
+    // strings are interned, possibly appending definitions to 'out', before
+    // the payload of the event record is assembled
+    int loggerId = intern(event.getLoggerName());
+    int threadId = intern(event.getThreadName());
+    int messageId = intern(event.getMessage());
+
+    payload.reset();
+    payload.writeSignedVarLong(timeStamp - blockBaseTime);
+    payload.writeVarInt(event.getLevel().toInt() / LEVEL_DIVISOR);
+    payload.writeVarInt(loggerId);
+    payload.writeVarInt(threadId);
+    payload.writeVarInt(messageId);
+    writeArguments(event.getArgumentArray());
+    writeMDC(event.getMDCPropertyMap());
+    writeMarker(event.getMarker());
+    if (event.hasCallerData()) {
+      writeFrames(event.getCallerData());
+    } else {
+      payload.writeVarInt(0);
+    }
+    writeThrowable(event.getThrowableProxy());
+
+    out.writeRecord(EVENT, payload);
+    flushOut();
+    if (immediateFlush) {
+      outputStream.flush();
+    }
+  }
+
+  private void startBlock(long timeStamp) {
+    blockIndex.add(new long[] { timeStamp, position });
+    dictionary.clear();
+    nextId = NULL_ID + 1;
+    eventsInBlock = 0;
+    blockBaseTime = timeStamp;
+    currentContextVO = null;
+
+    payload.reset();
+    payload.writeLong(timeStamp);
+    out.writeRecord(BLOCK_START, payload);
+  }
+
+  private void writeContext(LoggerContextVO contextVO) {
+    currentContextVO = contextVO;
+    int nameId = intern(contextVO.getName());
+    Map<String, String> propertyMap = contextVO.getPropertyMap();
+    BinaryBuffer contextPayload = new BinaryBuffer(256);
+    contextPayload.writeVarInt(nameId);
+    contextPayload.writeLong(contextVO.getBirthTime());
+    writeStringMap(contextPayload, propertyMap);
+    out.writeRecord(CONTEXT, contextPayload);
+  }
+
+  private int intern(String s) {
+    if (s == null) {
+      return NULL_ID;
+    }
+    Integer id = dictionary.get(s);
+    if (id != null) {
+      return id;
+    }
+    int newId = nextId++;
+    dictionary.put(s, newId);
+    byte[] bytes = s.getBytes(UTF8);
+    out.writeRecord(STRING_DEF, bytes, 0, bytes.length);
+    return newId;
+  }
+
+  private void writeArguments(Object[] argumentArray) {
+    if (argumentArray == null) {
+      payload.writeVarInt(0);
+      return;
+    }
+    payload.writeVarInt(argumentArray.length + 1);
+    for (Object arg : argumentArray) {
+      payload.writeString(arg == null ? null : arg.toString());
+    }
+  }
+
+  private void writeMDC(Map<String, String> mdcPropertyMap) {
+    writeStringMap(payload, mdcPropertyMap);
+  }
+
+  // keys are interned, values are written in-line
+  private void writeStringMap(BinaryBuffer buffer, Map<String, String> map) {
+    if (map == null || map.isEmpty()) {
+      buffer.writeVarInt(0);
+      return;
+    }
+    // the map may be concurrently modified, e.g. context properties
+    List<Map.Entry<String, String>> entries = new ArrayList<Map.Entry<String, String>>(map.entrySet());
+    buffer.writeVarInt(entries.size());
+    for (Map.Entry<String, String> entry : entries) {
+      buffer.writeVarInt(intern(entry.getKey()));
+      buffer.writeString(entry.getValue());
+    }
+  }
+
+  private void writeMarker(Marker marker) {
+    if (marker == null) {
+      payload.writeVarInt(NULL_ID);
+      return;
+    }
+    payload.writeVarInt(intern(marker.getName()));
+    List<Marker> references = new ArrayList<Marker>();
+    Iterator<?> it = marker.iterator();
+    while (it.hasNext()) {
+      references.add((Marker) it.next());
+    }
+    payload.writeVarInt(references.size());
+    for (Marker reference : references) {
+      writeMarker(reference);
+    }
+  }
+
+  private void writeFrames(StackTraceElement[] frames) {
+    if (frames == null) {
+      payload.writeVarInt(0);
+      return;
+    }
+    payload.writeVarInt(frames.length);
+    for (StackTraceElement ste : frames) {
+      writeFrame(ste);
+    }
+  }
+
+  private void writeFrame(StackTraceElement ste) {
+    payload.writeVarInt(intern(ste.getClassName()));
+    payload.writeVarInt(intern(ste.getMethodName()));
+    payload.writeVarInt(intern(ste.getFileName()));
+    payload.writeSignedVarLong(ste.getLineNumber());
+  }
+
+  private void writeThrowable(IThrowableProxy tp) {
+    if (tp == null) {
+      payload.writeByte(0);
+      return;
+    }
+    payload.writeByte(1);
+    payload.writeVarInt(intern(tp.getClassName()));
+    payload.writeString(tp.getMessage());
+    payload.writeVarInt(tp.getCommonFrames());
+
+    StackTraceElementProxy[] stepArray = tp.getStackTraceElementProxyArray();
+    int frameCount = stepArray == null ? 0 : stepArray.length;
+    payload.writeVarInt(frameCount);
+    for (int i = 0; i < frameCount; i++) {
+      StackTraceElementProxy step = stepArray[i];
+      writeFrame(step.getStackTraceElement());
+      ClassPackagingData cpd = step.getClassPackagingData();
+      if (cpd == null) {
+        payload.writeByte(0);
+      } else {
+        payload.writeByte(cpd.isExact() ? 2 : 1);
+        payload.writeVarInt(intern(cpd.getCodeLocation()));
+        payload.writeVarInt(intern(cpd.getVersion()));
+      }
+    }
+
+    IThrowableProxy[] suppressed = tp.getSuppressed();
+    int suppressedCount = suppressed == null ? 0 : suppressed.length;
+    payload.writeVarInt(suppressedCount);
+    for (int i = 0; i < suppressedCount; i++) {
+      writeThrowable(suppressed[i]);
+    }
+    writeThrowable(tp.getCause());
+  }
+
+  private void flushOut() throws IOException {
+    out.writeTo(outputStream);
+    position += out.length;
+    out.reset();
+  }
+
+  /**
+   * Write the block index followed by the trailer.
+   */
+  public void close() throws IOException {
+    if (outputStream == null) {
+      return;
+    }
+    out.reset();
+    long indexPosition = position;
+
+    payload.reset();
+    payload.writeVarInt(blockIndex.size());
+    for (long[] entry : blockIndex) {
+      payload.writeLong(entry[0]);
+      payload.writeVarLong(indexPosition - entry[1]);
+    }
+    out.writeRecord(INDEX, payload);
+
+    long trailerPosition = indexPosition + out.length;
+    payload.reset();
+    payload.writeInt(TRAILER_MAGIC);
+    payload.writeLong(trailerPosition - indexPosition);
+    out.writeRecord(TRAILER, payload);
+    flushOut();
+    outputStream.flush();
+  }
+}
@@ -0,0 +1,408 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import static ch.qos.logback.classic.encoder.BinaryFormat.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ClassPackagingData;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+
+/**
+ * Reads logging events from a file written by {@link BinaryEncoder}.
+ *
+ * <p>Events are returned in file order by {@link #readEvent()}. The
+ * {@link #seek(long)} method uses the block index found at the end of the
+ * file to jump close to a given point in time. If the index is missing, for
+ * example because the writing application crashed, or if it does not cover
+ * the whole file, the index is rebuilt by skipping from record to record.
+ *
+ * <p>A record truncated by a crash is treated as the end of the file.
+ *
+ * @since 1.1.4
+ */
+public class BinaryEventReader {
+
+  /**
+   * Length of the header record written at the start of each session.
+   */
+  static final int HEADER_RECORD_LENGTH = 7;
+
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+  private final RandomAccessFile raf;
+
+  private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+  private long readBufferStart;
+  private int readBufferLength;
+  private int readBufferPos;
+
+  private final BinaryBuffer record = new BinaryBuffer(1024);
+
+  private final List<String> dictionary = new ArrayList<String>();
+  private long blockBaseTime;
+  private LoggerContextVO contextVO;
+
+  private List<long[]> blockIndex;
+  private long skipBefore = Long.MIN_VALUE;
+
+  public BinaryEventReader(File file) throws IOException {
+    this.raf = new RandomAccessFile(file, "r");
+    moveTo(0);
+  }
+
+  /**
+   * Returns the next event in the file, or null if the end of the file has
+   * been reached.
+   */
+  public ILoggingEvent readEvent() throws IOException {
+    byte type;
+    while ((type = readRecord()) != -1) {
+      switch (type) {
+      case HEADER:
+        if (record.readInt() != MAGIC) {
+          throw new IllegalStateException("Does not look like data created by BinaryEncoder");
+        }
+        break;
+      case BLOCK_START:
+        dictionary.clear();
+        dictionary.add(null);
+        contextVO = null;
+        blockBaseTime = record.readLong();
+        break;
+      case STRING_DEF:
+        dictionary.add(new String(record.buf, 0, record.length, UTF8));
+        break;
+      case CONTEXT:
+        contextVO = readContext();
+        break;
+      case EVENT:
+        DecodedLoggingEvent event = readEventRecord();
+        if (event.timeStamp < skipBefore) {
+          break;
+        }
+        skipBefore = Long.MIN_VALUE;
+        return event;
+      default:
+        // the index, the trailer or a record type unknown to this version
+        break;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Position this reader so that the next call to {@link #readEvent()}
+   * returns the first event, within the block where it is expected, whose
+   * timestamp is equal to or later than the given time.
+   */
+  public void seek(long timeStamp) throws IOException {
+    List<long[]> index = getBlockIndex();
+    long target = 0;
+    for (long[] entry : index) {
+      if (entry[0] > timeStamp) {
+        break;
+      }
+      target = entry[1];
+    }
+    moveTo(target);
+    dictionary.clear();
+    skipBefore = timeStamp;
+  }
+
+  /**
+   * Returns the list of blocks in this file as (first timestamp, offset)
+   * pairs, in file order.
+   */
+  List<long[]> getBlockIndex() throws IOException {
+    if (blockIndex == null) {
+      blockIndex = readIndexFromTrailer();
+      if (blockIndex == null) {
+        blockIndex = scanIndex();
+      }
+    }
+    return blockIndex;
+  }
+
+  private List<long[]> readIndexFromTrailer() throws IOException {
+    long trailerPosition = raf.length() - TRAILER_RECORD_LENGTH;
+    if (trailerPosition < HEADER_RECORD_LENGTH) {
+      return null;
+    }
+    moveTo(trailerPosition);
+    if (readRecord() != TRAILER || record.length != TRAILER_PAYLOAD_LENGTH || record.readInt() != TRAILER_MAGIC) {
+      return null;
+    }
+    long indexPosition = trailerPosition - record.readLong();
+    if (indexPosition < 0) {
+      return null;
+    }
+    moveTo(indexPosition);
+    if (readRecord() != INDEX) {
+      return null;
+    }
+    int count = record.readVarInt();
+    List<long[]> index = new ArrayList<long[]>(count);
+    for (int i = 0; i < count; i++) {
+      long timeStamp = record.readLong();
+      long offset = indexPosition - record.readVarLong();
+      index.add(new long[] { timeStamp, offset });
+    }
+    // the index only covers the last session written to the file. If the
+    // file was appended to, earlier sessions must be scanned.
+    if (!index.isEmpty() && index.get(0)[1] != HEADER_RECORD_LENGTH) {
+      return null;
+    }
+    return index;
+  }
+
+  private List<long[]> scanIndex() throws IOException {
+    List<long[]> index = new ArrayList<long[]>();
+    moveTo(0);
+    while (true) {
+      long recordStart = readBufferStart + readBufferPos;
+      int type = readByte();
+      if (type == -1) {
+        break;
+      }
+      long len = readUnsignedVarLong();
+      if (len < 0) {
+        break;
+      }
+      if (type == BLOCK_START) {
+        if (!readPayload((int) len)) {
+          break;
+        }
+        index.add(new long[] { record.readLong(), recordStart });
+      } else {
+        moveTo(readBufferStart + readBufferPos + len);
+      }
+    }
+    return index;
+  }
+
+  private DecodedLoggingEvent readEventRecord() {
+    DecodedLoggingEvent event = new DecodedLoggingEvent();
+    event.loggerContextVO = contextVO;
+    event.timeStamp = blockBaseTime + record.readSignedVarLong();
+    event.level = Level.toLevel(record.readVarInt() * LEVEL_DIVISOR);
+    event.loggerName = lookup(record.readVarInt());
+    event.threadName = lookup(record.readVarInt());
+    event.message = lookup(record.readVarInt());
+
+    int argCount = record.readVarInt();
+    if (argCount != 0) {
+      Object[] argumentArray = new String[argCount - 1];
+      for (int i = 0; i < argumentArray.length; i++) {
+        argumentArray[i] = record.readString();
+      }
+      event.argumentArray = argumentArray;
+    }
+
+    Map<String, String> mdcPropertyMap = readStringMap();
+    if (mdcPropertyMap != null) {
+      event.mdcPropertyMap = mdcPropertyMap;
+    }
+    event.marker = readMarker();
+    int callerDataLength = record.readVarInt();
+    if (callerDataLength != 0) {
+      StackTraceElement[] callerData = new StackTraceElement[callerDataLength];
+      for (int i = 0; i < callerDataLength; i++) {
+        callerData[i] = readFrame();
+      }
+      event.callerDataArray = callerData;
+    }
+    event.throwableProxy = readThrowable();
+    return event;
+  }
+
+  private LoggerContextVO readContext() {
+    String name = lookup(record.readVarInt());
+    long birthTime = record.readLong();
+    Map<String, String> propertyMap = readStringMap();
+    if (propertyMap == null) {
+      propertyMap = new HashMap<String, String>();
+    }
+    return new LoggerContextVO(name, propertyMap, birthTime);
+  }
+
+  private Map<String, String> readStringMap() {
+    int size = record.readVarInt();
+    if (size == 0) {
+      return null;
+    }
+    Map<String, String> map = new HashMap<String, String>(size * 2);
+    for (int i = 0; i < size; i++) {
+      String key = lookup(record.readVarInt());
+      map.put(key, record.readString());
+    }
+    return map;
+  }
+
+  private Marker readMarker() {
+    String name = lookup(record.readVarInt());
+    if (name == null) {
+      return null;
+    }
+    Marker marker = MarkerFactory.getDetachedMarker(name);
+    int referenceCount = record.readVarInt();
+    for (int i = 0; i < referenceCount; i++) {
+      marker.add(readMarker());
+    }
+    return marker;
+  }
+
+  private StackTraceElement readFrame() {
+    String className = lookup(record.readVarInt());
+    String methodName = lookup(record.readVarInt());
+    String fileName = lookup(record.readVarInt());
+    int lineNumber = (int) record.readSignedVarLong();
+    return new StackTraceElement(className, methodName, fileName, lineNumber);
+  }
+
+  private IThrowableProxy readThrowable() {
+    if (record.readByte() == 0) {
+      return null;
+    }
+    DecodedThrowableProxy tp = new DecodedThrowableProxy();
+    tp.className = lookup(record.readVarInt());
+    tp.message = record.readString();
+    tp.commonFrames = record.readVarInt();
+
+    int frameCount = record.readVarInt();
+    StackTraceElementProxy[] stepArray = new StackTraceElementProxy[frameCount];
+    for (int i = 0; i < frameCount; i++) {
+      StackTraceElementProxy step = new StackTraceElementProxy(readFrame());
+      int packaging = record.readByte();
+      if (packaging != 0) {
+        String codeLocation = lookup(record.readVarInt());
+        String version = lookup(record.readVarInt());
+        step.setClassPackagingData(new ClassPackagingData(codeLocation, version, packaging == 2));
+      }
+      stepArray[i] = step;
+    }
+    tp.stackTraceElementProxyArray = stepArray;
+
+    int suppressedCount = record.readVarInt();
+    if (suppressedCount != 0) {
+      tp.suppressed = new IThrowableProxy[suppressedCount];
+      for (int i = 0; i < suppressedCount; i++) {
+        tp.suppressed[i] = readThrowable();
+      }
+    }
+    tp.cause = readThrowable();
+    return tp;
+  }
+
+  private String lookup(int id) {
+    if (id == NULL_ID) {
+      return null;
+    }
+    if (id >= dictionary.size()) {
+      throw new IllegalStateException("Unknown string id " + id + ", looks like a corrupt stream");
+    }
+    return dictionary.get(id);
+  }
+
+  /**
+   * Read the next record into {@link #record}. Returns its type or -1 if the
+   * end of the file, or a truncated record, has been reached.
+   */
+  private byte readRecord() throws IOException {
+    int type = readByte();
+    if (type == -1) {
+      return -1;
+    }
+    long len = readUnsignedVarLong();
+    if (len < 0 || !readPayload((int) len)) {
+      return -1;
+    }
+    return (byte) type;
+  }
+
+  private boolean readPayload(int len) throws IOException {
+    record.reset();
+    record.ensureCapacity(len);
+    while (record.length < len) {
+      if (readBufferPos == readBufferLength && !fill()) {
+        return false;
+      }
+      int chunk = Math.min(len - record.length, readBufferLength - readBufferPos);
+      System.arraycopy(readBuffer, readBufferPos, record.buf, record.length, chunk);
+      readBufferPos += chunk;
+      record.length += chunk;
+    }
+    return true;
+  }
+
+  // returns -1 at the end of the file
+  private long readUnsignedVarLong() throws IOException {
+    long result = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = readByte();
+      if (b == -1) {
+        return -1;
+      }
+      result |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return result;
+  }
+
+  private int readByte() throws IOException {
+    if (readBufferPos == readBufferLength && !fill()) {
+      return -1;
+    }
+    return readBuffer[readBufferPos++] & 0xFF;
+  }
+
+  private boolean fill() throws IOException {
+    readBufferStart += readBufferLength;
+    readBufferPos = 0;
+    readBufferLength = 0;
+    raf.seek(readBufferStart);
+    int n = raf.read(readBuffer);
+    if (n <= 0) {
+      return false;
+    }
+    readBufferLength = n;
+    return true;
+  }
+
+  private void moveTo(long position) {
+    readBufferStart = position;
+    readBufferLength = 0;
+    readBufferPos = 0;
+  }
+
+  public void close() throws IOException {
+    raf.close();
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import java.nio.charset.Charset;
+
+/**
+ * Constants shared by {@link BinaryEncoder} and {@link BinaryEventReader}.
+ *
+ * <p>A binary log file is a sequence of records. Each record consists of a
+ * one byte record type, the length of the payload as an unsigned variable
+ * length integer and finally the payload itself. The length prefix allows
+ * readers to skip records without decoding them.
+ *
+ * <p>Events are grouped in blocks. Each block starts with a
+ * {@link #BLOCK_START} record which resets the string dictionary, so that a
+ * reader can start decoding at any block boundary. The offsets and first
+ * timestamps of all blocks written in a session are listed in an
+ * {@link #INDEX} record written when the encoder is closed, followed by a
+ * fixed size {@link #TRAILER} record pointing back to it.
+ *
+ * @since 1.1.4
+ */
+final class BinaryFormat {
+
+  static final int MAGIC = 0x4C424231; // "LBB1"
+  static final int TRAILER_MAGIC = 0x4C424249; // "LBBI"
+  static final int VERSION = 1;
+
+  static final byte HEADER = 1;
+  static final byte BLOCK_START = 2;
+  static final byte STRING_DEF = 3;
+  static final byte CONTEXT = 4;
+  static final byte EVENT = 5;
+  static final byte INDEX = 6;
+  static final byte TRAILER = 7;
+
+  /**
+   * The payload of a trailer record is made of an int (the magic) and a long
+   * (the distance back to the index record).
+   */
+  static final int TRAILER_PAYLOAD_LENGTH = 12;
+  /**
+   * type + one byte length + payload
+   */
+  static final int TRAILER_RECORD_LENGTH = 2 + TRAILER_PAYLOAD_LENGTH;
+
+  /**
+   * Dictionary id reserved for null strings. Actual ids start at 1.
+   */
+  static final int NULL_ID = 0;
+
+  /**
+   * Levels are written as their integer value divided by this constant.
+   */
+  static final int LEVEL_DIVISOR = 1000;
+
+  static final int DEFAULT_BLOCK_SIZE = 1024;
+
+  static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private BinaryFormat() {
+  }
+}
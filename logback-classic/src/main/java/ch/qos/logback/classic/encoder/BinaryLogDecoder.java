@@ -0,0 +1,115 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Prints the contents of a file written by {@link BinaryEncoder} as text.
+ *
+ * <pre>
+ *   &lt;b&gt;Usage:&lt;/b&gt; java ch.qos.logback.classic.encoder.BinaryLogDecoder file [-pattern pattern] [-from time] [-to time]
+ * </pre>
+ *
+ * where <em>time</em> is either a number of milliseconds since the epoch or
+ * a date in the <em>yyyy-MM-dd'T'HH:mm:ss</em> format, in the local time
+ * zone. When <em>-from</em> is specified, the time index of the file is used
+ * to skip directly to the relevant part of the file.
+ *
+ * @since 1.1.4
+ */
+public class BinaryLogDecoder {
+
+  static final String DEFAULT_PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} [%thread] %-5level %logger - %msg%n";
+  static final String DATE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+
+  public static void main(String argv[]) throws Exception {
+    if (argv.length == 0 || argv.length % 2 == 0) {
+      usage("Wrong number of arguments.");
+    }
+
+    String pattern = DEFAULT_PATTERN;
+    long from = Long.MIN_VALUE;
+    long to = Long.MAX_VALUE;
+    for (int i = 1; i < argv.length; i += 2) {
+      if ("-pattern".equals(argv[i])) {
+        pattern = argv[i + 1];
+      } else if ("-from".equals(argv[i])) {
+        from = parseTime(argv[i + 1]);
+      } else if ("-to".equals(argv[i])) {
+        to = parseTime(argv[i + 1]);
+      } else {
+        usage("Unknown option [" + argv[i] + "]");
+      }
+    }
+    decode(new File(argv[0]), pattern, from, to, System.out);
+  }
+
+  static void decode(File file, String pattern, long from, long to, PrintStream ps) throws IOException {
+    LoggerContext lc = new LoggerContext();
+    PatternLayout layout = new PatternLayout();
+    layout.setContext(lc);
+    layout.setPattern(pattern);
+    layout.start();
+
+    BinaryEventReader reader = new BinaryEventReader(file);
+    try {
+      if (from != Long.MIN_VALUE) {
+        reader.seek(from);
+      }
+      ILoggingEvent event;
+      while ((event = reader.readEvent()) != null) {
+        long timeStamp = event.getTimeStamp();
+        // threads appending concurrently write events slightly out of
+        // order, the file is read to the end
+        if (timeStamp < from || timeStamp > to) {
+          continue;
+        }
+        ps.print(layout.doLayout(event));
+      }
+    } finally {
+      reader.close();
+    }
+    ps.flush();
+  }
+
+  static long parseTime(String s) {
+    try {
+      return Long.parseLong(s);
+    } catch (NumberFormatException e) {
+      // not a number, try a date
+    }
+    try {
+      return new SimpleDateFormat(DATE_PATTERN).parse(s).getTime();
+    } catch (ParseException e) {
+      usage("Could not parse time [" + s + "]");
+      return -1;
+    }
+  }
+
+  static void usage(String msg) {
+    System.err.println(msg);
+    System.err.println("Usage: java " + BinaryLogDecoder.class.getName()
+        + " file [-pattern pattern] [-from time] [-to time]");
+    System.exit(1);
+  }
+}
@@ -0,0 +1,116 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.slf4j.Marker;
+import org.slf4j.helpers.MessageFormatter;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+
+/**
+ * A read-only {@link ILoggingEvent} restituted by {@link BinaryEventReader}.
+ */
+class DecodedLoggingEvent implements ILoggingEvent {
+
+  String threadName;
+  String loggerName;
+  LoggerContextVO loggerContextVO;
+  Level level;
+  String message;
+  private String formattedMessage;
+  Object[] argumentArray;
+  IThrowableProxy throwableProxy;
+  StackTraceElement[] callerDataArray;
+  Marker marker;
+  Map<String, String> mdcPropertyMap = Collections.emptyMap();
+  long timeStamp;
+
+  public String getThreadName() {
+    return threadName;
+  }
+
+  public Level getLevel() {
+    return level;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public Object[] getArgumentArray() {
+    return argumentArray;
+  }
+
+  public String getFormattedMessage() {
+    if (formattedMessage != null) {
+      return formattedMessage;
+    }
+    if (argumentArray != null) {
+      formattedMessage = MessageFormatter.arrayFormat(message, argumentArray).getMessage();
+    } else {
+      formattedMessage = message;
+    }
+    return formattedMessage;
+  }
+
+  public String getLoggerName() {
+    return loggerName;
+  }
+
+  public LoggerContextVO getLoggerContextVO() {
+    return loggerContextVO;
+  }
+
+  public IThrowableProxy getThrowableProxy() {
+    return throwableProxy;
+  }
+
+  public StackTraceElement[] getCallerData() {
+    return callerDataArray;
+  }
+
+  public boolean hasCallerData() {
+    return callerDataArray != null;
+  }
+
+  public Marker getMarker() {
+    return marker;
+  }
+
+  public Map<String, String> getMDCPropertyMap() {
+    return mdcPropertyMap;
+  }
+
+  public Map<String, String> getMdc() {
+    return mdcPropertyMap;
+  }
+
+  public long getTimeStamp() {
+    return timeStamp;
+  }
+
+  public void prepareForDeferredProcessing() {
+  }
+
+  @Override
+  public String toString() {
+    return '[' + String.valueOf(level) + "] " + getFormattedMessage();
+  }
+}
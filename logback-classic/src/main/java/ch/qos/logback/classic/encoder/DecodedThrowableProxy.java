@@ -0,0 +1,56 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+
+/**
+ * A read-only {@link IThrowableProxy} restituted by {@link BinaryEventReader}.
+ */
+class DecodedThrowableProxy implements IThrowableProxy {
+
+  static final IThrowableProxy[] NO_SUPPRESSED = new IThrowableProxy[0];
+
+  String className;
+  String message;
+  int commonFrames;
+  StackTraceElementProxy[] stackTraceElementProxyArray;
+  IThrowableProxy cause;
+  IThrowableProxy[] suppressed = NO_SUPPRESSED;
+
+  public String getMessage() {
+    return message;
+  }
+
+  public String getClassName() {
+    return className;
+  }
+
+  public StackTraceElementProxy[] getStackTraceElementProxyArray() {
+    return stackTraceElementProxyArray;
+  }
+
+  public int getCommonFrames() {
+    return commonFrames;
+  }
+
+  public IThrowableProxy getCause() {
+    return cause;
+  }
+
+  public IThrowableProxy[] getSuppressed() {
+    return suppressed;
+  }
+}
@@ -0,0 +1,233 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.joran;
+
+import static ch.qos.logback.core.CoreConstants.MILLIS_IN_ONE_SECOND;
+
+import java.io.File;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.gaffer.GafferUtil;
+import ch.qos.logback.classic.util.EnvUtil;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.joran.GenericConfigurator;
+import ch.qos.logback.core.joran.event.SaxEvent;
+import ch.qos.logback.core.joran.spi.ConfigurationWatchList;
+import ch.qos.logback.core.joran.spi.JoranException;
+import ch.qos.logback.core.joran.util.ConfigurationWatchListUtil;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.spi.LifeCycle;
+import ch.qos.logback.core.status.StatusUtil;
+import ch.qos.logback.core.util.ExecutorServiceUtil;
+
+/**
+ * Reconfigure a LoggerContext when the configuration file changes.
+ * <p/>
+ * Unlike the {@link ch.qos.logback.classic.turbo.ReconfigureOnChangeFilter},
+ * which checks for changes every so many logging requests, this task runs
+ * periodically on the context's scheduled executor, or on an executor of its
+ * own if the context is not a {@link ContextBase}. Logging requests are
+ * never delayed by scanning, and reconfiguration runs on the context's
+ * executor. The task is stopped when the context is reset.
+ * <p/>
+ * When <b>UseWatchService</b> is set, the directories of the configuration
+ * files are registered with a <code>java.nio.file.WatchService</code>, so
+ * that each scan costs a single poll of the watch service instead of
+ * checking the modification time of every file.
+ *
+ * @since 1.1.4
+ */
+public class ReconfigureOnChangeTask extends ContextAwareBase implements Runnable, LifeCycle {
+
+  /**
+   * Scan for changes in configuration file once every minute.
+   */
+  // 1 minute - value mentioned in documentation
+  public final static long DEFAULT_REFRESH_PERIOD = 60 * MILLIS_IN_ONE_SECOND;
+
+  long refreshPeriod = DEFAULT_REFRESH_PERIOD;
+  boolean useWatchService;
+  URL mainConfigurationURL;
+  ConfigurationWatchList configurationWatchList;
+
+  private ScheduledFuture<?> scheduledFuture;
+  // created if the context has no scheduled executor
+  private ScheduledExecutorService ownScheduledExecutor;
+  private volatile boolean started;
+
+  public synchronized void start() {
+    configurationWatchList = ConfigurationWatchListUtil.getConfigurationWatchList(context);
+    if (configurationWatchList == null) {
+      addWarn("Empty ConfigurationWatchList in context");
+      return;
+    }
+    mainConfigurationURL = configurationWatchList.getMainURL();
+    if (mainConfigurationURL == null) {
+      addWarn("Due to missing top level configuration file, automatic reconfiguration is impossible.");
+      return;
+    }
+    List<File> watchList = configurationWatchList.getCopyOfFileWatchList();
+    long inSeconds = refreshPeriod / 1000;
+    addInfo("Will scan for changes in [" + watchList + "] every "
+            + inSeconds + " seconds. ");
+    if (useWatchService && configurationWatchList.startWatching()) {
+      addInfo("Watching the directories of [" + watchList + "] for changes");
+    }
+    started = true;
+    long period = Math.max(1, refreshPeriod);
+    ScheduledExecutorService scheduledExecutor;
+    if (context instanceof ContextBase) {
+      scheduledExecutor = ((ContextBase) context).getScheduledExecutorService();
+    } else {
+      ownScheduledExecutor = ExecutorServiceUtil.newScheduledExecutorService();
+      scheduledExecutor = ownScheduledExecutor;
+    }
+    scheduledFuture = scheduledExecutor.scheduleAtFixedRate(this,
+            period, period, TimeUnit.MILLISECONDS);
+  }
+
+  public synchronized void stop() {
+    started = false;
+    if (scheduledFuture != null) {
+      scheduledFuture.cancel(false);
+      scheduledFuture = null;
+    }
+    if (ownScheduledExecutor != null) {
+      // may be called from the executor's own thread, let it complete
+      ownScheduledExecutor.shutdown();
+      ownScheduledExecutor = null;
+    }
+    if (useWatchService && configurationWatchList != null) {
+      configurationWatchList.stopWatching();
+    }
+  }
+
+  public boolean isStarted() {
+    return started;
+  }
+
+  public void run() {
+    if (!started) {
+      return;
+    }
+    boolean changeDetected;
+    synchronized (configurationWatchList) {
+      changeDetected = configurationWatchList.changeDetected();
+    }
+    if (changeDetected) {
+      // reconfiguration resets the context which stops this task, stop it
+      // right away so that the change is not detected twice
+      stop();
+      addInfo("Detected change in [" + configurationWatchList.getCopyOfFileWatchList() + "]");
+      context.getExecutorService().submit(new Runnable() {
+        public void run() {
+          reconfigure();
+        }
+      });
+    }
+  }
+
+  /**
+   * Reconfigure the context from its main configuration URL, falling back to
+   * the previous configuration if the new one is erroneous.
+   */
+  public void reconfigure() {
+    if (mainConfigurationURL == null) {
+      addInfo("Due to missing top level configuration file, skipping reconfiguration");
+      return;
+    }
+    LoggerContext lc = (LoggerContext) context;
+    addInfo(CoreConstants.RESET_MSG_PREFIX + "named [" + context.getName() + "]");
+    if (mainConfigurationURL.toString().endsWith("xml")) {
+      performXMLConfiguration(lc);
+    } else if (mainConfigurationURL.toString().endsWith("groovy")) {
+      if (EnvUtil.isGroovyAvailable()) {
+        lc.reset();
+        // avoid directly referring to GafferConfigurator so as to avoid
+        // loading  groovy.lang.GroovyObject . See also http://jira.qos.ch/browse/LBCLASSIC-214
+        GafferUtil.runGafferConfiguratorOn(lc, this, mainConfigurationURL);
+      } else {
+        addError("Groovy classes are not available on the class path. ABORTING INITIALIZATION.");
+      }
+    }
+  }
+
+  private void performXMLConfiguration(LoggerContext lc) {
+    JoranConfigurator jc = new JoranConfigurator();
+    jc.setContext(context);
+    StatusUtil statusUtil = new StatusUtil(context);
+    List<SaxEvent> eventList = jc.recallSafeConfiguration();
+    URL mainURL = ConfigurationWatchListUtil.getMainWatchURL(context);
+    lc.reset();
+    long threshold = System.currentTimeMillis();
+    try {
+      jc.doConfigure(mainConfigurationURL);
+      if (statusUtil.hasXMLParsingErrors(threshold)) {
+        fallbackConfiguration(lc, eventList, mainURL);
+      }
+    } catch (JoranException e) {
+      fallbackConfiguration(lc, eventList, mainURL);
+    }
+  }
+
+  private void fallbackConfiguration(LoggerContext lc, List<SaxEvent> eventList, URL mainURL) {
+    JoranConfigurator joranConfigurator = new JoranConfigurator();
+    joranConfigurator.setContext(context);
+    if (eventList != null) {
+      addWarn("Falling back to previously registered safe configuration.");
+      try {
+        lc.reset();
+        GenericConfigurator.informContextOfURLUsedForConfiguration(context, mainURL);
+        joranConfigurator.doConfigure(eventList);
+        addInfo("Re-registering previous fallback configuration once more as a fallback configuration point");
+        joranConfigurator.registerSafeConfiguration();
+      } catch (JoranException e) {
+        addError("Unexpected exception thrown by a configuration considered safe.", e);
+      }
+    } else {
+      addWarn("No previous configuration to fall back on.");
+    }
+  }
+
+  public long getRefreshPeriod() {
+    return refreshPeriod;
+  }
+
+  public void setRefreshPeriod(long refreshPeriod) {
+    this.refreshPeriod = refreshPeriod;
+  }
+
+  public boolean isUseWatchService() {
+    return useWatchService;
+  }
+
+  /**
+   * Detect changes with a <code>java.nio.file.WatchService</code>, when
+   * available, instead of polling the modification time of files.
+   */
+  public void setUseWatchService(boolean useWatchService) {
+    this.useWatchService = useWatchService;
+  }
+
+  @Override
+  public String toString() {
+    return "ReconfigureOnChangeTask{refreshPeriod=" + refreshPeriod + '}';
+  }
+}
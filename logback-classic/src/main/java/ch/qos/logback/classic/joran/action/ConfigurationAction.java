@@ -17,8 +17,9 @@ import ch.qos.logback.classic.util.EnvUtil;
 import ch.qos.logback.core.status.OnConsoleStatusListener;
 import org.xml.sax.Attributes;
 
+import ch.qos.logback.classic.ClassicConstants;
 import ch.qos.logback.classic.LoggerContext;
-import ch.qos.logback.classic.turbo.ReconfigureOnChangeFilter;
+import ch.qos.logback.classic.joran.ReconfigureOnChangeTask;
 import ch.qos.logback.core.joran.action.Action;
 import ch.qos.logback.core.joran.spi.InterpretationContext;
 import ch.qos.logback.core.util.ContextUtil;
@@ -30,6 +31,7 @@ public class ConfigurationAction extends Action {
   static final String PACKAGING_INFO_ATTR = "packageTrace";
   static final String SCAN_ATTR = "scan";
   static final String SCAN_PERIOD_ATTR = "scanPeriod";
+  static final String SCAN_WATCH_SERVICE_ATTR = "scanWithWatchService";
   static final String DEBUG_SYSTEM_PROPERTY_KEY = "logback.debug";
 
   long threshold = 0;
@@ -88,23 +90,26 @@ public class ConfigurationAction extends Action {
     String scanAttrib = ic.subst(attributes.getValue(SCAN_ATTR));
     if (!OptionHelper.isEmpty(scanAttrib)
             && !"false".equalsIgnoreCase(scanAttrib)) {
-      ReconfigureOnChangeFilter rocf = new ReconfigureOnChangeFilter();
-      rocf.setContext(context);
+      ReconfigureOnChangeTask rocTask = new ReconfigureOnChangeTask();
+      rocTask.setContext(context);
       String scanPeriodAttrib = ic.subst(attributes.getValue(SCAN_PERIOD_ATTR));
       if (!OptionHelper.isEmpty(scanPeriodAttrib)) {
         try {
           Duration duration = Duration.valueOf(scanPeriodAttrib);
-          rocf.setRefreshPeriod(duration.getMilliseconds());
-          addInfo("Setting ReconfigureOnChangeFilter scanning period to "
+          rocTask.setRefreshPeriod(duration.getMilliseconds());
+          addInfo("Setting ReconfigureOnChangeTask scanning period to "
                   + duration);
         } catch (NumberFormatException nfe) {
           addError("Error while converting [" + scanAttrib + "] to long", nfe);
         }
       }
-      rocf.start();
-      LoggerContext lc = (LoggerContext) context;
-      addInfo("Adding ReconfigureOnChangeFilter as a turbo filter");
-      lc.addTurboFilter(rocf);
+      String watchServiceAttrib = ic.subst(attributes.getValue(SCAN_WATCH_SERVICE_ATTR));
+      rocTask.setUseWatchService(OptionHelper.toBoolean(watchServiceAttrib, false));
+      rocTask.start();
+      addInfo("Registering ReconfigureOnChangeTask with the context");
+      // stopped when the context is reset
+      context.register(rocTask);
+      context.putObject(ClassicConstants.RECONFIGURE_ON_CHANGE_TASK, rocTask);
     }
   }
 
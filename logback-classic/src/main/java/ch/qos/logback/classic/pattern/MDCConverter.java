@@ -14,6 +14,7 @@
 package ch.qos.logback.classic.pattern;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.MDCSnapshot;
 
 import java.util.Map;
 
@@ -65,17 +66,10 @@ public class MDCConverter extends ClassicConverter {
    * if no key is specified, return all the values present in the MDC, in the format "k1=v1, k2=v2, ..."
    */
   private String outputMDCForAllKeys(Map<String, String> mdcPropertyMap) {
-    StringBuilder buf = new StringBuilder();
-    boolean first = true;
-    for (Map.Entry<String, String> entry : mdcPropertyMap.entrySet()) {
-      if (first) {
-        first = false;
-      } else {
-        buf.append(", ");
-      }
-      //format: key0=value0, key1=value1
-      buf.append(entry.getKey()).append('=').append(entry.getValue());
+    if (mdcPropertyMap instanceof MDCSnapshot) {
+      // the rendering of an unchanged MDC is shared by successive events
+      return ((MDCSnapshot) mdcPropertyMap).toKeyValueString();
     }
-    return buf.toString();
+    return MDCSnapshot.toKeyValueString(mdcPropertyMap);
   }
 }
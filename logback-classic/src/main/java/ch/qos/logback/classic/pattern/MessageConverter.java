@@ -14,15 +14,34 @@
 package ch.qos.logback.classic.pattern;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.pattern.FormatInfo;
 
 /**
  * Return the event's formatted message.
  * 
+ * <p>If the message is truncated from the end, e.g. <code>%.-2000msg</code>,
+ * the message is formatted only up to the maximum length.
+ *
  * @author Ceki G&uuml;lc&uuml;
  */
 public class MessageConverter extends ClassicConverter {
 
+  int maxLength = Integer.MAX_VALUE;
+
+  @Override
+  public void start() {
+    FormatInfo formatInfo = getFormattingInfo();
+    if (formatInfo != null && !formatInfo.isLeftTruncate()) {
+      maxLength = formatInfo.getMax();
+    }
+    super.start();
+  }
+
   public String convert(ILoggingEvent event) {
+    if (maxLength != Integer.MAX_VALUE && event instanceof LoggingEvent) {
+      return ((LoggingEvent) event).getFormattedMessage(maxLength);
+    }
     return event.getFormattedMessage();
   }
 
@@ -0,0 +1,111 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.pattern;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+
+/**
+ * A bounded LRU cache of rendered stack frames, shared by the
+ * {@link ThrowableProxyConverter} instances of a context.
+ *
+ * <p>Entries are keyed by the rendering options of the converter, the
+ * indentation level and the fingerprint of the throwable, i.e. its stack
+ * trace elements, their packaging data and the number of frames in common
+ * with the enclosing throwable. Exception messages are not part of the
+ * cached text and are rendered for each event.
+ *
+ * <p>Clients of this class should only use the {@link #getRendering} and
+ * {@link #putRendering} methods. Other methods inherited via LinkedHashMap are not
+ * thread safe.
+ *
+ * @since 1.1.4
+ */
+class StackTraceRenderingCache extends LinkedHashMap<StackTraceRenderingCache.Key, String> {
+
+  private static final long serialVersionUID = 1L;
+
+  static final int DEFAULT_CACHE_SIZE = 128;
+
+  final int cacheSize;
+
+  StackTraceRenderingCache(int cacheSize) {
+    super((int) (cacheSize * (4.0f / 3)), 0.75f, true);
+    if (cacheSize < 1) {
+      throw new IllegalArgumentException("Cache size cannot be smaller than 1");
+    }
+    this.cacheSize = cacheSize;
+  }
+
+  synchronized String getRendering(Key key) {
+    return super.get(key);
+  }
+
+  synchronized void putRendering(Key key, String rendering) {
+    super.put(key, rendering);
+  }
+
+  // called indirectly by getRendering() or putRendering() which are already
+  // synchronized
+  protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+    return (size() > cacheSize);
+  }
+
+  @Override
+  synchronized public void clear() {
+    super.clear();
+  }
+
+  static class Key {
+    final String renderingSignature;
+    final int indent;
+    final int commonFrames;
+    final StackTraceElementProxy[] stepArray;
+    final int hashCode;
+
+    Key(String renderingSignature, int indent, IThrowableProxy tp) {
+      this.renderingSignature = renderingSignature;
+      this.indent = indent;
+      this.commonFrames = tp.getCommonFrames();
+      this.stepArray = tp.getStackTraceElementProxyArray();
+      int h = renderingSignature.hashCode();
+      h = 31 * h + indent;
+      h = 31 * h + commonFrames;
+      h = 31 * h + Arrays.hashCode(stepArray);
+      this.hashCode = h;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (!(obj instanceof Key))
+        return false;
+      Key other = (Key) obj;
+      return hashCode == other.hashCode && indent == other.indent
+          && commonFrames == other.commonFrames
+          && renderingSignature.equals(other.renderingSignature)
+          && Arrays.equals(stepArray, other.stepArray);
+    }
+  }
+}
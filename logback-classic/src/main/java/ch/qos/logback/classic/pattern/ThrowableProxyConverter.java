@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import ch.qos.logback.classic.ClassicConstants;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.IThrowableProxy;
 import ch.qos.logback.classic.spi.StackTraceElementProxy;
@@ -42,6 +43,10 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
 
   int errorCount = 0;
 
+  StackTraceRenderingCache renderingCache;
+  // identifies the options affecting the rendering of stack frames
+  String renderingSignature;
+
   @SuppressWarnings("unchecked")
   public void start() {
 
@@ -82,9 +87,31 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
         }
       }
     }
+
+    renderingSignature = getClass().getName() + ':' + lengthOption + ':' + ignoredStackTraceLines;
+    renderingCache = findOrCreateRenderingCache();
     super.start();
   }
 
+  /**
+   * Stack traces are cached per context so that converters with identical
+   * options, e.g. in different appenders, share the rendered frames.
+   */
+  private StackTraceRenderingCache findOrCreateRenderingCache() {
+    Context context = getContext();
+    if (context == null) {
+      return new StackTraceRenderingCache(StackTraceRenderingCache.DEFAULT_CACHE_SIZE);
+    }
+    synchronized (context) {
+      StackTraceRenderingCache cache = (StackTraceRenderingCache) context.getObject(ClassicConstants.STACK_TRACE_RENDERING_CACHE);
+      if (cache == null) {
+        cache = new StackTraceRenderingCache(StackTraceRenderingCache.DEFAULT_CACHE_SIZE);
+        context.putObject(ClassicConstants.STACK_TRACE_RENDERING_CACHE, cache);
+      }
+      return cache;
+    }
+  }
+
   private void addEvaluator(EventEvaluator<ILoggingEvent> ee) {
     if (evaluatorList == null) {
       evaluatorList = new ArrayList<EventEvaluator<ILoggingEvent>>();
@@ -101,6 +128,7 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
 
   public void stop() {
     evaluatorList = null;
+    renderingCache = null;
     super.stop();
   }
 
@@ -185,7 +213,28 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
     buf.append(tp.getClassName()).append(": ").append(tp.getMessage());
   }
 
+  /**
+   * Append the stack frames of the given throwable proxy, reusing the text
+   * rendered for an identical stack trace if available.
+   */
   protected void subjoinSTEPArray(StringBuilder buf, int indent, IThrowableProxy tp) {
+    StackTraceRenderingCache cache = renderingCache;
+    if (cache == null || tp.getStackTraceElementProxyArray() == null) {
+      renderSTEPArray(buf, indent, tp);
+      return;
+    }
+    StackTraceRenderingCache.Key key = new StackTraceRenderingCache.Key(renderingSignature, indent, tp);
+    String rendering = cache.getRendering(key);
+    if (rendering != null) {
+      buf.append(rendering);
+    } else {
+      int start = buf.length();
+      renderSTEPArray(buf, indent, tp);
+      cache.putRendering(key, buf.substring(start));
+    }
+  }
+
+  private void renderSTEPArray(StringBuilder buf, int indent, IThrowableProxy tp) {
     StackTraceElementProxy[] stepArray = tp.getStackTraceElementProxyArray();
     int commonFrames = tp.getCommonFrames();
 
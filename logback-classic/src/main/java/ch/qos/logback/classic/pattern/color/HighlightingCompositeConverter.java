@@ -25,6 +25,28 @@ import ch.qos.logback.core.pattern.color.ForegroundCompositeConverterBase;
  */
 public class HighlightingCompositeConverter extends ForegroundCompositeConverterBase<ILoggingEvent> {
 
+  // escape sequences precomputed per level
+  private static final String ERROR_SEQUENCE = ESC_START + BOLD + RED_FG + ESC_END;
+  private static final String WARN_SEQUENCE = ESC_START + RED_FG + ESC_END;
+  private static final String INFO_SEQUENCE = ESC_START + BLUE_FG + ESC_END;
+  private static final String DEFAULT_SEQUENCE = ESC_START + DEFAULT_FG + ESC_END;
+
+  // derived classes may choose other colors by overriding getForegroundColorCode()
+  private final boolean defaultColors = (getClass() == HighlightingCompositeConverter.class);
+
+  @Override
+  protected String getEscapeSequence(ILoggingEvent event) {
+    if (!defaultColors) {
+      return super.getEscapeSequence(event);
+    }
+    switch (event.getLevel().toInt()) {
+      case Level.ERROR_INT: return ERROR_SEQUENCE;
+      case Level.WARN_INT: return WARN_SEQUENCE;
+      case Level.INFO_INT: return INFO_SEQUENCE;
+      default: return DEFAULT_SEQUENCE;
+    }
+  }
+
   @Override
   protected String getForegroundColorCode(ILoggingEvent event) {
     Level level = event.getLevel();
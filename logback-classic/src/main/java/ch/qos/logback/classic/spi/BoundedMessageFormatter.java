@@ -0,0 +1,247 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Formats messages according to the same rules as SLF4J's
+ * {@link org.slf4j.helpers.MessageFormatter}, but stops once the result
+ * reaches a maximum length. The returned string is equal to the first
+ * <code>maxLength</code> characters of the fully formatted message.
+ *
+ * <p>Neither the message pattern nor the string representation of an
+ * argument is copied beyond the maximum length, and once it is reached the
+ * remaining arguments are not even converted to strings. Note that a
+ * single argument's <code>toString()</code> method, once invoked, still
+ * produces its complete result.
+ *
+ * @since 1.1.4
+ */
+public class BoundedMessageFormatter {
+
+  static final char DELIM_START = '{';
+  static final String DELIM_STR = "{}";
+  private static final char ESCAPE_CHAR = '\\';
+
+  /**
+   * Thrown internally once the maximum length is reached, to unwind
+   * recursive array formatting.
+   */
+  private static class LimitReached extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+
+  private static final LimitReached LIMIT_REACHED = new LimitReached();
+
+  final private StringBuilder sbuf;
+  final private int maxLength;
+
+  private BoundedMessageFormatter(int maxLength) {
+    this.maxLength = maxLength;
+    this.sbuf = new StringBuilder(Math.min(maxLength, 256));
+  }
+
+  public static String arrayFormat(String messagePattern, Object[] argArray, int maxLength) {
+    if (messagePattern == null) {
+      return null;
+    }
+    if (maxLength < 0) {
+      throw new IllegalArgumentException("maxLength cannot be negative");
+    }
+    BoundedMessageFormatter formatter = new BoundedMessageFormatter(maxLength);
+    try {
+      formatter.format(messagePattern, argArray);
+    } catch (LimitReached e) {
+      // the formatted message has reached its maximum length
+    }
+    return formatter.sbuf.toString();
+  }
+
+  private void format(String messagePattern, Object[] argArray) {
+    if (argArray == null) {
+      append(messagePattern, 0, messagePattern.length());
+      return;
+    }
+
+    int i = 0;
+    int j;
+    for (int l = 0; l < argArray.length; l++) {
+      j = messagePattern.indexOf(DELIM_STR, i);
+
+      if (j == -1) {
+        // no more variables
+        break;
+      }
+      if (isEscapedDelimiter(messagePattern, j)) {
+        if (!isDoubleEscaped(messagePattern, j)) {
+          l--; // DELIM_START was escaped, thus should not be incremented
+          append(messagePattern, i, j - 1);
+          append(DELIM_START);
+          i = j + 1;
+        } else {
+          // The escape character preceding the delimiter start is
+          // itself escaped: "abc x:\\{}"
+          // we have to consume one backward slash
+          append(messagePattern, i, j - 1);
+          deeplyAppendParameter(argArray[l], new HashMap<Object[], Object>());
+          i = j + 2;
+        }
+      } else {
+        // normal case
+        append(messagePattern, i, j);
+        deeplyAppendParameter(argArray[l], new HashMap<Object[], Object>());
+        i = j + 2;
+      }
+    }
+    // append the characters following the last {} pair.
+    append(messagePattern, i, messagePattern.length());
+  }
+
+  static boolean isEscapedDelimiter(String messagePattern, int delimiterStartIndex) {
+    if (delimiterStartIndex == 0) {
+      return false;
+    }
+    return messagePattern.charAt(delimiterStartIndex - 1) == ESCAPE_CHAR;
+  }
+
+  static boolean isDoubleEscaped(String messagePattern, int delimiterStartIndex) {
+    return delimiterStartIndex >= 2 && messagePattern.charAt(delimiterStartIndex - 2) == ESCAPE_CHAR;
+  }
+
+  private void append(String s, int start, int end) {
+    int remaining = maxLength - sbuf.length();
+    if (end - start > remaining) {
+      sbuf.append(s, start, start + remaining);
+      throw LIMIT_REACHED;
+    }
+    sbuf.append(s, start, end);
+  }
+
+  private void append(String s) {
+    append(s, 0, s.length());
+  }
+
+  private void append(char c) {
+    if (sbuf.length() >= maxLength) {
+      throw LIMIT_REACHED;
+    }
+    sbuf.append(c);
+  }
+
+  private void deeplyAppendParameter(Object o, Map<Object[], Object> seenMap) {
+    if (o == null) {
+      append("null");
+      return;
+    }
+    if (!o.getClass().isArray()) {
+      safeObjectAppend(o);
+    } else {
+      // check for primitive array types because they
+      // unfortunately cannot be cast to Object[]
+      append('[');
+      if (o instanceof boolean[]) {
+        boolean[] a = (boolean[]) o;
+        for (int i = 0; i < a.length; i++) {
+          appendSeparator(i);
+          append(String.valueOf(a[i]));
+        }
+      } else if (o instanceof byte[]) {
+        byte[] a = (byte[]) o;
+        for (int i = 0; i < a.length; i++) {
+          appendSeparator(i);
+          append(String.valueOf(a[i]));
+        }
+      } else if (o instanceof char[]) {
+        char[] a = (char[]) o;
+        for (int i = 0; i < a.length; i++) {
+          appendSeparator(i);
+          append(a[i]);
+        }
+      } else if (o instanceof short[]) {
+        short[] a = (short[]) o;
+        for (int i = 0; i < a.length; i++) {
+          appendSeparator(i);
+          append(String.valueOf(a[i]));
+        }
+      } else if (o instanceof int[]) {
+        int[] a = (int[]) o;
+        for (int i = 0; i < a.length; i++) {
+          appendSeparator(i);
+          append(String.valueOf(a[i]));
+        }
+      } else if (o instanceof long[]) {
+        long[] a = (long[]) o;
+        for (int i = 0; i < a.length; i++) {
+          appendSeparator(i);
+          append(String.valueOf(a[i]));
+        }
+      } else if (o instanceof float[]) {
+        float[] a = (float[]) o;
+        for (int i = 0; i < a.length; i++) {
+          appendSeparator(i);
+          append(String.valueOf(a[i]));
+        }
+      } else if (o instanceof double[]) {
+        double[] a = (double[]) o;
+        for (int i = 0; i < a.length; i++) {
+          appendSeparator(i);
+          append(String.valueOf(a[i]));
+        }
+      } else {
+        objectArrayAppend((Object[]) o, seenMap);
+        return;
+      }
+      append(']');
+    }
+  }
+
+  private void appendSeparator(int index) {
+    if (index != 0) {
+      append(", ");
+    }
+  }
+
+  private void safeObjectAppend(Object o) {
+    String oAsString;
+    try {
+      oAsString = o.toString();
+    } catch (Throwable t) {
+      oAsString = "[FAILED toString()]";
+    }
+    append(oAsString == null ? "null" : oAsString);
+  }
+
+  private void objectArrayAppend(Object[] a, Map<Object[], Object> seenMap) {
+    // the opening bracket has already been appended
+    if (!seenMap.containsKey(a)) {
+      seenMap.put(a, null);
+      for (int i = 0; i < a.length; i++) {
+        appendSeparator(i);
+        deeplyAppendParameter(a[i], seenMap);
+      }
+      // allow repeats in siblings
+      seenMap.remove(a);
+    } else {
+      append("...");
+    }
+    append(']');
+  }
+}
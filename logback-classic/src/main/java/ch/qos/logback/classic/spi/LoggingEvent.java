@@ -26,6 +26,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.classic.util.PersistentMDCAdapter;
 
 import org.slf4j.spi.MDCAdapter;
 
@@ -303,12 +304,29 @@ public class LoggingEvent implements ILoggingEvent {
     return formattedMessage;
   }
 
+  /**
+   * Return the formatted message, or at least its first
+   * <code>maxLength</code> characters. Unless the formatted message has
+   * already been computed, formatting stops once <code>maxLength</code>
+   * characters have been produced and the result is not retained.
+   *
+   * @since 1.1.4
+   */
+  public String getFormattedMessage(int maxLength) {
+    if (formattedMessage != null || argumentArray == null) {
+      return getFormattedMessage();
+    }
+    return BoundedMessageFormatter.arrayFormat(message, argumentArray, maxLength);
+  }
+
   public Map<String, String> getMDCPropertyMap() {
     // populate mdcPropertyMap if null
     if (mdcPropertyMap == null) {
       MDCAdapter mdc = MDC.getMDCAdapter();
       if (mdc instanceof LogbackMDCAdapter)
         mdcPropertyMap = ((LogbackMDCAdapter) mdc).getPropertyMap();
+      else if (mdc instanceof PersistentMDCAdapter)
+        mdcPropertyMap = ((PersistentMDCAdapter) mdc).getPropertyMap();
       else
         mdcPropertyMap = mdc.getCopyOfContextMap();
     }
@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.slf4j.Marker;
@@ -38,6 +39,7 @@ public class LoggingEventVO implements ILoggingEvent, Serializable {
 
   private static final int NULL_ARGUMENT_ARRAY = -1;
   private static final String NULL_ARGUMENT_ARRAY_ELEMENT = "NULL_ARGUMENT_ARRAY_ELEMENT";
+  private static final String MDC_PROPERTY_MAP_FIELD = "mdcPropertyMap";
 
   private String threadName;
   private String loggerName;
@@ -56,6 +58,7 @@ public class LoggingEventVO implements ILoggingEvent, Serializable {
   private ThrowableProxyVO throwableProxy;
   private StackTraceElement[] callerDataArray;
   private Marker marker;
+  // serialized as a HashMap, which receivers of any version can read
   private Map<String, String> mdcPropertyMap;
   private long timeStamp;
 
@@ -157,7 +160,18 @@ public class LoggingEventVO implements ILoggingEvent, Serializable {
   }
 
   private void writeObject(ObjectOutputStream out) throws IOException {
-    out.defaultWriteObject();
+    ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("threadName", threadName);
+    fields.put("loggerName", loggerName);
+    fields.put("loggerContextVO", loggerContextVO);
+    fields.put("message", message);
+    fields.put("throwableProxy", throwableProxy);
+    fields.put("callerDataArray", callerDataArray);
+    fields.put("marker", marker);
+    // the MDC may be held in a map class unknown to the receiver
+    fields.put(MDC_PROPERTY_MAP_FIELD, mdcPropertyMap == null ? null : new HashMap<String, String>(mdcPropertyMap));
+    fields.put("timeStamp", timeStamp);
+    out.writeFields();
     out.writeInt(level.levelInt);
     if (argumentArray != null) {
       int len = argumentArray.length;
@@ -41,11 +41,11 @@ public class DuplicateMessageFilter extends TurboFilter {
   public int allowedRepetitions = DEFAULT_ALLOWED_REPETITIONS;
   public int cacheSize = DEFAULT_CACHE_SIZE;
 
-  private LRUMessageCache msgCache;
+  private ShardedMessageCache msgCache;
 
   @Override
   public void start() {
-    msgCache = new LRUMessageCache(cacheSize);
+    msgCache = new ShardedMessageCache(cacheSize);
     super.start();
   }
 
@@ -15,6 +15,7 @@ package ch.qos.logback.classic.turbo;
 
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.util.MDCWatchedValues;
 import ch.qos.logback.core.spi.FilterReply;
 import org.slf4j.Marker;
 import org.slf4j.MDC;
@@ -132,6 +133,11 @@ public class DynamicThresholdFilter extends TurboFilter {
   private FilterReply onHigherOrEqual = FilterReply.NEUTRAL;
   private FilterReply onLower = FilterReply.DENY;
 
+  // when supported by the MDC adapter, the threshold is recomputed only when
+  // the value of the key changes in the MDC
+  private MDCWatchedValues watchedValues;
+  private MDCWatchedValues.Watch thresholdWatch;
+
   /**
    * Get the MDC key whose value will be used as a level threshold
    * 
@@ -159,6 +165,7 @@ public class DynamicThresholdFilter extends TurboFilter {
 
   public void setDefaultThreshold(Level defaultThreshold) {
     this.defaultThreshold = defaultThreshold;
+    resetWatch();
   }
 
   /**
@@ -198,6 +205,7 @@ public class DynamicThresholdFilter extends TurboFilter {
     } else {
       valueLevelMap.put(mdcValueLevelPair.getValue(), mdcValueLevelPair
           .getLevel());
+      resetWatch();
     }
   }
 
@@ -208,10 +216,49 @@ public class DynamicThresholdFilter extends TurboFilter {
   public void start() {
     if (this.key == null) {
       addError("No key name was specified");
+    } else {
+      watchedValues = MDCWatchedValues.getInstance();
+      if (watchedValues != null) {
+        thresholdWatch = new MDCWatchedValues.Watch(key) {
+          @Override
+          protected int compute(String mdcValue) {
+            return getThreshold(mdcValue).levelInt;
+          }
+        };
+        watchedValues.register(thresholdWatch);
+      }
     }
     super.start();
   }
 
+  @Override
+  public void stop() {
+    super.stop();
+    if (thresholdWatch != null) {
+      watchedValues.unregister(thresholdWatch);
+      thresholdWatch = null;
+    }
+  }
+
+  // invalidates values computed with the previous settings
+  private void resetWatch() {
+    if (thresholdWatch != null) {
+      watchedValues.unregister(thresholdWatch);
+      watchedValues.register(thresholdWatch);
+    }
+  }
+
+  private Level getThreshold(String mdcValue) {
+    Level levelAssociatedWithMDCValue = null;
+    if (mdcValue != null) {
+      levelAssociatedWithMDCValue = valueLevelMap.get(mdcValue);
+    }
+    if (levelAssociatedWithMDCValue == null) {
+      levelAssociatedWithMDCValue = defaultThreshold;
+    }
+    return levelAssociatedWithMDCValue;
+  }
+
   /**
    * This method first finds the MDC value for 'key'. It then finds the level
    * threshold associated with this MDC value from the list of MDCValueLevelPair
@@ -236,19 +283,18 @@ public class DynamicThresholdFilter extends TurboFilter {
   public FilterReply decide(Marker marker, Logger logger, Level level,
       String s, Object[] objects, Throwable throwable) {
 
-    String mdcValue = MDC.get(this.key);
     if (!isStarted()) {
       return FilterReply.NEUTRAL;
     }
 
-    Level levelAssociatedWithMDCValue = null;
-    if (mdcValue != null) {
-      levelAssociatedWithMDCValue = valueLevelMap.get(mdcValue);
-    }
-    if (levelAssociatedWithMDCValue == null) {
-      levelAssociatedWithMDCValue = defaultThreshold;
+    int thresholdInt;
+    MDCWatchedValues.Watch watch = thresholdWatch;
+    if (watch != null) {
+      thresholdInt = watchedValues.get(watch);
+    } else {
+      thresholdInt = getThreshold(MDC.get(this.key)).levelInt;
     }
-    if (level.isGreaterOrEqual(levelAssociatedWithMDCValue)) {
+    if (level.levelInt >= thresholdInt) {
       return onHigherOrEqual;
     } else {
       return onLower;
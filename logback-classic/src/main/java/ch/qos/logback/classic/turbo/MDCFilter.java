@@ -18,6 +18,7 @@ import org.slf4j.Marker;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.util.MDCWatchedValues;
 import ch.qos.logback.core.spi.FilterReply;
 
 /**
@@ -47,13 +48,49 @@ public class MDCFilter extends MatchingFilter {
 
   String MDCKey;
   String value;
-  
+
+  // when supported by the MDC adapter, whether the value matches is
+  // recomputed only when the value of the key changes in the MDC
+  private MDCWatchedValues watchedValues;
+  private MDCWatchedValues.Watch matchWatch;
+
+  @Override
+  public void start() {
+    if (MDCKey != null && value != null) {
+      watchedValues = MDCWatchedValues.getInstance();
+      if (watchedValues != null) {
+        matchWatch = new MDCWatchedValues.Watch(MDCKey) {
+          @Override
+          protected int compute(String mdcValue) {
+            return value.equals(mdcValue) ? 1 : 0;
+          }
+        };
+        watchedValues.register(matchWatch);
+      }
+    }
+    super.start();
+  }
+
+  @Override
+  public void stop() {
+    super.stop();
+    if (matchWatch != null) {
+      watchedValues.unregister(matchWatch);
+      matchWatch = null;
+    }
+  }
+
   @Override
   public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
     if (MDCKey == null) {
       return FilterReply.NEUTRAL;
     }
-    
+
+    MDCWatchedValues.Watch watch = matchWatch;
+    if (watch != null) {
+      return watchedValues.get(watch) == 1 ? onMatch : onMismatch;
+    }
+
     String value = MDC.get(MDCKey);
     if (this.value.equals(value)) {
       return onMatch;
@@ -18,6 +18,7 @@ import org.slf4j.MarkerFactory;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.util.LogbackMarker;
 import ch.qos.logback.core.spi.FilterReply;
 
 /**
@@ -27,6 +28,7 @@ import ch.qos.logback.core.spi.FilterReply;
 public class MarkerFilter extends MatchingFilter {
 
   Marker markerToMatch;
+  int markerToMatchId;
 
   @Override
   public void start() {
@@ -47,7 +49,7 @@ public class MarkerFilter extends MatchingFilter {
       return onMismatch;
     } 
     
-    if(marker.contains(markerToMatch)) {
+    if(LogbackMarker.contains(marker, markerToMatchId)) {
       return onMatch;
     } else {
       return onMismatch;
@@ -62,6 +64,7 @@ public class MarkerFilter extends MatchingFilter {
   public void setMarker(String markerStr) {
     if(markerStr != null) {
       this.markerToMatch = MarkerFactory.getMarker(markerStr);
+      this.markerToMatchId = LogbackMarker.getId(markerStr);
     }
   }
 }
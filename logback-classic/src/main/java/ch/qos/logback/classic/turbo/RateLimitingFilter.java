@@ -0,0 +1,412 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
+
+/**
+ * Caps the rate of logging requests instead of dropping them entirely.
+ *
+ * <p>
+ * Requests are grouped according to the <b>KeyType</b> option, by logger
+ * name (the default), by marker name or by the value of the MDC key given by
+ * the <b>MDCKey</b> option. Each group has a token bucket which lets through
+ * <b>EventsPerSecond</b> requests per second on average and bursts of up to
+ * <b>Burst</b> requests. When <b>PerLevel</b> is set, each level of a group
+ * has its own bucket. Requests exceeding the rate are denied, other requests
+ * are left to the remaining filters. At most <b>MaxKeys</b> groups are
+ * tracked, additional groups share a single bucket.
+ *
+ * <p>
+ * Requests at or below <b>SamplingLevel</b> (DEBUG by default) can
+ * additionally be sampled: only the <b>SamplingRate</b> fraction of them,
+ * chosen at random, is let through.
+ *
+ * <p>
+ * Every <b>SummaryInterval</b> (one minute by default) in which requests were
+ * suppressed, the number of suppressed requests per group is logged at WARN
+ * level by the logger named after this class.
+ *
+ * <p>
+ * Requests disabled by the level of their logger, as well as calls to
+ * <code>isXxxEnabled()</code>, are left alone and use up no tokens.
+ *
+ * <p>
+ * Buckets are updated with compare-and-set operations and, once a group has
+ * been seen, deciding on a request does not allocate memory.
+ *
+ * @since 1.1.4
+ */
+public class RateLimitingFilter extends TurboFilter {
+
+  public enum KeyType {
+    LOGGER, MARKER, MDC
+  }
+
+  public static final int DEFAULT_MAX_KEYS = 1000;
+  public static final long DEFAULT_SUMMARY_INTERVAL = 60 * 1000;
+
+  static final String OTHER_KEYS = "[other]";
+  static final String NO_KEY = "";
+
+  // indexes in buckets, as returned by levelIndex
+  private static final int LEVEL_COUNT = 5;
+
+  KeyType keyType = KeyType.LOGGER;
+  String MDCKey;
+  int eventsPerSecond;
+  int burst;
+  boolean perLevel;
+  int maxKeys = DEFAULT_MAX_KEYS;
+  Level samplingLevel = Level.DEBUG;
+  double samplingRate = 1.0;
+  Duration summaryInterval = new Duration(DEFAULT_SUMMARY_INTERVAL);
+
+  private ConcurrentMap<String, Bucket> buckets;
+  private Bucket otherKeysBucket;
+  private long emissionInterval;
+  private long burstTolerance;
+  private int samplingThreshold;
+  private final AtomicLong sampledOut = new AtomicLong();
+  private final AtomicLong nextSummaryTime = new AtomicLong();
+  private Logger summaryLogger;
+
+  private final ThreadLocal<int[]> randomThreadLocal = new ThreadLocal<int[]>() {
+    @Override
+    protected int[] initialValue() {
+      int seed = (int) (System.nanoTime() ^ Thread.currentThread().getId() * 0x9E3779B97F4A7C15L);
+      return new int[] { seed == 0 ? 1 : seed };
+    }
+  };
+
+  @Override
+  public void start() {
+    int errors = 0;
+    if (keyType == KeyType.MDC && MDCKey == null) {
+      addError("The MDCKey option must be set when KeyType is MDC");
+      errors++;
+    }
+    if (eventsPerSecond < 0) {
+      addError("EventsPerSecond cannot be negative");
+      errors++;
+    }
+    if (samplingRate < 0 || samplingRate > 1) {
+      addError("SamplingRate must be between 0 and 1");
+      errors++;
+    }
+    if (maxKeys < 1) {
+      addError("MaxKeys must be at least 1");
+      errors++;
+    }
+    if (errors != 0) {
+      return;
+    }
+    if (eventsPerSecond > 0) {
+      emissionInterval = Math.max(1, TimeUnit.SECONDS.toNanos(1) / eventsPerSecond);
+      int effectiveBurst = burst > 0 ? burst : eventsPerSecond;
+      burstTolerance = emissionInterval * (effectiveBurst - 1);
+    }
+    samplingThreshold = (int) (samplingRate * Integer.MAX_VALUE);
+    long now = nanoTime();
+    buckets = new ConcurrentHashMap<String, Bucket>();
+    otherKeysBucket = new Bucket(OTHER_KEYS, now);
+    sampledOut.set(0);
+    nextSummaryTime.set(now + TimeUnit.MILLISECONDS.toNanos(summaryInterval.getMilliseconds()));
+    if (context instanceof LoggerContext) {
+      summaryLogger = ((LoggerContext) context).getLogger(RateLimitingFilter.class);
+    }
+    super.start();
+  }
+
+  @Override
+  public void stop() {
+    if (!isStarted()) {
+      return;
+    }
+    super.stop();
+    emitSummary();
+    buckets = null;
+  }
+
+  @Override
+  public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+    if (!isStarted() || logger == summaryLogger) {
+      return FilterReply.NEUTRAL;
+    }
+    // requests below the level of the logger are dropped anyway, they must
+    // not use up tokens
+    if (logger != null && level.levelInt < logger.getEffectiveLevel().levelInt) {
+      return FilterReply.NEUTRAL;
+    }
+    // isXxxEnabled() calls are followed by the request itself, which is
+    // charged instead
+    if (format == null && params == null && t == null) {
+      return FilterReply.NEUTRAL;
+    }
+
+    if (samplingThreshold != Integer.MAX_VALUE && level.levelInt <= samplingLevel.levelInt
+        && (nextRandom() & Integer.MAX_VALUE) >= samplingThreshold) {
+      sampledOut.incrementAndGet();
+      return suppressed(nanoTime());
+    }
+
+    if (emissionInterval == 0) {
+      return FilterReply.NEUTRAL;
+    }
+
+    long now = nanoTime();
+    Bucket bucket = getBucket(keyOf(marker, logger), now);
+    if (bucket.tryAcquire(perLevel ? levelIndex(level) : 0, now, emissionInterval, burstTolerance)) {
+      return FilterReply.NEUTRAL;
+    }
+    bucket.suppressed.incrementAndGet();
+    return suppressed(now);
+  }
+
+  private FilterReply suppressed(long now) {
+    long next = nextSummaryTime.get();
+    if (now - next >= 0 && nextSummaryTime.compareAndSet(next, now + TimeUnit.MILLISECONDS.toNanos(summaryInterval.getMilliseconds()))) {
+      emitSummary();
+    }
+    return FilterReply.DENY;
+  }
+
+  private String keyOf(Marker marker, Logger logger) {
+    String key;
+    switch (keyType) {
+    case MARKER:
+      key = marker == null ? null : marker.getName();
+      break;
+    case MDC:
+      key = MDC.get(MDCKey);
+      break;
+    default:
+      key = logger == null ? null : logger.getName();
+    }
+    return key == null ? NO_KEY : key;
+  }
+
+  private Bucket getBucket(String key, long now) {
+    Bucket bucket = buckets.get(key);
+    if (bucket != null) {
+      return bucket;
+    }
+    // the size is approximate, a few more keys may be added concurrently
+    if (buckets.size() >= maxKeys) {
+      return otherKeysBucket;
+    }
+    bucket = new Bucket(key, now);
+    Bucket existing = buckets.putIfAbsent(key, bucket);
+    return existing == null ? bucket : existing;
+  }
+
+  static int levelIndex(Level level) {
+    switch (level.levelInt) {
+    case Level.ERROR_INT:
+      return 4;
+    case Level.WARN_INT:
+      return 3;
+    case Level.INFO_INT:
+      return 2;
+    case Level.DEBUG_INT:
+      return 1;
+    default:
+      return 0;
+    }
+  }
+
+  private int nextRandom() {
+    // xorshift, per thread to avoid contention
+    int[] state = randomThreadLocal.get();
+    int x = state[0];
+    x ^= x << 13;
+    x ^= x >>> 17;
+    x ^= x << 5;
+    state[0] = x;
+    return x;
+  }
+
+  long nanoTime() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Logs the number of requests suppressed since the previous summary, if
+   * any.
+   */
+  void emitSummary() {
+    Map<String, Bucket> currentBuckets = buckets;
+    if (currentBuckets == null) {
+      return;
+    }
+    StringBuilder sb = new StringBuilder();
+    long total = 0;
+    for (Bucket bucket : currentBuckets.values()) {
+      total += appendSuppressed(sb, bucket.key, bucket.suppressed.getAndSet(0));
+    }
+    total += appendSuppressed(sb, OTHER_KEYS, otherKeysBucket.suppressed.getAndSet(0));
+    total += appendSuppressed(sb, "[sampled]", sampledOut.getAndSet(0));
+    if (total == 0) {
+      return;
+    }
+    String msg = "Suppressed " + total + " logging requests: " + sb;
+    if (summaryLogger != null) {
+      summaryLogger.warn(msg);
+    } else {
+      addWarn(msg);
+    }
+  }
+
+  private static long appendSuppressed(StringBuilder sb, String key, long count) {
+    if (count != 0) {
+      if (sb.length() != 0) {
+        sb.append(", ");
+      }
+      sb.append(key).append('=').append(count);
+    }
+    return count;
+  }
+
+  static final class Bucket {
+    final String key;
+    // theoretical arrival times of the next request, per level index
+    final AtomicLongArray tats = new AtomicLongArray(LEVEL_COUNT);
+    final AtomicLong suppressed = new AtomicLong();
+
+    Bucket(String key, long now) {
+      this.key = key;
+      for (int i = 0; i < LEVEL_COUNT; i++) {
+        tats.set(i, now);
+      }
+    }
+
+    /**
+     * The token bucket expressed as the generic cell rate algorithm: a single
+     * timestamp per bucket, advanced by one emission interval per request.
+     */
+    boolean tryAcquire(int index, long now, long emissionInterval, long burstTolerance) {
+      for (;;) {
+        long tat = tats.get(index);
+        long base = tat - now > 0 ? tat : now;
+        if (base - now > burstTolerance) {
+          return false;
+        }
+        if (tats.compareAndSet(index, tat, base + emissionInterval)) {
+          return true;
+        }
+      }
+    }
+  }
+
+  public KeyType getKeyType() {
+    return keyType;
+  }
+
+  /**
+   * How requests are grouped: LOGGER, MARKER or MDC.
+   */
+  public void setKeyType(KeyType keyType) {
+    this.keyType = keyType;
+  }
+
+  public String getMDCKey() {
+    return MDCKey;
+  }
+
+  public void setMDCKey(String MDCKey) {
+    this.MDCKey = MDCKey;
+  }
+
+  public int getEventsPerSecond() {
+    return eventsPerSecond;
+  }
+
+  /**
+   * The average number of requests let through per second and group. Zero,
+   * the default, disables rate limiting.
+   */
+  public void setEventsPerSecond(int eventsPerSecond) {
+    this.eventsPerSecond = eventsPerSecond;
+  }
+
+  public int getBurst() {
+    return burst;
+  }
+
+  /**
+   * The number of requests which can be let through at once. Defaults to
+   * EventsPerSecond.
+   */
+  public void setBurst(int burst) {
+    this.burst = burst;
+  }
+
+  public boolean isPerLevel() {
+    return perLevel;
+  }
+
+  public void setPerLevel(boolean perLevel) {
+    this.perLevel = perLevel;
+  }
+
+  public int getMaxKeys() {
+    return maxKeys;
+  }
+
+  public void setMaxKeys(int maxKeys) {
+    this.maxKeys = maxKeys;
+  }
+
+  public Level getSamplingLevel() {
+    return samplingLevel;
+  }
+
+  public void setSamplingLevel(Level samplingLevel) {
+    this.samplingLevel = samplingLevel;
+  }
+
+  public double getSamplingRate() {
+    return samplingRate;
+  }
+
+  /**
+   * The fraction, between 0 and 1, of requests at or below SamplingLevel
+   * which is let through. Defaults to 1.
+   */
+  public void setSamplingRate(double samplingRate) {
+    this.samplingRate = samplingRate;
+  }
+
+  public Duration getSummaryInterval() {
+    return summaryInterval;
+  }
+
+  public void setSummaryInterval(Duration summaryInterval) {
+    this.summaryInterval = summaryInterval;
+  }
+}
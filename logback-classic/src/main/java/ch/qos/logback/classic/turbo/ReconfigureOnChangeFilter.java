@@ -39,7 +39,11 @@ import static ch.qos.logback.core.CoreConstants.MILLIS_IN_ONE_SECOND;
  * Reconfigure a LoggerContext when the configuration file changes.
  *
  * @author Ceki Gulcu
+ * @deprecated The <code>scan</code> attribute of the configuration element now
+ * installs a {@link ch.qos.logback.classic.joran.ReconfigureOnChangeTask}
+ * which scans for changes outside of the logging threads.
  */
+@Deprecated
 public class ReconfigureOnChangeFilter extends TurboFilter {
 
   /**
@@ -0,0 +1,142 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A message counting cache for {@link DuplicateMessageFilter} which, unlike
+ * {@link LRUMessageCache}, does not serialize callers on a single monitor.
+ *
+ * <p>Messages are distributed over shards according to their hash code. Each
+ * shard holds at most its share of the cache size in a
+ * {@link ConcurrentHashMap}, with an atomic counter per message. Counting an
+ * already cached message is lock-free. Inserting a new message locks its
+ * shard only and, once the shard is full, evicts a message chosen by the
+ * CLOCK algorithm, an approximation of LRU which does not need to reorder
+ * entries on every access.
+ *
+ * @since 1.1.4
+ */
+class ShardedMessageCache {
+
+  static final int MAX_SHARDS = 64;
+  static final int MIN_SHARD_CAPACITY = 32;
+
+  final Shard[] shards;
+  final int mask;
+
+  ShardedMessageCache(int cacheSize) {
+    if (cacheSize < 1) {
+      throw new IllegalArgumentException("Cache size cannot be smaller than 1");
+    }
+    int shardCount = 1;
+    while (shardCount < MAX_SHARDS && cacheSize / (shardCount * 2) >= MIN_SHARD_CAPACITY) {
+      shardCount *= 2;
+    }
+    int shardCapacity = (cacheSize + shardCount - 1) / shardCount;
+    shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard(shardCapacity);
+    }
+    mask = shardCount - 1;
+  }
+
+  int getMessageCountAndThenIncrement(String msg) {
+    // don't insert null elements
+    if (msg == null) {
+      return 0;
+    }
+    int h = msg.hashCode();
+    // spread the high bits, string hash codes vary little in the low ones
+    h ^= (h >>> 16);
+    return shards[h & mask].getMessageCountAndThenIncrement(msg);
+  }
+
+  void clear() {
+    for (Shard shard : shards) {
+      shard.clear();
+    }
+  }
+
+  static final class Counter extends AtomicInteger {
+    private static final long serialVersionUID = 1L;
+
+    final String msg;
+    // the CLOCK reference bit
+    volatile boolean referenced;
+
+    Counter(String msg) {
+      this.msg = msg;
+    }
+  }
+
+  static final class Shard {
+    final ConcurrentHashMap<String, Counter> map;
+    // the CLOCK ring, guarded by this shard's monitor
+    final Counter[] ring;
+    int filled;
+    int hand;
+
+    Shard(int capacity) {
+      this.map = new ConcurrentHashMap<String, Counter>((int) (capacity * (4.0f / 3)) + 1);
+      this.ring = new Counter[capacity];
+    }
+
+    int getMessageCountAndThenIncrement(String msg) {
+      Counter counter = map.get(msg);
+      if (counter == null) {
+        counter = insert(msg);
+      } else if (!counter.referenced) {
+        // avoid writing to a shared cache line on every hit
+        counter.referenced = true;
+      }
+      return counter.getAndIncrement();
+    }
+
+    private synchronized Counter insert(String msg) {
+      Counter counter = map.get(msg);
+      if (counter != null) {
+        // inserted concurrently
+        counter.referenced = true;
+        return counter;
+      }
+      counter = new Counter(msg);
+      if (filled < ring.length) {
+        ring[filled++] = counter;
+      } else {
+        // give a second chance to recently counted messages
+        while (ring[hand].referenced) {
+          ring[hand].referenced = false;
+          hand = (hand + 1) % ring.length;
+        }
+        map.remove(ring[hand].msg);
+        ring[hand] = counter;
+        hand = (hand + 1) % ring.length;
+      }
+      map.put(msg, counter);
+      return counter;
+    }
+
+    synchronized void clear() {
+      map.clear();
+      for (int i = 0; i < filled; i++) {
+        ring[i] = null;
+      }
+      filled = 0;
+      hand = 0;
+    }
+  }
+}
@@ -15,7 +15,6 @@ package ch.qos.logback.classic.util;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Collections;
 import java.util.Set;
 
 
@@ -50,8 +49,23 @@ public final class LogbackMDCAdapter implements MDCAdapter {
   // We no longer use CopyOnInheritThreadLocal in order to solve LBCLASSIC-183
   // Initially the contents of the thread local in parent and child threads
   // reference the same map. However, as soon as a thread invokes the put()
-  // method, the maps diverge as they should.
-  final InheritableThreadLocal<Map<String, String>> copyOnInheritThreadLocal = new InheritableThreadLocal<Map<String, String>>();
+  // method, the maps diverge as they should. childValue() is invoked on the
+  // parent thread and marks the map as read, so that the parent also copies
+  // it before its next modification. Thus, a map shared with a child thread
+  // is never modified again and a snapshot of it remains accurate.
+  final InheritableThreadLocal<Map<String, String>> copyOnInheritThreadLocal = new InheritableThreadLocal<Map<String, String>>() {
+    @Override
+    protected Map<String, String> childValue(Map<String, String> parentValue) {
+      lastOperation.set(READ_OPERATION);
+      return parentValue;
+    }
+  };
+
+  // The snapshot last handed out by getPropertyMap(). It remains valid as long
+  // as it wraps the current map, since a read forces the next write to copy.
+  final ThreadLocal<MDCSnapshot> snapshotThreadLocal = new ThreadLocal<MDCSnapshot>();
+
+  final MDCWatchedValues watchedValues = new MDCWatchedValues(this);
 
   private static final int WRITE_OPERATION = 1;
   private static final int READ_OPERATION = 2;
@@ -69,14 +83,21 @@ public final class LogbackMDCAdapter implements MDCAdapter {
     return lastOp == null || lastOp.intValue() == READ_OPERATION;
   }
 
+  // Maps are SmallStringMap instances. A map is modified only by the thread
+  // owning it, and only until it is shared with a child thread or handed out
+  // in a snapshot. Past that point it is copied before any modification, so
+  // MDCSnapshot reads it without locking. The adapter itself still
+  // synchronizes on the map, as it did before snapshots existed.
   private Map<String, String> duplicateAndInsertNewMap(Map<String, String> oldMap) {
-    Map<String, String> newMap = Collections.synchronizedMap(new HashMap<String, String>());
+    Map<String, String> newMap;
     if (oldMap != null) {
         // we don't want the parent thread modifying oldMap while we are
         // iterating over it
         synchronized (oldMap) {
-          newMap.putAll(oldMap);
+          newMap = new SmallStringMap(oldMap);
         }
+    } else {
+      newMap = new SmallStringMap();
     }
 
     copyOnInheritThreadLocal.set(newMap);
@@ -104,10 +125,15 @@ public final class LogbackMDCAdapter implements MDCAdapter {
 
     if (wasLastOpReadOrNull(lastOp) || oldMap == null) {
       Map<String, String> newMap = duplicateAndInsertNewMap(oldMap);
-      newMap.put(key, val);
+      synchronized (newMap) {
+        newMap.put(key, val);
+      }
     } else {
-      oldMap.put(key, val);
+      synchronized (oldMap) {
+        oldMap.put(key, val);
+      }
     }
+    watchedValues.keyChanged(key, val);
   }
 
   /**
@@ -125,10 +151,15 @@ public final class LogbackMDCAdapter implements MDCAdapter {
 
     if (wasLastOpReadOrNull(lastOp)) {
       Map<String, String> newMap = duplicateAndInsertNewMap(oldMap);
-      newMap.remove(key);
+      synchronized (newMap) {
+        newMap.remove(key);
+      }
     } else {
-      oldMap.remove(key);
+      synchronized (oldMap) {
+        oldMap.remove(key);
+      }
     }
+    watchedValues.keyChanged(key, null);
   }
 
 
@@ -138,6 +169,8 @@ public final class LogbackMDCAdapter implements MDCAdapter {
   public void clear() {
     lastOperation.set(WRITE_OPERATION);
     copyOnInheritThreadLocal.remove();
+    snapshotThreadLocal.remove();
+    watchedValues.invalidate();
   }
 
   /**
@@ -147,19 +180,50 @@ public final class LogbackMDCAdapter implements MDCAdapter {
   public String get(String key) {
     final Map<String, String> hashMap = copyOnInheritThreadLocal.get();
     if (hashMap != null && key != null) {
-      return hashMap.get(key);
+      synchronized (hashMap) {
+        return hashMap.get(key);
+      }
     } else {
       return null;
     }
   }
 
   /**
-   * Get the current thread's MDC as a map. This method is intended to be used
-   * internally.
+   * Get the current thread's MDC as a read-only map. This method is intended
+   * to be used internally.
+   * <p/>
+   * Successive calls return the same {@link MDCSnapshot} instance as long as
+   * the MDC is not modified in between.
    */
   public Map<String, String> getPropertyMap() {
     lastOperation.set(READ_OPERATION);
-    return copyOnInheritThreadLocal.get();
+    Map<String, String> map = copyOnInheritThreadLocal.get();
+    if (map == null) {
+      return null;
+    }
+    MDCSnapshot snapshot = snapshotThreadLocal.get();
+    if (snapshot == null || snapshot.map != map) {
+      snapshot = new MDCSnapshot(map);
+      snapshotThreadLocal.set(snapshot);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Make the given snapshot, as returned by {@link #getPropertyMap()}
+   * possibly on another thread, the current thread's MDC. The snapshot is
+   * not copied, the next modification of the MDC will copy it.
+   */
+  void restoreSnapshot(MDCSnapshot snapshot) {
+    lastOperation.set(READ_OPERATION);
+    if (snapshot == null) {
+      copyOnInheritThreadLocal.remove();
+      snapshotThreadLocal.remove();
+    } else {
+      copyOnInheritThreadLocal.set(snapshot.map);
+      snapshotThreadLocal.set(snapshot);
+    }
+    watchedValues.invalidate();
   }
 
   /**
@@ -186,7 +250,9 @@ public final class LogbackMDCAdapter implements MDCAdapter {
     if (hashMap == null) {
       return null;
     } else {
-      return new HashMap<String, String>(hashMap);
+      synchronized (hashMap) {
+        return new HashMap<String, String>(hashMap);
+      }
     }
   }
 
@@ -194,10 +260,10 @@ public final class LogbackMDCAdapter implements MDCAdapter {
   public void setContextMap(Map contextMap) {
     lastOperation.set(WRITE_OPERATION);
 
-    Map<String, String> newMap = Collections.synchronizedMap(new HashMap<String, String>());
-    newMap.putAll(contextMap);
+    Map<String, String> newMap = new SmallStringMap(contextMap);
 
     // the newMap replaces the old one for serialisation's sake
     copyOnInheritThreadLocal.set(newMap);
+    watchedValues.invalidate();
   }
 }
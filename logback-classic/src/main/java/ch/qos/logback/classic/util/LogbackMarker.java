@@ -0,0 +1,340 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.io.ObjectStreamException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.IMarkerFactory;
+import org.slf4j.Marker;
+import org.slf4j.helpers.BasicMarkerFactory;
+
+/**
+ * The {@link Marker} implementation created by {@link LogbackMarkerFactory}.
+ * <p/>
+ * Every marker name is assigned a small integer id. Each marker caches the
+ * set of ids of the markers it references, directly or not, as a bitmap, so
+ * that {@link #contains(String)} is a map lookup and a bit test instead of a
+ * walk of the reference graph. The bitmaps are recomputed after the
+ * references of any marker change, which is rare.
+ * <p/>
+ * When the reference graph includes markers of another implementation, whose
+ * changes cannot be tracked, or markers created once {@link #MAX_MARKER_IDS}
+ * ids were assigned, the graph is walked as usual. Markers of other
+ * implementations are assigned no id.
+ * <p/>
+ * Markers are serialized as SLF4J's BasicMarker, so that receivers unaware of
+ * this class can read them.
+ *
+ * @since 1.1.4
+ */
+public final class LogbackMarker implements Marker {
+
+  private static final long serialVersionUID = 8101045935585253516L;
+
+  private static final String OPEN = "[ ";
+  private static final String CLOSE = " ]";
+  private static final String SEP = ", ";
+
+  /**
+   * The number of ids assigned to the names of created markers, beyond which
+   * markers are created without id.
+   */
+  public static final int MAX_MARKER_IDS = 4096;
+  private static final int NO_ID = -1;
+
+  static final Map<String, Integer> ID_MAP = new ConcurrentHashMap<String, Integer>();
+  // names indexed by id, guarded by ID_MAP for writes
+  private static volatile String[] names = new String[64];
+  private static int nextId;
+
+  // incremented whenever the references of a marker change
+  private static final AtomicInteger generation = new AtomicInteger();
+
+  private final String name;
+  private final List<Marker> referenceList = new CopyOnWriteArrayList<Marker>();
+  // NO_ID if none was available
+  private final int id;
+  private transient volatile Closure closure;
+
+  static final class Closure {
+    final int generation;
+    // null if the graph includes markers of another implementation
+    final long[] bits;
+    final String string;
+
+    Closure(int generation, long[] bits, String string) {
+      this.generation = generation;
+      this.bits = bits;
+      this.string = string;
+    }
+  }
+
+  LogbackMarker(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("A marker name cannot be null");
+    }
+    this.name = name;
+    this.id = assignId(name, true);
+  }
+
+  /**
+   * Returns the id assigned to the given marker name, assigning one if need
+   * be. Meant for the marker names of the configuration, which are few.
+   */
+  public static int getId(String name) {
+    return assignId(name, false);
+  }
+
+  private static int assignId(String name, boolean bounded) {
+    Integer id = ID_MAP.get(name);
+    if (id != null) {
+      return id;
+    }
+    synchronized (ID_MAP) {
+      id = ID_MAP.get(name);
+      if (id == null) {
+        if (bounded && nextId >= MAX_MARKER_IDS) {
+          return NO_ID;
+        }
+        id = nextId++;
+        String[] current = names;
+        if (id >= current.length) {
+          String[] newNames = new String[current.length * 2];
+          System.arraycopy(current, 0, newNames, 0, current.length);
+          current = newNames;
+        }
+        current[id] = name;
+        names = current;
+        ID_MAP.put(name, id);
+      }
+      return id;
+    }
+  }
+
+  /**
+   * Whether the given marker is or references, directly or not, the marker
+   * named after the given id, as returned by {@link #getId(String)}.
+   */
+  public static boolean contains(Marker marker, int id) {
+    if (marker instanceof LogbackMarker) {
+      return ((LogbackMarker) marker).contains(id);
+    } else {
+      return marker.contains(names[id]);
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  private Closure getClosure() {
+    Closure c = closure;
+    if (c == null || c.generation != generation.get()) {
+      c = computeClosure();
+      closure = c;
+    }
+    return c;
+  }
+
+  private Closure computeClosure() {
+    // read the generation first, a concurrent change causes another
+    // computation
+    int currentGeneration = generation.get();
+    long[] bits = new long[1];
+    Map<Marker, Marker> visited = new IdentityHashMap<Marker, Marker>();
+    // no recursion, graphs built with add() are acyclic but foreign ones
+    // might not be
+    List<Marker> pending = new ArrayList<Marker>();
+    pending.add(this);
+    while (!pending.isEmpty()) {
+      Marker m = pending.remove(pending.size() - 1);
+      if (visited.put(m, m) != null) {
+        continue;
+      }
+      int mid = m instanceof LogbackMarker ? ((LogbackMarker) m).id : NO_ID;
+      if (mid == NO_ID) {
+        // changes cannot be tracked, or the marker has no id
+        return new Closure(currentGeneration, null, null);
+      }
+      int word = mid >>> 6;
+      if (word >= bits.length) {
+        long[] newBits = new long[word + 1];
+        System.arraycopy(bits, 0, newBits, 0, bits.length);
+        bits = newBits;
+      }
+      bits[word] |= 1L << mid;
+      Iterator<Marker> it = m.iterator();
+      while (it.hasNext()) {
+        pending.add(it.next());
+      }
+    }
+    return new Closure(currentGeneration, bits, buildString());
+  }
+
+  boolean contains(int id) {
+    long[] bits = getClosure().bits;
+    if (bits == null) {
+      return walkContains(names[id]);
+    }
+    return testBit(bits, id);
+  }
+
+  private static boolean testBit(long[] bits, int id) {
+    int word = id >>> 6;
+    return word < bits.length && (bits[word] & (1L << id)) != 0;
+  }
+
+  public boolean contains(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("Other cannot be null");
+    }
+    long[] bits = getClosure().bits;
+    if (bits == null) {
+      return walkContains(name);
+    }
+    Integer id = ID_MAP.get(name);
+    // a name without id belongs to no marker
+    return id != null && testBit(bits, id);
+  }
+
+  public boolean contains(Marker other) {
+    if (other == null) {
+      throw new IllegalArgumentException("Other cannot be null");
+    }
+    return contains(other.getName());
+  }
+
+  private boolean walkContains(String name) {
+    if (this.name.equals(name)) {
+      return true;
+    }
+    for (Marker ref : referenceList) {
+      if (ref.contains(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public synchronized void add(Marker reference) {
+    if (reference == null) {
+      throw new IllegalArgumentException("A null value cannot be added to a Marker as reference.");
+    }
+    // no point in adding the reference multiple times
+    if (this.contains(reference)) {
+      return;
+    } else if (reference.contains(this)) {
+      // avoid recursion, a potential reference should not hold its future
+      // "parent" as a reference
+      return;
+    } else {
+      referenceList.add(reference);
+      generation.incrementAndGet();
+    }
+  }
+
+  public boolean hasReferences() {
+    return !referenceList.isEmpty();
+  }
+
+  /**
+   * @deprecated Replaced by {@link #hasReferences()}.
+   */
+  @Deprecated
+  public boolean hasChildren() {
+    return hasReferences();
+  }
+
+  public Iterator<Marker> iterator() {
+    return referenceList.iterator();
+  }
+
+  public synchronized boolean remove(Marker referenceToRemove) {
+    boolean removed = referenceList.remove(referenceToRemove);
+    if (removed) {
+      generation.incrementAndGet();
+    }
+    return removed;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (!(obj instanceof Marker)) {
+      return false;
+    }
+    final Marker other = (Marker) obj;
+    return name.equals(other.getName());
+  }
+
+  @Override
+  public int hashCode() {
+    return name.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    String string = getClosure().string;
+    return string != null ? string : buildString();
+  }
+
+  private String buildString() {
+    if (referenceList.isEmpty()) {
+      return name;
+    }
+    StringBuilder sb = new StringBuilder(name);
+    sb.append(' ').append(OPEN);
+    Iterator<Marker> it = referenceList.iterator();
+    while (it.hasNext()) {
+      sb.append(it.next().toString());
+      if (it.hasNext()) {
+        sb.append(SEP);
+      }
+    }
+    sb.append(CLOSE);
+    return sb.toString();
+  }
+
+  private Object writeReplace() throws ObjectStreamException {
+    return toBasicMarker(this, new BasicMarkerFactory(), new IdentityHashMap<Marker, Marker>());
+  }
+
+  private static Marker toBasicMarker(Marker marker, IMarkerFactory factory, Map<Marker, Marker> copies) {
+    Marker copy = copies.get(marker);
+    if (copy != null) {
+      return copy;
+    }
+    copy = factory.getDetachedMarker(marker.getName());
+    copies.put(marker, copy);
+    Iterator<Marker> it = marker.iterator();
+    while (it.hasNext()) {
+      Marker ref = it.next();
+      copy.add(ref instanceof LogbackMarker ? toBasicMarker(ref, factory, copies) : ref);
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.IMarkerFactory;
+import org.slf4j.Marker;
+
+/**
+ * An {@link IMarkerFactory} creating {@link LogbackMarker} instances. Apart
+ * from the class of the markers it creates, it behaves like SLF4J's
+ * BasicMarkerFactory.
+ *
+ * @since 1.1.4
+ */
+public class LogbackMarkerFactory implements IMarkerFactory {
+
+  private final ConcurrentMap<String, Marker> markerMap = new ConcurrentHashMap<String, Marker>();
+
+  /**
+   * Manufacture a {@link LogbackMarker} instance by name. If the instance has
+   * been created earlier, return the previously created instance.
+   *
+   * @param name the name of the marker to be created
+   * @return a Marker instance
+   */
+  public Marker getMarker(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("Marker name cannot be null");
+    }
+
+    Marker marker = markerMap.get(name);
+    if (marker == null) {
+      marker = new LogbackMarker(name);
+      Marker oldMarker = markerMap.putIfAbsent(name, marker);
+      if (oldMarker != null) {
+        marker = oldMarker;
+      }
+    }
+    return marker;
+  }
+
+  /**
+   * Does the name marked already exist?
+   */
+  public boolean exists(String name) {
+    if (name == null) {
+      return false;
+    }
+    return markerMap.containsKey(name);
+  }
+
+  public boolean detachMarker(String name) {
+    if (name == null) {
+      return false;
+    }
+    return (markerMap.remove(name) != null);
+  }
+
+  public Marker getDetachedMarker(String name) {
+    return new LogbackMarker(name);
+  }
+}
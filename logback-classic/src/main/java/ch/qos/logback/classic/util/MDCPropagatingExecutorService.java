@@ -0,0 +1,108 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.spi.MDCAdapter;
+
+/**
+ * An {@link ExecutorService} decorator which runs tasks with the MDC of the
+ * thread which submitted them. See {@link MDCPropagation}.
+ *
+ * @since 1.1.4
+ */
+public class MDCPropagatingExecutorService implements ExecutorService {
+
+  final ExecutorService delegate;
+  final MDCAdapter mdcAdapter;
+
+  MDCPropagatingExecutorService(ExecutorService delegate, MDCAdapter mdcAdapter) {
+    if (delegate == null) {
+      throw new NullPointerException("delegate cannot be null");
+    }
+    this.delegate = delegate;
+    this.mdcAdapter = mdcAdapter;
+  }
+
+  private <T> List<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+    List<Callable<T>> wrapped = new ArrayList<Callable<T>>(tasks.size());
+    for (Callable<T> task : tasks) {
+      wrapped.add(MDCPropagation.wrap(mdcAdapter, task));
+    }
+    return wrapped;
+  }
+
+  public void execute(Runnable command) {
+    delegate.execute(MDCPropagation.wrap(mdcAdapter, command));
+  }
+
+  public <T> Future<T> submit(Callable<T> task) {
+    return delegate.submit(MDCPropagation.wrap(mdcAdapter, task));
+  }
+
+  public <T> Future<T> submit(Runnable task, T result) {
+    return delegate.submit(MDCPropagation.wrap(mdcAdapter, task), result);
+  }
+
+  public Future<?> submit(Runnable task) {
+    return delegate.submit(MDCPropagation.wrap(mdcAdapter, task));
+  }
+
+  public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+    return delegate.invokeAll(wrapAll(tasks));
+  }
+
+  public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    return delegate.invokeAll(wrapAll(tasks), timeout, unit);
+  }
+
+  public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+    return delegate.invokeAny(wrapAll(tasks));
+  }
+
+  public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    return delegate.invokeAny(wrapAll(tasks), timeout, unit);
+  }
+
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  public List<Runnable> shutdownNow() {
+    return delegate.shutdownNow();
+  }
+
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+}
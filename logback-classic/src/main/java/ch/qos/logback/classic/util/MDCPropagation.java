@@ -0,0 +1,170 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.MDC;
+import org.slf4j.spi.MDCAdapter;
+
+/**
+ * Propagates the MDC of the submitting thread to tasks executed by other
+ * threads, typically those of a pool where the MDC inherited at thread
+ * creation is meaningless.
+ * <p/>
+ * The MDC is captured when a task is wrapped, installed while the task runs
+ * and the previous MDC of the executing thread is restored afterwards. With
+ * {@link LogbackMDCAdapter} and {@link PersistentMDCAdapter}, the MDC is
+ * passed as an immutable {@link MDCSnapshot}, by reference and without
+ * copying. With other adapters, it is copied.
+ *
+ * <pre>
+ * ExecutorService executor = MDCPropagation.wrap(Executors.newFixedThreadPool(4));
+ * </pre>
+ *
+ * @since 1.1.4
+ */
+public final class MDCPropagation {
+
+  private MDCPropagation() {
+  }
+
+  /**
+   * Returns a runnable which runs the given task with the MDC of the current
+   * thread.
+   */
+  public static Runnable wrap(Runnable task) {
+    return wrap(MDC.getMDCAdapter(), task);
+  }
+
+  /**
+   * Returns a callable which calls the given task with the MDC of the current
+   * thread.
+   */
+  public static <V> Callable<V> wrap(Callable<V> task) {
+    return wrap(MDC.getMDCAdapter(), task);
+  }
+
+  /**
+   * Returns an executor which runs tasks with the MDC of the thread which
+   * submitted them.
+   */
+  public static Executor wrap(final Executor executor) {
+    final MDCAdapter mdcAdapter = MDC.getMDCAdapter();
+    return new Executor() {
+      public void execute(Runnable command) {
+        executor.execute(wrap(mdcAdapter, command));
+      }
+    };
+  }
+
+  /**
+   * Returns an executor service which runs tasks with the MDC of the thread
+   * which submitted them.
+   */
+  public static ExecutorService wrap(ExecutorService executorService) {
+    return new MDCPropagatingExecutorService(executorService, MDC.getMDCAdapter());
+  }
+
+  static Runnable wrap(MDCAdapter mdcAdapter, Runnable task) {
+    if (task == null) {
+      throw new NullPointerException();
+    }
+    return new PropagatingRunnable(mdcAdapter, task);
+  }
+
+  static <V> Callable<V> wrap(MDCAdapter mdcAdapter, Callable<V> task) {
+    if (task == null) {
+      throw new NullPointerException();
+    }
+    return new PropagatingCallable<V>(mdcAdapter, task);
+  }
+
+  /**
+   * Returns the MDC of the current thread in a form suitable for
+   * {@link #restore}.
+   */
+  static Object capture(MDCAdapter mdcAdapter) {
+    if (mdcAdapter instanceof LogbackMDCAdapter) {
+      return ((LogbackMDCAdapter) mdcAdapter).getPropertyMap();
+    } else if (mdcAdapter instanceof PersistentMDCAdapter) {
+      return ((PersistentMDCAdapter) mdcAdapter).getPropertyMap();
+    } else {
+      return mdcAdapter.getCopyOfContextMap();
+    }
+  }
+
+  /**
+   * Install a MDC previously returned by {@link #capture} in the current
+   * thread.
+   */
+  static void restore(MDCAdapter mdcAdapter, Object mdc) {
+    if (mdcAdapter instanceof LogbackMDCAdapter) {
+      ((LogbackMDCAdapter) mdcAdapter).restoreSnapshot((MDCSnapshot) mdc);
+    } else if (mdcAdapter instanceof PersistentMDCAdapter) {
+      ((PersistentMDCAdapter) mdcAdapter).restoreSnapshot((MDCSnapshot) mdc);
+    } else if (mdc == null) {
+      mdcAdapter.clear();
+    } else {
+      mdcAdapter.setContextMap((Map<?, ?>) mdc);
+    }
+  }
+
+  static final class PropagatingRunnable implements Runnable {
+    final MDCAdapter mdcAdapter;
+    final Runnable task;
+    final Object mdc;
+
+    PropagatingRunnable(MDCAdapter mdcAdapter, Runnable task) {
+      this.mdcAdapter = mdcAdapter;
+      this.task = task;
+      this.mdc = capture(mdcAdapter);
+    }
+
+    public void run() {
+      Object previous = capture(mdcAdapter);
+      restore(mdcAdapter, mdc);
+      try {
+        task.run();
+      } finally {
+        restore(mdcAdapter, previous);
+      }
+    }
+  }
+
+  static final class PropagatingCallable<V> implements Callable<V> {
+    final MDCAdapter mdcAdapter;
+    final Callable<V> task;
+    final Object mdc;
+
+    PropagatingCallable(MDCAdapter mdcAdapter, Callable<V> task) {
+      this.mdcAdapter = mdcAdapter;
+      this.task = task;
+      this.mdc = capture(mdcAdapter);
+    }
+
+    public V call() throws Exception {
+      Object previous = capture(mdcAdapter);
+      restore(mdcAdapter, mdc);
+      try {
+        return task.call();
+      } finally {
+        restore(mdcAdapter, previous);
+      }
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A read-only view of the MDC of a thread, as handed out by
+ * {@link LogbackMDCAdapter#getPropertyMap()} and
+ * {@link PersistentMDCAdapter#getPropertyMap()}.
+ *
+ * <p>{@link LogbackMDCAdapter} copies its map before modifying it whenever a
+ * snapshot has been taken or a child thread has inherited the map, whereas
+ * the map of {@link PersistentMDCAdapter} is immutable. Consequently, no
+ * thread writes to the map wrapped by a snapshot, which can thus be read
+ * without locking. The contents of a snapshot never change and the
+ * adapters can hand out the same snapshot to all the events logged while the
+ * MDC remains unchanged. The "k1=v1, k2=v2" rendering of the
+ * snapshot is computed once and cached alongside.
+ *
+ * <p>A snapshot is serialized as a plain {@link HashMap}.
+ *
+ * @since 1.1.4
+ */
+public final class MDCSnapshot extends AbstractMap<String, String> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final Map<String, String> map;
+  private transient String keyValueString;
+
+  MDCSnapshot(Map<String, String> map) {
+    this.map = map;
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return map.containsKey(key);
+  }
+
+  @Override
+  public String get(Object key) {
+    return map.get(key);
+  }
+
+  @Override
+  public Set<Map.Entry<String, String>> entrySet() {
+    return Collections.unmodifiableMap(map).entrySet();
+  }
+
+  /**
+   * Returns the contents of this snapshot in the "k1=v1, k2=v2, ..." format.
+   * The result is computed on first use only.
+   */
+  public String toKeyValueString() {
+    // benign race, the computation is idempotent
+    String result = keyValueString;
+    if (result == null) {
+      result = toKeyValueString(map);
+      keyValueString = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns the contents of the given map in the "k1=v1, k2=v2, ..." format.
+   */
+  public static String toKeyValueString(Map<String, String> map) {
+    StringBuilder buf = new StringBuilder();
+    boolean first = true;
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      if (first) {
+        first = false;
+      } else {
+        buf.append(", ");
+      }
+      //format: key0=value0, key1=value1
+      buf.append(entry.getKey()).append('=').append(entry.getValue());
+    }
+    return buf.toString();
+  }
+
+  private Object writeReplace() throws ObjectStreamException {
+    return new HashMap<String, String>(map);
+  }
+}
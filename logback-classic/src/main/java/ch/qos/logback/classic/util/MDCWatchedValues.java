@@ -0,0 +1,193 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import org.slf4j.MDC;
+import org.slf4j.spi.MDCAdapter;
+
+/**
+ * Maintains, for each thread, integer values derived from the MDC values of
+ * watched keys. A value is recomputed only when its key is modified in the
+ * MDC, so that reading it costs a single array access. This is intended for
+ * turbo filters which consult the MDC on every logging request.
+ * <p/>
+ * Instances are owned by {@link LogbackMDCAdapter} and
+ * {@link PersistentMDCAdapter}, which report modifications of the MDC.
+ *
+ * @since 1.1.4
+ */
+public final class MDCWatchedValues {
+
+  /**
+   * Derives an integer from the value of an MDC key.
+   */
+  public abstract static class Watch {
+    final String key;
+    int slot = -1;
+
+    protected Watch(String key) {
+      if (key == null) {
+        throw new IllegalArgumentException("key cannot be null");
+      }
+      this.key = key;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * Computes the value for the given MDC value, which is null if the key is
+     * absent from the MDC.
+     */
+    protected abstract int compute(String mdcValue);
+  }
+
+  static final class State {
+    final int generation;
+    final int[] values;
+
+    State(int generation, int[] values) {
+      this.generation = generation;
+      this.values = values;
+    }
+  }
+
+  private final MDCAdapter mdcAdapter;
+
+  private volatile Watch[] watches = new Watch[0];
+  // incremented whenever the watches change, invalidating all states
+  private volatile int generation;
+
+  private final ThreadLocal<State> stateThreadLocal = new ThreadLocal<State>();
+
+  MDCWatchedValues(MDCAdapter mdcAdapter) {
+    this.mdcAdapter = mdcAdapter;
+  }
+
+  /**
+   * Returns the instance associated with the MDC adapter currently in use, or
+   * null if the adapter does not support watched values.
+   */
+  public static MDCWatchedValues getInstance() {
+    return getInstance(MDC.getMDCAdapter());
+  }
+
+  static MDCWatchedValues getInstance(MDCAdapter mdcAdapter) {
+    if (mdcAdapter instanceof LogbackMDCAdapter) {
+      return ((LogbackMDCAdapter) mdcAdapter).watchedValues;
+    } else if (mdcAdapter instanceof PersistentMDCAdapter) {
+      return ((PersistentMDCAdapter) mdcAdapter).watchedValues;
+    } else {
+      return null;
+    }
+  }
+
+  public synchronized void register(Watch watch) {
+    if (watch.slot != -1) {
+      throw new IllegalStateException("watch for key [" + watch.key + "] is already registered");
+    }
+    Watch[] current = watches;
+    int slot = 0;
+    while (slot < current.length && current[slot] != null) {
+      slot++;
+    }
+    Watch[] newWatches = new Watch[Math.max(current.length, slot + 1)];
+    System.arraycopy(current, 0, newWatches, 0, current.length);
+    newWatches[slot] = watch;
+    watch.slot = slot;
+    watches = newWatches;
+    generation++;
+  }
+
+  public synchronized void unregister(Watch watch) {
+    int slot = watch.slot;
+    Watch[] current = watches;
+    if (slot == -1 || slot >= current.length || current[slot] != watch) {
+      return;
+    }
+    Watch[] newWatches = current.clone();
+    newWatches[slot] = null;
+    watch.slot = -1;
+    watches = newWatches;
+    generation++;
+  }
+
+  /**
+   * Returns the value of the given registered watch for the MDC of the
+   * current thread.
+   */
+  public int get(Watch watch) {
+    State state = stateThreadLocal.get();
+    if (state == null || state.generation != generation) {
+      state = recompute();
+    }
+    int slot = watch.slot;
+    if (slot < 0 || slot >= state.values.length) {
+      // the watch was unregistered concurrently
+      return watch.compute(mdcAdapter.get(watch.key));
+    }
+    return state.values[slot];
+  }
+
+  private State recompute() {
+    // read the generation first, a concurrent change will cause another
+    // recomputation
+    int currentGeneration = generation;
+    Watch[] currentWatches = watches;
+    int[] values = new int[currentWatches.length];
+    for (int i = 0; i < currentWatches.length; i++) {
+      Watch watch = currentWatches[i];
+      if (watch != null) {
+        values[i] = watch.compute(mdcAdapter.get(watch.key));
+      }
+    }
+    State state = new State(currentGeneration, values);
+    stateThreadLocal.set(state);
+    return state;
+  }
+
+  /**
+   * Called by the MDC adapter after the value of a key changed in the MDC of
+   * the current thread.
+   */
+  void keyChanged(String key, String value) {
+    Watch[] currentWatches = watches;
+    if (currentWatches.length == 0) {
+      return;
+    }
+    State state = stateThreadLocal.get();
+    if (state == null || state.generation != generation) {
+      // will be recomputed on next use
+      return;
+    }
+    int length = Math.min(currentWatches.length, state.values.length);
+    for (int i = 0; i < length; i++) {
+      Watch watch = currentWatches[i];
+      if (watch != null && watch.key.equals(key)) {
+        state.values[i] = watch.compute(value);
+      }
+    }
+  }
+
+  /**
+   * Called by the MDC adapter after the MDC of the current thread was
+   * replaced or cleared.
+   */
+  void invalidate() {
+    if (watches.length != 0) {
+      stateThreadLocal.remove();
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.spi.MDCAdapter;
+
+/**
+ * An alternative to {@link LogbackMDCAdapter} which stores the MDC of each
+ * thread in an immutable persistent map.
+ * <p/>
+ * Modifying the MDC costs O(log n) and shares the unchanged parts of the
+ * previous map, which is never copied. Logging events capture the current map
+ * by reference, and child threads inherit it by reference as well.
+ * <p/>
+ * This adapter is selected by setting the "logback.MDCAdapter" system
+ * property to "persistent".
+ *
+ * @since 1.1.4
+ */
+public final class PersistentMDCAdapter implements MDCAdapter {
+
+  final InheritableThreadLocal<MDCSnapshot> snapshotThreadLocal = new InheritableThreadLocal<MDCSnapshot>();
+
+  final MDCWatchedValues watchedValues = new MDCWatchedValues(this);
+
+  private PersistentStringMap currentMap() {
+    MDCSnapshot snapshot = snapshotThreadLocal.get();
+    return snapshot == null ? PersistentStringMap.EMPTY : (PersistentStringMap) snapshot.map;
+  }
+
+  private void setMap(PersistentStringMap oldMap, PersistentStringMap newMap) {
+    if (newMap != oldMap) {
+      snapshotThreadLocal.set(new MDCSnapshot(newMap));
+    }
+  }
+
+  /**
+   * Put a context value (the <code>val</code> parameter) as identified with the
+   * <code>key</code> parameter into the current thread's context map. Note that
+   * contrary to log4j, the <code>val</code> parameter can be null.
+   *
+   * @throws IllegalArgumentException in case the "key" parameter is null
+   */
+  public void put(String key, String val) throws IllegalArgumentException {
+    if (key == null) {
+      throw new IllegalArgumentException("key cannot be null");
+    }
+    PersistentStringMap oldMap = currentMap();
+    setMap(oldMap, oldMap.plus(key, val));
+    watchedValues.keyChanged(key, val);
+  }
+
+  /**
+   * Remove the the context identified by the <code>key</code> parameter.
+   */
+  public void remove(String key) {
+    if (key == null) {
+      return;
+    }
+    PersistentStringMap oldMap = currentMap();
+    setMap(oldMap, oldMap.minus(key));
+    watchedValues.keyChanged(key, null);
+  }
+
+  /**
+   * Clear all entries in the MDC.
+   */
+  public void clear() {
+    snapshotThreadLocal.remove();
+    watchedValues.invalidate();
+  }
+
+  /**
+   * Get the context identified by the <code>key</code> parameter.
+   */
+  public String get(String key) {
+    MDCSnapshot snapshot = snapshotThreadLocal.get();
+    if (snapshot != null && key != null) {
+      return snapshot.get(key);
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Get the current thread's MDC as a read-only map. This method is intended
+   * to be used internally.
+   */
+  public Map<String, String> getPropertyMap() {
+    return snapshotThreadLocal.get();
+  }
+
+  /**
+   * Make the given snapshot, as returned by {@link #getPropertyMap()}
+   * possibly on another thread, the current thread's MDC.
+   */
+  void restoreSnapshot(MDCSnapshot snapshot) {
+    if (snapshot == null) {
+      snapshotThreadLocal.remove();
+    } else {
+      snapshotThreadLocal.set(snapshot);
+    }
+    watchedValues.invalidate();
+  }
+
+  /**
+   * Returns the keys in the MDC as a {@link Set}. The returned value can be
+   * null.
+   */
+  public Set<String> getKeys() {
+    MDCSnapshot snapshot = snapshotThreadLocal.get();
+    if (snapshot != null) {
+      return snapshot.keySet();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Return a copy of the current thread's context map. Returned value may be
+   * null.
+   */
+  public Map<String, String> getCopyOfContextMap() {
+    MDCSnapshot snapshot = snapshotThreadLocal.get();
+    if (snapshot == null) {
+      return null;
+    } else {
+      return new HashMap<String, String>(snapshot);
+    }
+  }
+
+  // the raw parameter is imposed by MDCAdapter, whose map is documented to
+  // hold only String keys and values
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void setContextMap(Map contextMap) {
+    Map<String, String> stringMap = (Map<String, String>) contextMap;
+    PersistentStringMap newMap = PersistentStringMap.EMPTY;
+    for (Map.Entry<String, String> entry : stringMap.entrySet()) {
+      newMap = newMap.plus(entry.getKey(), entry.getValue());
+    }
+    snapshotThreadLocal.set(new MDCSnapshot(newMap));
+    watchedValues.invalidate();
+  }
+}
@@ -0,0 +1,422 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map of strings implemented as a hash array mapped trie.
+ *
+ * <p>{@link #plus(String, String)} and {@link #minus(String)} return a new
+ * map sharing all but O(log n) nodes with this one. Keys cannot be null,
+ * values can.
+ *
+ * @since 1.1.4
+ */
+final class PersistentStringMap extends AbstractMap<String, String> {
+
+  static final PersistentStringMap EMPTY = new PersistentStringMap(null, 0);
+
+  private static final Object NOT_FOUND = new Object();
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private final Node root;
+  private final int size;
+
+  private PersistentStringMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Returns a map with the given mapping added or replaced.
+   */
+  PersistentStringMap plus(String key, String value) {
+    if (key == null) {
+      throw new IllegalArgumentException("key cannot be null");
+    }
+    boolean[] added = new boolean[1];
+    Node newRoot;
+    if (root == null) {
+      newRoot = BitmapNode.EMPTY.put(0, key.hashCode(), key, value, added);
+    } else {
+      newRoot = root.put(0, key.hashCode(), key, value, added);
+    }
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentStringMap(newRoot, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * Returns a map without the given key.
+   */
+  PersistentStringMap minus(String key) {
+    if (key == null || root == null) {
+      return this;
+    }
+    Node newRoot = root.remove(0, key.hashCode(), key);
+    if (newRoot == root) {
+      return this;
+    }
+    if (newRoot == null) {
+      return EMPTY;
+    }
+    return new PersistentStringMap(newRoot, size - 1);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return find(key) != NOT_FOUND;
+  }
+
+  @Override
+  public String get(Object key) {
+    Object result = find(key);
+    return result == NOT_FOUND ? null : (String) result;
+  }
+
+  private Object find(Object key) {
+    if (root == null || !(key instanceof String)) {
+      return NOT_FOUND;
+    }
+    return root.get(0, key.hashCode(), (String) key);
+  }
+
+  @Override
+  public Set<Map.Entry<String, String>> entrySet() {
+    return new AbstractSet<Map.Entry<String, String>>() {
+      @Override
+      public Iterator<Map.Entry<String, String>> iterator() {
+        return new EntryIterator(root);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  static int bitFor(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  abstract static class Node {
+
+    /**
+     * Returns the value mapped to the key or NOT_FOUND.
+     */
+    abstract Object get(int shift, int hash, String key);
+
+    /**
+     * Returns a node with the mapping added, or this node if the mapping is
+     * already present. Sets added[0] if the key was not present.
+     */
+    abstract Node put(int shift, int hash, String key, String value, boolean[] added);
+
+    /**
+     * Returns a node without the key, this node if the key is absent, or
+     * null if the resulting node would be empty.
+     */
+    abstract Node remove(int shift, int hash, String key);
+
+    /**
+     * The array of alternating keys and values of this node. A null key
+     * denotes a sub-node stored in place of the value.
+     */
+    abstract Object[] array();
+  }
+
+  static final class BitmapNode extends Node {
+
+    static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    final int bitmap;
+    final Object[] array;
+
+    BitmapNode(int bitmap, Object[] array) {
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Object get(int shift, int hash, String key) {
+      int bit = bitFor(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return NOT_FOUND;
+      }
+      int idx = index(bit);
+      Object k = array[2 * idx];
+      Object v = array[2 * idx + 1];
+      if (k == null) {
+        return ((Node) v).get(shift + BITS, hash, key);
+      }
+      return key.equals(k) ? v : NOT_FOUND;
+    }
+
+    @Override
+    Node put(int shift, int hash, String key, String value, boolean[] added) {
+      int bit = bitFor(hash, shift);
+      int idx = index(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, 2 * idx);
+        newArray[2 * idx] = key;
+        newArray[2 * idx + 1] = value;
+        System.arraycopy(array, 2 * idx, newArray, 2 * idx + 2, array.length - 2 * idx);
+        added[0] = true;
+        return new BitmapNode(bitmap | bit, newArray);
+      }
+      Object k = array[2 * idx];
+      Object v = array[2 * idx + 1];
+      if (k == null) {
+        Node subNode = (Node) v;
+        Node newSubNode = subNode.put(shift + BITS, hash, key, value, added);
+        return newSubNode == subNode ? this : with(idx, null, newSubNode);
+      }
+      if (key.equals(k)) {
+        if (value == null ? v == null : value.equals(v)) {
+          return this;
+        }
+        return with(idx, k, value);
+      }
+      added[0] = true;
+      return with(idx, null, createNode(shift + BITS, (String) k, (String) v, hash, key, value));
+    }
+
+    @Override
+    Node remove(int shift, int hash, String key) {
+      int bit = bitFor(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int idx = index(bit);
+      Object k = array[2 * idx];
+      Object v = array[2 * idx + 1];
+      if (k == null) {
+        Node subNode = (Node) v;
+        Node newSubNode = subNode.remove(shift + BITS, hash, key);
+        if (newSubNode == subNode) {
+          return this;
+        }
+        if (newSubNode == null) {
+          return without(bit, idx);
+        }
+        Object[] subArray = newSubNode.array();
+        if (subArray.length == 2 && subArray[0] != null) {
+          // inline a lone leaf
+          return with(idx, subArray[0], subArray[1]);
+        }
+        return with(idx, null, newSubNode);
+      }
+      if (key.equals(k)) {
+        return without(bit, idx);
+      }
+      return this;
+    }
+
+    @Override
+    Object[] array() {
+      return array;
+    }
+
+    private BitmapNode with(int idx, Object key, Object value) {
+      Object[] newArray = array.clone();
+      newArray[2 * idx] = key;
+      newArray[2 * idx + 1] = value;
+      return new BitmapNode(bitmap, newArray);
+    }
+
+    private BitmapNode without(int bit, int idx) {
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, 2 * idx);
+      System.arraycopy(array, 2 * idx + 2, newArray, 2 * idx, newArray.length - 2 * idx);
+      return new BitmapNode(bitmap ^ bit, newArray);
+    }
+
+    private static Node createNode(int shift, String key1, String value1, int hash2, String key2, String value2) {
+      int hash1 = key1.hashCode();
+      if (hash1 == hash2) {
+        return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+      }
+      boolean[] ignored = new boolean[1];
+      return EMPTY.put(shift, hash1, key1, value1, ignored).put(shift, hash2, key2, value2, ignored);
+    }
+  }
+
+  /**
+   * Holds the keys sharing the same hash code.
+   */
+  static final class CollisionNode extends Node {
+
+    final int hash;
+    final Object[] array;
+
+    CollisionNode(int hash, Object[] array) {
+      this.hash = hash;
+      this.array = array;
+    }
+
+    private int indexOf(String key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object get(int shift, int hash, String key) {
+      if (hash != this.hash) {
+        return NOT_FOUND;
+      }
+      int i = indexOf(key);
+      return i == -1 ? NOT_FOUND : array[i + 1];
+    }
+
+    @Override
+    Node put(int shift, int hash, String key, String value, boolean[] added) {
+      if (hash != this.hash) {
+        // nest this node in a bitmap node and retry
+        BitmapNode parent = new BitmapNode(bitFor(this.hash, shift), new Object[] { null, this });
+        return parent.put(shift, hash, key, value, added);
+      }
+      int i = indexOf(key);
+      if (i == -1) {
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        newArray[array.length] = key;
+        newArray[array.length + 1] = value;
+        added[0] = true;
+        return new CollisionNode(hash, newArray);
+      }
+      Object v = array[i + 1];
+      if (value == null ? v == null : value.equals(v)) {
+        return this;
+      }
+      Object[] newArray = array.clone();
+      newArray[i + 1] = value;
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    Node remove(int shift, int hash, String key) {
+      if (hash != this.hash) {
+        return this;
+      }
+      int i = indexOf(key);
+      if (i == -1) {
+        return this;
+      }
+      if (array.length == 2) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    Object[] array() {
+      return array;
+    }
+  }
+
+  /**
+   * Depth-first iteration over the leaves of the trie.
+   */
+  static final class EntryIterator implements Iterator<Map.Entry<String, String>> {
+
+    // a trie over 32 bit hashes is at most 7 bitmap nodes deep, plus one
+    // collision node
+    private final Object[][] arrays = new Object[8][];
+    private final int[] positions = new int[8];
+    private int depth = -1;
+    private Map.Entry<String, String> next;
+
+    EntryIterator(Node root) {
+      if (root != null) {
+        push(root);
+        advance();
+      }
+    }
+
+    private void push(Node node) {
+      depth++;
+      arrays[depth] = node.array();
+      positions[depth] = 0;
+    }
+
+    private void advance() {
+      next = null;
+      while (depth >= 0) {
+        Object[] array = arrays[depth];
+        int pos = positions[depth];
+        if (pos == array.length) {
+          arrays[depth] = null;
+          depth--;
+          continue;
+        }
+        positions[depth] = pos + 2;
+        Object k = array[pos];
+        Object v = array[pos + 1];
+        if (k == null) {
+          push((Node) v);
+        } else {
+          next = new SimpleImmutableEntry<String, String>((String) k, (String) v);
+          return;
+        }
+      }
+    }
+
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    public Map.Entry<String, String> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<String, String> result = next;
+      advance();
+      return result;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
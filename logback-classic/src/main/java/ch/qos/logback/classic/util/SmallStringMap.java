@@ -0,0 +1,253 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map of strings stored in parallel arrays, in insertion order.
+ *
+ * <p>Lookups compare cached hash codes linearly, which for the handful of
+ * entries typically found in an MDC is faster than hashing into a table, and
+ * the map takes a fraction of the memory of a {@link java.util.HashMap}.
+ * Copying a map amounts to copying its arrays. This class is not suited for
+ * maps with more than a few dozen entries.
+ *
+ * <p>This class is not thread safe.
+ *
+ * @since 1.1.4
+ */
+public final class SmallStringMap extends AbstractMap<String, String> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  static final int DEFAULT_CAPACITY = 4;
+
+  private transient int[] hashes;
+  private transient String[] keys;
+  private transient String[] values;
+  private transient int size;
+  private transient int modCount;
+
+  public SmallStringMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public SmallStringMap(int capacity) {
+    allocate(Math.max(capacity, 1));
+  }
+
+  /**
+   * Creates a map with the same mappings as the given map.
+   */
+  public SmallStringMap(Map<String, String> map) {
+    if (map instanceof SmallStringMap) {
+      SmallStringMap other = (SmallStringMap) map;
+      int capacity = Math.max(other.size + 1, DEFAULT_CAPACITY);
+      allocate(capacity);
+      System.arraycopy(other.hashes, 0, hashes, 0, other.size);
+      System.arraycopy(other.keys, 0, keys, 0, other.size);
+      System.arraycopy(other.values, 0, values, 0, other.size);
+      size = other.size;
+    } else {
+      allocate(Math.max(map.size() + 1, DEFAULT_CAPACITY));
+      putAll(map);
+    }
+  }
+
+  private void allocate(int capacity) {
+    hashes = new int[capacity];
+    keys = new String[capacity];
+    values = new String[capacity];
+  }
+
+  private static int hash(Object key) {
+    return key == null ? 0 : key.hashCode();
+  }
+
+  private int indexOf(Object key) {
+    int hash = hash(key);
+    for (int i = 0; i < size; i++) {
+      if (hashes[i] == hash) {
+        String k = keys[i];
+        if (k == key || (key != null && key.equals(k))) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) != -1;
+  }
+
+  @Override
+  public String get(Object key) {
+    int i = indexOf(key);
+    return i == -1 ? null : values[i];
+  }
+
+  @Override
+  public String put(String key, String value) {
+    int i = indexOf(key);
+    if (i != -1) {
+      String old = values[i];
+      values[i] = value;
+      return old;
+    }
+    if (size == keys.length) {
+      grow();
+    }
+    hashes[size] = hash(key);
+    keys[size] = key;
+    values[size] = value;
+    size++;
+    modCount++;
+    return null;
+  }
+
+  private void grow() {
+    int capacity = keys.length * 2;
+    int[] newHashes = new int[capacity];
+    String[] newKeys = new String[capacity];
+    String[] newValues = new String[capacity];
+    System.arraycopy(hashes, 0, newHashes, 0, size);
+    System.arraycopy(keys, 0, newKeys, 0, size);
+    System.arraycopy(values, 0, newValues, 0, size);
+    hashes = newHashes;
+    keys = newKeys;
+    values = newValues;
+  }
+
+  @Override
+  public String remove(Object key) {
+    int i = indexOf(key);
+    if (i == -1) {
+      return null;
+    }
+    String old = values[i];
+    removeAt(i);
+    return old;
+  }
+
+  private void removeAt(int i) {
+    int tail = size - i - 1;
+    System.arraycopy(hashes, i + 1, hashes, i, tail);
+    System.arraycopy(keys, i + 1, keys, i, tail);
+    System.arraycopy(values, i + 1, values, i, tail);
+    size--;
+    keys[size] = null;
+    values[size] = null;
+    modCount++;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      keys[i] = null;
+      values[i] = null;
+    }
+    size = 0;
+    modCount++;
+  }
+
+  @Override
+  public Set<Map.Entry<String, String>> entrySet() {
+    return new AbstractSet<Map.Entry<String, String>>() {
+      @Override
+      public Iterator<Map.Entry<String, String>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<String, String>> {
+    int next;
+    int last = -1;
+    int expectedModCount = modCount;
+
+    public boolean hasNext() {
+      return next < size;
+    }
+
+    public Map.Entry<String, String> next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (next >= size) {
+        throw new NoSuchElementException();
+      }
+      last = next++;
+      return new SimpleImmutableEntry<String, String>(keys[last], values[last]);
+    }
+
+    public void remove() {
+      if (last == -1) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      removeAt(last);
+      next = last;
+      last = -1;
+      expectedModCount = modCount;
+    }
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      out.writeObject(keys[i]);
+      out.writeObject(values[i]);
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    int count = in.readInt();
+    allocate(Math.max(count, 1));
+    for (int i = 0; i < count; i++) {
+      put((String) in.readObject(), (String) in.readObject());
+    }
+  }
+}
@@ -15,11 +15,16 @@ package org.slf4j.impl;
 
 import org.slf4j.spi.MDCAdapter;
 
+import ch.qos.logback.classic.ClassicConstants;
 import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.classic.util.PersistentMDCAdapter;
+import ch.qos.logback.core.util.OptionHelper;
 
 
 /**
- * This implementation is bound to {@link LogbackMDCAdapter}.
+ * This implementation is bound to {@link LogbackMDCAdapter}, or to
+ * {@link PersistentMDCAdapter} if the "logback.MDCAdapter" system property
+ * is set to "persistent".
  *
  * @author Ceki G&uuml;lc&uuml;
  */
@@ -35,14 +40,24 @@ public class StaticMDCBinder {
   }
   
   /**
-   * Currently this method always returns an instance of 
-   * {@link StaticMDCBinder}.
+   * Returns an instance of {@link LogbackMDCAdapter} or, if so configured,
+   * of {@link PersistentMDCAdapter}.
    */
   public MDCAdapter getMDCA() {
-     return new LogbackMDCAdapter();
+    if (isPersistentAdapterSelected()) {
+      return new PersistentMDCAdapter();
+    }
+    return new LogbackMDCAdapter();
   }
   
   public String  getMDCAdapterClassStr() {
+    if (isPersistentAdapterSelected()) {
+      return PersistentMDCAdapter.class.getName();
+    }
     return LogbackMDCAdapter.class.getName();
   }
+
+  private boolean isPersistentAdapterSelected() {
+    return "persistent".equalsIgnoreCase(OptionHelper.getSystemProperty(ClassicConstants.LOGBACK_MDC_ADAPTER));
+  }
 }
@@ -15,9 +15,10 @@ package org.slf4j.impl;
 
 import org.slf4j.IMarkerFactory;
 import org.slf4j.MarkerFactory;
-import org.slf4j.helpers.BasicMarkerFactory;
 import org.slf4j.spi.MarkerFactoryBinder;
 
+import ch.qos.logback.classic.util.LogbackMarkerFactory;
+
 /**
  * 
  * The binding of {@link MarkerFactory} class with an actual instance of 
@@ -32,14 +33,14 @@ public class StaticMarkerBinder implements MarkerFactoryBinder {
    */
   public static final StaticMarkerBinder SINGLETON = new StaticMarkerBinder();
   
-  final IMarkerFactory markerFactory = new BasicMarkerFactory();
+  final IMarkerFactory markerFactory = new LogbackMarkerFactory();
   
   private StaticMarkerBinder() {
   }
   
   /**
    * Currently this method always returns an instance of 
-   * {@link BasicMarkerFactory}.
+   * {@link LogbackMarkerFactory}.
    */
   public IMarkerFactory getMarkerFactory() {
     return markerFactory;
@@ -47,10 +48,10 @@ public class StaticMarkerBinder implements MarkerFactoryBinder {
   
   /**
    * Currently, this method returns the class name of
-   * {@link BasicMarkerFactory}.
+   * {@link LogbackMarkerFactory}.
    */
   public String getMarkerFactoryClassStr() {
-    return BasicMarkerFactory.class.getName();
+    return LogbackMarkerFactory.class.getName();
   }
   
   
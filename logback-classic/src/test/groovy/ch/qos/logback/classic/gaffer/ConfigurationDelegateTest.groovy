@@ -24,7 +24,8 @@ import java.lang.management.ManagementFactory
 import static org.junit.Assert.*
 import ch.qos.logback.core.status.StatusChecker
 import ch.qos.logback.classic.turbo.TurboFilter
-import ch.qos.logback.classic.turbo.ReconfigureOnChangeFilter
+import ch.qos.logback.classic.joran.ReconfigureOnChangeTask
+import ch.qos.logback.classic.ClassicConstants
 import ch.qos.logback.classic.Level
 import ch.qos.logback.core.testUtil.RandomUtil
 import ch.qos.logback.classic.Logger
@@ -69,13 +70,12 @@ class ConfigurationDelegateTest {
   @Test
   void scan() {
     configurationDelegate.scan("10seconds")
-    assertTrue(statusChecker.containsMatch("Setting ReconfigureOnChangeFilter"))
-    assertTrue(statusChecker.containsMatch("Adding ReconfigureOnChangeFilter as a turbo filter"))
+    assertTrue(statusChecker.containsMatch("Setting ReconfigureOnChangeTask"))
+    assertTrue(statusChecker.containsMatch("Registering ReconfigureOnChangeTask with the context"))
 
-    TurboFilter filter = context.turboFilterList[0]
-    assertTrue(filter instanceof ReconfigureOnChangeFilter)
-    ReconfigureOnChangeFilter rocf = (ReconfigureOnChangeFilter) filter;
-    assertEquals(10 * 1000, rocf.refreshPeriod)
+    ReconfigureOnChangeTask rocTask = (ReconfigureOnChangeTask) context.getObject(ClassicConstants.RECONFIGURE_ON_CHANGE_TASK)
+    assertNotNull(rocTask)
+    assertEquals(10 * 1000, rocTask.refreshPeriod)
   }
 
   @Test
@@ -0,0 +1,120 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.turbo.MDCValueLevelPair;
+import ch.qos.logback.core.read.ListAppender;
+
+public class MDCLevelOverrideTest {
+
+  LoggerContext lc = new LoggerContext();
+  Logger root = lc.getLogger(Logger.ROOT_LOGGER_NAME);
+  ListAppender<ILoggingEvent> listAppender = new ListAppender<ILoggingEvent>();
+  MDCLevelOverride override = new MDCLevelOverride();
+
+  @Before
+  public void setUp() {
+    listAppender.setContext(lc);
+    listAppender.start();
+    root.addAppender(listAppender);
+    root.setLevel(Level.INFO);
+
+    override.setContext(lc);
+    override.setKey("debugRequest");
+    MDCValueLevelPair pair = new MDCValueLevelPair();
+    pair.setValue("true");
+    pair.setLevel(Level.DEBUG);
+    override.addMDCValueLevelPair(pair);
+  }
+
+  @After
+  public void tearDown() {
+    MDC.clear();
+    lc.reset();
+  }
+
+  @Test
+  public void subtreeOnly() {
+    Logger existingChild = lc.getLogger("com.acme.x");
+    override.addLogger("com.acme");
+    override.start();
+    lc.addLevelOverride(override);
+    Logger laterChild = lc.getLogger("com.acme.y.z");
+    Logger other = lc.getLogger("org.other");
+
+    existingChild.debug("denied");
+    MDC.put("debugRequest", "true");
+    existingChild.debug("m0");
+    laterChild.debug("m1");
+    lc.getLogger("com.acme").trace("denied, finer than the override");
+    other.debug("denied, outside of the subtree");
+    assertTrue(laterChild.isDebugEnabled());
+    assertFalse(other.isDebugEnabled());
+    MDC.put("debugRequest", "false");
+    laterChild.debug("denied");
+
+    assertEquals(2, listAppender.list.size());
+    assertEquals("m0", listAppender.list.get(0).getMessage());
+    assertEquals("m1", listAppender.list.get(1).getMessage());
+  }
+
+  @Test
+  public void rootByDefault() {
+    override.start();
+    lc.addLevelOverride(override);
+    MDC.put("debugRequest", "true");
+    lc.getLogger("a.b").debug("m0");
+    assertEquals(1, listAppender.list.size());
+  }
+
+  @Test
+  public void removeAndReset() {
+    override.addLogger("com.acme");
+    override.start();
+    lc.addLevelOverride(override);
+    Logger logger = lc.getLogger("com.acme.x");
+    MDC.put("debugRequest", "true");
+    assertTrue(logger.isDebugEnabled());
+
+    assertTrue(lc.removeLevelOverride(override));
+    assertFalse(logger.isDebugEnabled());
+
+    lc.addLevelOverride(override);
+    assertTrue(logger.isDebugEnabled());
+    lc.reset();
+    assertFalse(override.isStarted());
+    logger.setLevel(Level.INFO);
+    assertFalse(logger.isDebugEnabled());
+  }
+
+  @Test
+  public void unstartedOverrideHasNoEffect() {
+    override.setKey(null);
+    override.start();
+    assertFalse(override.isStarted());
+    lc.addLevelOverride(override);
+    MDC.put("debugRequest", "true");
+    assertFalse(root.isDebugEnabled());
+  }
+}
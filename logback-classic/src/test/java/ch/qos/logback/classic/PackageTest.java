@@ -23,6 +23,6 @@ import org.junit.runners.Suite.SuiteClasses;
         LoggerTest.class, LoggerSerializationTest.class,
         LoggerMessageFormattingTest.class, MDCTest.class,
         TurboFilteringInLoggerTest.class,
-        AsyncAppenderTest.class})
+        AsyncAppenderTest.class, MDCLevelOverrideTest.class})
 public class PackageTest {
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.ClassicTestConstants;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.testUtil.RandomUtil;
+
+public class BinaryEncoderTest {
+
+  LoggerContext context = new LoggerContext();
+  Logger logger = context.getLogger(BinaryEncoderTest.class);
+  BinaryEncoder encoder = new BinaryEncoder();
+
+  int diff = RandomUtil.getPositiveInt();
+  String randomOutputDir = ClassicTestConstants.OUTPUT_DIR_PREFIX + diff + "/";
+
+  @Before
+  public void setUp() {
+    new File(randomOutputDir).mkdirs();
+    encoder.setContext(context);
+  }
+
+  LoggingEvent makeLoggingEvent(long timeStamp, String message, Object[] args, Throwable t) {
+    return makeLoggingEvent(timeStamp, message, args, t, new HashMap<String, String>());
+  }
+
+  LoggingEvent makeLoggingEvent(long timeStamp, String message, Object[] args, Throwable t, Map<String, String> mdc) {
+    LoggingEvent le = new LoggingEvent("", logger, Level.INFO, message, t, args);
+    le.setTimeStamp(timeStamp);
+    le.setMDCPropertyMap(mdc);
+    return le;
+  }
+
+  void encodeList(File file, List<? extends ILoggingEvent> list) throws IOException {
+    encodeList(file, list, true);
+  }
+
+  void encodeList(File file, List<? extends ILoggingEvent> list, boolean closeEncoder) throws IOException {
+    FileOutputStream fos = new FileOutputStream(file);
+    encoder.start();
+    encoder.init(fos);
+    for (ILoggingEvent e : list) {
+      encoder.doEncode(e);
+    }
+    if (closeEncoder) {
+      encoder.close();
+    }
+    fos.close();
+  }
+
+  List<ILoggingEvent> decodeList(File file) throws IOException {
+    BinaryEventReader reader = new BinaryEventReader(file);
+    List<ILoggingEvent> back = new ArrayList<ILoggingEvent>();
+    ILoggingEvent e;
+    while ((e = reader.readEvent()) != null) {
+      back.add(e);
+    }
+    reader.close();
+    return back;
+  }
+
+  @Test
+  public void smoke() throws IOException {
+    File file = new File(randomOutputDir + "smoke.lbb");
+    List<LoggingEvent> witness = new ArrayList<LoggingEvent>();
+    for (int i = 0; i < 10; i++) {
+      witness.add(makeLoggingEvent(1000 + i, "hello {} {}", new Object[] { i, null }, null));
+    }
+    encodeList(file, witness);
+
+    List<ILoggingEvent> back = decodeList(file);
+    assertEquals(witness.size(), back.size());
+    for (int i = 0; i < witness.size(); i++) {
+      ILoggingEvent w = witness.get(i);
+      ILoggingEvent b = back.get(i);
+      assertEquals(w.getTimeStamp(), b.getTimeStamp());
+      assertEquals(w.getLevel(), b.getLevel());
+      assertEquals(w.getLoggerName(), b.getLoggerName());
+      assertEquals(w.getThreadName(), b.getThreadName());
+      assertEquals(w.getMessage(), b.getMessage());
+      assertEquals(w.getFormattedMessage(), b.getFormattedMessage());
+      assertEquals(context.getName(), b.getLoggerContextVO().getName());
+      assertNull(b.getThrowableProxy());
+      assertNull(b.getMarker());
+    }
+  }
+
+  @Test
+  public void mdcMarkerAndThrowable() throws IOException {
+    File file = new File(randomOutputDir + "mmt.lbb");
+    Map<String, String> mdc = new HashMap<String, String>();
+    mdc.put("traceId", "abc");
+    mdc.put("user", "alice");
+    LoggingEvent le = makeLoggingEvent(1, "failure", null, new IllegalStateException("outer",
+        new RuntimeException("inner")), mdc);
+    Marker marker = MarkerFactory.getDetachedMarker("parent");
+    marker.add(MarkerFactory.getDetachedMarker("child"));
+    le.setMarker(marker);
+    List<LoggingEvent> witness = new ArrayList<LoggingEvent>();
+    witness.add(le);
+    encodeList(file, witness);
+
+    ILoggingEvent back = decodeList(file).get(0);
+    assertEquals(mdc, back.getMDCPropertyMap());
+    assertEquals("parent", back.getMarker().getName());
+    assertTrue(back.getMarker().contains("child"));
+
+    IThrowableProxy tp = back.getThrowableProxy();
+    assertNotNull(tp);
+    assertEquals(IllegalStateException.class.getName(), tp.getClassName());
+    assertEquals("outer", tp.getMessage());
+    assertEquals(le.getThrowableProxy().getStackTraceElementProxyArray().length,
+        tp.getStackTraceElementProxyArray().length);
+    assertEquals(le.getThrowableProxy().getStackTraceElementProxyArray()[0].getSTEAsString(),
+        tp.getStackTraceElementProxyArray()[0].getSTEAsString());
+    assertEquals("inner", tp.getCause().getMessage());
+    assertEquals(le.getThrowableProxy().getCause().getCommonFrames(), tp.getCause().getCommonFrames());
+  }
+
+  @Test
+  public void seekByTimeUsingIndex() throws IOException {
+    File file = new File(randomOutputDir + "seek.lbb");
+    encoder.setBlockSize(10);
+    List<LoggingEvent> witness = new ArrayList<LoggingEvent>();
+    for (int i = 0; i < 1000; i++) {
+      witness.add(makeLoggingEvent(i * 10, "event " + i, null, null));
+    }
+    encodeList(file, witness);
+
+    BinaryEventReader reader = new BinaryEventReader(file);
+    assertEquals(100, reader.getBlockIndex().size());
+    reader.seek(5555);
+    assertEquals("event 556", reader.readEvent().getMessage());
+    reader.seek(0);
+    assertEquals("event 0", reader.readEvent().getMessage());
+    reader.close();
+  }
+
+  @Test
+  public void eventsWrittenOutOfOrderAreDecoded() throws IOException {
+    File file = new File(randomOutputDir + "bounds.lbb");
+    encoder.setBlockSize(10);
+    List<LoggingEvent> witness = new ArrayList<LoggingEvent>();
+    for (int i = 0; i < 100; i++) {
+      witness.add(makeLoggingEvent(i, "event " + i, null, null));
+    }
+    // appended by a thread which lost the race to the lock
+    witness.add(makeLoggingEvent(25, "late event", null, null));
+    encodeList(file, witness);
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    BinaryLogDecoder.decode(file, "%msg ", 20, 30, new PrintStream(baos));
+    StringBuilder expected = new StringBuilder();
+    for (int i = 20; i <= 30; i++) {
+      expected.append("event ").append(i).append(' ');
+    }
+    expected.append("late event ");
+    assertEquals(expected.toString(), baos.toString());
+  }
+
+  @Test
+  public void truncatedFileWithoutIndex() throws IOException {
+    File file = new File(randomOutputDir + "truncated.lbb");
+    encoder.setBlockSize(10);
+    List<LoggingEvent> witness = new ArrayList<LoggingEvent>();
+    for (int i = 0; i < 100; i++) {
+      witness.add(makeLoggingEvent(i, "event " + i, null, null));
+    }
+    // simulate a crash: no index, last event partially written
+    encodeList(file, witness, false);
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    raf.setLength(raf.length() - 3);
+    raf.close();
+
+    BinaryEventReader reader = new BinaryEventReader(file);
+    assertEquals(10, reader.getBlockIndex().size());
+    reader.seek(42);
+    assertEquals("event 42", reader.readEvent().getMessage());
+    reader.close();
+    assertEquals(99, decodeList(file).size());
+  }
+
+  @Test
+  public void smallerThanText() throws IOException {
+    File file = new File(randomOutputDir + "size.lbb");
+    List<LoggingEvent> witness = new ArrayList<LoggingEvent>();
+    for (int i = 0; i < 1000; i++) {
+      witness.add(makeLoggingEvent(1400000000000L + i, "Processed request {} in {} ms", new Object[] { i, 10 }, null));
+    }
+    encodeList(file, witness);
+
+    PatternLayout layout = new PatternLayout();
+    layout.setContext(context);
+    layout.setPattern(BinaryLogDecoder.DEFAULT_PATTERN);
+    layout.start();
+    long textLength = 0;
+    for (LoggingEvent le : witness) {
+      textLength += layout.doLayout(le).length();
+    }
+    assertTrue("binary size " + file.length() + " text size " + textLength, file.length() * 3 < textLength);
+  }
+}
@@ -18,6 +18,6 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses( { PatternLayoutEncoderTest.class, LayoutInsteadOfEncoderTest.class})
+@SuiteClasses( { PatternLayoutEncoderTest.class, LayoutInsteadOfEncoderTest.class, BinaryEncoderTest.class })
 public class PackageTest {
 }
\ No newline at end of file
@@ -17,7 +17,6 @@ import java.io.File;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.concurrent.TimeUnit;
 
 import ch.qos.logback.classic.jul.JULHelper;
 import ch.qos.logback.core.pattern.parser.Parser;
@@ -285,8 +284,32 @@ public class JoranConfiguratorTest {
     assertEquals("hello user2", le.getMessage());
   }
 
-  // Tests whether ConfigurationAction is installing ReconfigureOnChangeFilter
   @Test
+  public void levelOverride() throws JoranException {
+    configure(ClassicTestConstants.JORAN_INPUT_PREFIX + "levelOverride.xml");
+
+    ListAppender listAppender = (ListAppender) root.getAppender("LIST");
+    assertEquals(1, loggerContext.getLevelOverrideList().size());
+
+    // this one should be denied
+    logger.debug("hello");
+    MDC.put("debugRequest", "true");
+    try {
+      // this one should log
+      logger.debug("hello debugRequest");
+      // outside of the overridden subtree
+      loggerContext.getLogger("other").debug("hello other");
+    } finally {
+      MDC.remove("debugRequest");
+    }
+
+    assertEquals(1, listAppender.list.size());
+    ILoggingEvent le = (ILoggingEvent) listAppender.list.get(0);
+    assertEquals("hello debugRequest", le.getMessage());
+  }
+
+  // Tests whether ConfigurationAction is installing ReconfigureOnChangeTask
+  @Test(timeout = 4000L)
   public void autoscanShouldReconfigureOnFileChange() throws Exception {
 
     String configFileAsStr = ClassicTestConstants.JORAN_INPUT_PREFIX
@@ -294,20 +317,15 @@ public class JoranConfiguratorTest {
     configure(configFileAsStr);
 
     File file = new File(configFileAsStr);
-    file.setLastModified(System.currentTimeMillis());
-
-    Thread.sleep(10);
-    // scanning requires 16 logs
-    for (int i = 0; i < 16; i++) {
-      logger.debug("after " + i);
-    }
-
-    loggerContext.getExecutorService().shutdown();
-    loggerContext.getExecutorService().awaitTermination(1000, TimeUnit.MILLISECONDS);
+    // file modification times may have a granularity of one second
+    file.setLastModified(System.currentTimeMillis() + 2000);
 
+    // no logging is needed for the change to be detected
     StatusChecker checker = new StatusChecker(loggerContext);
+    while (!checker.containsMatch(CoreConstants.RESET_MSG_PREFIX)) {
+      Thread.sleep(10);
+    }
     checker.assertIsErrorFree();
-    checker.assertContainsMatch(CoreConstants.RESET_MSG_PREFIX);
   }
 
   @Test
@@ -112,6 +112,20 @@ public class ConverterTest {
     assertEquals("Some message", buf.toString());
   }
 
+  @Test
+  public void testTruncatedMessage() {
+    LoggingEvent event = new LoggingEvent(
+        ch.qos.logback.core.pattern.FormattingConverter.class.getName(),
+        logger, Level.INFO, "Hello {}, {}", null, new Object[] { "world", "again" });
+    DynamicConverter<ILoggingEvent> converter = new MessageConverter();
+    converter.setFormattingInfo(new FormatInfo(Integer.MIN_VALUE, 8, true, false));
+    converter.start();
+    StringBuilder buf = new StringBuilder();
+    converter.write(buf, event);
+    assertEquals("Hello wo", buf.toString());
+    assertEquals("Hello world, again", event.getFormattedMessage());
+  }
+
   @Test
   public void testLineSeparator() {
     DynamicConverter<ILoggingEvent> converter = new LineSeparatorConverter();
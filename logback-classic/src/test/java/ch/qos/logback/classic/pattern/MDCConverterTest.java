@@ -14,6 +14,7 @@
 package ch.qos.logback.classic.pattern;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import ch.qos.logback.core.testUtil.RandomUtil;
@@ -27,6 +28,7 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
 import ch.qos.logback.core.util.SystemInfo;
 
 public class MDCConverterTest {
@@ -72,7 +74,28 @@ public class MDCConverterTest {
     assertTrue(result + " is not conform", isConform);
   }
 
-  private ILoggingEvent createLoggingEvent() {
+  @Test
+  public void testConvertWithSnapshot() {
+    LogbackMDCAdapter mdcAdapter = new LogbackMDCAdapter();
+    mdcAdapter.put("testKey", "testValue");
+    LoggingEvent le0 = createLoggingEvent();
+    le0.setMDCPropertyMap(mdcAdapter.getPropertyMap());
+    LoggingEvent le1 = createLoggingEvent();
+    le1.setMDCPropertyMap(mdcAdapter.getPropertyMap());
+
+    String result0 = converter.convert(le0);
+    assertEquals("testKey=testValue", result0);
+    // the rendering of an unchanged MDC is reused
+    assertSame(result0, converter.convert(le1));
+
+    mdcAdapter.put("testKey", "otherValue");
+    LoggingEvent le2 = createLoggingEvent();
+    le2.setMDCPropertyMap(mdcAdapter.getPropertyMap());
+    assertEquals("testKey=otherValue", converter.convert(le2));
+    assertEquals("testKey=testValue", converter.convert(le0));
+  }
+
+  private LoggingEvent createLoggingEvent() {
     return new LoggingEvent(this.getClass().getName(), lc
         .getLogger(Logger.ROOT_LOGGER_NAME), Level.DEBUG, "test message", null,
         null);
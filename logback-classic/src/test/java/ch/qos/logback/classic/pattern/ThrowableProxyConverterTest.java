@@ -211,6 +211,38 @@ public class ThrowableProxyConverterTest {
     assertThat(lines).hasSize(3 + 1);
   }
 
+  @Test
+  public void cachedFramesWithDifferentMessages() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      Exception e = makeException("message " + i);
+      StringWriter expected = new StringWriter();
+      e.printStackTrace(new PrintWriter(expected));
+      String result = tpc.convert(createLoggingEvent(e));
+      assertEquals(expected.toString(), result.replace("common frames omitted", "more"));
+    }
+  }
+
+  @Test
+  public void renderingCacheSharedWithinContext() throws Exception {
+    ThrowableProxyConverter other = new ThrowableProxyConverter();
+    other.setContext(lc);
+    other.start();
+    assertSame(tpc.renderingCache, other.renderingCache);
+    assertEquals(tpc.renderingSignature, other.renderingSignature);
+
+    Exception e = makeException("shared");
+    assertEquals(tpc.convert(createLoggingEvent(e)), other.convert(createLoggingEvent(e)));
+
+    ExtendedThrowableProxyConverter extended = new ExtendedThrowableProxyConverter();
+    extended.setContext(lc);
+    extended.start();
+    assertFalse(tpc.renderingSignature.equals(extended.renderingSignature));
+  }
+
+  Exception makeException(String message) {
+    return new Exception(message);
+  }
+
   void someMethod() throws Exception {
     throw new Exception("someMethod");
   }
@@ -0,0 +1,98 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.slf4j.helpers.MessageFormatter;
+
+public class BoundedMessageFormatterTest {
+
+  void verifyAllLengths(String pattern, Object... args) {
+    String full = MessageFormatter.arrayFormat(pattern, args).getMessage();
+    for (int max = 0; max <= full.length() + 2; max++) {
+      String expected = full.length() > max ? full.substring(0, max) : full;
+      assertEquals("max=" + max, expected, BoundedMessageFormatter.arrayFormat(pattern, args, max));
+    }
+  }
+
+  @Test
+  public void smoke() {
+    verifyAllLengths("Hello {}, you are {} years old", "Alice", 42);
+  }
+
+  @Test
+  public void noArguments() {
+    verifyAllLengths("no arguments at all", (Object[]) null);
+    verifyAllLengths("no placeholder", "a");
+  }
+
+  @Test
+  public void moreArgumentsThanPlaceholders() {
+    verifyAllLengths("{} and {}", 1, 2, 3);
+    verifyAllLengths("{} and {} and {}", 1, 2);
+  }
+
+  @Test
+  public void escapedDelimiters() {
+    verifyAllLengths("escaped \\{} then {}", "x");
+    verifyAllLengths("double escaped \\\\{} then {}", "x", "y");
+    verifyAllLengths("{}{}", null, "b");
+  }
+
+  @Test
+  public void arrays() {
+    verifyAllLengths("ints {} chars {} booleans {}", new int[] { 1, 2, 3 }, new char[] { 'a', 'b' },
+        new boolean[] { true, false });
+    verifyAllLengths("bytes {} shorts {} longs {}", new byte[] { 1, 2 }, new short[] { 3 }, new long[] { 4L, 5L });
+    verifyAllLengths("floats {} doubles {}", new float[] { 1.5f }, new double[] { 2.5, 3.5 });
+    Object[] nested = new Object[] { "a", new Object[] { "b", null }, new int[] { 7 } };
+    verifyAllLengths("nested {}", new Object[] { nested });
+  }
+
+  @Test
+  public void selfReferencingArray() {
+    Object[] a = new Object[2];
+    a[0] = "x";
+    a[1] = a;
+    verifyAllLengths("cycle {}", new Object[] { a });
+  }
+
+  @Test
+  public void failingToString() {
+    Object o = new Object() {
+      public String toString() {
+        throw new IllegalStateException();
+      }
+    };
+    assertEquals("x [FAILED toString()]", BoundedMessageFormatter.arrayFormat("x {}", new Object[] { o }, 100));
+  }
+
+  @Test
+  public void hugeArgumentIsCut() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      sb.append('x');
+    }
+    String result = BoundedMessageFormatter.arrayFormat("payload={}", new Object[] { sb }, 20);
+    assertEquals("payload=xxxxxxxxxxxx", result);
+  }
+
+  @Test
+  public void nullPattern() {
+    assertNull(BoundedMessageFormatter.arrayFormat(null, new Object[] { "a" }, 10));
+  }
+}
@@ -14,15 +14,18 @@
 package ch.qos.logback.classic.spi;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.After;
@@ -35,6 +38,7 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.net.LoggingEventPreSerializationTransformer;
 import ch.qos.logback.core.spi.PreSerializationTransformer;
+import ch.qos.logback.core.util.CoreTestConstants;
 
 public class LoggingEventSerializationTest {
 
@@ -183,6 +187,49 @@ public class LoggingEventSerializationTest {
     assertEquals(largeString, stringBack);
   }
 
+  @Test
+  public void explicitMDCWithNullValue() throws Exception {
+    Map<String, String> mdc = new HashMap<String, String>();
+    mdc.put("k0", "v0");
+    mdc.put("k1", null);
+    LoggingEvent event = createLoggingEvent();
+    event.setMDCPropertyMap(mdc);
+    ILoggingEvent remoteEvent = writeAndRead(event);
+    checkForEquality(event, remoteEvent);
+    assertEquals(mdc, remoteEvent.getMDCPropertyMap());
+  }
+
+  // receivers of previous versions know neither SmallStringMap nor a
+  // compact form of the MDC
+  @Test
+  public void MDCIsSerializedAsAHashMapField() throws Exception {
+    MDC.put("key", "testValue");
+    ILoggingEvent event = createLoggingEvent();
+    oos.writeObject(pst.transform(event));
+    oos.flush();
+    String stream = new String(bos.toByteArray(), "ISO-8859-1");
+    assertFalse(stream.contains("SmallStringMap"));
+    ILoggingEvent remoteEvent = (ILoggingEvent) new ObjectInputStream(new ByteArrayInputStream(
+        bos.toByteArray())).readObject();
+    assertEquals(HashMap.class, remoteEvent.getMDCPropertyMap().getClass());
+    assertEquals("testValue", remoteEvent.getMDCPropertyMap().get("key"));
+  }
+
+  // the MDC was serialized as a regular field in previous versions
+  @Test
+  public void readPreviousFormat() throws Exception {
+    FileInputStream fis = new FileInputStream(CoreTestConstants.TEST_INPUT_PREFIX
+        + "/serialization/loggingEvent_v1.1.3.ser");
+    inputStream = new ObjectInputStream(fis);
+    ILoggingEvent remoteEvent = (ILoggingEvent) inputStream.readObject();
+    inputStream.close();
+    assertEquals("test message", remoteEvent.getMessage());
+    assertEquals(Level.DEBUG, remoteEvent.getLevel());
+    assertEquals(1000L, remoteEvent.getTimeStamp());
+    assertEquals("testContext", remoteEvent.getLoggerContextVO().getName());
+    assertEquals("testValue", remoteEvent.getMDCPropertyMap().get("key"));
+  }
+
   private LoggingEvent createLoggingEvent() {
     return new LoggingEvent(this.getClass().getName(), logger,
         Level.DEBUG, "test message", null, null);
@@ -0,0 +1,86 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import ch.qos.logback.core.contention.RunnableWithCounterAndDone;
+import ch.qos.logback.core.contention.ThreadedThroughputCalculator;
+
+/**
+ * Compares the throughput of {@link LRUMessageCache} and
+ * {@link ShardedMessageCache} when invoked by many threads, as
+ * {@link DuplicateMessageFilter} is on every logging request.
+ */
+public class DuplicateMessageFilterThroughput {
+
+  static int THREAD_COUNT = 32;
+  static long OVERALL_DURATION_IN_MILLIS = 5000;
+  // fits in the default cache size, as repeated messages do
+  static int MESSAGE_COUNT = 50;
+
+  static final String[] MESSAGES = new String[MESSAGE_COUNT];
+
+  static {
+    for (int i = 0; i < MESSAGE_COUNT; i++) {
+      MESSAGES[i] = "Message number " + i + " with {} as argument";
+    }
+  }
+
+  public static void main(String args[]) throws InterruptedException {
+    ThreadedThroughputCalculator tp = new ThreadedThroughputCalculator(OVERALL_DURATION_IN_MILLIS);
+    tp.printEnvironmentInfo("DuplicateMessageFilterThroughput");
+
+    for (int i = 0; i < 2; i++) {
+      tp.execute(buildLRUArray());
+      tp.execute(buildShardedArray());
+    }
+
+    tp.execute(buildLRUArray());
+    tp.printThroughput("LRUMessageCache:     ");
+
+    tp.execute(buildShardedArray());
+    tp.printThroughput("ShardedMessageCache: ");
+  }
+
+  static RunnableWithCounterAndDone[] buildLRUArray() {
+    final LRUMessageCache cache = new LRUMessageCache(DuplicateMessageFilter.DEFAULT_CACHE_SIZE);
+    RunnableWithCounterAndDone[] array = new RunnableWithCounterAndDone[THREAD_COUNT];
+    for (int i = 0; i < THREAD_COUNT; i++) {
+      array[i] = new RunnableWithCounterAndDone() {
+        public void run() {
+          while (!isDone()) {
+            cache.getMessageCountAndThenIncrement(MESSAGES[(int) (counter % MESSAGE_COUNT)]);
+            counter++;
+          }
+        }
+      };
+    }
+    return array;
+  }
+
+  static RunnableWithCounterAndDone[] buildShardedArray() {
+    final ShardedMessageCache cache = new ShardedMessageCache(DuplicateMessageFilter.DEFAULT_CACHE_SIZE);
+    RunnableWithCounterAndDone[] array = new RunnableWithCounterAndDone[THREAD_COUNT];
+    for (int i = 0; i < THREAD_COUNT; i++) {
+      array[i] = new RunnableWithCounterAndDone() {
+        public void run() {
+          while (!isDone()) {
+            cache.getMessageCountAndThenIncrement(MESSAGES[(int) (counter % MESSAGE_COUNT)]);
+            counter++;
+          }
+        }
+      };
+    }
+    return array;
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class DynamicThresholdFilterTest {
+
+  @After
+  public void tearDown() {
+    MDC.clear();
+  }
+
+  @Test
+  public void thresholdFollowsMDC() {
+    DynamicThresholdFilter filter = new DynamicThresholdFilter();
+    filter.setKey("user");
+    filter.setDefaultThreshold(Level.WARN);
+    MDCValueLevelPair pair = new MDCValueLevelPair();
+    pair.setValue("alice");
+    pair.setLevel(Level.DEBUG);
+    filter.addMDCValueLevelPair(pair);
+    filter.start();
+
+    assertEquals(FilterReply.DENY, filter.decide(null, null, Level.INFO, null, null, null));
+    assertEquals(FilterReply.NEUTRAL, filter.decide(null, null, Level.WARN, null, null, null));
+    MDC.put("user", "alice");
+    assertEquals(FilterReply.NEUTRAL, filter.decide(null, null, Level.DEBUG, null, null, null));
+    MDC.remove("user");
+    assertEquals(FilterReply.DENY, filter.decide(null, null, Level.DEBUG, null, null, null));
+
+    // changing the settings of a started filter is taken into account
+    filter.setDefaultThreshold(Level.TRACE);
+    assertEquals(FilterReply.NEUTRAL, filter.decide(null, null, Level.DEBUG, null, null, null));
+    filter.stop();
+  }
+}
@@ -0,0 +1,48 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class MDCFilterTest {
+
+  @After
+  public void tearDown() {
+    MDC.clear();
+  }
+
+  @Test
+  public void mdcFilter() {
+    MDCFilter filter = new MDCFilter();
+    filter.setMDCKey("user");
+    filter.setValue("alice");
+    filter.setOnMatch("ACCEPT");
+    filter.setOnMismatch("DENY");
+    filter.start();
+
+    assertEquals(FilterReply.DENY, filter.decide(null, null, Level.DEBUG, null, null, null));
+    MDC.put("user", "alice");
+    assertEquals(FilterReply.ACCEPT, filter.decide(null, null, Level.DEBUG, null, null, null));
+    MDC.put("user", "bob");
+    assertEquals(FilterReply.DENY, filter.decide(null, null, Level.DEBUG, null, null, null));
+    filter.stop();
+  }
+}
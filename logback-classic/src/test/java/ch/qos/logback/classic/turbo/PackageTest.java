@@ -19,6 +19,8 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses( { ReconfigureOnChangeTest.class, MarkerFilterTest.class,
-    DuplicateMessageFilterTest.class })
+    DuplicateMessageFilterTest.class, MDCFilterTest.class,
+    DynamicThresholdFilterTest.class, ShardedMessageCacheTest.class,
+    RateLimitingFilterTest.class })
 public class PackageTest {
 }
\ No newline at end of file
@@ -0,0 +1,224 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
+
+public class RateLimitingFilterTest {
+
+  LoggerContext lc = new LoggerContext();
+  Logger a = lc.getLogger("a");
+  Logger b = lc.getLogger("b");
+  ListAppender<ILoggingEvent> listAppender = new ListAppender<ILoggingEvent>();
+
+  long now = 0;
+  RateLimitingFilter filter = new RateLimitingFilter() {
+    @Override
+    long nanoTime() {
+      return now;
+    }
+  };
+
+  @Before
+  public void setUp() {
+    listAppender.setContext(lc);
+    listAppender.start();
+    lc.getLogger(RateLimitingFilter.class).addAppender(listAppender);
+    filter.setContext(lc);
+  }
+
+  @After
+  public void tearDown() {
+    MDC.clear();
+  }
+
+  FilterReply decide(Logger logger, Level level) {
+    return filter.decide(null, logger, level, "x", null, null);
+  }
+
+  void advanceMillis(long millis) {
+    now += TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  @Test
+  public void burstThenRate() {
+    filter.setEventsPerSecond(10);
+    filter.setBurst(3);
+    filter.start();
+    assertTrue(filter.isStarted());
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(FilterReply.NEUTRAL, decide(a, Level.INFO));
+    }
+    assertEquals(FilterReply.DENY, decide(a, Level.INFO));
+    // other loggers have their own bucket
+    assertEquals(FilterReply.NEUTRAL, decide(b, Level.INFO));
+
+    advanceMillis(100);
+    assertEquals(FilterReply.NEUTRAL, decide(a, Level.INFO));
+    assertEquals(FilterReply.DENY, decide(a, Level.INFO));
+
+    advanceMillis(1000);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(FilterReply.NEUTRAL, decide(a, Level.INFO));
+    }
+    assertEquals(FilterReply.DENY, decide(a, Level.INFO));
+  }
+
+  @Test
+  public void disabledRequestsUseUpNoTokens() {
+    filter.setEventsPerSecond(1);
+    filter.setSamplingRate(0);
+    filter.start();
+    lc.addTurboFilter(filter);
+    ListAppender<ILoggingEvent> aAppender = new ListAppender<ILoggingEvent>();
+    aAppender.setContext(lc);
+    aAppender.start();
+    a.addAppender(aAppender);
+    a.setLevel(Level.INFO);
+
+    for (int i = 0; i < 10; i++) {
+      a.debug("disabled");
+    }
+    assertTrue(a.isInfoEnabled());
+    a.info("enabled");
+    assertEquals(1, aAppender.list.size());
+    a.info("limited");
+    assertEquals(1, aAppender.list.size());
+
+    // nothing was suppressed or sampled out on account of DEBUG requests
+    filter.emitSummary();
+    assertEquals(1, listAppender.list.size());
+    assertEquals("Suppressed 1 logging requests: a=1", listAppender.list.get(0).getMessage());
+  }
+
+  @Test
+  public void perLevel() {
+    filter.setEventsPerSecond(1);
+    filter.setPerLevel(true);
+    filter.start();
+
+    assertEquals(FilterReply.NEUTRAL, decide(a, Level.INFO));
+    assertEquals(FilterReply.DENY, decide(a, Level.INFO));
+    assertEquals(FilterReply.NEUTRAL, decide(a, Level.ERROR));
+    assertEquals(FilterReply.DENY, decide(a, Level.ERROR));
+  }
+
+  @Test
+  public void byMDC() {
+    filter.setKeyType(RateLimitingFilter.KeyType.MDC);
+    filter.setMDCKey("user");
+    filter.setEventsPerSecond(1);
+    filter.start();
+
+    MDC.put("user", "alice");
+    assertEquals(FilterReply.NEUTRAL, decide(a, Level.INFO));
+    assertEquals(FilterReply.DENY, decide(b, Level.INFO));
+    MDC.put("user", "bob");
+    assertEquals(FilterReply.NEUTRAL, decide(a, Level.INFO));
+  }
+
+  @Test
+  public void byMarker() {
+    filter.setKeyType(RateLimitingFilter.KeyType.MARKER);
+    filter.setEventsPerSecond(1);
+    filter.start();
+
+    assertEquals(FilterReply.NEUTRAL, filter.decide(MarkerFactory.getMarker("m1"), a, Level.INFO, "x", null, null));
+    assertEquals(FilterReply.DENY, filter.decide(MarkerFactory.getMarker("m1"), b, Level.INFO, "x", null, null));
+    assertEquals(FilterReply.NEUTRAL, filter.decide(MarkerFactory.getMarker("m2"), a, Level.INFO, "x", null, null));
+  }
+
+  @Test
+  public void missingMDCKey() {
+    filter.setKeyType(RateLimitingFilter.KeyType.MDC);
+    filter.start();
+    assertFalse(filter.isStarted());
+  }
+
+  @Test
+  public void maxKeys() {
+    filter.setEventsPerSecond(1);
+    filter.setMaxKeys(1);
+    filter.start();
+
+    assertEquals(FilterReply.NEUTRAL, decide(a, Level.INFO));
+    // b and c share the bucket of additional keys
+    assertEquals(FilterReply.NEUTRAL, decide(b, Level.INFO));
+    assertEquals(FilterReply.DENY, decide(lc.getLogger("c"), Level.INFO));
+  }
+
+  @Test
+  public void sampling() {
+    filter.setSamplingRate(0.25);
+    filter.start();
+
+    int accepted = 0;
+    for (int i = 0; i < 10000; i++) {
+      if (decide(a, Level.DEBUG) == FilterReply.NEUTRAL) {
+        accepted++;
+      }
+      // INFO is above the sampling level
+      assertEquals(FilterReply.NEUTRAL, decide(a, Level.INFO));
+    }
+    assertTrue("accepted " + accepted, accepted > 2000 && accepted < 3000);
+  }
+
+  @Test
+  public void summary() {
+    filter.setEventsPerSecond(1);
+    filter.setSummaryInterval(Duration.buildBySeconds(10));
+    filter.start();
+
+    decide(a, Level.INFO);
+    decide(a, Level.INFO);
+    decide(a, Level.INFO);
+    decide(b, Level.INFO);
+    decide(b, Level.INFO);
+    assertEquals(0, listAppender.list.size());
+
+    advanceMillis(10000);
+    decide(a, Level.INFO);
+    decide(a, Level.INFO);
+    assertEquals(1, listAppender.list.size());
+    String msg = listAppender.list.get(0).getFormattedMessage();
+    assertTrue(msg, msg.startsWith("Suppressed 4 logging requests: "));
+    assertTrue(msg, msg.contains("a=3"));
+    assertTrue(msg, msg.contains("b=1"));
+
+    // the remaining count is reported on stop
+    decide(a, Level.INFO);
+    filter.stop();
+    assertEquals(2, listAppender.list.size());
+    assertEquals("Suppressed 1 logging requests: a=1", listAppender.list.get(1).getFormattedMessage());
+  }
+}
@@ -13,6 +13,7 @@
  */
 package ch.qos.logback.classic.turbo;
 
+import ch.qos.logback.classic.ClassicConstants;
 import ch.qos.logback.classic.ClassicTestConstants;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
@@ -20,7 +21,7 @@ import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.gaffer.GafferConfigurator;
 import ch.qos.logback.classic.issue.lbclassic135.LoggingRunnable;
 import ch.qos.logback.classic.joran.JoranConfigurator;
-import ch.qos.logback.classic.spi.TurboFilterList;
+import ch.qos.logback.classic.joran.ReconfigureOnChangeTask;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.contention.AbstractMultiThreadedHarness;
 import ch.qos.logback.core.contention.RunnableWithCounterAndDone;
@@ -44,7 +45,6 @@ import java.net.MalformedURLException;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -134,41 +134,72 @@ public class ReconfigureOnChangeTest {
     return rArray;
   }
 
-  // Tests whether ConfigurationAction is installing ReconfigureOnChangeFilter
+  // Tests whether ConfigurationAction is installing ReconfigureOnChangeTask
   @Test
-  public void installFilter() throws JoranException, IOException, InterruptedException {
+  public void installTask() throws JoranException, IOException, InterruptedException {
     File file = new File(SCAN1_FILE_AS_STR);
     configure(file);
     List<File> fileList = getConfigurationFileList(loggerContext);
     assertThatListContainsFile(fileList, file);
-    assertThatFirstFilterIsROCF();
+    assertThatTaskIsInstalled();
+    // scanning is not done by a turbo filter
+    assertEquals(0, loggerContext.getTurboFilterList().size());
     StatusPrinter.print(loggerContext);
   }
 
 
   @Test
-  public void gafferInstallFilter() throws JoranException, IOException, InterruptedException {
+  public void gafferInstallTask() throws JoranException, IOException, InterruptedException {
     File file = new File(G_SCAN1_FILE_AS_STR);
     gConfigure(file);
     List<File> fileList = getConfigurationFileList(loggerContext);
     assertThatListContainsFile(fileList, file);
-    assertThatFirstFilterIsROCF();
+    assertThatTaskIsInstalled();
 
-    rocfDetachReconfigurationToNewThreadAndAwaitTermination();
+    getReconfigureOnChangeTask().reconfigure();
 
     fileList = getConfigurationFileList(loggerContext);
     assertThatListContainsFile(fileList, file);
-    assertThatFirstFilterIsROCF();
+    assertThatTaskIsInstalled();
 
-    // check that rcof filter installed on two occasions
+    // check that the task was installed on two occasions
     assertEquals(2, checker.matchCount("Will scan for changes in"));
   }
 
-  private void rocfDetachReconfigurationToNewThreadAndAwaitTermination() throws InterruptedException {
-    ReconfigureOnChangeFilter reconfigureOnChangeFilter = (ReconfigureOnChangeFilter) getFirstTurboFilter();
-    reconfigureOnChangeFilter.detachReconfigurationToNewThread();
-    executorService.shutdown();
-    executorService.awaitTermination(1000, TimeUnit.MILLISECONDS);
+  @Test(timeout = 4000L)
+  public void reconfigureOnChange() throws JoranException, IOException, InterruptedException {
+    String path = CoreTestConstants.OUTPUT_DIR_PREFIX + "reconfigureOnChangeConfig_change-" + diff + ".xml";
+    File topLevelFile = new File(path);
+    writeToFile(topLevelFile, "<configuration scan=\"true\" scanPeriod=\"50 millisecond\"><root level=\"ERROR\"/></configuration> ");
+    configure(topLevelFile);
+    ReconfigureOnChangeTask oldTask = getReconfigureOnChangeTask();
+
+    writeToFile(topLevelFile, "<configuration scan=\"true\" scanPeriod=\"50 millisecond\"><root level=\"WARN\"/></configuration> ");
+    // file modification times may have a granularity of one second
+    topLevelFile.setLastModified(System.currentTimeMillis() + 2000);
+
+    while (loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).getLevel() != Level.WARN) {
+      Thread.sleep(10);
+    }
+    assertFalse(oldTask.isStarted());
+    assertThatTaskIsInstalled();
+  }
+
+  @Test(timeout = 4000L)
+  public void reconfigureOnChangeWithWatchService() throws JoranException, IOException, InterruptedException {
+    String path = CoreTestConstants.OUTPUT_DIR_PREFIX + "reconfigureOnChangeConfig_watch-" + diff + ".xml";
+    File topLevelFile = new File(path);
+    String config = "<configuration scan=\"true\" scanPeriod=\"50 millisecond\" scanWithWatchService=\"true\"><root level=\"%s\"/></configuration> ";
+    writeToFile(topLevelFile, String.format(config, "ERROR"));
+    configure(topLevelFile);
+    assertTrue(getReconfigureOnChangeTask().isUseWatchService());
+
+    writeToFile(topLevelFile, String.format(config, "WARN"));
+    while (loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).getLevel() != Level.WARN) {
+      Thread.sleep(10);
+    }
+    assertThatTaskIsInstalled();
+    assertTrue(ConfigurationWatchListUtil.getConfigurationWatchList(loggerContext).isWatching());
   }
 
   List<File> getConfigurationFileList(LoggerContext context) {
@@ -206,9 +237,8 @@ public class ReconfigureOnChangeTest {
     ConfigurationWatchList configurationWatchList = ConfigurationWatchListUtil.getConfigurationWatchList(loggerContext);
     assertNull(configurationWatchList.getMainURL());
 
-    ReconfigureOnChangeFilter reconfigureOnChangeFilter = (ReconfigureOnChangeFilter) getFirstTurboFilter();
-    // without a top level file, reconfigureOnChangeFilter should not start
-    assertFalse(reconfigureOnChangeFilter.isStarted());
+    // without a top level file, the task should not start
+    assertFalse(getReconfigureOnChangeTask().isStarted());
   }
 
   @Test(timeout = 4000L)
@@ -221,12 +251,12 @@ public class ReconfigureOnChangeTest {
     writeToFile(topLevelFile, "<configuration scan=\"true\" scanPeriod=\"50 millisecond\">\n" +
             "  <root></configuration>");
 
-    rocfDetachReconfigurationToNewThreadAndAwaitTermination();
+    getReconfigureOnChangeTask().reconfigure();
 
     checker.assertContainsMatch(Status.WARN, "Falling back to previously registered safe configuration.");
     checker.assertContainsMatch(Status.INFO, "Re-registering previous fallback configuration once more");
 
-    assertThatFirstFilterIsROCF();
+    assertThatTaskIsInstalled();
   }
 
   @Test(timeout = 4000L)
@@ -240,12 +270,12 @@ public class ReconfigureOnChangeTest {
     writeToFile(innerFile, "<included><root level=\"ERROR\"/></included> ");
     configure(topLevelFile);
     writeToFile(innerFile, "<included>\n<root>\n</included>");
-    rocfDetachReconfigurationToNewThreadAndAwaitTermination();
+    getReconfigureOnChangeTask().reconfigure();
 
     checker.assertContainsMatch(Status.WARN, "Falling back to previously registered safe configuration.");
     checker.assertContainsMatch(Status.INFO, "Re-registering previous fallback configuration once more");
 
-    assertThatFirstFilterIsROCF();
+    assertThatTaskIsInstalled();
   }
 
 
@@ -271,14 +301,14 @@ public class ReconfigureOnChangeTest {
     assertTrue(fileList.contains(file.getAbsoluteFile()));
   }
 
-  private TurboFilter getFirstTurboFilter() {
-    TurboFilterList turboFilterList = loggerContext.getTurboFilterList();
-    return turboFilterList.get(0);
+  private ReconfigureOnChangeTask getReconfigureOnChangeTask() {
+    return (ReconfigureOnChangeTask) loggerContext.getObject(ClassicConstants.RECONFIGURE_ON_CHANGE_TASK);
   }
 
-
-  private void assertThatFirstFilterIsROCF() {
-    assertTrue(getFirstTurboFilter() instanceof ReconfigureOnChangeFilter);
+  private void assertThatTaskIsInstalled() {
+    ReconfigureOnChangeTask task = getReconfigureOnChangeTask();
+    assertNotNull(task);
+    assertTrue(task.isStarted());
   }
 
 
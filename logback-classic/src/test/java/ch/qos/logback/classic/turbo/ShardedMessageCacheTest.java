@@ -0,0 +1,87 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ShardedMessageCacheTest {
+
+  @Test
+  public void testEldestEntriesRemoval() {
+    final ShardedMessageCache cache = new ShardedMessageCache(2);
+    assertEquals(0, cache.getMessageCountAndThenIncrement("0"));
+    assertEquals(1, cache.getMessageCountAndThenIncrement("0"));
+    assertEquals(0, cache.getMessageCountAndThenIncrement("1"));
+    assertEquals(1, cache.getMessageCountAndThenIncrement("1"));
+    // 0 entry should have been removed.
+    assertEquals(0, cache.getMessageCountAndThenIncrement("2"));
+    // 1 entry should have been removed.
+    assertEquals(0, cache.getMessageCountAndThenIncrement("0"));
+    // 2 entry should have been removed.
+    assertEquals(0, cache.getMessageCountAndThenIncrement("1"));
+    assertEquals(0, cache.getMessageCountAndThenIncrement("2"));
+  }
+
+  @Test
+  public void sharding() {
+    assertEquals(1, new ShardedMessageCache(10).shards.length);
+    assertEquals(2, new ShardedMessageCache(DuplicateMessageFilter.DEFAULT_CACHE_SIZE).shards.length);
+    assertEquals(ShardedMessageCache.MAX_SHARDS, new ShardedMessageCache(1000 * 1000).shards.length);
+  }
+
+  @Test
+  public void sizeIsBounded() {
+    int cacheSize = 1000;
+    ShardedMessageCache cache = new ShardedMessageCache(cacheSize);
+    for (int i = 0; i < 10 * cacheSize; i++) {
+      cache.getMessageCountAndThenIncrement("m" + i);
+    }
+    int total = 0;
+    for (ShardedMessageCache.Shard shard : cache.shards) {
+      assertTrue(shard.map.size() <= shard.ring.length);
+      total += shard.map.size();
+    }
+    assertTrue(total <= cacheSize + cache.shards.length);
+    // the most recent message is still there
+    assertEquals(1, cache.getMessageCountAndThenIncrement("m" + (10 * cacheSize - 1)));
+  }
+
+  @Test
+  public void concurrentCounting() throws InterruptedException {
+    final ShardedMessageCache cache = new ShardedMessageCache(1000);
+    final int threadCount = 8;
+    final int loopLength = 10000;
+    Thread[] threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          for (int j = 0; j < loopLength; j++) {
+            cache.getMessageCountAndThenIncrement("m" + (j % 100));
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    for (int j = 0; j < 100; j++) {
+      assertEquals(threadCount * loopLength / 100, cache.getMessageCountAndThenIncrement("m" + j));
+    }
+  }
+}
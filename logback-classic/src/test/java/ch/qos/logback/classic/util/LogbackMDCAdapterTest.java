@@ -85,6 +85,37 @@ public class LogbackMDCAdapterTest {
     assertEquals("v0", map0.get("k0"));
   }
 
+  @Test
+  public void snapshotIsReusedWhileMDCIsUnchanged() {
+    mdcAdapter.put("k0", "v0");
+    mdcAdapter.put("k1", "v1");
+    Map<String, String> map0 = mdcAdapter.getPropertyMap();
+    assertSame(map0, mdcAdapter.getPropertyMap());
+    String rendering0 = ((MDCSnapshot) map0).toKeyValueString();
+    assertSame(rendering0, ((MDCSnapshot) mdcAdapter.getPropertyMap()).toKeyValueString());
+
+    mdcAdapter.put("k1", "v2");
+    Map<String, String> map1 = mdcAdapter.getPropertyMap();
+    assertTrue(map0 != map1);
+    assertEquals("v1", map0.get("k1"));
+    assertEquals("v2", map1.get("k1"));
+    assertTrue(((MDCSnapshot) map1).toKeyValueString().contains("k1=v2"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void snapshotIsReadOnly() {
+    mdcAdapter.put("k0", "v0");
+    mdcAdapter.getPropertyMap().put("k0", "v1");
+  }
+
+  @Test
+  public void snapshotAfterClear() {
+    mdcAdapter.put("k0", "v0");
+    assertNotNull(mdcAdapter.getPropertyMap());
+    mdcAdapter.clear();
+    assertNull(mdcAdapter.getPropertyMap());
+  }
+
   // =================================================
 
   /**
@@ -123,6 +154,38 @@ public class LogbackMDCAdapterTest {
 
   }
 
+  @Test
+  public void snapshotOfInheritedMapIsNotModifiedByParent() throws InterruptedException {
+    final CountDownLatch snapshotTaken = new CountDownLatch(1);
+    final CountDownLatch parentModified = new CountDownLatch(1);
+    mdcAdapter.put("k0", "v0");
+
+    ChildThread childThread = new ChildThread(mdcAdapter) {
+      @Override
+      public void run() {
+        MDCSnapshot snapshot = (MDCSnapshot) mdcAdapter.getPropertyMap();
+        String rendering = snapshot.toKeyValueString();
+        snapshotTaken.countDown();
+        try {
+          parentModified.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        successful = snapshot.size() == 1 && snapshot.get("k1") == null
+            && rendering.equals(snapshot.toKeyValueString())
+            && mdcAdapter.getPropertyMap() == snapshot;
+      }
+    };
+    childThread.start();
+    snapshotTaken.await();
+    mdcAdapter.put("k1", "v1");
+    parentModified.countDown();
+    childThread.join();
+
+    assertTrue(childThread.successful);
+    assertEquals("v1", mdcAdapter.get("k1"));
+  }
+
   // see also http://jira.qos.ch/browse/LBCLASSIC-253
   @Test
   public void clearOnChildThreadShouldNotAffectParent() throws InterruptedException {
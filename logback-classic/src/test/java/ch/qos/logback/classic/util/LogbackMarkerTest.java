@@ -0,0 +1,143 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+import org.slf4j.IMarkerFactory;
+import org.slf4j.Marker;
+import org.slf4j.helpers.BasicMarkerFactory;
+
+public class LogbackMarkerTest {
+
+  IMarkerFactory factory = new LogbackMarkerFactory();
+  IMarkerFactory basicFactory = new BasicMarkerFactory();
+
+  @Test
+  public void factory() {
+    Marker a = factory.getMarker("LMT_A");
+    assertTrue(a instanceof LogbackMarker);
+    assertTrue(a == factory.getMarker("LMT_A"));
+    assertTrue(factory.exists("LMT_A"));
+    assertTrue(factory.detachMarker("LMT_A"));
+    assertFalse(factory.exists("LMT_A"));
+    assertTrue(a != factory.getDetachedMarker("LMT_A"));
+  }
+
+  @Test
+  public void containsReferences() {
+    Marker a = factory.getDetachedMarker("LMT_A");
+    Marker b = factory.getDetachedMarker("LMT_B");
+    Marker c = factory.getDetachedMarker("LMT_C");
+    a.add(b);
+    b.add(c);
+
+    assertTrue(a.contains("LMT_A"));
+    assertTrue(a.contains("LMT_C"));
+    assertTrue(a.contains(c));
+    assertFalse(c.contains("LMT_A"));
+    assertFalse(a.contains("LMT_never_created"));
+    assertTrue(LogbackMarker.contains(a, LogbackMarker.getId("LMT_B")));
+    assertFalse(LogbackMarker.contains(c, LogbackMarker.getId("LMT_B")));
+  }
+
+  @Test
+  public void changesInvalidateBitmaps() {
+    Marker a = factory.getDetachedMarker("LMT_A");
+    Marker b = factory.getDetachedMarker("LMT_B");
+    Marker c = factory.getDetachedMarker("LMT_C");
+    a.add(b);
+    assertFalse(a.contains("LMT_C"));
+    assertEquals("LMT_A [ LMT_B ]", a.toString());
+
+    b.add(c);
+    assertTrue(a.contains("LMT_C"));
+    assertEquals("LMT_A [ LMT_B [ LMT_C ] ]", a.toString());
+
+    assertTrue(b.remove(c));
+    assertFalse(a.contains("LMT_C"));
+    assertEquals("LMT_A [ LMT_B ]", a.toString());
+  }
+
+  @Test
+  public void sameBehaviorAsBasicMarker() {
+    Marker a = factory.getDetachedMarker("LMT_A");
+    Marker b = factory.getDetachedMarker("LMT_B");
+    Marker basicA = basicFactory.getDetachedMarker("LMT_A");
+    Marker basicB = basicFactory.getDetachedMarker("LMT_B");
+    a.add(b);
+    a.add(b);
+    b.add(a);
+    basicA.add(basicB);
+    basicA.add(basicB);
+    basicB.add(basicA);
+
+    assertEquals(basicA.toString(), a.toString());
+    assertEquals(basicB.toString(), b.toString());
+    assertTrue(a.equals(basicA));
+    assertEquals(basicA.hashCode(), a.hashCode());
+  }
+
+  @Test
+  public void foreignReferencesAreWalked() {
+    Marker a = factory.getDetachedMarker("LMT_A");
+    Marker basicB = basicFactory.getDetachedMarker("LMT_B");
+    a.add(basicB);
+    assertFalse(a.contains("LMT_foreign"));
+
+    // not tracked by LogbackMarker
+    basicB.add(basicFactory.getDetachedMarker("LMT_foreign"));
+    assertTrue(a.contains("LMT_foreign"));
+    assertTrue(LogbackMarker.contains(a, LogbackMarker.getId("LMT_foreign")));
+    assertEquals("LMT_A [ LMT_B [ LMT_foreign ] ]", a.toString());
+  }
+
+  @Test
+  public void foreignMarkersAreAssignedNoId() {
+    Marker a = factory.getDetachedMarker("LMT_A");
+    Marker basic = basicFactory.getDetachedMarker("LMT_basic_only");
+    basic.add(basicFactory.getDetachedMarker("LMT_basic_only_child"));
+    a.add(basic);
+    assertTrue(a.contains("LMT_basic_only_child"));
+    assertFalse(LogbackMarker.ID_MAP.containsKey("LMT_basic_only"));
+    assertFalse(LogbackMarker.ID_MAP.containsKey("LMT_basic_only_child"));
+  }
+
+  @Test
+  public void serialization() throws Exception {
+    Marker a = factory.getDetachedMarker("LMT_A");
+    a.add(factory.getDetachedMarker("LMT_B"));
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    ObjectOutputStream oos = new ObjectOutputStream(bos);
+    oos.writeObject(a);
+    oos.close();
+    ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+    Marker back = (Marker) ois.readObject();
+
+    // readable without LogbackMarker
+    assertEquals(BasicMarkerFactory.class.getPackage(), back.getClass().getPackage());
+    assertEquals("LMT_A [ LMT_B ]", back.toString());
+    assertTrue(back.contains("LMT_B"));
+    assertTrue(LogbackMarker.contains(back, LogbackMarker.getId("LMT_A")));
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.spi.MDCAdapter;
+
+public class MDCPropagationTest {
+
+  ExecutorService pool = Executors.newSingleThreadExecutor();
+
+  @After
+  public void tearDown() throws InterruptedException {
+    pool.shutdown();
+    pool.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  Callable<String> getter(final MDCAdapter mdcAdapter, final String key) {
+    return new Callable<String>() {
+      public String call() {
+        return mdcAdapter.get(key);
+      }
+    };
+  }
+
+  void propagate(MDCAdapter mdcAdapter) throws Exception {
+    ExecutorService executor = new MDCPropagatingExecutorService(pool, mdcAdapter);
+
+    // the pool thread gets its own MDC first
+    pool.submit(new Callable<Void>() {
+      public Void call() {
+        return null;
+      }
+    }).get();
+
+    mdcAdapter.put("k", "v0");
+    assertEquals("v0", executor.submit(getter(mdcAdapter, "k")).get());
+    mdcAdapter.put("k", "v1");
+    assertEquals("v1", executor.submit(getter(mdcAdapter, "k")).get());
+    // the MDC of the pool thread is restored after each task
+    assertNull(pool.submit(getter(mdcAdapter, "k")).get());
+
+    mdcAdapter.clear();
+    assertNull(executor.submit(getter(mdcAdapter, "k")).get());
+  }
+
+  @Test
+  public void logbackMDCAdapter() throws Exception {
+    propagate(new LogbackMDCAdapter());
+  }
+
+  @Test
+  public void persistentMDCAdapter() throws Exception {
+    propagate(new PersistentMDCAdapter());
+  }
+
+  @Test
+  public void snapshotIsPassedByReference() throws Exception {
+    final LogbackMDCAdapter mdcAdapter = new LogbackMDCAdapter();
+    mdcAdapter.put("k", "v0");
+    Map<String, String> submitted = mdcAdapter.getPropertyMap();
+    Callable<Map<String, String>> task = MDCPropagation.wrap(mdcAdapter, new Callable<Map<String, String>>() {
+      public Map<String, String> call() {
+        Map<String, String> seen = mdcAdapter.getPropertyMap();
+        // modifying the MDC within the task must not affect the submitter
+        mdcAdapter.put("k", "v1");
+        return seen;
+      }
+    });
+    assertSame(submitted, pool.submit(task).get());
+    assertEquals("v0", mdcAdapter.get("k"));
+  }
+
+  @Test
+  public void restoresPreviousMDCOnSameThread() throws Exception {
+    final LogbackMDCAdapter mdcAdapter = new LogbackMDCAdapter();
+    mdcAdapter.put("k", "v0");
+    Runnable task = MDCPropagation.wrap(mdcAdapter, new Runnable() {
+      public void run() {
+        mdcAdapter.put("k", "inner");
+      }
+    });
+    mdcAdapter.put("k", "v1");
+    task.run();
+    assertEquals("v1", mdcAdapter.get("k"));
+  }
+}
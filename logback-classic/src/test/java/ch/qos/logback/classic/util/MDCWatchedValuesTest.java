@@ -0,0 +1,99 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.slf4j.spi.MDCAdapter;
+
+public class MDCWatchedValuesTest {
+
+  static class CountingWatch extends MDCWatchedValues.Watch {
+    int computations;
+
+    CountingWatch(String key) {
+      super(key);
+    }
+
+    @Override
+    protected int compute(String mdcValue) {
+      computations++;
+      return mdcValue == null ? -1 : mdcValue.length();
+    }
+  }
+
+  void check(MDCAdapter mdcAdapter) throws InterruptedException {
+    final MDCWatchedValues watchedValues = MDCWatchedValues.getInstance(mdcAdapter);
+    final CountingWatch watch = new CountingWatch("user");
+    watchedValues.register(watch);
+
+    assertEquals(-1, watchedValues.get(watch));
+    mdcAdapter.put("user", "alice");
+    assertEquals(5, watchedValues.get(watch));
+    int computations = watch.computations;
+
+    // unwatched keys and reads do not cause recomputation
+    mdcAdapter.put("other", "x");
+    mdcAdapter.remove("other");
+    for (int i = 0; i < 10; i++) {
+      assertEquals(5, watchedValues.get(watch));
+    }
+    assertEquals(computations, watch.computations);
+
+    mdcAdapter.put("user", "bob");
+    assertEquals(3, watchedValues.get(watch));
+    mdcAdapter.remove("user");
+    assertEquals(-1, watchedValues.get(watch));
+
+    Map<String, String> contextMap = new HashMap<String, String>();
+    contextMap.put("user", "carol");
+    mdcAdapter.setContextMap(contextMap);
+    assertEquals(5, watchedValues.get(watch));
+
+    final int[] childValue = new int[1];
+    Thread child = new Thread() {
+      @Override
+      public void run() {
+        childValue[0] = watchedValues.get(watch);
+      }
+    };
+    child.start();
+    child.join();
+    assertEquals(5, childValue[0]);
+
+    mdcAdapter.clear();
+    assertEquals(-1, watchedValues.get(watch));
+
+    watchedValues.unregister(watch);
+    CountingWatch other = new CountingWatch("user");
+    watchedValues.register(other);
+    mdcAdapter.put("user", "dave");
+    assertEquals(4, watchedValues.get(other));
+    watchedValues.unregister(other);
+  }
+
+  @Test
+  public void logbackMDCAdapter() throws InterruptedException {
+    check(new LogbackMDCAdapter());
+  }
+
+  @Test
+  public void persistentMDCAdapter() throws InterruptedException {
+    check(new PersistentMDCAdapter());
+  }
+}
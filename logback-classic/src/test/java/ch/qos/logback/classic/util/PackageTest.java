@@ -20,7 +20,9 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({ContextInitializerTest.class, ContextInitializerAutoConfigTest.class,
-        LogbackMDCAdapterTest.class, LevelToSyslogSeverityTest.class})
+        LogbackMDCAdapterTest.class, LevelToSyslogSeverityTest.class,
+        PersistentStringMapTest.class, PersistentMDCAdapterTest.class, SmallStringMapTest.class,
+        MDCPropagationTest.class, MDCWatchedValuesTest.class, LogbackMarkerTest.class})
 
 public class PackageTest {
 }
\ No newline at end of file
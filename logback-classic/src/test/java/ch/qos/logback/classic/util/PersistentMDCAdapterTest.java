@@ -0,0 +1,87 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PersistentMDCAdapterTest {
+
+  private final PersistentMDCAdapter mdcAdapter = new PersistentMDCAdapter();
+
+  @Test
+  public void putGetRemove() {
+    assertNull(mdcAdapter.getPropertyMap());
+    mdcAdapter.put("k0", "v0");
+    mdcAdapter.put("k1", "v1");
+    assertEquals("v0", mdcAdapter.get("k0"));
+    mdcAdapter.remove("k0");
+    assertNull(mdcAdapter.get("k0"));
+    assertEquals("v1", mdcAdapter.get("k1"));
+    mdcAdapter.clear();
+    assertNull(mdcAdapter.get("k1"));
+    assertNull(mdcAdapter.getPropertyMap());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullKey() {
+    mdcAdapter.put(null, "v");
+  }
+
+  @Test
+  public void propertyMapIsAnUnchangingSnapshot() {
+    mdcAdapter.put("k0", "v0");
+    Map<String, String> map0 = mdcAdapter.getPropertyMap();
+    assertSame(map0, mdcAdapter.getPropertyMap());
+    mdcAdapter.put("k0", "v1");
+    assertEquals("v0", map0.get("k0"));
+    assertEquals("v1", mdcAdapter.getPropertyMap().get("k0"));
+  }
+
+  @Test
+  public void setAndCopyContextMap() {
+    Map<String, String> contextMap = new HashMap<String, String>();
+    contextMap.put("k0", "v0");
+    contextMap.put("k1", "v1");
+    mdcAdapter.setContextMap(contextMap);
+    assertEquals(contextMap, mdcAdapter.getCopyOfContextMap());
+    assertEquals(contextMap.keySet(), mdcAdapter.getKeys());
+  }
+
+  @Test
+  public void childThreadInheritsWithoutAffectingParent() throws InterruptedException {
+    mdcAdapter.put("k0", "v0");
+    final Map<String, String> childMap = new HashMap<String, String>();
+    Thread child = new Thread() {
+      @Override
+      public void run() {
+        mdcAdapter.put("k1", "v1");
+        childMap.putAll(mdcAdapter.getPropertyMap());
+      }
+    };
+    child.start();
+    child.join();
+    assertEquals("v0", childMap.get("k0"));
+    assertEquals("v1", childMap.get("k1"));
+    assertNull(mdcAdapter.get("k1"));
+    assertTrue(mdcAdapter.getPropertyMap().size() == 1);
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PersistentStringMapTest {
+
+  @Test
+  public void smoke() {
+    PersistentStringMap map0 = PersistentStringMap.EMPTY.plus("k0", "v0");
+    PersistentStringMap map1 = map0.plus("k1", null);
+    assertEquals(1, map0.size());
+    assertEquals(2, map1.size());
+    assertFalse(map0.containsKey("k1"));
+    assertTrue(map1.containsKey("k1"));
+    assertNull(map1.get("k1"));
+    assertEquals("v0", map1.get("k0"));
+    assertSame(map1, map1.plus("k0", "v0"));
+    assertSame(map1, map1.minus("absent"));
+    assertSame(PersistentStringMap.EMPTY, map0.minus("k0"));
+  }
+
+  @Test
+  public void collidingKeys() {
+    // "Aa" and "BB" have the same hash code
+    assertEquals("Aa".hashCode(), "BB".hashCode());
+    PersistentStringMap map = PersistentStringMap.EMPTY.plus("Aa", "1").plus("BB", "2").plus("C", "3");
+    assertEquals("1", map.get("Aa"));
+    assertEquals("2", map.get("BB"));
+    assertEquals(3, map.size());
+    map = map.minus("Aa");
+    assertNull(map.get("Aa"));
+    assertEquals("2", map.get("BB"));
+    assertEquals(2, map.size());
+  }
+
+  @Test
+  public void randomizedAgainstHashMap() {
+    Random random = new Random(100);
+    PersistentStringMap map = PersistentStringMap.EMPTY;
+    Map<String, String> witness = new HashMap<String, String>();
+    for (int i = 0; i < 20000; i++) {
+      String key = "k" + random.nextInt(500);
+      if (random.nextInt(3) == 0) {
+        map = map.minus(key);
+        witness.remove(key);
+      } else {
+        String value = "v" + i;
+        map = map.plus(key, value);
+        witness.put(key, value);
+      }
+      assertEquals(witness.size(), map.size());
+    }
+    assertEquals(witness, map);
+    assertEquals(witness.hashCode(), map.hashCode());
+  }
+
+  @Test
+  public void previousVersionsAreUnchanged() {
+    PersistentStringMap map0 = PersistentStringMap.EMPTY;
+    for (int i = 0; i < 100; i++) {
+      map0 = map0.plus("k" + i, "v" + i);
+    }
+    PersistentStringMap map1 = map0.plus("k5", "other").minus("k6");
+    assertEquals("v5", map0.get("k5"));
+    assertEquals("v6", map0.get("k6"));
+    assertEquals("other", map1.get("k5"));
+    assertFalse(map1.containsKey("k6"));
+    assertEquals(100, map0.size());
+    assertEquals(99, map1.size());
+  }
+}
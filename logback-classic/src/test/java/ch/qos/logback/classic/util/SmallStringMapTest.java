@@ -0,0 +1,118 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SmallStringMapTest {
+
+  SmallStringMap map = new SmallStringMap();
+
+  @Test
+  public void smoke() {
+    assertNull(map.put("k0", "v0"));
+    assertNull(map.put("k1", null));
+    assertEquals("v0", map.put("k0", "v2"));
+    assertEquals(2, map.size());
+    assertEquals("v2", map.get("k0"));
+    assertTrue(map.containsKey("k1"));
+    assertNull(map.get("k1"));
+    assertEquals("v2", map.remove("k0"));
+    assertFalse(map.containsKey("k0"));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void iterationFollowsInsertionOrder() {
+    for (int i = 0; i < 10; i++) {
+      map.put("k" + i, "v" + i);
+    }
+    map.remove("k3");
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      sb.append(entry.getKey());
+    }
+    assertEquals("k0k1k2k4k5k6k7k8k9", sb.toString());
+  }
+
+  @Test
+  public void iteratorRemove() {
+    for (int i = 0; i < 6; i++) {
+      map.put("k" + i, "v" + i);
+    }
+    Iterator<Map.Entry<String, String>> it = map.entrySet().iterator();
+    while (it.hasNext()) {
+      if (it.next().getKey().compareTo("k3") < 0) {
+        it.remove();
+      }
+    }
+    assertEquals(3, map.size());
+    assertEquals("v3", map.get("k3"));
+    assertFalse(map.containsKey("k0"));
+  }
+
+  @Test
+  public void copyIsIndependent() {
+    map.put("k0", "v0");
+    SmallStringMap copy = new SmallStringMap(map);
+    copy.put("k1", "v1");
+    map.put("k0", "other");
+    assertEquals(1, map.size());
+    assertEquals("v0", copy.get("k0"));
+    assertEquals(2, copy.size());
+  }
+
+  @Test
+  public void randomizedAgainstHashMap() {
+    Random random = new Random(100);
+    Map<String, String> witness = new HashMap<String, String>();
+    for (int i = 0; i < 5000; i++) {
+      String key = "k" + random.nextInt(40);
+      if (random.nextInt(3) == 0) {
+        assertEquals(witness.remove(key), map.remove(key));
+      } else {
+        assertEquals(witness.put(key, "v" + i), map.put(key, "v" + i));
+      }
+    }
+    assertEquals(witness, map);
+    assertEquals(map, witness);
+    assertEquals(witness.hashCode(), map.hashCode());
+  }
+
+  @Test
+  public void serialization() throws Exception {
+    map.put("k0", "v0");
+    map.put("k1", null);
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    ObjectOutputStream oos = new ObjectOutputStream(bos);
+    oos.writeObject(map);
+    oos.close();
+    ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+    assertEquals(map, ois.readObject());
+  }
+}
@@ -18,6 +18,7 @@ import static ch.qos.logback.core.CoreConstants.CONTEXT_NAME_KEY;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 import ch.qos.logback.core.spi.LifeCycle;
 import ch.qos.logback.core.spi.LogbackLock;
@@ -39,6 +40,7 @@ public class ContextBase implements Context, LifeCycle {
   LogbackLock configurationLock = new LogbackLock();
 
   private volatile ExecutorService executorService;
+  private volatile ScheduledExecutorService scheduledExecutorService;
   private LifeCycleManager lifeCycleManager;
   private boolean started;
   
@@ -170,11 +172,34 @@ public class ContextBase implements Context, LifeCycle {
     return executorService; 
   }
 
+  /**
+   * Returns the executor on which components run periodic tasks, such as
+   * scanning configuration files for changes. It is shut down along with the
+   * executor service. Not part of the {@link Context} interface, components
+   * given another implementation run such tasks on an executor of their own.
+   *
+   * @since 1.1.4
+   */
+  public ScheduledExecutorService getScheduledExecutorService() {
+    if (scheduledExecutorService == null) {
+      synchronized (this) {
+        if (scheduledExecutorService == null) {
+          scheduledExecutorService = ExecutorServiceUtil.newScheduledExecutorService();
+        }
+      }
+    }
+    return scheduledExecutorService;
+  }
+
   private synchronized void stopExecutorService() {
     if (executorService != null) {
       ExecutorServiceUtil.shutdown(executorService);
       executorService = null;
     }
+    if (scheduledExecutorService != null) {
+      ExecutorServiceUtil.shutdown(scheduledExecutorService);
+      scheduledExecutorService = null;
+    }
   }
   
   private void removeShutdownHook() {
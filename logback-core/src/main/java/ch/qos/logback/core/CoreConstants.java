@@ -31,6 +31,11 @@ public class CoreConstants {
   // asking to make MAX_POOL_SIZE a parameter.
   public static final int MAX_POOL_SIZE = 32;
 
+  /**
+   * Number of threads in a context's scheduled executor service.
+   */
+  public static final int SCHEDULED_EXECUTOR_POOL_SIZE = 1;
+
   // Note that the line.separator property can be looked up even by
   // applets.
   public static final String LINE_SEPARATOR = System.getProperty("line.separator");
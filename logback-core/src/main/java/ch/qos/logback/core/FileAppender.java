@@ -15,10 +15,17 @@ package ch.qos.logback.core;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
 import ch.qos.logback.core.recovery.ResilientFileOutputStream;
+import ch.qos.logback.core.util.ExecutorServiceUtil;
+import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.FileUtil;
 
 /**
@@ -45,6 +52,15 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
 
   private boolean prudent = false;
 
+  private boolean gzip = false;
+
+  private FileSize preallocationSize;
+
+  // completes the pending gzip member of an idle appender
+  private ScheduledFuture<?> gzipMemberCompleter;
+  // created if the context has no scheduled executor
+  private ScheduledExecutorService ownScheduledExecutor;
+
   /**
    * The <b>File</b> property takes a string value which should be the name of
    * the file to append to.
@@ -102,6 +118,22 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
           setAppend(true);
           addWarn("Setting \"Append\" property to true on account of \"Prudent\" mode");
         }
+        if (gzip) {
+          addError("The \"Gzip\" property is not supported in prudent mode. Aborting");
+          return;
+        }
+        if (preallocationSize != null) {
+          addError("The \"PreallocationSize\" property is not supported in prudent mode. Aborting");
+          return;
+        }
+      }
+      if (preallocationSize != null && !(encoder instanceof LayoutWrappingEncoder)) {
+        addError("The \"PreallocationSize\" property requires a layout based encoder. Aborting");
+        return;
+      }
+      if (gzip && preallocationSize != null) {
+        addError("The \"PreallocationSize\" property is not supported with the \"Gzip\" property. Aborting");
+        return;
       }
 
       try {
@@ -116,9 +148,57 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
     }
     if (errors == 0) {
       super.start();
+      if (gzip) {
+        scheduleGzipMemberCompletion();
+      }
     }
   }
 
+  /**
+   * Flushes the file periodically, so that the bytes of the current gzip
+   * member reach the file within about twice
+   * {@link ResilientFileOutputStream#GZIP_MAX_MEMBER_DELAY} milliseconds, even
+   * when no further event is appended.
+   */
+  private void scheduleGzipMemberCompletion() {
+    long period = ResilientFileOutputStream.GZIP_MAX_MEMBER_DELAY;
+    ScheduledExecutorService scheduledExecutor;
+    if (context instanceof ContextBase) {
+      scheduledExecutor = ((ContextBase) context).getScheduledExecutorService();
+    } else {
+      ownScheduledExecutor = ExecutorServiceUtil.newScheduledExecutorService();
+      scheduledExecutor = ownScheduledExecutor;
+    }
+    gzipMemberCompleter = scheduledExecutor.scheduleAtFixedRate(new Runnable() {
+      public void run() {
+        lock.lock();
+        try {
+          OutputStream os = getOutputStream();
+          if (isStarted() && os != null) {
+            os.flush();
+          }
+        } catch (IOException e) {
+          addError("Failed to complete the gzip member of [" + fileName + "]", e);
+        } finally {
+          lock.unlock();
+        }
+      }
+    }, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    if (gzipMemberCompleter != null) {
+      gzipMemberCompleter.cancel(false);
+      gzipMemberCompleter = null;
+    }
+    if (ownScheduledExecutor != null) {
+      ExecutorServiceUtil.shutdown(ownScheduledExecutor);
+      ownScheduledExecutor = null;
+    }
+    super.stop();
+  }
+
   /**
    * <p>
    * Sets and <i>opens</i> the file where the log output will go. The specified
@@ -145,8 +225,12 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
             + file.getAbsolutePath() + "]");
       }
 
-      ResilientFileOutputStream resilientFos = new ResilientFileOutputStream(
-          file, append);
+      ResilientFileOutputStream resilientFos;
+      if (preallocationSize != null && preallocationSize.getSize() > 0) {
+        resilientFos = new ResilientFileOutputStream(file, append, preallocationSize.getSize());
+      } else {
+        resilientFos = new ResilientFileOutputStream(file, append, gzip);
+      }
       resilientFos.setContext(context);
       setOutputStream(resilientFos);
     } finally {
@@ -154,6 +238,22 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
     }
   }
 
+  /**
+   * Returns the length of the file this appender writes to, including bytes
+   * not yet flushed, as counted by this appender. Unlike
+   * {@link File#length()}, this does not involve the file system. Returns -1
+   * if no file is open.
+   *
+   * @since 1.1.4
+   */
+  public long getCurrentFileLength() {
+    OutputStream os = getOutputStream();
+    if (os instanceof ResilientFileOutputStream) {
+      return ((ResilientFileOutputStream) os).getLength();
+    }
+    return -1;
+  }
+
   /**
    * @see #setPrudent(boolean)
    * 
@@ -173,6 +273,49 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
     this.prudent = prudent;
   }
 
+  public boolean isGzip() {
+    return gzip;
+  }
+
+  /**
+   * When gzip is set to true, the file is written in the gzip format, as a
+   * sequence of independently compressed members. The file is thus always a
+   * valid gzip file and compressing it after the fact is unnecessary. A crash
+   * loses at most the bytes of the last, incomplete, member. Members are
+   * completed every 64KB of uncompressed bytes and, on a timer, about one
+   * second after their first byte. This mode is incompatible with prudent
+   * mode.
+   *
+   * @since 1.1.4
+   */
+  public void setGzip(boolean gzip) {
+    this.gzip = gzip;
+  }
+
+  public FileSize getPreallocationSize() {
+    return preallocationSize;
+  }
+
+  /**
+   * When set, the file is extended with zeros this many bytes ahead of what
+   * was written, typically the maximum size of the file when rolling by
+   * size. The file system then allocates space in large extents, which
+   * reduces fragmentation and updates to the file's metadata. The file is
+   * truncated to what was written once closed, including on rollover, but
+   * tools reading it while it is open see the trailing zeros. This is
+   * incompatible with the prudent and gzip modes.
+   * <p/>
+   * Should the application crash, the end of what was written is found
+   * again by skipping the trailing zeros of the file. Output which may end
+   * with zero bytes would be truncated, binary encoders are thus not
+   * supported, nor are charsets such as UTF-16LE.
+   *
+   * @since 1.1.4
+   */
+  public void setPreallocationSize(FileSize preallocationSize) {
+    this.preallocationSize = preallocationSize;
+  }
+
   public void setAppend(boolean append) {
     this.append = append;
   }
@@ -195,6 +338,8 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
       if (size != position) {
         fileChannel.position(size);
       }
+      // other processes may have written to the file
+      resilientFOS.setLength(size);
       super.writeOut(event);
     } catch (IOException e) {
       // Mainly to catch FileLockInterruptionExceptions (see LOGBACK-875)
@@ -17,24 +17,43 @@ package ch.qos.logback.core.joran.spi;
 import ch.qos.logback.core.spi.ContextAwareBase;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
+ * The files making up the current configuration, and whether any of them has
+ * changed since.
+ * <p/>
+ * By default, changes are detected by comparing the modification time of
+ * each file. After {@link #startWatching()}, the directories of the files are
+ * registered with a <code>java.nio.file.WatchService</code> instead, and only
+ * files which cannot be watched are polled.
+ *
  * @author Ceki G&uuml;c&uuml;
  */
 public class ConfigurationWatchList extends ContextAwareBase {
 
+  private static final String FILE_PREFIX = "file:";
+  private static final String JAR_SEPARATOR = "!/";
+
   URL mainURL;
   List<File> fileWatchList = new ArrayList<File>();
   List<Long> lastModifiedList = new ArrayList<Long>();
+  // files polled even when watching, such as jar files
+  Set<File> polledFileSet = new HashSet<File>();
+  DirectoryWatcher directoryWatcher;
 
-  public void clear() {
+  public synchronized void clear() {
     this.mainURL = null;
     lastModifiedList.clear();
     fileWatchList.clear();
+    polledFileSet.clear();
+    stopWatching();
   }
 
   /**
@@ -48,12 +67,67 @@ public class ConfigurationWatchList extends ContextAwareBase {
       addAsFileToWatch(mainURL);
   }
 
-  private void addAsFileToWatch(URL url) {
+  private synchronized void addAsFileToWatch(URL url) {
     File file = convertToFile(url);
     if (file != null) {
       fileWatchList.add(file);
       lastModifiedList.add(file.lastModified());
+      if (isJarFile(url)) {
+        polledFileSet.add(file);
+      } else if (directoryWatcher != null) {
+        directoryWatcher.watch(file);
+      }
+    }
+  }
+
+  /**
+   * Watch the files of this list, as well as files added later, with a
+   * <code>java.nio.file.WatchService</code>. Jar files and files whose
+   * directory cannot be watched are still polled.
+   *
+   * @return false if the WatchService API is not available, in which case all
+   *         files are polled
+   * @since 1.1.4
+   */
+  public synchronized boolean startWatching() {
+    stopWatching();
+    if (!DirectoryWatcher.isAvailable()) {
+      addInfo("The WatchService API is not available, polling configuration files for changes");
+      return false;
+    }
+    try {
+      directoryWatcher = new DirectoryWatcher(DirectoryWatcher.DEFAULT_QUIET_PERIOD);
+    } catch (IOException e) {
+      addWarn("Failed to create a WatchService, polling configuration files for changes", e);
+      return false;
+    }
+    for (File file : fileWatchList) {
+      if (!polledFileSet.contains(file) && !directoryWatcher.watch(file)) {
+        addInfo("Failed to watch the directory of [" + file + "], polling it for changes");
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Revert to polling files for changes.
+   *
+   * @since 1.1.4
+   */
+  public synchronized void stopWatching() {
+    if (directoryWatcher == null) {
+      return;
     }
+    try {
+      directoryWatcher.close();
+    } catch (IOException e) {
+      addWarn("Failed to close WatchService", e);
+    }
+    directoryWatcher = null;
+  }
+
+  public synchronized boolean isWatching() {
+    return directoryWatcher != null;
   }
 
   public void addToWatchList(URL url) {
@@ -68,11 +142,24 @@ public class ConfigurationWatchList extends ContextAwareBase {
     return new ArrayList<File>(fileWatchList);
   }
 
-  public boolean changeDetected() {
+  public synchronized boolean changeDetected() {
+    if (directoryWatcher != null) {
+      try {
+        if (directoryWatcher.changeDetected()) {
+          return true;
+        }
+      } catch (IOException e) {
+        addWarn("Failed to poll WatchService, reverting to polling configuration files", e);
+        stopWatching();
+      }
+    }
     int len = fileWatchList.size();
     for (int i = 0; i < len; i++) {
-      long lastModified = lastModifiedList.get(i);
       File file = fileWatchList.get(i);
+      if (directoryWatcher != null && directoryWatcher.isWatched(file)) {
+        continue;
+      }
+      long lastModified = lastModifiedList.get(i);
       if (lastModified != file.lastModified()) {
         return true;
       }
@@ -81,15 +168,29 @@ public class ConfigurationWatchList extends ContextAwareBase {
     //return (lastModified != fileToScan.lastModified() && lastModified != SENTINEL);
   }
 
+  /**
+   * Returns the file designated by a file URL or, for a resource within a jar
+   * file, the jar file itself.
+   */
   @SuppressWarnings("deprecation")
   File convertToFile(URL url) {
     String protocol = url.getProtocol();
     if ("file".equals(protocol)) {
       return new File(URLDecoder.decode(url.getFile()));
+    } else if (isJarFile(url)) {
+      String path = url.getPath();
+      int separator = path.indexOf(JAR_SEPARATOR);
+      return new File(URLDecoder.decode(path.substring(FILE_PREFIX.length(), separator)));
     } else {
       addInfo("URL [" + url + "] is not of type file");
       return null;
     }
   }
 
+  private static boolean isJarFile(URL url) {
+    // jar:file:/path/to/app.jar!/logback.xml
+    return "jar".equals(url.getProtocol()) && url.getPath().startsWith(FILE_PREFIX)
+            && url.getPath().indexOf(JAR_SEPARATOR) != -1;
+  }
+
 }
@@ -0,0 +1,246 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.joran.spi;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects changes to a set of files by registering their parent directories
+ * with a <code>java.nio.file.WatchService</code>, instead of checking the
+ * modification time of each file. Checking for changes costs a single
+ * non-blocking poll of the watch service.
+ * <p/>
+ * A change is reported once no further events have been received for the
+ * quiet period, so that a file written in several steps is reported once it
+ * is complete. Since the watch service does not time stamp events, the time
+ * of a change is taken from the modification time of the file, within the
+ * interval between the previous and the current poll.
+ * <p/>
+ * The WatchService API is available since JDK 1.7 and is thus invoked by
+ * reflection. This class is not thread-safe.
+ *
+ * @since 1.1.4
+ */
+class DirectoryWatcher implements Closeable {
+
+  static final long DEFAULT_QUIET_PERIOD = 100;
+
+  private static final Method TO_PATH;
+  private static final Method NEW_WATCH_SERVICE;
+  private static final Method REGISTER;
+  private static final Method POLL;
+  private static final Method POLL_EVENTS;
+  private static final Method RESET;
+  private static final Method KIND;
+  private static final Method CONTEXT;
+  private static final Object KINDS;
+  private static final Object OVERFLOW;
+  private static final Object DEFAULT_FILE_SYSTEM;
+
+  // Implements the following by reflection
+  //   WatchService ws = FileSystems.getDefault().newWatchService();
+  //   WatchKey key = dir.toPath().register(ws, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+  //   key = ws.poll();
+  //   for (WatchEvent<?> event : key.pollEvents()) {
+  //     event.kind(); event.context();
+  //   }
+  //   key.reset();
+  static {
+    Method toPath = null, newWatchService = null, register = null, poll = null;
+    Method pollEvents = null, reset = null, kind = null, context = null;
+    Object kinds = null, overflow = null, defaultFileSystem = null;
+    try {
+      Class<?> pathClass = Class.forName("java.nio.file.Path");
+      Class<?> fileSystemsClass = Class.forName("java.nio.file.FileSystems");
+      Class<?> fileSystemClass = Class.forName("java.nio.file.FileSystem");
+      Class<?> watchServiceClass = Class.forName("java.nio.file.WatchService");
+      Class<?> watchKeyClass = Class.forName("java.nio.file.WatchKey");
+      Class<?> watchEventClass = Class.forName("java.nio.file.WatchEvent");
+      Class<?> kindClass = Class.forName("java.nio.file.WatchEvent$Kind");
+      Class<?> kindsClass = Class.forName("java.nio.file.StandardWatchEventKinds");
+
+      kinds = Array.newInstance(kindClass, 3);
+      Array.set(kinds, 0, kindsClass.getField("ENTRY_CREATE").get(null));
+      Array.set(kinds, 1, kindsClass.getField("ENTRY_DELETE").get(null));
+      Array.set(kinds, 2, kindsClass.getField("ENTRY_MODIFY").get(null));
+      overflow = kindsClass.getField("OVERFLOW").get(null);
+
+      defaultFileSystem = fileSystemsClass.getMethod("getDefault").invoke(null);
+      toPath = File.class.getMethod("toPath");
+      newWatchService = fileSystemClass.getMethod("newWatchService");
+      register = pathClass.getMethod("register", watchServiceClass, kinds.getClass());
+      poll = watchServiceClass.getMethod("poll");
+      pollEvents = watchKeyClass.getMethod("pollEvents");
+      reset = watchKeyClass.getMethod("reset");
+      kind = watchEventClass.getMethod("kind");
+      context = watchEventClass.getMethod("context");
+    } catch (Exception e) {
+      // running on JDK 1.6
+      toPath = null;
+    }
+    TO_PATH = toPath;
+    NEW_WATCH_SERVICE = newWatchService;
+    REGISTER = register;
+    POLL = poll;
+    POLL_EVENTS = pollEvents;
+    RESET = reset;
+    KIND = kind;
+    CONTEXT = context;
+    KINDS = kinds;
+    OVERFLOW = overflow;
+    DEFAULT_FILE_SYSTEM = defaultFileSystem;
+  }
+
+  /**
+   * Whether the WatchService API is available in the running JVM.
+   */
+  static boolean isAvailable() {
+    return TO_PATH != null;
+  }
+
+  private final Object watchService;
+  private final long quietPeriodNanos;
+  private final Map<Object, File> keyDirectoryMap = new HashMap<Object, File>();
+  private final Set<File> registeredDirectories = new HashSet<File>();
+  private final Set<File> watchedFiles = new HashSet<File>();
+
+  private boolean changePending;
+  private long lastChangeNanos;
+  private long lastPollNanos = System.nanoTime();
+
+  DirectoryWatcher(long quietPeriod) throws IOException {
+    if (!isAvailable()) {
+      throw new IOException("The WatchService API is not available");
+    }
+    this.watchService = invoke(NEW_WATCH_SERVICE, DEFAULT_FILE_SYSTEM);
+    this.quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(quietPeriod);
+  }
+
+  /**
+   * Watch the given file for changes.
+   *
+   * @return false if the directory of the file could not be registered, in
+   *         which case the file should be polled
+   */
+  boolean watch(File file) {
+    File dir = file.getParentFile();
+    if (dir == null) {
+      return false;
+    }
+    if (!registeredDirectories.contains(dir)) {
+      try {
+        Object key = invoke(REGISTER, invoke(TO_PATH, dir), watchService, KINDS);
+        keyDirectoryMap.put(key, dir);
+        registeredDirectories.add(dir);
+      } catch (IOException e) {
+        return false;
+      }
+    }
+    watchedFiles.add(file);
+    return true;
+  }
+
+  boolean isWatched(File file) {
+    return watchedFiles.contains(file);
+  }
+
+  /**
+   * Whether a watched file has changed and no further events were received
+   * for the quiet period.
+   */
+  boolean changeDetected() throws IOException {
+    long now = System.nanoTime();
+    long nowMillis = System.currentTimeMillis();
+    Object key;
+    while ((key = invoke(POLL, watchService)) != null) {
+      File dir = keyDirectoryMap.get(key);
+      for (Object event : (List<?>) invoke(POLL_EVENTS, key)) {
+        if (invoke(KIND, event) == OVERFLOW) {
+          // events may have been lost, and their time is unknown
+          changeOccurred(now);
+        } else {
+          File file = watchedFileOf(dir, event);
+          if (file != null) {
+            changeOccurred(estimateChangeNanos(file, now, nowMillis));
+          }
+        }
+      }
+      invoke(RESET, key);
+    }
+    lastPollNanos = now;
+    return changePending && now - lastChangeNanos >= quietPeriodNanos;
+  }
+
+  private void changeOccurred(long changeNanos) {
+    if (!changePending || changeNanos - lastChangeNanos > 0) {
+      lastChangeNanos = changeNanos;
+    }
+    changePending = true;
+  }
+
+  /**
+   * The change was signalled after the previous poll, when the file was last
+   * modified unless it has been deleted.
+   */
+  private long estimateChangeNanos(File file, long now, long nowMillis) {
+    long lastModified = file.lastModified();
+    if (lastModified == 0) {
+      return lastPollNanos;
+    }
+    long changeNanos = now - TimeUnit.MILLISECONDS.toNanos(Math.max(0, nowMillis - lastModified));
+    return changeNanos - lastPollNanos > 0 ? changeNanos : lastPollNanos;
+  }
+
+  private File watchedFileOf(File dir, Object event) throws IOException {
+    Object name = invoke(CONTEXT, event);
+    if (dir == null || name == null) {
+      return null;
+    }
+    File file = new File(dir, name.toString());
+    return watchedFiles.contains(file) ? file : null;
+  }
+
+  public void close() throws IOException {
+    ((Closeable) watchService).close();
+  }
+
+  private static Object invoke(Method method, Object target, Object... args) throws IOException {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      IOException ioe = new IOException("Failed to invoke " + method.getName());
+      ioe.initCause(cause);
+      throw ioe;
+    } catch (IllegalAccessException e) {
+      IOException ioe = new IOException("Failed to invoke " + method.getName());
+      ioe.initCause(e);
+      throw ioe;
+    }
+  }
+}
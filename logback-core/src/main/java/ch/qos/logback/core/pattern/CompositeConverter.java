@@ -17,18 +17,69 @@ abstract public class CompositeConverter<E> extends DynamicConverter<E> {
 
   Converter<E> childConverter;
 
+  // whether convert() and transform() are left as declared by the class
+  // writing directly into the buffer, computed on first use
+  private Boolean directWriteSafe;
+
   public String convert(E event) {
     StringBuilder buf = new StringBuilder();
+    writeChildren(buf, event);
+    String intermediary = buf.toString();
+    return transform(event, intermediary);
+  }
 
+  /**
+   * Write the output of the child converters into <code>buf</code>.
+   *
+   * @since 1.1.4
+   */
+  protected void writeChildren(StringBuilder buf, E event) {
     for (Converter<E> c = childConverter; c != null; c = c.next) {
       c.write(buf, event);
     }
-    String intermediary = buf.toString();
-    return transform(event, intermediary);
   }
 
   abstract protected String transform(E event, String in);
 
+  /**
+   * Returns true if no class between <code>baseClass</code> and the class of
+   * this instance overrides {@link #convert} or {@link #transform}, in which
+   * case writing directly into the buffer, as <code>baseClass</code> does,
+   * yields the same output as they would.
+   *
+   * @since 1.1.4
+   */
+  protected boolean isDirectWriteSafe(Class<?> baseClass) {
+    Boolean safe = directWriteSafe;
+    if (safe == null) {
+      safe = !overridesConvertOrTransform(getClass(), baseClass);
+      directWriteSafe = safe;
+    }
+    return safe;
+  }
+
+  private static boolean overridesConvertOrTransform(Class<?> clazz, Class<?> baseClass) {
+    try {
+      for (Class<?> c = clazz; c != baseClass && c != null; c = c.getSuperclass()) {
+        if (declares(c, "convert", Object.class) || declares(c, "transform", Object.class, String.class)) {
+          return true;
+        }
+      }
+      return false;
+    } catch (SecurityException e) {
+      return true;
+    }
+  }
+
+  private static boolean declares(Class<?> c, String name, Class<?>... parameterTypes) {
+    try {
+      c.getDeclaredMethod(name, parameterTypes);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
   public Converter<E> getChildConverter() {
     return childConverter;
   }
@@ -34,13 +34,13 @@ abstract public class FormattingConverter<E> extends Converter<E> {
 
   @Override
   final public void write(StringBuilder buf, E event) {
-    String s = convert(event);
-    
     if(formattingInfo == null) {
-      buf.append(s);
+      writeUnformatted(buf, event);
       return;
     }
-    
+
+    String s = convert(event);
+
     int min = formattingInfo.getMin();
     int max = formattingInfo.getMax();
 
@@ -69,4 +69,15 @@ abstract public class FormattingConverter<E> extends Converter<E> {
       buf.append(s);
     }
   }
+
+  /**
+   * Append the converted event to <code>buf</code> when no formatting
+   * applies. Derived classes may override this method in order to write
+   * directly into <code>buf</code> without creating an intermediary String.
+   *
+   * @since 1.1.4
+   */
+  protected void writeUnformatted(StringBuilder buf, E event) {
+    buf.append(convert(event));
+  }
 }
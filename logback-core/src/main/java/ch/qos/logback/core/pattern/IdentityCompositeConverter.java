@@ -19,4 +19,13 @@ public class IdentityCompositeConverter<E> extends CompositeConverter<E> {
   protected String transform(E event, String in) {
     return in;
   }
+
+  @Override
+  protected void writeUnformatted(StringBuilder buf, E event) {
+    if (!isDirectWriteSafe(IdentityCompositeConverter.class)) {
+      super.writeUnformatted(buf, event);
+      return;
+    }
+    writeChildren(buf, event);
+  }
 }
@@ -26,20 +26,63 @@ abstract public class ForegroundCompositeConverterBase<E> extends CompositeConve
 
   final private static String SET_DEFAULT_COLOR = ESC_START+"0;"+DEFAULT_FG+ESC_END;
 
+  // the last color code and its escape sequence, held in a single
+  // immutable object so that they are always read consistently
+  private EscapeSequence lastEscapeSequence = new EscapeSequence(null);
+
   @Override
   protected String transform(E event, String in) {
     StringBuilder sb = new StringBuilder();
-    sb.append(ESC_START);
-    sb.append(getForegroundColorCode(event));
-    sb.append(ESC_END);
+    sb.append(getEscapeSequence(event));
     sb.append(in);
     sb.append(SET_DEFAULT_COLOR);
     return sb.toString();
   }
 
+  /**
+   * Write the escape sequence, the output of the child converters and the
+   * color reset sequence directly into <code>buf</code>, unless a derived
+   * class overrides {@link #convert} or {@link #transform}.
+   */
+  @Override
+  protected void writeUnformatted(StringBuilder buf, E event) {
+    if (!isDirectWriteSafe(ForegroundCompositeConverterBase.class)) {
+      super.writeUnformatted(buf, event);
+      return;
+    }
+    buf.append(getEscapeSequence(event));
+    writeChildren(buf, event);
+    buf.append(SET_DEFAULT_COLOR);
+  }
+
+  /**
+   * Returns the escape sequence setting the foreground color for the given
+   * event. The sequence is rebuilt only when the color code changes, which
+   * for most derived classes never happens.
+   */
+  protected String getEscapeSequence(E event) {
+    String code = getForegroundColorCode(event);
+    EscapeSequence es = lastEscapeSequence;
+    if (code == null || !code.equals(es.code)) {
+      es = new EscapeSequence(code);
+      lastEscapeSequence = es;
+    }
+    return es.sequence;
+  }
+
   /**
    * Derived classes return the foreground color specific to the derived class instance.
    * @return  the foreground color for this instance
    */
   abstract protected String getForegroundColorCode(E event);
+
+  static final class EscapeSequence {
+    final String code;
+    final String sequence;
+
+    EscapeSequence(String code) {
+      this.code = code;
+      this.sequence = ESC_START + code + ESC_END;
+    }
+  }
 }
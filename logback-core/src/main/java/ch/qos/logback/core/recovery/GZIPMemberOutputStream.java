@@ -0,0 +1,175 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.recovery;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses the bytes written to it into a sequence of gzip members, each
+ * complete in itself. As allowed by RFC 1952, gunzip, zcat and
+ * {@link java.util.zip.GZIPInputStream} decompress the sequence as a whole.
+ * <p/>
+ * A member is compressed in memory and written to the underlying stream only
+ * once complete, so that the underlying file always holds a valid gzip file.
+ * The current member is completed once it holds <code>memberSize</code>
+ * uncompressed bytes, when the stream is closed, and when the stream is
+ * flushed at least <code>maxMemberDelay</code> milliseconds after the first
+ * byte of the member was written. In gzip mode, {@link
+ * ch.qos.logback.core.FileAppender} flushes its stream on a timer, so that the
+ * member of an idle appender is completed as well. Thus, a crash loses at
+ * most the bytes of the current member.
+ * <p/>
+ * This class is not thread-safe.
+ *
+ * @since 1.1.4
+ */
+class GZIPMemberOutputStream extends OutputStream {
+
+  static final int DEFAULT_MEMBER_SIZE = 64 * 1024;
+  static final long DEFAULT_MAX_MEMBER_DELAY = 1000;
+
+  // magic number, deflate, no flags, no modification time, no extra flags,
+  // unknown OS
+  private static final byte[] MEMBER_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+  private static final int MEMBER_TRAILER_LENGTH = 8;
+
+  private final OutputStream out;
+  private final int memberSize;
+  private final long maxMemberDelay;
+  // raw deflate, the header and trailer are written here
+  private final Deflater deflater;
+  private final CRC32 crc = new CRC32();
+
+  // the current member, compressed
+  private byte[] member = new byte[8192];
+  private int memberLength;
+  private int uncompressedLength;
+  private long memberStart;
+
+  // the number of bytes written to the underlying stream
+  private long count;
+  private boolean closed;
+
+  GZIPMemberOutputStream(OutputStream out) {
+    this(out, Deflater.DEFAULT_COMPRESSION, DEFAULT_MEMBER_SIZE, DEFAULT_MAX_MEMBER_DELAY);
+  }
+
+  GZIPMemberOutputStream(OutputStream out, int level, int memberSize, long maxMemberDelay) {
+    this.out = out;
+    this.deflater = new Deflater(level, true);
+    this.memberSize = memberSize;
+    this.maxMemberDelay = maxMemberDelay;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] { (byte) b }, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (len == 0) {
+      return;
+    }
+    if (uncompressedLength == 0) {
+      System.arraycopy(MEMBER_HEADER, 0, member, 0, MEMBER_HEADER.length);
+      memberLength = MEMBER_HEADER.length;
+      memberStart = System.currentTimeMillis();
+    }
+    crc.update(b, off, len);
+    deflater.setInput(b, off, len);
+    while (!deflater.needsInput()) {
+      deflate();
+    }
+    uncompressedLength += len;
+    if (uncompressedLength >= memberSize) {
+      finishMember();
+    }
+  }
+
+  private void deflate() {
+    if (memberLength == member.length - MEMBER_TRAILER_LENGTH) {
+      byte[] newMember = new byte[member.length * 2];
+      System.arraycopy(member, 0, newMember, 0, memberLength);
+      member = newMember;
+    }
+    memberLength += deflater.deflate(member, memberLength, member.length - MEMBER_TRAILER_LENGTH - memberLength);
+  }
+
+  private void finishMember() throws IOException {
+    deflater.finish();
+    while (!deflater.finished()) {
+      deflate();
+    }
+    writeIntLE((int) crc.getValue());
+    writeIntLE(uncompressedLength);
+    // reset before writing, a failed member is lost rather than repeated
+    int length = memberLength;
+    deflater.reset();
+    crc.reset();
+    memberLength = 0;
+    uncompressedLength = 0;
+    out.write(member, 0, length);
+    out.flush();
+    count += length;
+  }
+
+  private void writeIntLE(int value) {
+    member[memberLength++] = (byte) value;
+    member[memberLength++] = (byte) (value >> 8);
+    member[memberLength++] = (byte) (value >> 16);
+    member[memberLength++] = (byte) (value >> 24);
+  }
+
+  /**
+   * Completes the current member if its first byte was written at least
+   * <code>maxMemberDelay</code> milliseconds ago.
+   */
+  @Override
+  public void flush() throws IOException {
+    if (uncompressedLength > 0 && System.currentTimeMillis() - memberStart >= maxMemberDelay) {
+      finishMember();
+    }
+  }
+
+  /**
+   * Returns the number of compressed bytes written to the underlying stream,
+   * the current member excluded.
+   */
+  long getCount() {
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (uncompressedLength > 0) {
+        finishMember();
+      }
+    } finally {
+      deflater.end();
+      out.close();
+    }
+  }
+}
@@ -14,22 +14,172 @@
 package ch.qos.logback.core.recovery;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
+import ch.qos.logback.core.status.WarnStatus;
+
 public class ResilientFileOutputStream extends ResilientOutputStreamBase {
 
+  static final int ZERO_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * In gzip mode, a member is completed when the stream is flushed this many
+   * milliseconds after its first byte was written.
+   *
+   * @since 1.1.4
+   */
+  public static final long GZIP_MAX_MEMBER_DELAY = GZIPMemberOutputStream.DEFAULT_MAX_MEMBER_DELAY;
+
   private File file;
   private FileOutputStream fos;
+  private final boolean gzip;
+  // null unless gzip is set
+  private GZIPMemberOutputStream gzos;
+
+  // when positive, the file is extended with zeros this many bytes ahead of
+  // its logical end
+  private long preallocationSize;
+  // null unless preallocating
+  private RandomAccessFile raf;
+  // the physical length of the file, when preallocating
+  private long allocatedLength;
+
+  // the length of the file including buffered bytes, maintained so that size
+  // triggers need not query the file system. Written under the lock of the
+  // appender, read without. In gzip mode, the length of the file when it
+  // was opened, the compressed bytes written since are counted by gzos.
+  private volatile long length;
 
 
   public ResilientFileOutputStream(File file, boolean append)
       throws FileNotFoundException {
+    this(file, append, false);
+  }
+
+  /**
+   * When <code>gzip</code> is true, the bytes written to this stream are
+   * compressed into a sequence of gzip members, so that the file is always a
+   * valid gzip file.
+   *
+   * @since 1.1.4
+   */
+  public ResilientFileOutputStream(File file, boolean append, boolean gzip)
+      throws FileNotFoundException {
     this.file = file;
+    this.gzip = gzip;
+    this.length = append ? file.length() : 0;
     fos = new FileOutputStream(file, append);
+    this.os = newBufferedOutputStream();
+    this.presumedClean = true;
+  }
+
+  /**
+   * When <code>preallocationSize</code> is positive, the file is extended
+   * with zeros up to that many bytes past its logical end, and extended
+   * again as it fills up, so that the file system allocates space in large
+   * extents and updates the file's metadata less often. The file is
+   * truncated to its logical end once closed. While it is open, readers see
+   * the zeros past the logical end.
+   * <p/>
+   * When appending to a file left preallocated by a crash, the logical end
+   * is found by skipping trailing zeros. Bytes written last are thus lost if
+   * they were zeros, which is why preallocation suits text only.
+   *
+   * @since 1.1.4
+   */
+  public ResilientFileOutputStream(File file, boolean append, long preallocationSize)
+      throws IOException {
+    if (preallocationSize <= 0) {
+      throw new IllegalArgumentException("The preallocation size must be positive");
+    }
+    this.file = file;
+    this.gzip = false;
+    this.preallocationSize = preallocationSize;
+    openPreallocated(append);
     this.os = new BufferedOutputStream(fos);
     this.presumedClean = true;
   }
 
+  private void openPreallocated(boolean append) throws IOException {
+    raf = new RandomAccessFile(file, "rw");
+    try {
+      if (!append) {
+        raf.setLength(0);
+      }
+      allocatedLength = raf.length();
+      length = findLogicalEnd(raf, allocatedLength);
+      raf.seek(length);
+      // writes at the current offset of the descriptor, the logical end
+      fos = new FileOutputStream(raf.getFD());
+      preallocate(length + preallocationSize);
+    } catch (IOException e) {
+      raf.close();
+      raf = null;
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the offset following the last non-zero byte of the file. Zeros
+   * written as data at the end of the file cannot be told apart from
+   * preallocated ones.
+   */
+  static long findLogicalEnd(RandomAccessFile raf, long fileLength) throws IOException {
+    byte[] buf = new byte[8192];
+    long end = fileLength;
+    while (end > 0) {
+      int n = (int) Math.min(buf.length, end);
+      raf.seek(end - n);
+      raf.readFully(buf, 0, n);
+      for (int i = n - 1; i >= 0; i--) {
+        if (buf[i] != 0) {
+          return end - n + i + 1;
+        }
+      }
+      end -= n;
+    }
+    return 0;
+  }
+
+  /**
+   * Writes zeros up to the given length, past the allocated length. Unlike
+   * {@link RandomAccessFile#setLength(long)}, which may leave a hole in the
+   * file, this allocates the space.
+   */
+  private void preallocate(long newLength) throws IOException {
+    if (newLength <= allocatedLength) {
+      return;
+    }
+    FileChannel channel = raf.getChannel();
+    ByteBuffer zeros = ByteBuffer.allocate((int) Math.min(ZERO_BUFFER_SIZE, newLength - allocatedLength));
+    long position = allocatedLength;
+    while (position < newLength) {
+      zeros.clear();
+      zeros.limit((int) Math.min(zeros.capacity(), newLength - position));
+      // positional writes leave the offset of the descriptor unchanged
+      position += channel.write(zeros, position);
+    }
+    allocatedLength = newLength;
+  }
+
+  /**
+   * @return the number of bytes allocated ahead of the logical end of the
+   *         file, 0 if the file is not preallocated
+   * @since 1.1.4
+   */
+  public long getPreallocationSize() {
+    return preallocationSize;
+  }
+
+  private OutputStream newBufferedOutputStream() {
+    if (gzip) {
+      gzos = new GZIPMemberOutputStream(fos);
+      return new BufferedOutputStream(gzos);
+    }
+    return new BufferedOutputStream(fos);
+  }
+
   public FileChannel getChannel() {
     if (os == null) {
       return null;
@@ -41,6 +191,85 @@ public class ResilientFileOutputStream extends ResilientOutputStreamBase {
     return file;
   }
 
+  public boolean isGzip() {
+    return gzip;
+  }
+
+  /**
+   * Returns the length of the file, including bytes written to this stream
+   * but not yet flushed, without querying the file system. In gzip mode, only
+   * complete members, which have been written to the file, are counted.
+   *
+   * @since 1.1.4
+   */
+  public long getLength() {
+    GZIPMemberOutputStream current = gzos;
+    return current == null ? length : length + current.getCount();
+  }
+
+  /**
+   * Set the length of the file, when other processes may write to it.
+   *
+   * @since 1.1.4
+   */
+  public void setLength(long length) {
+    this.length = length;
+  }
+
+  /**
+   * Extends the file before bytes past its allocated length are written.
+   * Bytes may bypass the buffer and reach the file right away, the zeros must
+   * thus be written first.
+   */
+  @Override
+  void beforeWrite(int len) {
+    if (raf != null && length + len > allocatedLength) {
+      try {
+        preallocate(length + len + preallocationSize);
+      } catch (IOException e) {
+        // the file grows as usual
+        addStatus(new WarnStatus("Failed to preallocate " + getDescription()
+            + ", no longer preallocating", this, e));
+        preallocationSize = 0;
+        allocatedLength = Long.MAX_VALUE;
+      }
+    }
+  }
+
+  @Override
+  void bytesWritten(int len) {
+    if (!gzip) {
+      length += len;
+    }
+  }
+
+  /**
+   * Once preallocated, the file is truncated to its logical end before being
+   * closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (raf == null) {
+      super.close();
+      return;
+    }
+    try {
+      if (os != null) {
+        os.flush();
+      }
+      FileChannel channel = raf.getChannel();
+      if (channel.size() > length) {
+        channel.truncate(length);
+      }
+    } finally {
+      try {
+        super.close();
+      } finally {
+        raf.close();
+      }
+    }
+  }
+
   @Override
   String getDescription() {
     return "file ["+file+"]";
@@ -48,9 +277,17 @@ public class ResilientFileOutputStream extends ResilientOutputStreamBase {
 
   @Override
   OutputStream openNewOutputStream() throws IOException {
+    if (preallocationSize > 0) {
+      // the logical end is found anew, buffered bytes were lost
+      openPreallocated(true);
+      return new BufferedOutputStream(fos);
+    }
+    raf = null;
     // see LOGBACK-765
     fos = new FileOutputStream(file, true);
-    return new BufferedOutputStream(fos);
+    // buffered bytes were lost
+    length = file.length();
+    return newBufferedOutputStream();
   }
   
   @Override
@@ -49,7 +49,9 @@ abstract public class ResilientOutputStreamBase extends OutputStream {
     }
 
     try {
+      beforeWrite(len);
       os.write(b, off, len);
+      bytesWritten(len);
       postSuccessfulWrite();
     } catch (IOException e) {
       postIOFailure(e);
@@ -65,7 +67,9 @@ abstract public class ResilientOutputStreamBase extends OutputStream {
       return; // return regardless of the success of the recovery attempt
     }
     try {
+      beforeWrite(1);
       os.write(b);
+      bytesWritten(1);
       postSuccessfulWrite();
     } catch (IOException e) {
       postIOFailure(e);
@@ -88,6 +92,19 @@ abstract public class ResilientOutputStreamBase extends OutputStream {
 
   abstract OutputStream openNewOutputStream() throws IOException;
 
+  /**
+   * Invoked before len bytes are written to the underlying stream.
+   */
+  void beforeWrite(int len) throws IOException {
+  }
+
+  /**
+   * Invoked after len bytes were successfully written to the underlying
+   * stream.
+   */
+  void bytesWritten(int len) {
+  }
+
   private void postSuccessfulWrite() {
     if (recoveryCoordinator != null) {
       recoveryCoordinator = null;
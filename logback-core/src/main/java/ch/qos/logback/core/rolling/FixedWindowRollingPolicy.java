@@ -99,8 +99,7 @@ public class FixedWindowRollingPolicy extends RollingPolicyBase {
       String zipEntryFileNamePatternStr = transformFileNamePatternFromInt2Date(fileNamePatternStr);
       zipEntryFileNamePattern = new FileNamePattern(zipEntryFileNamePatternStr, context);
     }
-    compressor = new Compressor(compressionMode);
-    compressor.setContext(this.context);
+    compressor = createCompressor();
     super.start();
   }
 
@@ -151,11 +150,19 @@ public class FixedWindowRollingPolicy extends RollingPolicyBase {
             .convertInt(minIndex));
         break;
       case GZ:
+        if (isParentGzip()) {
+          // the file was compressed as it was written
+          util.rename(getActiveFileName(), fileNamePattern.convertInt(minIndex));
+          break;
+        }
         compressor.compress(getActiveFileName(), fileNamePattern.convertInt(minIndex), null);
         break;
       case ZIP:
         compressor.compress(getActiveFileName(), fileNamePattern.convertInt(minIndex), zipEntryFileNamePattern.convert(new Date()));
         break;
+      case CODEC:
+        compressor.compress(getActiveFileName(), fileNamePattern.convertInt(minIndex), null);
+        break;
       }
     }
   }
@@ -38,6 +38,9 @@ public class RollingFileAppender<E> extends FileAppender<E> {
   TriggeringPolicy<E> triggeringPolicy;
   RollingPolicy rollingPolicy;
 
+  // tells, without locking, whether the triggering policy needs checking
+  private TriggeringCheckGate triggeringCheckGate;
+
   static private String RFA_NO_TP_URL = CODES_URL + "#rfa_no_tp";
   static private String RFA_NO_RP_URL = CODES_URL + "#rfa_no_rp";
   static private String COLLISION_URL = CODES_URL + "#rfa_collision";
@@ -81,11 +84,51 @@ public class RollingFileAppender<E> extends FileAppender<E> {
       }
     }
 
+    CompressionMode compressionMode = rollingPolicy.getCompressionMode();
+    if (isGzip() && compressionMode != CompressionMode.NONE && compressionMode != CompressionMode.GZ) {
+      addError("The \"Gzip\" property is only supported with gz compression. Aborting");
+      return;
+    }
+    if (isGzip() && compressionMode == CompressionMode.NONE) {
+      addWarn("The \"Gzip\" property is set but the fileNamePattern does not end with .gz, "
+          + "archives will be in the gzip format without the .gz suffix");
+    }
+
+    // Joran sets the parent of nested components only. Size based policies
+    // need it to read the length counted by this appender, since the length
+    // of a preallocated file is its physical length.
+    if (triggeringPolicy instanceof SizeBasedTriggeringPolicy) {
+      ((SizeBasedTriggeringPolicy<E>) triggeringPolicy).setParent(this);
+    }
+    if (rollingPolicy instanceof RollingPolicyBase && ((RollingPolicyBase) rollingPolicy).getParent() == null) {
+      ((RollingPolicyBase) rollingPolicy).setParent(this);
+    }
+
     currentlyActiveFile = new File(getFile());
     addInfo("Active log file name: " + getFile());
+    triggeringCheckGate = triggeringCheckGateOf(triggeringPolicy);
     super.start();
   }
 
+  /**
+   * Returns the given policy as a {@link TriggeringCheckGate}, or null if it
+   * is not one, or if a subclass overrides isTriggeringEvent() but not the
+   * gate, which then may not reflect the actual triggering conditions.
+   */
+  static TriggeringCheckGate triggeringCheckGateOf(TriggeringPolicy<?> policy) {
+    if (!(policy instanceof TriggeringCheckGate)) {
+      return null;
+    }
+    try {
+      Class<?> clazz = policy.getClass();
+      Class<?> checkClass = clazz.getMethod("isTriggeringEvent", File.class, Object.class).getDeclaringClass();
+      Class<?> gateClass = clazz.getMethod("isTriggeringCheckDue").getDeclaringClass();
+      return checkClass == gateClass ? (TriggeringCheckGate) policy : null;
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
   private boolean fileAndPatternCollide() {
     if (triggeringPolicy instanceof RollingPolicyBase) {
       final RollingPolicyBase base = (RollingPolicyBase) triggeringPolicy;
@@ -171,17 +214,26 @@ public class RollingFileAppender<E> extends FileAppender<E> {
     // The roll-over check must precede actual writing. This is the
     // only correct behavior for time driven triggers.
 
-    // We need to synchronize on triggeringPolicy so that only one rollover
-    // occurs at a time
-    synchronized (triggeringPolicy) {
-      if (triggeringPolicy.isTriggeringEvent(currentlyActiveFile, event)) {
-        rollover();
+    // The gate, if any, lets threads skip the check without locking until
+    // the next check time or file length threshold of the policy is reached.
+    // Past that point, threads check the policy one at a time. Those which
+    // waited for a rollover check again, and thus write to the new file.
+    if (isTriggeringCheckDue()) {
+      synchronized (triggeringPolicy) {
+        if (isTriggeringCheckDue() && triggeringPolicy.isTriggeringEvent(currentlyActiveFile, event)) {
+          rollover();
+        }
       }
     }
 
     super.subAppend(event);
   }
 
+  private boolean isTriggeringCheckDue() {
+    TriggeringCheckGate gate = triggeringCheckGate;
+    return gate == null || gate.isTriggeringCheckDue();
+  }
+
   public RollingPolicy getRollingPolicy() {
     return rollingPolicy;
   }
@@ -14,9 +14,13 @@
 package ch.qos.logback.core.rolling;
 
 import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.rolling.helper.CompressionCodec;
+import ch.qos.logback.core.rolling.helper.CompressionCodecUtil;
 import ch.qos.logback.core.rolling.helper.CompressionMode;
+import ch.qos.logback.core.rolling.helper.Compressor;
 import ch.qos.logback.core.rolling.helper.FileNamePattern;
 import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.util.FileSize;
 
 /**
  * Implements methods common to most, it not all, rolling policies. Currently
@@ -32,7 +36,12 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements
   // fileNamePatternStr is always slashified, see setter
   protected String fileNamePatternStr;
 
-  private FileAppender parent;
+  private FileAppender<?> parent;
+
+  int compressionLevel = -1;
+  FileSize compressionBlockSize;
+  int compressionThreadCount = 1;
+  CompressionCodec compressionCodec;
 
   // use to name files within zip file, i.e. the zipEntry
   FileNamePattern zipEntryFileNamePattern;
@@ -42,7 +51,9 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements
    * Given the FileNamePattern string, this method determines the compression
    * mode depending on last letters of the fileNamePatternStr. Patterns ending
    * with .gz imply GZIP compression, endings with '.zip' imply ZIP compression.
-   * Otherwise and by default, there is no compression.
+   * Patterns ending with the suffix of the configured compression codec, or
+   * of a codec found by {@link CompressionCodecUtil}, imply compression by
+   * that codec. Otherwise and by default, there is no compression.
    * 
    */
   protected void determineCompressionMode() {
@@ -52,9 +63,23 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements
     } else if (fileNamePatternStr.endsWith(".zip")) {
       addInfo("Will use zip compression");
       compressionMode = CompressionMode.ZIP;
+    } else if (compressionCodec != null
+        && fileNamePatternStr.endsWith(compressionCodec.getFileNameSuffix())) {
+      addInfo("Will use " + compressionCodec.getFileNameSuffix() + " compression");
+      compressionMode = CompressionMode.CODEC;
     } else {
-      addInfo("No compression will be used");
-      compressionMode = CompressionMode.NONE;
+      if (compressionCodec != null) {
+        addWarn("The file name pattern [" + fileNamePatternStr + "] does not end with ["
+            + compressionCodec.getFileNameSuffix() + "], ignoring the compression codec");
+      }
+      compressionCodec = CompressionCodecUtil.findByFileName(fileNamePatternStr, context);
+      if (compressionCodec != null) {
+        addInfo("Will use " + compressionCodec.getFileNameSuffix() + " compression");
+        compressionMode = CompressionMode.CODEC;
+      } else {
+        addInfo("No compression will be used");
+        compressionMode = CompressionMode.NONE;
+      }
     }
   }
 
@@ -70,6 +95,81 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements
     return compressionMode;
   }
 
+  /**
+   * Creates a compressor for the compression mode and options of this
+   * policy.
+   *
+   * @since 1.1.4
+   */
+  protected Compressor createCompressor() {
+    Compressor compressor = compressionMode == CompressionMode.CODEC
+        ? new Compressor(compressionCodec) : new Compressor(compressionMode);
+    compressor.setContext(context);
+    compressor.setLevel(compressionLevel);
+    if (compressionBlockSize != null) {
+      compressor.setBlockSize((int) Math.min(Integer.MAX_VALUE, compressionBlockSize.getSize()));
+    }
+    compressor.setThreadCount(compressionThreadCount);
+    return compressor;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * The compression level, from 0 (no compression) to 9 (best compression).
+   * Defaults to -1, the default level of the compression library.
+   *
+   * @since 1.1.4
+   */
+  public void setCompressionLevel(int compressionLevel) {
+    this.compressionLevel = compressionLevel;
+  }
+
+  public FileSize getCompressionBlockSize() {
+    return compressionBlockSize;
+  }
+
+  /**
+   * The size of the blocks compressed in parallel, in GZ mode. Defaults to
+   * 1MB.
+   *
+   * @since 1.1.4
+   */
+  public void setCompressionBlockSize(FileSize compressionBlockSize) {
+    this.compressionBlockSize = compressionBlockSize;
+  }
+
+  public int getCompressionThreadCount() {
+    return compressionThreadCount;
+  }
+
+  /**
+   * The number of threads compressing an archive in GZ mode. Defaults to 1,
+   * in which case an archive is compressed as a single block.
+   *
+   * @since 1.1.4
+   */
+  public void setCompressionThreadCount(int compressionThreadCount) {
+    this.compressionThreadCount = compressionThreadCount;
+  }
+
+  public CompressionCodec getCompressionCodec() {
+    return compressionCodec;
+  }
+
+  /**
+   * The codec compressing archives whose file name pattern ends with its
+   * suffix. Codecs are otherwise selected by the suffix of the file name
+   * pattern, see {@link CompressionCodecUtil}.
+   *
+   * @since 1.1.4
+   */
+  public void setCompressionCodec(CompressionCodec compressionCodec) {
+    this.compressionCodec = compressionCodec;
+  }
+
   public boolean isStarted() {
     return started;
   }
@@ -82,15 +182,37 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements
     started = false;
   }
 
-  public void setParent(FileAppender appender) {
+  public void setParent(FileAppender<?> appender) {
     this.parent = appender;
   }
 
+  public FileAppender<?> getParent() {
+    return parent;
+  }
+
   public boolean isParentPrudent() {
     return parent.isPrudent();
   }
 
+  /**
+   * @return whether the parent writes its file in the gzip format, in which
+   *         case rolled over files need not be compressed
+   * @since 1.1.4
+   */
+  public boolean isParentGzip() {
+    return parent != null && parent.isGzip();
+  }
+
   public String getParentsRawFileProperty() {
     return parent.rawFileProperty();
   }
+
+  /**
+   * @return the length of the parent's file as counted by the parent, -1 if
+   *         unknown
+   * @since 1.1.4
+   */
+  public long getParentsCurrentFileLength() {
+    return parent == null ? -1 : parent.getCurrentFileLength();
+  }
 }
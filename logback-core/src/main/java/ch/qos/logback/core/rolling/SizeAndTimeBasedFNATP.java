@@ -15,6 +15,7 @@ package ch.qos.logback.core.rolling;
 
 import java.io.File;
 import java.util.Date;
+import java.util.regex.Pattern;
 
 import ch.qos.logback.core.joran.spi.NoAutoStart;
 import ch.qos.logback.core.rolling.helper.ArchiveRemover;
@@ -25,7 +26,7 @@ import ch.qos.logback.core.util.FileSize;
 
 @NoAutoStart
 public class SizeAndTimeBasedFNATP<E> extends
-        TimeBasedFileNamingAndTriggeringPolicyBase<E> {
+        TimeBasedFileNamingAndTriggeringPolicyBase<E> implements TriggeringCheckGate {
 
   int currentPeriodsCounter = 0;
   FileSize maxFileSize;
@@ -43,9 +44,7 @@ public class SizeAndTimeBasedFNATP<E> extends
     // we need to get the correct value of currentPeriodsCounter.
     // usually the value is 0, unless the appender or the application
     // is stopped and restarted within the same period
-    String regex = tbrp.fileNamePattern.toRegexForFixedDate(dateInCurrentPeriod);
-    String stemRegex = FileFilterUtil.afterLastSlash(regex);
-
+    Pattern stemRegex = tbrp.fileNamePattern.toStemRegexPatternForFixedDate(dateInCurrentPeriod);
 
     computeCurrentPeriodsHighestCounterValue(stemRegex);
 
@@ -56,7 +55,7 @@ public class SizeAndTimeBasedFNATP<E> extends
     return new SizeAndTimeBasedArchiveRemover(tbrp.fileNamePattern, rc);
   }
 
-  void computeCurrentPeriodsHighestCounterValue(final String stemRegex) {
+  void computeCurrentPeriodsHighestCounterValue(final Pattern stemRegex) {
     File file = new File(getCurrentPeriodsFileNameWithoutCompressionSuffix());
     File parentDir = file.getParentFile();
 
@@ -84,6 +83,15 @@ public class SizeAndTimeBasedFNATP<E> extends
   private int invocationCounter;
   private int invocationMask = 0x1;
 
+  public boolean isTriggeringCheckDue() {
+    if (getCurrentTime() >= nextCheck) {
+      return true;
+    }
+    // without a byte count, isTriggeringEvent() checks the file itself
+    long length = tbrp.getParentsCurrentFileLength();
+    return length < 0 || length >= maxFileSize.getSize();
+  }
+
   public boolean isTriggeringEvent(File activeFile, final E event) {
 
     long time = getCurrentTime();
@@ -97,15 +105,20 @@ public class SizeAndTimeBasedFNATP<E> extends
       return true;
     }
 
-    // for performance reasons, check for changes every 16,invocationMask invocations
-    if (((++invocationCounter) & invocationMask) != invocationMask) {
-      return false;
-    }
-    if (invocationMask < 0x0F) {
-      invocationMask = (invocationMask << 1) + 1;
+    // the byte count maintained by the appender is exact and cheap
+    long length = tbrp.getParentsCurrentFileLength();
+    if (length < 0) {
+      // for performance reasons, check for changes every 16,invocationMask invocations
+      if (((++invocationCounter) & invocationMask) != invocationMask) {
+        return false;
+      }
+      if (invocationMask < 0x0F) {
+        invocationMask = (invocationMask << 1) + 1;
+      }
+      length = activeFile.length();
     }
 
-    if (activeFile.length() >= maxFileSize.getSize()) {
+    if (length >= maxFileSize.getSize()) {
       elapsedPeriodsFileName = tbrp.fileNamePatternWCS
               .convertMultipleArguments(dateInCurrentPeriod, currentPeriodsCounter);
       currentPeriodsCounter++;
@@ -15,6 +15,7 @@ package ch.qos.logback.core.rolling;
 
 import java.io.File;
 
+import ch.qos.logback.core.FileAppender;
 import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.InvocationGate;
 
@@ -22,6 +23,10 @@ import ch.qos.logback.core.util.InvocationGate;
  * SizeBasedTriggeringPolicy looks at size of the file being currently written
  * to. If it grows bigger than the specified size, the FileAppender using the
  * SizeBasedTriggeringPolicy rolls the file and creates a new one.
+ * <p/>
+ * When nested within a FileAppender, the size is the number of bytes counted
+ * by the appender, which is exact and does not involve the file system.
+ * Otherwise, the length of the file is checked every so many events.
  * 
  * For more information about this policy, please refer to the online manual at
  * http://logback.qos.ch/manual/appenders.html#SizeBasedTriggeringPolicy
@@ -29,7 +34,7 @@ import ch.qos.logback.core.util.InvocationGate;
  * @author Ceki G&uuml;lc&uuml;
  * 
  */
-public class SizeBasedTriggeringPolicy<E> extends TriggeringPolicyBase<E> {
+public class SizeBasedTriggeringPolicy<E> extends TriggeringPolicyBase<E> implements TriggeringCheckGate {
 
   public static final String SEE_SIZE_FORMAT = "http://logback.qos.ch/codes.html#sbtp_size_format";
   /**
@@ -48,9 +53,21 @@ public class SizeBasedTriggeringPolicy<E> extends TriggeringPolicyBase<E> {
   }
 
   private InvocationGate invocationGate = new InvocationGate();
+  private FileAppender<?> parent;
+
+  public boolean isTriggeringCheckDue() {
+    // without a byte count, isTriggeringEvent() checks the file itself
+    long length = parent == null ? -1 : parent.getCurrentFileLength();
+    return length < 0 || length >= maxFileSize.getSize();
+  }
 
   public boolean isTriggeringEvent(final File activeFile, final E event) {
-  if(invocationGate.skipFurtherWork())
+    long length = parent == null ? -1 : parent.getCurrentFileLength();
+    if (length >= 0) {
+      return length >= maxFileSize.getSize();
+    }
+
+    if(invocationGate.skipFurtherWork())
       return false;
 
     long now = System.currentTimeMillis();
@@ -59,6 +76,16 @@ public class SizeBasedTriggeringPolicy<E> extends TriggeringPolicyBase<E> {
     return (activeFile.length() >= maxFileSize.getSize());
   }
 
+  /**
+   * The appender writing to the file, set by Joran when this policy is nested
+   * within the appender.
+   *
+   * @since 1.1.4
+   */
+  public void setParent(FileAppender<?> parent) {
+    this.parent = parent;
+  }
+
   public String getMaxFileSize() {
     return maxFileSizeAsString;
   }
@@ -34,7 +34,8 @@ abstract public class TimeBasedFileNamingAndTriggeringPolicyBase<E> extends
   protected long artificialCurrentTime = -1;
   protected Date dateInCurrentPeriod = null;
 
-  protected long nextCheck;
+  // volatile as read without locking by isTriggeringCheckDue()
+  protected volatile long nextCheck;
   protected boolean started = false;
 
   public boolean isStarted() {
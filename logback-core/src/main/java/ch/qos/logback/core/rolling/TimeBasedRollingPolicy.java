@@ -14,14 +14,25 @@
 package ch.qos.logback.core.rolling;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+
+import javax.management.ObjectName;
 
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.rolling.helper.*;
+import ch.qos.logback.core.util.CloseUtil;
+import ch.qos.logback.core.util.FileSize;
 
 /**
  * <code>TimeBasedRollingPolicy</code> is both easy to configure and quite
@@ -34,7 +45,7 @@ import ch.qos.logback.core.rolling.helper.*;
  * @author Ceki G&uuml;lc&uuml;
  */
 public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
-    TriggeringPolicy<E> {
+    TriggeringPolicy<E>, TriggeringCheckGate {
   static final String FNP_NOT_SET = "The FileNamePattern option must be set before using TimeBasedRollingPolicy. ";
   static final int INFINITE_HISTORY = 0;
 
@@ -42,16 +53,29 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
   FileNamePattern fileNamePatternWCS;
 
   private Compressor compressor;
-  private RenameUtil renameUtil = new RenameUtil();
+  RenameUtil renameUtil = new RenameUtil();
+  private CompressionScheduler compressionScheduler;
+  // the last compression job submitted, or the last copy of a file renamed
+  // across file systems
   Future<?> future;
+  // the copies of files renamed across file systems, waited for on stop
+  private final List<Future<?>> pendingCopies = new ArrayList<Future<?>>();
+
+  private int compressionJobThreadCount = 1;
+  private int compressionQueueSize = CompressionScheduler.DEFAULT_QUEUE_SIZE;
+  private boolean registerCompressionMBean = false;
 
   private int maxHistory = INFINITE_HISTORY;
+  private FileSize totalSizeCap;
   private ArchiveRemover archiveRemover;
 
   TimeBasedFileNamingAndTriggeringPolicy<E> timeBasedFileNamingAndTriggeringPolicy;
 
   boolean cleanHistoryOnStart = false;
 
+  // the gate of timeBasedFileNamingAndTriggeringPolicy, if it can be trusted
+  private TriggeringCheckGate triggeringCheckGate;
+
   public void start() {
     // set the LR for our utility object
     renameUtil.setContext(this.context);
@@ -67,12 +91,13 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
           + CoreConstants.SEE_FNP_NOT_SET);
     }
 
-    compressor = new Compressor(compressionMode);
-    compressor.setContext(context);
+    compressor = createCompressor();
 
     // wcs : without compression suffix
-    fileNamePatternWCS = new FileNamePattern(Compressor.computeFileNameStr_WCS(
-            fileNamePatternStr, compressionMode), this.context);
+    String fileNamePatternWCSStr = compressionMode == CompressionMode.CODEC
+        ? Compressor.computeFileNameStr_WCS(fileNamePatternStr, compressionCodec)
+        : Compressor.computeFileNameStr_WCS(fileNamePatternStr, compressionMode);
+    fileNamePatternWCS = new FileNamePattern(fileNamePatternWCSStr, this.context);
 
     addInfo("Will use the pattern " + fileNamePatternWCS
         + " for the active file");
@@ -88,13 +113,40 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
     timeBasedFileNamingAndTriggeringPolicy.setContext(context);
     timeBasedFileNamingAndTriggeringPolicy.setTimeBasedRollingPolicy(this);
     timeBasedFileNamingAndTriggeringPolicy.start();
+    triggeringCheckGate = RollingFileAppender.triggeringCheckGateOf(timeBasedFileNamingAndTriggeringPolicy);
+
+    if (compressionMode != CompressionMode.NONE) {
+      compressionScheduler = new CompressionScheduler(compressionJobThreadCount, compressionQueueSize);
+      compressionScheduler.setContext(context);
+      compressionScheduler.start();
+      if (registerCompressionMBean) {
+        compressionScheduler.registerMBean(getCompressionMBeanName());
+      }
+      if (getParent() != null) {
+        compressLeftoverFiles();
+      }
+    } else if (getParent() != null && getParentsRawFileProperty() != null) {
+      // copies to another file system interrupted by a previous run
+      Future<?> copyFuture = renameUtil.resumePendingCopies(getParentsRawFileProperty(), context.getExecutorService());
+      if (copyFuture != null) {
+        addPendingCopy(copyFuture);
+      }
+    }
 
     // the maxHistory property is given to TimeBasedRollingPolicy instead of to
     // the TimeBasedFileNamingAndTriggeringPolicy. This makes it more convenient
     // for the user at the cost of inconsistency here.
-    if (maxHistory != INFINITE_HISTORY) {
+    if (maxHistory != INFINITE_HISTORY || totalSizeCap != null) {
       archiveRemover = timeBasedFileNamingAndTriggeringPolicy.getArchiveRemover();
       archiveRemover.setMaxHistory(maxHistory);
+      if (totalSizeCap != null) {
+        if (archiveRemover instanceof DefaultArchiveRemover) {
+          ((DefaultArchiveRemover) archiveRemover).setTotalSizeCap(totalSizeCap.getSize());
+        } else {
+          addWarn("The archive remover " + archiveRemover.getClass().getName()
+              + " does not support the \"TotalSizeCap\" property, which will be ignored.");
+        }
+      }
       if(cleanHistoryOnStart) {
         addInfo("Cleaning on start up");
         archiveRemover.clean(new Date(timeBasedFileNamingAndTriggeringPolicy.getCurrentTime()));
@@ -108,22 +160,103 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
   public void stop() {
     if(!isStarted())
       return;
-    waitForAsynchronousJobToStop();
+    if (compressionScheduler != null) {
+      compressionScheduler.stop();
+    } else {
+      waitForCopies();
+    }
     super.stop();
   }
 
+  private void addPendingCopy(Future<?> copyFuture) {
+    synchronized (pendingCopies) {
+      // forget the copies already done
+      for (Iterator<Future<?>> it = pendingCopies.iterator(); it.hasNext();) {
+        if (it.next().isDone()) {
+          it.remove();
+        }
+      }
+      pendingCopies.add(copyFuture);
+    }
+    future = copyFuture;
+  }
 
-  private void waitForAsynchronousJobToStop() {
-    if(future != null) {
+  private void waitForCopies() {
+    List<Future<?>> copies;
+    synchronized (pendingCopies) {
+      copies = new ArrayList<Future<?>>(pendingCopies);
+      pendingCopies.clear();
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CoreConstants.SECONDS_TO_WAIT_FOR_COMPRESSION_JOBS);
+    for (Future<?> copyFuture : copies) {
       try {
-        future.get(CoreConstants.SECONDS_TO_WAIT_FOR_COMPRESSION_JOBS, TimeUnit.SECONDS);
+        copyFuture.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
       } catch (TimeoutException e) {
-        addError("Timeout while waiting for compression job to finish", e);
-      } catch (Exception e) {
-        addError("Unexpected exception while waiting for compression job to finish", e);
+        addError("Timeout while waiting for the copy of an archive to complete", e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        addError("Unexpected exception while copying an archive", e);
       }
     }
   }
+
+  String getCompressionMBeanName() {
+    String appenderName = getParent() == null ? null : getParent().getName();
+    return "ch.qos.logback.core.rolling:type=CompressionScheduler,context="
+        + ObjectName.quote(String.valueOf(context.getName())) + ",appender="
+        + ObjectName.quote(String.valueOf(appenderName));
+  }
+
+  /**
+   * Compress the files of elapsed periods left uncompressed, typically by a
+   * crash before their compression completed. Files still being compressed by
+   * a previous, stopped, policy are left to it. Files the parent already wrote
+   * in the gzip format are renamed instead of being compressed a second time.
+   */
+  void compressLeftoverFiles() {
+    File activeFile = new File(getActiveFileName()).getAbsoluteFile();
+    String suffix = compressor.getFileNameSuffix();
+    for (File file : FileFilterUtil.filesMatchingPattern(fileNamePatternWCS)) {
+      if (file.getAbsoluteFile().equals(activeFile) || CompressionScheduler.isInFlight(file)) {
+        continue;
+      }
+      String fileName = file.getPath();
+      File compressedFile = new File(fileName + suffix);
+      if (compressionMode == CompressionMode.GZ && isParentGzip() && isInGzipFormat(file)) {
+        if (compressedFile.exists()) {
+          addWarn("Not renaming [" + fileName + "], [" + compressedFile + "] already exists");
+        } else {
+          addInfo("Renaming [" + fileName + "] left without suffix by a previous run");
+          renameUtil.rename(fileName, compressedFile.getPath());
+        }
+        continue;
+      }
+      // the file is deleted once compressed, the compressed file is partial
+      if (compressedFile.exists() && !compressedFile.delete()) {
+        addWarn("Failed to delete partially compressed file [" + compressedFile + "]");
+        continue;
+      }
+      addInfo("Compressing [" + fileName + "] left uncompressed by a previous run");
+      future = compressionScheduler.submit(compressor, fileName, fileName,
+          FileFilterUtil.afterLastSlash(FileFilterUtil.slashify(fileName)));
+    }
+  }
+
+  private boolean isInGzipFormat(File file) {
+    InputStream in = null;
+    try {
+      in = new FileInputStream(file);
+      return in.read() == (GZIPInputStream.GZIP_MAGIC & 0xff)
+          && in.read() == (GZIPInputStream.GZIP_MAGIC >> 8);
+    } catch (IOException e) {
+      return false;
+    } finally {
+      CloseUtil.closeQuietly(in);
+    }
+  }
+
   private String transformFileNamePattern2ZipEntry(String fileNamePatternStr) {
     String slashified = FileFilterUtil.slashify(fileNamePatternStr);
     return FileFilterUtil.afterLastSlash(slashified);
@@ -150,8 +283,21 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
 
     if (compressionMode == CompressionMode.NONE) {
       if (getParentsRawFileProperty() != null) {
-        renameUtil.rename(getParentsRawFileProperty(), elapsedPeriodsFileName);
+        // across file systems, the file is copied while logging resumes
+        Future<?> copyFuture = renameUtil.renameAsynchronously(getParentsRawFileProperty(),
+            elapsedPeriodsFileName, context.getExecutorService());
+        if (copyFuture != null) {
+          addPendingCopy(copyFuture);
+        }
       } // else { nothing to do if CompressionMode == NONE and parentsRawFileProperty == null }
+    } else if (compressionMode == CompressionMode.GZ && isParentGzip()) {
+      // the file was compressed as it was written
+      String elapsedPeriodsGZFileName = elapsedPeriodsFileName + ".gz";
+      if (getParentsRawFileProperty() != null) {
+        renameUtil.rename(getParentsRawFileProperty(), elapsedPeriodsGZFileName);
+      } else {
+        renameUtil.rename(elapsedPeriodsFileName, elapsedPeriodsGZFileName);
+      }
     } else {
       if (getParentsRawFileProperty() == null) {
         future = asyncCompress(elapsedPeriodsFileName, elapsedPeriodsFileName, elapsedPeriodStem);
@@ -167,14 +313,18 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
 
   Future asyncCompress(String nameOfFile2Compress, String nameOfCompressedFile, String innerEntryName)
       throws RolloverFailure {
-    AsynchronousCompressor ac = new AsynchronousCompressor(compressor);
-    return ac.compressAsynchronously(nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
+    return compressionScheduler.submit(compressor, nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
   }
 
   Future renamedRawAndAsyncCompress(String nameOfCompressedFile, String innerEntryName)
       throws RolloverFailure {
     String parentsRawFile = getParentsRawFileProperty();
-    String tmpTarget = parentsRawFile + System.nanoTime() + ".tmp";
+    // the uncompressed file bears the name of the compressed file without
+    // suffix, so that it can be found should compression not complete
+    String tmpTarget = nameOfCompressedFile;
+    if (new File(tmpTarget).exists()) {
+      tmpTarget = parentsRawFile + System.nanoTime() + ".tmp";
+    }
     renameUtil.rename(parentsRawFile, tmpTarget);
     return asyncCompress(tmpTarget, nameOfCompressedFile, innerEntryName);
   }
@@ -209,6 +359,11 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
     }
   }
 
+  public boolean isTriggeringCheckDue() {
+    TriggeringCheckGate gate = triggeringCheckGate;
+    return gate == null || gate.isTriggeringCheckDue();
+  }
+
   public boolean isTriggeringEvent(File activeFile, final E event) {
     return timeBasedFileNamingAndTriggeringPolicy.isTriggeringEvent(activeFile, event);
   }
@@ -233,6 +388,65 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
   }
 
 
+  public int getCompressionJobThreadCount() {
+    return compressionJobThreadCount;
+  }
+
+  /**
+   * The number of threads compressing archives of elapsed periods. Defaults
+   * to 1.
+   *
+   * @since 1.1.4
+   */
+  public void setCompressionJobThreadCount(int compressionJobThreadCount) {
+    this.compressionJobThreadCount = compressionJobThreadCount;
+  }
+
+  public int getCompressionQueueSize() {
+    return compressionQueueSize;
+  }
+
+  /**
+   * The maximum number of archives waiting for or being compressed. Once
+   * reached, rolling over waits for a compression job to complete. Defaults
+   * to {@link CompressionScheduler#DEFAULT_QUEUE_SIZE}.
+   *
+   * @since 1.1.4
+   */
+  public void setCompressionQueueSize(int compressionQueueSize) {
+    this.compressionQueueSize = compressionQueueSize;
+  }
+
+  public boolean isRegisterCompressionMBean() {
+    return registerCompressionMBean;
+  }
+
+  /**
+   * Register an MBean exposing the compression backlog and throughput?
+   * Default is false.
+   *
+   * @since 1.1.4
+   */
+  public void setRegisterCompressionMBean(boolean registerCompressionMBean) {
+    this.registerCompressionMBean = registerCompressionMBean;
+  }
+
+  public FileSize getTotalSizeCap() {
+    return totalSizeCap;
+  }
+
+  /**
+   * Set the maximum total size of archives. Once exceeded, the oldest
+   * archives are removed. The archives are listed once and then kept in an
+   * index, instead of being listed period by period on each rollover.
+   *
+   * @since 1.1.4
+   * @param totalSizeCap
+   */
+  public void setTotalSizeCap(FileSize totalSizeCap) {
+    this.totalSizeCap = totalSizeCap;
+  }
+
   public boolean isCleanHistoryOnStart() {
     return cleanHistoryOnStart;
   }
@@ -0,0 +1,31 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling;
+
+/**
+ * Implemented by the triggering policies which can tell, from any thread and
+ * without locking, that no event may trigger a rollover at this time.
+ * {@link RollingFileAppender} then skips the triggering check altogether.
+ *
+ * @since 1.1.4
+ */
+interface TriggeringCheckGate {
+
+  /**
+   * Returns false only if {@link TriggeringPolicy#isTriggeringEvent} would
+   * return false for any event. Implementations read volatile state only,
+   * since this method is invoked concurrently with the triggering check.
+   */
+  boolean isTriggeringCheckDue();
+}
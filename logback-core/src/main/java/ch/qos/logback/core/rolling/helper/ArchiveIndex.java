@@ -0,0 +1,252 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.File;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import ch.qos.logback.core.pattern.Converter;
+import ch.qos.logback.core.pattern.LiteralConverter;
+
+/**
+ * The archives matching a file name pattern, sorted by period and then by
+ * index, along with their sizes.
+ * <p/>
+ * The index is built by scanning the directories designated by the pattern
+ * once. Afterwards, only the directories of the periods being rolled over are
+ * listed, in order to find new archives and to update the sizes of archives
+ * which may have been compressed in the meantime. Files of the current period
+ * are left out of the index, since one of them may be the active file.
+ * <p/>
+ * Paths are matched in their slashified form, whatever the separator used in
+ * the pattern or by the platform.
+ * <p/>
+ * This class is not thread-safe.
+ *
+ * @since 1.1.4
+ */
+class ArchiveIndex {
+
+  static class Entry implements Comparable<Entry> {
+    final File file;
+    final long period;
+    final int index;
+    long size;
+
+    Entry(File file, long period, int index) {
+      this.file = file;
+      this.period = period;
+      this.index = index;
+    }
+
+    public int compareTo(Entry o) {
+      if (period != o.period) {
+        return period < o.period ? -1 : 1;
+      }
+      if (index != o.index) {
+        return index < o.index ? -1 : 1;
+      }
+      return file.getPath().compareTo(o.file.getPath());
+    }
+  }
+
+  final FileNamePattern fileNamePattern;
+  final Pattern regex;
+  private final int dateGroup;
+  private final int indexGroup;
+  private final SimpleDateFormat dateFormat;
+
+  private final TreeSet<Entry> entries = new TreeSet<Entry>();
+  private long totalSize;
+  private boolean built;
+
+  ArchiveIndex(FileNamePattern fileNamePattern) {
+    this.fileNamePattern = fileNamePattern;
+    StringBuilder buf = new StringBuilder();
+    int group = 0;
+    int dateGroup = 0;
+    int indexGroup = 0;
+    DateTokenConverter<Object> primary = fileNamePattern.getPrimaryDateTokenConverter();
+    for (Converter<Object> p = fileNamePattern.headTokenConverter; p != null; p = p.getNext()) {
+      if (p instanceof LiteralConverter) {
+        buf.append(Pattern.quote(FileFilterUtil.slashify(p.convert(null))));
+      } else if (p instanceof IntegerTokenConverter) {
+        buf.append("(\\d+)");
+        indexGroup = ++group;
+      } else if (p instanceof DateTokenConverter) {
+        buf.append('(').append(nonCapturing(((DateTokenConverter<Object>) p).toRegex())).append(')');
+        ++group;
+        if (p == primary) {
+          dateGroup = group;
+        }
+      }
+    }
+    this.regex = Pattern.compile(buf.toString());
+    this.dateGroup = dateGroup;
+    this.indexGroup = indexGroup;
+    if (primary != null) {
+      dateFormat = new SimpleDateFormat(primary.getDatePattern());
+      if (primary.getTimeZone() != null) {
+        dateFormat.setTimeZone(primary.getTimeZone());
+      }
+    } else {
+      dateFormat = null;
+    }
+  }
+
+  /**
+   * Turns the groups of the given regular expression into non-capturing
+   * groups, leaving the groups of the index in control.
+   */
+  static String nonCapturing(String regex) {
+    StringBuilder buf = new StringBuilder(regex.length() + 8);
+    boolean escaped = false;
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      buf.append(c);
+      if (escaped) {
+        escaped = false;
+      } else if (c == '\\') {
+        escaped = true;
+      } else if (c == '(' && (i + 1 == regex.length() || regex.charAt(i + 1) != '?')) {
+        buf.append("?:");
+      }
+    }
+    return buf.toString();
+  }
+
+  /**
+   * Builds the index on the first call. On later calls, adds the archives of
+   * the directories of the given elapsed periods, and updates their sizes.
+   * Archives of the period of <code>now</code> or later are not indexed.
+   */
+  void update(Date now, Date... elapsed) {
+    long currentPeriod = periodOf(now);
+    if (!built) {
+      for (File file : FileFilterUtil.filesMatchingPattern(fileNamePattern, regex)) {
+        add(file, currentPeriod);
+      }
+      built = true;
+      return;
+    }
+    Set<File> dirs = new HashSet<File>();
+    for (Date date : elapsed) {
+      File archive0 = new File(fileNamePattern.convertMultipleArguments(date, 0));
+      File dir = archive0.getParentFile();
+      dirs.add(dir == null ? new File(".") : dir);
+    }
+    for (File dir : dirs) {
+      String[] names = dir.list();
+      if (names == null) {
+        continue;
+      }
+      // same form as the paths of the initial scan
+      String dirStr = dir.getPath().equals(".") ? "" : FileFilterUtil.slashify(dir.getPath()) + "/";
+      for (String name : names) {
+        File file = new File(dirStr + name);
+        if (regex.matcher(dirStr + name).matches() && file.isFile()) {
+          add(file, currentPeriod);
+        }
+      }
+    }
+  }
+
+  private void add(File file, long currentPeriod) {
+    Entry entry = newEntry(file);
+    if (entry == null || entry.period >= currentPeriod) {
+      return;
+    }
+    Entry existing = entries.ceiling(entry);
+    if (existing != null && existing.compareTo(entry) == 0) {
+      entry = existing;
+      totalSize -= entry.size;
+    } else {
+      entries.add(entry);
+    }
+    entry.size = file.length();
+    totalSize += entry.size;
+  }
+
+  private Entry newEntry(File file) {
+    Matcher m = regex.matcher(FileFilterUtil.slashify(file.getPath()));
+    if (!m.matches()) {
+      return null;
+    }
+    long period = 0;
+    if (dateGroup != 0) {
+      try {
+        period = dateFormat.parse(m.group(dateGroup)).getTime();
+      } catch (ParseException e) {
+        return null;
+      }
+    }
+    int index = 0;
+    if (indexGroup != 0) {
+      try {
+        index = Integer.parseInt(m.group(indexGroup));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    return new Entry(file, period, index);
+  }
+
+  /**
+   * Returns the start of the period of the given date, as designated by the
+   * primary date token of the pattern.
+   */
+  private long periodOf(Date date) {
+    if (dateFormat == null) {
+      return Long.MAX_VALUE;
+    }
+    try {
+      return dateFormat.parse(dateFormat.format(date)).getTime();
+    } catch (ParseException e) {
+      return Long.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Removes the oldest archive from the index, returns null if none.
+   */
+  Entry removeOldest() {
+    Entry oldest = entries.pollFirst();
+    if (oldest != null) {
+      totalSize -= oldest.size;
+    }
+    return oldest;
+  }
+
+  /**
+   * Returns the oldest archive, null if none.
+   */
+  Entry oldest() {
+    return entries.isEmpty() ? null : entries.first();
+  }
+
+  long getTotalSize() {
+    return totalSize;
+  }
+
+  int size() {
+    return entries.size();
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import ch.qos.logback.core.spi.ContextAware;
+import ch.qos.logback.core.spi.LifeCycle;
+
+/**
+ * A compression algorithm for archived log files, selected by the suffix of
+ * the file name pattern of a rolling policy.
+ * <p/>
+ * Besides the codecs shipped with logback, {@link LZ4Codec} and
+ * {@link DeflateCodec}, codecs are found with {@link java.util.ServiceLoader},
+ * or can be set on the rolling policy, for example:
+ *
+ * <pre>
+ * &lt;rollingPolicy class="ch.qos.logback.core.rolling.TimeBasedRollingPolicy"&gt;
+ *   &lt;fileNamePattern&gt;log-%d.zz&lt;/fileNamePattern&gt;
+ *   &lt;compressionCodec class="ch.qos.logback.core.rolling.helper.DeflateCodec"&gt;
+ *     &lt;level&gt;9&lt;/level&gt;
+ *   &lt;/compressionCodec&gt;
+ * &lt;/rollingPolicy&gt;
+ * </pre>
+ *
+ * @since 1.1.4
+ */
+public interface CompressionCodec extends ContextAware, LifeCycle {
+
+  /**
+   * The suffix of compressed file names, including the leading dot, for
+   * example ".lz4".
+   */
+  String getFileNameSuffix();
+
+  /**
+   * Returns a stream compressing the bytes written to it into the given
+   * stream. Closing the returned stream closes the given stream.
+   */
+  OutputStream newCompressingStream(OutputStream out) throws IOException;
+}
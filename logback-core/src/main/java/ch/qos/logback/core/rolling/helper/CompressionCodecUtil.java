@@ -0,0 +1,67 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.status.WarnStatus;
+
+/**
+ * Finds the {@link CompressionCodec} matching a file name.
+ *
+ * @since 1.1.4
+ */
+public class CompressionCodecUtil {
+
+  /**
+   * Returns a new, started, instance of the codec whose suffix ends the
+   * given file name, null if none. Codecs shipped with logback are
+   * considered first, then those found by {@link ServiceLoader}.
+   */
+  static public CompressionCodec findByFileName(String fileName, Context context) {
+    for (CompressionCodec codec : candidates(context)) {
+      if (fileName.endsWith(codec.getFileNameSuffix())) {
+        codec.setContext(context);
+        codec.start();
+        return codec;
+      }
+    }
+    return null;
+  }
+
+  static private List<CompressionCodec> candidates(Context context) {
+    List<CompressionCodec> candidates = new ArrayList<CompressionCodec>();
+    candidates.add(new LZ4Codec());
+    candidates.add(new DeflateCodec());
+    Iterator<CompressionCodec> it = ServiceLoader.load(CompressionCodec.class).iterator();
+    while (true) {
+      try {
+        if (!it.hasNext()) {
+          break;
+        }
+        candidates.add(it.next());
+      } catch (ServiceConfigurationError e) {
+        if (context != null) {
+          context.getStatusManager().add(new WarnStatus("Failed to load a compression codec", CompressionCodecUtil.class, e));
+        }
+      }
+    }
+    return candidates;
+  }
+}
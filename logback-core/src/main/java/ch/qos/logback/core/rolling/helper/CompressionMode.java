@@ -14,5 +14,10 @@
 package ch.qos.logback.core.rolling.helper;
 
 public enum CompressionMode {
-  NONE, GZ, ZIP;
+  NONE, GZ, ZIP,
+  /**
+   * Compression by a {@link CompressionCodec}.
+   * @since 1.1.4
+   */
+  CODEC;
 }
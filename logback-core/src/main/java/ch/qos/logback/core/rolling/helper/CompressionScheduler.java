@@ -0,0 +1,269 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.spi.LifeCycle;
+import ch.qos.logback.core.util.ExecutorServiceUtil;
+
+/**
+ * Runs compression jobs on threads of its own, so that compressing archives
+ * neither delays logging nor competes with other tasks of the context.
+ * <p/>
+ * At most <code>queueSize</code> jobs are waiting or running. Beyond that,
+ * submitting a job waits for a job to complete, slowing rollovers down to the
+ * pace of compression instead of accumulating uncompressed files. Waiting
+ * jobs are run oldest file first.
+ * <p/>
+ * When registered, the scheduler exposes its backlog and throughput as a
+ * JMX MBean.
+ *
+ * @since 1.1.4
+ */
+public class CompressionScheduler extends ContextAwareBase implements CompressionSchedulerMBean, LifeCycle {
+
+  public static final int DEFAULT_QUEUE_SIZE = 16;
+  static final long KEEP_ALIVE_MILLIS = 60 * CoreConstants.MILLIS_IN_ONE_SECOND;
+
+  // absolute paths of the files being compressed, by any scheduler of this JVM
+  private static final Set<String> FILES_IN_FLIGHT = Collections
+      .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  final int threadCount;
+  final int queueSize;
+
+  private ThreadPoolExecutor executor;
+  private Semaphore permits;
+  private ObjectName objectName;
+  private boolean started;
+
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicInteger activeJobCount = new AtomicInteger();
+  private final AtomicLong completedJobCount = new AtomicLong();
+  private final AtomicLong failedJobCount = new AtomicLong();
+  private final AtomicLong compressedByteCount = new AtomicLong();
+  private final AtomicLong busyNanos = new AtomicLong();
+
+  public CompressionScheduler(int threadCount, int queueSize) {
+    this.threadCount = Math.max(1, threadCount);
+    this.queueSize = Math.max(this.threadCount, queueSize);
+  }
+
+  public void start() {
+    executor = ExecutorServiceUtil.newPriorityThreadPool(threadCount, KEEP_ALIVE_MILLIS);
+    permits = new Semaphore(queueSize);
+    started = true;
+  }
+
+  /**
+   * Waits for the submitted jobs to complete, for at most
+   * {@link CoreConstants#SECONDS_TO_WAIT_FOR_COMPRESSION_JOBS} seconds. Jobs
+   * which did not complete by then keep running in the background.
+   */
+  public void stop() {
+    if (!started) {
+      return;
+    }
+    started = false;
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(CoreConstants.SECONDS_TO_WAIT_FOR_COMPRESSION_JOBS, TimeUnit.SECONDS)) {
+        addError("Timeout while waiting for " + (getQueuedJobCount() + getActiveJobCount())
+            + " compression jobs to finish");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      addError("Interrupted while waiting for compression jobs to finish", e);
+    }
+    unregisterMBean();
+  }
+
+  public boolean isStarted() {
+    return started;
+  }
+
+  /**
+   * Submits a compression job, waiting for a job to complete if
+   * <code>queueSize</code> jobs are waiting or running.
+   */
+  public Future<?> submit(Compressor compressor, String nameOfFile2Compress, String nameOfCompressedFile,
+      String innerEntryName) {
+    CompressionJob job = new CompressionJob(new CompressionRunnable(compressor, nameOfFile2Compress,
+        nameOfCompressedFile, innerEntryName));
+    FILES_IN_FLIGHT.add(job.path);
+    if (!permits.tryAcquire()) {
+      addWarn("Waiting for one of " + queueSize + " compression jobs to complete");
+      permits.acquireUninterruptibly();
+    }
+    try {
+      executor.execute(job);
+    } catch (RejectedExecutionException e) {
+      // stopped, compress in the calling thread
+      job.run();
+    }
+    return job;
+  }
+
+  /**
+   * @return whether a job of any scheduler, possibly a stopped one, is
+   *         waiting to compress or compressing the given file
+   */
+  public static boolean isInFlight(File file2Compress) {
+    return FILES_IN_FLIGHT.contains(file2Compress.getAbsolutePath());
+  }
+
+  void runMeasured(CompressionRunnable runnable) {
+    File file2Compress = new File(runnable.nameOfFile2Compress);
+    boolean existed = file2Compress.exists();
+    long length = file2Compress.length();
+    long start = System.nanoTime();
+    activeJobCount.incrementAndGet();
+    try {
+      runnable.run();
+    } finally {
+      activeJobCount.decrementAndGet();
+      busyNanos.addAndGet(System.nanoTime() - start);
+      // the compressor deletes the file once compressed
+      if (!existed || file2Compress.exists()) {
+        failedJobCount.incrementAndGet();
+      } else {
+        compressedByteCount.addAndGet(length);
+      }
+      completedJobCount.incrementAndGet();
+      // before the job is done, for those waiting on it
+      FILES_IN_FLIGHT.remove(file2Compress.getAbsolutePath());
+    }
+  }
+
+  /**
+   * Registers this scheduler with the platform MBean server under the given
+   * name, until stopped.
+   */
+  public void registerMBean(String name) {
+    try {
+      ObjectName on = new ObjectName(name);
+      MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+      if (mbs.isRegistered(on)) {
+        addWarn("An MBean named [" + name + "] is already registered");
+        return;
+      }
+      mbs.registerMBean(this, on);
+      objectName = on;
+    } catch (JMException e) {
+      addError("Failed to register MBean named [" + name + "]", e);
+    }
+  }
+
+  private void unregisterMBean() {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (JMException e) {
+      addError("Failed to unregister MBean named [" + objectName + "]", e);
+    }
+    objectName = null;
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public int getQueuedJobCount() {
+    return executor == null ? 0 : executor.getQueue().size();
+  }
+
+  public int getActiveJobCount() {
+    return activeJobCount.get();
+  }
+
+  public long getCompletedJobCount() {
+    return completedJobCount.get();
+  }
+
+  public long getFailedJobCount() {
+    return failedJobCount.get();
+  }
+
+  public long getCompressedByteCount() {
+    return compressedByteCount.get();
+  }
+
+  public long getBytesPerSecond() {
+    long nanos = busyNanos.get();
+    if (nanos == 0) {
+      return 0;
+    }
+    return (long) (compressedByteCount.get() * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+  }
+
+  /**
+   * A compression job, ordered by the modification time of the file to
+   * compress, then by order of submission.
+   */
+  class CompressionJob extends FutureTask<Void> implements Comparable<CompressionJob> {
+    final long lastModified;
+    final long sequenceNumber;
+    final String path;
+
+    CompressionJob(final CompressionRunnable runnable) {
+      super(new Runnable() {
+        public void run() {
+          runMeasured(runnable);
+        }
+      }, null);
+      this.lastModified = new File(runnable.nameOfFile2Compress).lastModified();
+      this.sequenceNumber = sequence.getAndIncrement();
+      this.path = new File(runnable.nameOfFile2Compress).getAbsolutePath();
+    }
+
+    @Override
+    protected void done() {
+      // in case the job was cancelled before running
+      FILES_IN_FLIGHT.remove(path);
+      permits.release();
+    }
+
+    public int compareTo(CompressionJob o) {
+      if (lastModified != o.lastModified) {
+        return lastModified < o.lastModified ? -1 : 1;
+      }
+      return sequenceNumber < o.sequenceNumber ? -1 : (sequenceNumber == o.sequenceNumber ? 0 : 1);
+    }
+  }
+}
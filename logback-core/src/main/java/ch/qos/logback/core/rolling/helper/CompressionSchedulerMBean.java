@@ -0,0 +1,60 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+/**
+ * The management interface of a {@link CompressionScheduler}.
+ *
+ * @since 1.1.4
+ */
+public interface CompressionSchedulerMBean {
+
+  /**
+   * The number of threads compressing archives.
+   */
+  int getThreadCount();
+
+  /**
+   * The maximum number of jobs waiting or running, beyond which rolling over
+   * waits for a job to complete.
+   */
+  int getQueueSize();
+
+  /**
+   * The number of jobs waiting for a thread.
+   */
+  int getQueuedJobCount();
+
+  /**
+   * The number of jobs being run.
+   */
+  int getActiveJobCount();
+
+  long getCompletedJobCount();
+
+  /**
+   * The number of jobs which did not compress their file.
+   */
+  long getFailedJobCount();
+
+  /**
+   * The number of uncompressed bytes compressed so far.
+   */
+  long getCompressedByteCount();
+
+  /**
+   * The number of uncompressed bytes compressed per second of job execution.
+   */
+  long getBytesPerSecond();
+}
@@ -18,6 +18,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -31,17 +33,116 @@ import ch.qos.logback.core.util.FileUtil;
 /**
  * The <code>Compression</code> class implements ZIP and GZ file
  * compression/decompression methods.
+ * <p/>
+ * When the thread count is greater than one, GZ compression is performed by
+ * {@link ParallelGZIPCompressor} in blocks of the given size.
+ * <p/>
+ * In CODEC mode, compression is delegated to a {@link CompressionCodec}.
  *
  * @author Ceki G&uuml;lc&uuml;
  */
 public class Compressor extends ContextAwareBase {
 
   final CompressionMode compressionMode;
+  final CompressionCodec codec;
 
   static final int BUFFER_SIZE = 8192;
 
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+  static final int MIN_BLOCK_SIZE = 32 * 1024;
+
+  int level = Deflater.DEFAULT_COMPRESSION;
+  int blockSize = DEFAULT_BLOCK_SIZE;
+  int threadCount = 1;
+
   public Compressor(CompressionMode compressionMode) {
+    if (compressionMode == CompressionMode.CODEC) {
+      throw new IllegalArgumentException("A codec is required in CODEC compression mode");
+    }
     this.compressionMode = compressionMode;
+    this.codec = null;
+  }
+
+  /**
+   * Creates a compressor delegating to the given codec.
+   *
+   * @since 1.1.4
+   */
+  public Compressor(CompressionCodec codec) {
+    this.compressionMode = CompressionMode.CODEC;
+    this.codec = codec;
+  }
+
+  /**
+   * Returns the suffix of compressed file names, an empty string if there is
+   * no compression.
+   *
+   * @since 1.1.4
+   */
+  public String getFileNameSuffix() {
+    return computeFileNameSuffix(compressionMode, codec);
+  }
+
+  static String computeFileNameSuffix(CompressionMode compressionMode, CompressionCodec codec) {
+    switch (compressionMode) {
+      case GZ:
+        return ".gz";
+      case ZIP:
+        return ".zip";
+      case CODEC:
+        return codec.getFileNameSuffix();
+      default:
+        return "";
+    }
+  }
+
+  /**
+   * The compression level, from 0 (no compression) to 9 (best compression),
+   * or -1 for the default level.
+   *
+   * @since 1.1.4
+   */
+  public void setLevel(int level) {
+    if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+      addWarn("Compression level " + level + " is out of range. Using the default level.");
+      level = Deflater.DEFAULT_COMPRESSION;
+    }
+    this.level = level;
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * The size of the blocks compressed in parallel in GZ mode.
+   *
+   * @since 1.1.4
+   */
+  public void setBlockSize(int blockSize) {
+    if (blockSize < MIN_BLOCK_SIZE) {
+      addWarn("Compression block size " + blockSize + " is too small. Using " + MIN_BLOCK_SIZE + " instead.");
+      blockSize = MIN_BLOCK_SIZE;
+    }
+    this.blockSize = blockSize;
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * The number of threads compressing blocks in GZ mode. With one thread, the
+   * default, files are compressed as a single block.
+   *
+   * @since 1.1.4
+   */
+  public void setThreadCount(int threadCount) {
+    this.threadCount = Math.max(1, threadCount);
+  }
+
+  public int getThreadCount() {
+    return threadCount;
   }
 
   /**
@@ -57,6 +158,9 @@ public class Compressor extends ContextAwareBase {
       case ZIP:
         zipCompress(nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
         break;
+      case CODEC:
+        codecCompress(nameOfFile2Compress, nameOfCompressedFile);
+        break;
       case NONE:
         throw new UnsupportedOperationException(
                 "compress method called in NONE compression mode");
@@ -99,6 +203,7 @@ public class Compressor extends ContextAwareBase {
     try {
       bis = new BufferedInputStream(new FileInputStream(nameOfFile2zip));
       zos = new ZipOutputStream(new FileOutputStream(nameOfZippedFile));
+      zos.setLevel(level);
 
       ZipEntry zipEntry = computeZipEntry(innerEntryName);
       zos.putNextEntry(zipEntry);
@@ -194,15 +299,20 @@ public class Compressor extends ContextAwareBase {
     createMissingTargetDirsIfNecessary(gzedFile);
 
     BufferedInputStream bis = null;
-    GZIPOutputStream gzos = null;
+    OutputStream gzos = null;
     try {
       bis = new BufferedInputStream(new FileInputStream(nameOfFile2gz));
-      gzos = new GZIPOutputStream(new FileOutputStream(nameOfgzedFile));
-      byte[] inbuf = new byte[BUFFER_SIZE];
-      int n;
-
-      while ((n = bis.read(inbuf)) != -1) {
-        gzos.write(inbuf, 0, n);
+      if (threadCount > 1) {
+        gzos = new FileOutputStream(nameOfgzedFile);
+        new ParallelGZIPCompressor(level, blockSize, threadCount).compress(bis, gzos);
+      } else {
+        gzos = new LeveledGZIPOutputStream(new FileOutputStream(nameOfgzedFile), level);
+        byte[] inbuf = new byte[BUFFER_SIZE];
+        int n;
+
+        while ((n = bis.read(inbuf)) != -1) {
+          gzos.write(inbuf, 0, n);
+        }
       }
 
       bis.close();
@@ -235,6 +345,84 @@ public class Compressor extends ContextAwareBase {
     }
   }
 
+  private void codecCompress(String nameOfFile2Compress, String nameOfCompressedFile) {
+    File file2Compress = new File(nameOfFile2Compress);
+
+    if (!file2Compress.exists()) {
+      addWarn("The file to compress named [" + nameOfFile2Compress + "] does not exist.");
+      return;
+    }
+
+    String suffix = codec.getFileNameSuffix();
+    if (!nameOfCompressedFile.endsWith(suffix)) {
+      nameOfCompressedFile = nameOfCompressedFile + suffix;
+    }
+
+    File compressedFile = new File(nameOfCompressedFile);
+
+    if (compressedFile.exists()) {
+      addWarn("The target compressed file named ["
+              + nameOfCompressedFile + "] exist already. Aborting file compression.");
+      return;
+    }
+
+    addInfo(codec.getClass().getSimpleName() + " compressing [" + file2Compress + "] as [" + compressedFile + "]");
+    createMissingTargetDirsIfNecessary(compressedFile);
+
+    BufferedInputStream bis = null;
+    OutputStream os = null;
+    try {
+      bis = new BufferedInputStream(new FileInputStream(file2Compress));
+      os = codec.newCompressingStream(new FileOutputStream(compressedFile));
+      byte[] inbuf = new byte[BUFFER_SIZE];
+      int n;
+      while ((n = bis.read(inbuf)) != -1) {
+        os.write(inbuf, 0, n);
+      }
+
+      bis.close();
+      bis = null;
+      os.close();
+      os = null;
+
+      if (!file2Compress.delete()) {
+        addWarn("Could not delete [" + nameOfFile2Compress + "].");
+      }
+    } catch (Exception e) {
+      addStatus(new ErrorStatus("Error occurred while compressing ["
+              + nameOfFile2Compress + "] into [" + nameOfCompressedFile + "].", this, e));
+    } finally {
+      if (bis != null) {
+        try {
+          bis.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+      if (os != null) {
+        try {
+          os.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the file name pattern without the suffix of the given codec.
+   *
+   * @since 1.1.4
+   */
+  static public String computeFileNameStr_WCS(String fileNamePatternStr,
+                                              CompressionCodec codec) {
+    String suffix = codec.getFileNameSuffix();
+    if (fileNamePatternStr.endsWith(suffix)) {
+      return fileNamePatternStr.substring(0, fileNamePatternStr.length() - suffix.length());
+    }
+    return fileNamePatternStr;
+  }
+
   static public String computeFileNameStr_WCS(String fileNamePatternStr,
                                               CompressionMode compressionMode) {
     int len = fileNamePatternStr.length();
@@ -251,6 +439,8 @@ public class Compressor extends ContextAwareBase {
           return fileNamePatternStr;
       case NONE:
         return fileNamePatternStr;
+      case CODEC:
+        throw new IllegalArgumentException("The codec is required to compute the file name in CODEC mode");
     }
     throw new IllegalStateException("Execution should not reach this point");
   }
@@ -269,4 +459,11 @@ public class Compressor extends ContextAwareBase {
     return this.getClass().getName();
   }
 
+  static class LeveledGZIPOutputStream extends GZIPOutputStream {
+    LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+      super(out);
+      def.setLevel(level);
+    }
+  }
+
 }
@@ -39,6 +39,7 @@ public class DateTokenConverter<E> extends DynamicConverter<E> implements MonoTy
   private String datePattern;
   private TimeZone timeZone;
   private CachingDateFormatter cdf;
+  private String regex;
   // is this token converter primary or auxiliary? Only the primary converter
   // determines the rolling period
   private boolean primary = true;
@@ -96,8 +97,13 @@ public class DateTokenConverter<E> extends DynamicConverter<E> implements MonoTy
   }
 
   public String toRegex() {
-    DatePatternToRegexUtil datePatternToRegexUtil = new DatePatternToRegexUtil(datePattern);
-    return datePatternToRegexUtil.toRegex();
+    String r = regex;
+    if (r == null) {
+      DatePatternToRegexUtil datePatternToRegexUtil = new DatePatternToRegexUtil(datePattern);
+      r = datePatternToRegexUtil.toRegex();
+      regex = r;
+    }
+    return r;
   }
 
   public boolean isPrimary() {
@@ -28,10 +28,15 @@ abstract public class DefaultArchiveRemover extends ContextAwareBase implements
   // aim for 64 days, except in case of hourly rollover
   static protected final long INACTIVITY_TOLERANCE_IN_MILLIS = 64L * (long) CoreConstants.MILLIS_IN_ONE_DAY;
   static final int MAX_VALUE_FOR_INACTIVITY_PERIODS = 14 * 24; // 14 days in case of hourly rollover
+  static final long UNBOUNDED_TOTAL_SIZE_CAP = 0;
 
   final FileNamePattern fileNamePattern;
   final RollingCalendar rc;
   int periodOffsetForDeletionTarget;
+  int maxHistory;
+  long totalSizeCap = UNBOUNDED_TOTAL_SIZE_CAP;
+  // built on first use, when the total size is capped
+  ArchiveIndex archiveIndex;
   final boolean parentClean;
   long lastHeartBeat = UNINITIALIZED;
 
@@ -61,6 +66,10 @@ abstract public class DefaultArchiveRemover extends ContextAwareBase implements
   }
 
   public void clean(Date now) {
+    if (totalSizeCap != UNBOUNDED_TOTAL_SIZE_CAP) {
+      cleanWithIndex(now);
+      return;
+    }
     long nowInMillis = now.getTime();
     int periodsElapsed = computeElapsedPeriodsSinceLastClean(nowInMillis);
     lastHeartBeat = nowInMillis;
@@ -74,6 +83,42 @@ abstract public class DefaultArchiveRemover extends ContextAwareBase implements
 
   abstract void cleanByPeriodOffset(Date now, int periodOffset);
 
+  /**
+   * Removes archives older than maxHistory periods, then the oldest archives
+   * until their total size is within the cap. Unlike cleaning by period
+   * offset, the archives are listed once and then kept in an index. Files of
+   * the current period, among which the active file, are never removed.
+   */
+  void cleanWithIndex(Date now) {
+    if (archiveIndex == null) {
+      archiveIndex = new ArchiveIndex(fileNamePattern);
+    }
+    // archives of elapsed periods may still have been compressing on
+    // previous calls
+    archiveIndex.update(now, rc.getRelativeDate(now, -1), rc.getRelativeDate(now, -2));
+    ArchiveIndex.Entry oldest;
+    if (maxHistory != 0) {
+      long threshold = rc.getRelativeDate(now, -maxHistory).getTime();
+      while ((oldest = archiveIndex.oldest()) != null && oldest.period < threshold) {
+        delete(archiveIndex.removeOldest().file);
+      }
+    }
+    while (archiveIndex.getTotalSize() > totalSizeCap && (oldest = archiveIndex.removeOldest()) != null) {
+      delete(oldest.file);
+    }
+  }
+
+  private void delete(File file) {
+    addInfo("deleting " + file);
+    if (!file.delete() && file.exists()) {
+      addWarn("Failed to delete " + file);
+      return;
+    }
+    if (parentClean) {
+      removeFolderIfEmpty(file.getAbsoluteFile().getParentFile());
+    }
+  }
+
   boolean computeParentCleaningFlag(FileNamePattern fileNamePattern) {
     DateTokenConverter<Object> dtc = fileNamePattern.getPrimaryDateTokenConverter();
     // if the date pattern has a /, then we need parent cleaning
@@ -132,7 +177,17 @@ abstract public class DefaultArchiveRemover extends ContextAwareBase implements
   }
 
   public void setMaxHistory(int maxHistory) {
+    this.maxHistory = maxHistory;
     this.periodOffsetForDeletionTarget = -maxHistory - 1;
   }
 
+  /**
+   * Set the maximum total size of archives, 0 for no limit.
+   *
+   * @since 1.1.4
+   */
+  public void setTotalSizeCap(long totalSizeCap) {
+    this.totalSizeCap = totalSizeCap;
+  }
+
 }
@@ -0,0 +1,148 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+/**
+ * Compresses archives into the zlib format (RFC 1950), as written by
+ * <code>pigz -z</code>, with a configurable level and an optional preset
+ * dictionary. Selected by the ".zz" suffix.
+ * <p/>
+ * A dictionary made of text typical of the log files, such as the constant
+ * parts of their messages, improves compression of small archives. The same
+ * dictionary is required for decompression, for instance with
+ * {@link java.util.zip.Inflater#setDictionary(byte[])}. Only the last 32 KB
+ * of the dictionary file are used, the size of the deflate window.
+ *
+ * @since 1.1.4
+ */
+public class DeflateCodec extends ContextAwareBase implements CompressionCodec {
+
+  public static final String SUFFIX = ".zz";
+  static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+  static final int BUFFER_SIZE = 8192;
+
+  int level = Deflater.DEFAULT_COMPRESSION;
+  String dictionaryFile;
+  byte[] dictionary;
+  private boolean started;
+
+  public String getFileNameSuffix() {
+    return SUFFIX;
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * The compression level, from 0 (no compression) to 9 (best compression),
+   * or -1 for the default level.
+   */
+  public void setLevel(int level) {
+    this.level = level;
+  }
+
+  public String getDictionaryFile() {
+    return dictionaryFile;
+  }
+
+  /**
+   * The file holding the preset dictionary.
+   */
+  public void setDictionaryFile(String dictionaryFile) {
+    this.dictionaryFile = dictionaryFile;
+  }
+
+  public void start() {
+    if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+      addWarn("Compression level " + level + " is out of range. Using the default level.");
+      level = Deflater.DEFAULT_COMPRESSION;
+    }
+    dictionary = null;
+    if (dictionaryFile != null) {
+      try {
+        dictionary = readDictionary(dictionaryFile);
+      } catch (IOException e) {
+        addError("Failed to read dictionary file [" + dictionaryFile + "], compressing without dictionary", e);
+      }
+    }
+    started = true;
+  }
+
+  static byte[] readDictionary(String fileName) throws IOException {
+    InputStream in = new FileInputStream(fileName);
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      byte[] buf = new byte[BUFFER_SIZE];
+      int n;
+      while ((n = in.read(buf)) != -1) {
+        bytes.write(buf, 0, n);
+      }
+      byte[] all = bytes.toByteArray();
+      if (all.length <= MAX_DICTIONARY_SIZE) {
+        return all;
+      }
+      byte[] tail = new byte[MAX_DICTIONARY_SIZE];
+      System.arraycopy(all, all.length - MAX_DICTIONARY_SIZE, tail, 0, MAX_DICTIONARY_SIZE);
+      return tail;
+    } finally {
+      in.close();
+    }
+  }
+
+  public void stop() {
+    started = false;
+  }
+
+  public boolean isStarted() {
+    return started;
+  }
+
+  public OutputStream newCompressingStream(OutputStream out) {
+    Deflater deflater = new Deflater(level);
+    if (dictionary != null) {
+      deflater.setDictionary(dictionary);
+    }
+    return new DeflaterStream(out, deflater);
+  }
+
+  /**
+   * Releases the deflater once closed, which DeflaterOutputStream does not do
+   * for deflaters it did not create.
+   */
+  static class DeflaterStream extends DeflaterOutputStream {
+    DeflaterStream(OutputStream out, Deflater deflater) {
+      super(out, deflater, BUFFER_SIZE);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        def.end();
+      }
+    }
+  }
+}
@@ -15,8 +15,10 @@ package ch.qos.logback.core.rolling.helper;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -73,6 +75,17 @@ public class FileFilterUtil {
    */
   public static File[] filesInFolderMatchingStemRegex(File file,
       final String stemRegex) {
+    return filesInFolderMatchingStemRegex(file, Pattern.compile(stemRegex));
+  }
+
+  /**
+   * Return the set of files matching the compiled stemRegex as found in
+   * 'directory'.
+   *
+   * @since 1.1.4
+   */
+  public static File[] filesInFolderMatchingStemRegex(File file,
+      final Pattern stemRegex) {
 
     if (file == null) {
       return new File[0];
@@ -80,14 +93,22 @@ public class FileFilterUtil {
     if (!file.exists() || !file.isDirectory()) {
       return new File[0];
     }
+    final Matcher m = stemRegex.matcher("");
     return file.listFiles(new FilenameFilter() {
       public boolean accept(File dir, String name) {
-        return name.matches(stemRegex);
+        return m.reset(name).matches();
       }
     });
   }
 
   static public int findHighestCounter(File[] matchingFileArray, final String stemRegex) {
+    return findHighestCounter(matchingFileArray, Pattern.compile(stemRegex));
+  }
+
+  /**
+   * @since 1.1.4
+   */
+  static public int findHighestCounter(File[] matchingFileArray, final Pattern stemRegex) {
     int max = Integer.MIN_VALUE;
     for (File aFile : matchingFileArray) {
       int aCounter = FileFilterUtil.extractCounter(aFile, stemRegex);
@@ -98,10 +119,16 @@ public class FileFilterUtil {
   }
 
   static public int extractCounter(File file, final String stemRegex) {
-    Pattern p = Pattern.compile(stemRegex);
+    return extractCounter(file, Pattern.compile(stemRegex));
+  }
+
+  /**
+   * @since 1.1.4
+   */
+  static public int extractCounter(File file, final Pattern stemRegex) {
     String lastFileName = file.getName();
 
-    Matcher m = p.matcher(lastFileName);
+    Matcher m = stemRegex.matcher(lastFileName);
     if (!m.matches()) {
       throw new IllegalStateException("The regex [" + stemRegex
           + "] should match [" + lastFileName + "]");
@@ -110,6 +137,60 @@ public class FileFilterUtil {
     return new Integer(counterAsStr).intValue();
   }
 
+  /**
+   * Returns the files whose path matches the given file name pattern, in
+   * the directories the pattern may designate.
+   *
+   * @since 1.1.4
+   */
+  static public List<File> filesMatchingPattern(FileNamePattern fileNamePattern) {
+    return filesMatchingPattern(fileNamePattern, Pattern.compile(fileNamePattern.toRegex()));
+  }
+
+  /**
+   * Returns the files whose path matches the given regular expression, in
+   * the directories the given file name pattern may designate.
+   *
+   * @since 1.1.4
+   */
+  static public List<File> filesMatchingPattern(FileNamePattern fileNamePattern, Pattern regex) {
+    String slashified = slashify(fileNamePattern.getPattern());
+    int firstToken = slashified.indexOf('%');
+    if (firstToken == -1) {
+      firstToken = slashified.length();
+    }
+    // the directory up to the first token is fixed
+    String fixedDirStr = slashified.substring(0, slashified.lastIndexOf('/', firstToken) + 1);
+    int depth = 0;
+    for (int i = fixedDirStr.length(); i < slashified.length(); i++) {
+      if (slashified.charAt(i) == '/') {
+        depth++;
+      }
+    }
+    File fixedDir = new File(fixedDirStr.length() == 0 ? "." : fixedDirStr);
+    List<File> result = new ArrayList<File>();
+    collectMatchingFiles(fixedDir, fixedDirStr, depth, regex, result);
+    return result;
+  }
+
+  private static void collectMatchingFiles(File dir, String dirStr, int depth, Pattern regex, List<File> result) {
+    String[] names = dir.list();
+    if (names == null) {
+      return;
+    }
+    for (String name : names) {
+      String path = dirStr + name;
+      File file = new File(dir, name);
+      if (depth == 0) {
+        if (regex.matcher(path).matches() && file.isFile()) {
+          result.add(new File(path));
+        }
+      } else if (file.isDirectory()) {
+        collectMatchingFiles(file, path + "/", depth - 1, regex, result);
+      }
+    }
+  }
+
   public static String slashify(String in) {
     return in.replace('\\', '/');
   }
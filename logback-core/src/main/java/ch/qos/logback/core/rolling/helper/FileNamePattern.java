@@ -13,9 +13,13 @@
  */
 package ch.qos.logback.core.rolling.helper;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.pattern.Converter;
@@ -31,6 +35,11 @@ import ch.qos.logback.core.spi.ContextAwareBase;
  * After parsing file name patterns, given a number or a date, instances of this
  * class can be used to compute a file name according to the file name pattern
  * and the given integer or date.
+ * <p/>
+ * The converters are laid out in an array once parsed, the value of literals
+ * being computed once. Regular expressions derived from the pattern are
+ * compiled once, per period in the case of
+ * {@link #toStemRegexPatternForFixedDate(Date)}.
  * 
  * @author Ceki G&uuml;lc&uuml;
  * 
@@ -45,15 +54,50 @@ public class FileNamePattern extends ContextAwareBase {
         DateTokenConverter.class.getName());
   }
 
+  // the number of periods whose compiled regex is kept
+  static final int STEM_REGEX_CACHE_SIZE = 8;
+
   String pattern;
   Converter<Object> headTokenConverter;
 
+  // the converters in order, and the values of literal ones, null for others
+  private Converter<Object>[] converters;
+  private String[] literals;
+  private int literalLength;
+
+  private String regex;
+  private final Map<String, Pattern> stemRegexCache = new LinkedHashMap<String, Pattern>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+      return size() > STEM_REGEX_CACHE_SIZE;
+    }
+  };
+
   public FileNamePattern(String patternArg, Context contextArg) {
     // the pattern is slashified
     setPattern(FileFilterUtil.slashify(patternArg));
     setContext(contextArg);
     parse();
     ConverterUtil.startConverters(this.headTokenConverter);
+    compile();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void compile() {
+    List<Converter<Object>> list = new ArrayList<Converter<Object>>();
+    for (Converter<Object> c = headTokenConverter; c != null; c = c.getNext()) {
+      list.add(c);
+    }
+    converters = list.toArray((Converter<Object>[]) new Converter<?>[list.size()]);
+    literals = new String[converters.length];
+    for (int i = 0; i < converters.length; i++) {
+      if (converters[i] instanceof LiteralConverter) {
+        literals[i] = converters[i].convert(null);
+        literalLength += literals[i].length();
+      }
+    }
   }
 
   void parse() {
@@ -112,9 +156,13 @@ public class FileNamePattern extends ContextAwareBase {
   }
 
   public String convertMultipleArguments(Object... objectList) {
-    StringBuilder buf = new StringBuilder();
-    Converter<Object> c = headTokenConverter;
-    while (c != null) {
+    StringBuilder buf = new StringBuilder(literalLength + 32);
+    for (int i = 0; i < converters.length; i++) {
+      if (literals[i] != null) {
+        buf.append(literals[i]);
+        continue;
+      }
+      Converter<Object> c = converters[i];
       if (c instanceof MonoTypedConverter) {
         MonoTypedConverter monoTyped = (MonoTypedConverter) c;
         for (Object o : objectList) {
@@ -125,17 +173,14 @@ public class FileNamePattern extends ContextAwareBase {
       } else {
         buf.append(c.convert(objectList));
       }
-      c = c.getNext();
     }
     return buf.toString();
   }
 
   public String convert(Object o) {
-    StringBuilder buf = new StringBuilder();
-    Converter<Object> p = headTokenConverter;
-    while (p != null) {
-      buf.append(p.convert(o));
-      p = p.getNext();
+    StringBuilder buf = new StringBuilder(literalLength + 32);
+    for (int i = 0; i < converters.length; i++) {
+      buf.append(literals[i] != null ? literals[i] : converters[i].convert(o));
     }
     return buf.toString();
   }
@@ -162,37 +207,64 @@ public class FileNamePattern extends ContextAwareBase {
    * date is known.
    */
   public String toRegexForFixedDate(Date date) {
-    StringBuilder buf = new StringBuilder();
-    Converter<Object> p = headTokenConverter;
-    while (p != null) {
-      if (p instanceof LiteralConverter) {
-        buf.append(p.convert(null));
+    StringBuilder buf = new StringBuilder(literalLength + 32);
+    for (int i = 0; i < converters.length; i++) {
+      Converter<Object> p = converters[i];
+      if (literals[i] != null) {
+        buf.append(literals[i]);
       } else if (p instanceof IntegerTokenConverter) {
         buf.append("(\\d{1,3})");
       } else if (p instanceof DateTokenConverter) {
         buf.append(p.convert(date));
       }
-      p = p.getNext();
     }
     return buf.toString();
   }
 
+  /**
+   * Returns the compiled regular expression matching the names, without
+   * folders, of the files of the period of the given date. Used to find the
+   * files of a period when the pattern has both %d and %i, the counter being
+   * the first group.
+   *
+   * @since 1.1.4
+   */
+  public Pattern toStemRegexPatternForFixedDate(Date date) {
+    String stemRegex = FileFilterUtil.afterLastSlash(toRegexForFixedDate(date));
+    synchronized (stemRegexCache) {
+      Pattern p = stemRegexCache.get(stemRegex);
+      if (p == null) {
+        p = Pattern.compile(stemRegex);
+        stemRegexCache.put(stemRegex, p);
+      }
+      return p;
+    }
+  }
+
   /**
    * Given date, convert this instance to a regular expression
    */
   public String toRegex() {
+    String r = regex;
+    if (r == null) {
+      r = computeRegex();
+      regex = r;
+    }
+    return r;
+  }
+
+  private String computeRegex() {
     StringBuilder buf = new StringBuilder();
-    Converter<Object> p = headTokenConverter;
-    while (p != null) {
-      if (p instanceof LiteralConverter) {
-        buf.append(p.convert(null));
+    for (int i = 0; i < converters.length; i++) {
+      Converter<Object> p = converters[i];
+      if (literals[i] != null) {
+        buf.append(literals[i]);
       } else if (p instanceof IntegerTokenConverter) {
         buf.append("\\d{1,2}");
       } else if (p instanceof DateTokenConverter) {
         DateTokenConverter<Object> dtc = (DateTokenConverter<Object>) p;
         buf.append(dtc.toRegex());
       }
-      p = p.getNext();
     }
     return buf.toString();
   }
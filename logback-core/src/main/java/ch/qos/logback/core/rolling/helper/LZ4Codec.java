@@ -0,0 +1,53 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.OutputStream;
+
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+/**
+ * Compresses archives into the LZ4 frame format, as read by the lz4 command
+ * line tool. Compression is several times faster than deflate, at the cost
+ * of larger files. This codec is implemented in Java and selected by the
+ * ".lz4" suffix.
+ *
+ * @since 1.1.4
+ */
+public class LZ4Codec extends ContextAwareBase implements CompressionCodec {
+
+  public static final String SUFFIX = ".lz4";
+
+  private boolean started;
+
+  public String getFileNameSuffix() {
+    return SUFFIX;
+  }
+
+  public OutputStream newCompressingStream(OutputStream out) {
+    return new LZ4FrameOutputStream(out);
+  }
+
+  public void start() {
+    started = true;
+  }
+
+  public void stop() {
+    started = false;
+  }
+
+  public boolean isStarted() {
+    return started;
+  }
+}
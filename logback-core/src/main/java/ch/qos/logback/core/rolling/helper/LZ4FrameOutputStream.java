@@ -0,0 +1,281 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Compresses the bytes written to it into the LZ4 frame format. Blocks of at
+ * most 64 KB are compressed independently, without checksums.
+ * <p/>
+ * Matches are found with a hash table of 4 byte sequences, as in the
+ * reference implementation. The search skips ahead faster as it fails to
+ * find matches, so that incompressible input is processed quickly.
+ *
+ * @since 1.1.4
+ */
+class LZ4FrameOutputStream extends OutputStream {
+
+  static final int MAGIC = 0x184D2204;
+  // version 01, independent blocks, no checksums, no content size
+  static final int FLG = 0x60;
+  // 64 KB blocks
+  static final int BD = 0x40;
+  static final int BLOCK_SIZE = 64 * 1024;
+  static final int UNCOMPRESSED_BLOCK_FLAG = 0x80000000;
+
+  static final int MIN_MATCH = 4;
+  // the last match must start at least 12 bytes before the end of a block
+  static final int MF_LIMIT = 12;
+  // the last 5 bytes of a block are literals
+  static final int LAST_LITERALS = 5;
+  static final int MAX_OFFSET = 65535;
+  static final int HASH_LOG = 14;
+  static final int SKIP_TRIGGER = 6;
+
+  private final OutputStream out;
+  private final byte[] buffer = new byte[BLOCK_SIZE];
+  private int bufferLength;
+  private final byte[] compressed = new byte[BLOCK_SIZE + BLOCK_SIZE / 255 + 16];
+  private final int[] hashTable = new int[1 << HASH_LOG];
+  private boolean headerWritten;
+  private boolean closed;
+
+  LZ4FrameOutputStream(OutputStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] { (byte) b }, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    while (len > 0) {
+      int n = Math.min(len, BLOCK_SIZE - bufferLength);
+      System.arraycopy(b, off, buffer, bufferLength, n);
+      bufferLength += n;
+      off += n;
+      len -= n;
+      if (bufferLength == BLOCK_SIZE) {
+        writeBlock();
+      }
+    }
+  }
+
+  private void writeHeader() throws IOException {
+    byte[] header = new byte[7];
+    writeIntLE(header, 0, MAGIC);
+    header[4] = (byte) FLG;
+    header[5] = (byte) BD;
+    header[6] = (byte) (XXHash32.hash(header, 4, 2, 0) >> 8);
+    out.write(header);
+    headerWritten = true;
+  }
+
+  private void writeBlock() throws IOException {
+    if (!headerWritten) {
+      writeHeader();
+    }
+    if (bufferLength == 0) {
+      return;
+    }
+    int compressedLength = compressBlock(buffer, bufferLength, compressed);
+    byte[] size = new byte[4];
+    if (compressedLength < bufferLength) {
+      writeIntLE(size, 0, compressedLength);
+      out.write(size);
+      out.write(compressed, 0, compressedLength);
+    } else {
+      writeIntLE(size, 0, bufferLength | UNCOMPRESSED_BLOCK_FLAG);
+      out.write(size);
+      out.write(buffer, 0, bufferLength);
+    }
+    bufferLength = 0;
+  }
+
+  int compressBlock(byte[] src, int srcLength, byte[] dst) {
+    Arrays.fill(hashTable, -1);
+    int anchor = 0;
+    int op = 0;
+    int ip = 0;
+    int matchStartLimit = srcLength - MF_LIMIT;
+    int matchEndLimit = srcLength - LAST_LITERALS;
+    int misses = 0;
+    while (ip <= matchStartLimit) {
+      int sequence = readInt(src, ip);
+      int h = hash(sequence);
+      int ref = hashTable[h];
+      hashTable[h] = ip;
+      if (ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+        ip += 1 + (misses++ >> SKIP_TRIGGER);
+        continue;
+      }
+      misses = 0;
+      int matchLength = MIN_MATCH;
+      while (ip + matchLength < matchEndLimit && src[ref + matchLength] == src[ip + matchLength]) {
+        matchLength++;
+      }
+      op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLength, dst, op);
+      ip += matchLength;
+      anchor = ip;
+      if (ip - 2 >= 0 && ip - 2 <= matchStartLimit) {
+        hashTable[hash(readInt(src, ip - 2))] = ip - 2;
+      }
+    }
+    return writeLastLiterals(src, anchor, srcLength - anchor, dst, op);
+  }
+
+  private static int hash(int sequence) {
+    return (sequence * -1640531535) >>> (32 - HASH_LOG);
+  }
+
+  private static int writeSequence(byte[] src, int literalStart, int literalLength, int offset, int matchLength,
+      byte[] dst, int op) {
+    int matchCode = matchLength - MIN_MATCH;
+    int tokenPos = op++;
+    int token = (Math.min(literalLength, 15) << 4) | Math.min(matchCode, 15);
+    dst[tokenPos] = (byte) token;
+    if (literalLength >= 15) {
+      op = writeLength(literalLength - 15, dst, op);
+    }
+    System.arraycopy(src, literalStart, dst, op, literalLength);
+    op += literalLength;
+    dst[op++] = (byte) offset;
+    dst[op++] = (byte) (offset >>> 8);
+    if (matchCode >= 15) {
+      op = writeLength(matchCode - 15, dst, op);
+    }
+    return op;
+  }
+
+  private static int writeLastLiterals(byte[] src, int literalStart, int literalLength, byte[] dst, int op) {
+    dst[op++] = (byte) (Math.min(literalLength, 15) << 4);
+    if (literalLength >= 15) {
+      op = writeLength(literalLength - 15, dst, op);
+    }
+    System.arraycopy(src, literalStart, dst, op, literalLength);
+    return op + literalLength;
+  }
+
+  private static int writeLength(int length, byte[] dst, int op) {
+    while (length >= 255) {
+      dst[op++] = (byte) 255;
+      length -= 255;
+    }
+    dst[op++] = (byte) length;
+    return op;
+  }
+
+  private static int readInt(byte[] b, int i) {
+    return (b[i] & 0xff) | (b[i + 1] & 0xff) << 8 | (b[i + 2] & 0xff) << 16 | (b[i + 3] & 0xff) << 24;
+  }
+
+  private static void writeIntLE(byte[] b, int i, int value) {
+    b[i] = (byte) value;
+    b[i + 1] = (byte) (value >> 8);
+    b[i + 2] = (byte) (value >> 16);
+    b[i + 3] = (byte) (value >> 24);
+  }
+
+  /**
+   * Compresses the bytes written so far into a block of their own.
+   */
+  @Override
+  public void flush() throws IOException {
+    if (closed) {
+      return;
+    }
+    writeBlock();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      writeBlock();
+      // end mark
+      out.write(new byte[4]);
+    } finally {
+      closed = true;
+      out.close();
+    }
+  }
+
+  /**
+   * The xxHash32 function, used for the frame header checksum.
+   */
+  static class XXHash32 {
+    static final int PRIME1 = 0x9E3779B1;
+    static final int PRIME2 = 0x85EBCA77;
+    static final int PRIME3 = 0xC2B2AE3D;
+    static final int PRIME4 = 0x27D4EB2F;
+    static final int PRIME5 = 0x165667B1;
+
+    static int hash(byte[] b, int off, int len, int seed) {
+      int end = off + len;
+      int h;
+      if (len >= 16) {
+        int v1 = seed + PRIME1 + PRIME2;
+        int v2 = seed + PRIME2;
+        int v3 = seed;
+        int v4 = seed - PRIME1;
+        int limit = end - 16;
+        do {
+          v1 = round(v1, readInt(b, off));
+          v2 = round(v2, readInt(b, off + 4));
+          v3 = round(v3, readInt(b, off + 8));
+          v4 = round(v4, readInt(b, off + 12));
+          off += 16;
+        } while (off <= limit);
+        h = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12)
+            + Integer.rotateLeft(v4, 18);
+      } else {
+        h = seed + PRIME5;
+      }
+      h += len;
+      while (off + 4 <= end) {
+        h += readInt(b, off) * PRIME3;
+        h = Integer.rotateLeft(h, 17) * PRIME4;
+        off += 4;
+      }
+      while (off < end) {
+        h += (b[off] & 0xff) * PRIME5;
+        h = Integer.rotateLeft(h, 11) * PRIME1;
+        off++;
+      }
+      h ^= h >>> 15;
+      h *= PRIME2;
+      h ^= h >>> 13;
+      h *= PRIME3;
+      h ^= h >>> 16;
+      return h;
+    }
+
+    private static int round(int acc, int input) {
+      acc += input * PRIME2;
+      acc = Integer.rotateLeft(acc, 13);
+      return acc * PRIME1;
+    }
+  }
+}
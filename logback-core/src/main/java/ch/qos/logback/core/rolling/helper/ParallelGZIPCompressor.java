@@ -0,0 +1,167 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import ch.qos.logback.core.util.ExecutorServiceUtil;
+
+/**
+ * Compresses a stream into the gzip format using several threads.
+ * <p/>
+ * The input is split into blocks which are compressed independently, each
+ * into a gzip member of its own. The members are written in order, one after
+ * the other. As allowed by RFC 1952, the result is a single gzip file which
+ * gunzip, zcat and {@link java.util.zip.GZIPInputStream} decompress as a
+ * whole. Compressing blocks independently costs a few bytes per block, as
+ * well as the matches which would have spanned blocks.
+ * <p/>
+ * At most two blocks per thread are held in memory.
+ *
+ * @since 1.1.4
+ */
+class ParallelGZIPCompressor {
+
+  // magic number, deflate, no flags, no modification time, no extra flags,
+  // unknown OS
+  private static final byte[] MEMBER_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+  private static final int MEMBER_TRAILER_LENGTH = 8;
+
+  final int level;
+  final int blockSize;
+  final int threadCount;
+
+  ParallelGZIPCompressor(int level, int blockSize, int threadCount) {
+    this.level = level;
+    this.blockSize = blockSize;
+    this.threadCount = threadCount;
+  }
+
+  /**
+   * Compress the input into the output. Neither stream is closed.
+   */
+  void compress(InputStream in, OutputStream out) throws IOException {
+    ExecutorService executor = ExecutorServiceUtil.newFixedThreadPool(threadCount);
+    try {
+      LinkedList<Future<byte[]>> pending = new LinkedList<Future<byte[]>>();
+      int maxPending = 2 * threadCount;
+      byte[] block = readBlock(in);
+      if (block == null) {
+        // an empty gzip file is not valid, write an empty member
+        block = new byte[0];
+      }
+      do {
+        if (pending.size() == maxPending) {
+          out.write(get(pending.removeFirst()));
+        }
+        pending.add(executor.submit(new BlockCompression(block)));
+      } while ((block = readBlock(in)) != null);
+      while (!pending.isEmpty()) {
+        out.write(get(pending.removeFirst()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private byte[] readBlock(InputStream in) throws IOException {
+    byte[] block = new byte[blockSize];
+    int length = 0;
+    int n;
+    while (length < blockSize && (n = in.read(block, length, blockSize - length)) != -1) {
+      length += n;
+    }
+    if (length == 0) {
+      return null;
+    }
+    if (length < blockSize) {
+      byte[] lastBlock = new byte[length];
+      System.arraycopy(block, 0, lastBlock, 0, length);
+      return lastBlock;
+    }
+    return block;
+  }
+
+  private static byte[] get(Future<byte[]> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing");
+    } catch (ExecutionException e) {
+      IOException ioe = new IOException("Failed to compress block");
+      ioe.initCause(e.getCause());
+      throw ioe;
+    }
+  }
+
+  /**
+   * Compresses a block into a complete gzip member.
+   */
+  class BlockCompression implements Callable<byte[]> {
+    final byte[] block;
+
+    BlockCompression(byte[] block) {
+      this.block = block;
+    }
+
+    public byte[] call() {
+      // raw deflate, the header and trailer are written here
+      Deflater deflater = new Deflater(level, true);
+      try {
+        deflater.setInput(block);
+        deflater.finish();
+        // incompressible input grows by a few bytes per 64 KB
+        byte[] buf = new byte[MEMBER_HEADER.length + block.length + (block.length >> 10) + 64];
+        System.arraycopy(MEMBER_HEADER, 0, buf, 0, MEMBER_HEADER.length);
+        int length = MEMBER_HEADER.length;
+        while (!deflater.finished()) {
+          if (length == buf.length - MEMBER_TRAILER_LENGTH) {
+            byte[] newBuf = new byte[buf.length * 2];
+            System.arraycopy(buf, 0, newBuf, 0, length);
+            buf = newBuf;
+          }
+          length += deflater.deflate(buf, length, buf.length - MEMBER_TRAILER_LENGTH - length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(block);
+        length = writeIntLE(buf, length, (int) crc.getValue());
+        length = writeIntLE(buf, length, block.length);
+        byte[] member = new byte[length];
+        System.arraycopy(buf, 0, member, 0, length);
+        return member;
+      } finally {
+        deflater.end();
+      }
+    }
+  }
+
+  private static int writeIntLE(byte[] buf, int offset, int value) {
+    buf[offset] = (byte) value;
+    buf[offset + 1] = (byte) (value >> 8);
+    buf[offset + 2] = (byte) (value >> 16);
+    buf[offset + 3] = (byte) (value >> 24);
+    return offset + 4;
+  }
+}
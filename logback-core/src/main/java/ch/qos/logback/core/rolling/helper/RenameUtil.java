@@ -14,12 +14,21 @@
 package ch.qos.logback.core.rolling.helper;
 
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.io.FileFilter;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.rolling.RollingFileAppender;
@@ -31,6 +40,10 @@ import ch.qos.logback.core.util.FileUtil;
 
 /**
  * Utility class to help solving problems encountered while renaming files.
+ * <p/>
+ * On JDK 1.7 or higher, files are moved with <code>Files.move</code> and the
+ * ATOMIC_MOVE option, so that the target is replaced atomically, falling back
+ * on {@link File#renameTo(File)} otherwise.
  *
  * @author Ceki Gulcu
  */
@@ -38,6 +51,45 @@ public class RenameUtil extends ContextAwareBase {
 
   static String RENAMING_ERROR_URL = CoreConstants.CODES_URL + "#renamingError";
 
+  // the intermediate file of a copy to another file system is named after
+  // the source file and the encoded path of the target, so that a copy
+  // interrupted by a crash can be resumed
+  static final String PENDING_COPY_SUFFIX = ".copying";
+  private static final int MAX_FILE_NAME_LENGTH = 255;
+  private static final String ENCODING = "UTF-8";
+
+  // absolute paths of the intermediate files being copied in this JVM
+  private static final Set<String> COPIES_IN_FLIGHT = Collections
+      .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  private static final Method TO_PATH;
+  private static final Method MOVE;
+  private static final Object ATOMIC_MOVE_OPTIONS;
+
+  // Implements the following by reflection
+  //   Files.move(src.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+  static {
+    Method toPath = null, move = null;
+    Object atomicMoveOptions = null;
+    try {
+      Class<?> pathClass = Class.forName(FileStoreUtil.PATH_CLASS_STR);
+      Class<?> filesClass = Class.forName(FileStoreUtil.FILES_CLASS_STR);
+      Class<?> copyOptionClass = Class.forName("java.nio.file.CopyOption");
+      Class<?> standardCopyOptionClass = Class.forName("java.nio.file.StandardCopyOption");
+      atomicMoveOptions = Array.newInstance(copyOptionClass, 1);
+      Array.set(atomicMoveOptions, 0, standardCopyOptionClass.getField("ATOMIC_MOVE").get(null));
+      toPath = File.class.getMethod("toPath");
+      move = filesClass.getMethod("move", pathClass, pathClass, atomicMoveOptions.getClass());
+    } catch (Exception e) {
+      // running on JDK 1.6
+      toPath = null;
+      move = null;
+    }
+    TO_PATH = toPath;
+    MOVE = move;
+    ATOMIC_MOVE_OPTIONS = atomicMoveOptions;
+  }
+
   /**
    * A relatively robust file renaming method which in case of failure due to
    * src and target being on different volumes, falls back onto
@@ -60,7 +112,7 @@ public class RenameUtil extends ContextAwareBase {
 
       addInfo("Renaming file [" + srcFile + "] to [" + targetFile + "]");
 
-      boolean result = srcFile.renameTo(targetFile);
+      boolean result = move(srcFile, targetFile);
 
       if (!result) {
         addWarn("Failed to rename file [" + srcFile + "] as [" + targetFile + "].");
@@ -79,6 +131,153 @@ public class RenameUtil extends ContextAwareBase {
   }
 
 
+  /**
+   * Renames the source file as the target, like {@link #rename(String, String)},
+   * except that should both files be on different volumes, the source file is
+   * first renamed within its own volume and then copied by the given executor.
+   * The source file is thus always gone once this method returns, and the
+   * target file is complete once the returned future is done. Should the copy
+   * be interrupted, {@link #resumePendingCopies} completes it.
+   *
+   * @return the future of the copy, null if the file was renamed
+   * @since 1.1.4
+   */
+  public Future<?> renameAsynchronously(String src, String target, ExecutorService executor)
+          throws RolloverFailure {
+    if (src.equals(target)) {
+      addWarn("Source and target files are the same [" + src + "]. Skipping.");
+      return null;
+    }
+    File srcFile = new File(src);
+    if (!srcFile.exists()) {
+      throw new RolloverFailure("File [" + src + "] does not exist.");
+    }
+    File targetFile = new File(target);
+    createMissingTargetDirsIfNecessary(targetFile);
+    if (!areOnDifferentVolumes(srcFile, targetFile)) {
+      rename(src, target);
+      return null;
+    }
+
+    String tmp = pendingCopyName(src, targetFile);
+    if (tmp == null) {
+      addWarn("The path of [" + target + "] is too long to resume its copy after a crash, copying right away");
+      rename(src, target);
+      return null;
+    }
+    // renaming within the volume is quick, the source file can be reopened
+    // right away
+    rename(src, tmp);
+    addInfo("Copying [" + tmp + "] to [" + target + "] on a different file system");
+    return submitCopies(Collections.singletonList(new String[] { tmp, target }), executor);
+  }
+
+  /**
+   * Resumes the copies of the given source file to another file system which
+   * were interrupted, typically by a crash. Copies still running in this JVM
+   * are left alone.
+   *
+   * @return the future of the copies, null if none was pending
+   * @since 1.1.4
+   */
+  public Future<?> resumePendingCopies(String src, ExecutorService executor) {
+    File srcFile = new File(src).getAbsoluteFile();
+    final String prefix = srcFile.getName() + ".";
+    File[] pendingFiles = srcFile.getParentFile().listFiles(new FileFilter() {
+      public boolean accept(File file) {
+        String name = file.getName();
+        return name.startsWith(prefix) && name.endsWith(PENDING_COPY_SUFFIX) && file.isFile();
+      }
+    });
+    if (pendingFiles == null) {
+      return null;
+    }
+    List<String[]> copies = new ArrayList<String[]>();
+    for (File pendingFile : pendingFiles) {
+      if (COPIES_IN_FLIGHT.contains(pendingFile.getAbsolutePath())) {
+        continue;
+      }
+      String name = pendingFile.getName();
+      String target = decode(name.substring(prefix.length(), name.length() - PENDING_COPY_SUFFIX.length()));
+      if (target == null || !new File(target).isAbsolute()) {
+        addWarn("Cannot determine the target of [" + pendingFile + "]");
+        continue;
+      }
+      addInfo("Resuming the copy of [" + pendingFile + "] to [" + target + "]");
+      copies.add(new String[] { pendingFile.getPath(), target });
+    }
+    return copies.isEmpty() ? null : submitCopies(copies, executor);
+  }
+
+  private Future<?> submitCopies(final List<String[]> copies, ExecutorService executor) {
+    for (String[] copy : copies) {
+      COPIES_IN_FLIGHT.add(new File(copy[0]).getAbsolutePath());
+    }
+    return executor.submit(new Callable<Void>() {
+      public Void call() throws RolloverFailure {
+        try {
+          for (String[] copy : copies) {
+            renameByCopying(copy[0], copy[1]);
+          }
+        } finally {
+          for (String[] copy : copies) {
+            COPIES_IN_FLIGHT.remove(new File(copy[0]).getAbsolutePath());
+          }
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * @return the name of the intermediate file of a copy, null if too long
+   */
+  static String pendingCopyName(String src, File targetFile) {
+    String name = new File(src).getName() + "." + encode(targetFile.getAbsolutePath()) + PENDING_COPY_SUFFIX;
+    if (name.length() > MAX_FILE_NAME_LENGTH) {
+      return null;
+    }
+    return new File(new File(src).getAbsoluteFile().getParentFile(), name).getPath();
+  }
+
+  private static String encode(String path) {
+    try {
+      return URLEncoder.encode(path, ENCODING);
+    } catch (UnsupportedEncodingException e) {
+      // UTF-8 is always supported
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String decode(String encodedPath) {
+    try {
+      return URLDecoder.decode(encodedPath, ENCODING);
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Moves the source file atomically, if possible, falling back on
+   * {@link File#renameTo(File)} otherwise.
+   *
+   * @return whether the file was moved
+   */
+  boolean move(File srcFile, File targetFile) {
+    if (MOVE != null) {
+      try {
+        MOVE.invoke(null, TO_PATH.invoke(srcFile), TO_PATH.invoke(targetFile), ATOMIC_MOVE_OPTIONS);
+        return true;
+      } catch (Exception e) {
+        // for instance, AtomicMoveNotSupportedException on file systems
+        // without atomic renames, or across file systems
+      }
+    }
+    return srcFile.renameTo(targetFile);
+  }
+
   /**
    * Attempts tp determine whether both files are on different volumes. Returns true if we could determine that
    * the files are on different volumes. Returns false otherwise or if an error occurred while doing the check.
@@ -87,7 +286,7 @@ public class RenameUtil extends ContextAwareBase {
    * @param targetFile
    * @return true if on different volumes, false otherwise or if an error occurred
    */
-   boolean areOnDifferentVolumes(File srcFile, File targetFile) throws RolloverFailure {
+  boolean areOnDifferentVolumes(File srcFile, File targetFile) throws RolloverFailure {
     if (!EnvUtil.isJDK7OrHigher())
       return false;
 
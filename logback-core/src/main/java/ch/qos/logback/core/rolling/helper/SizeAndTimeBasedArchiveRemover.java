@@ -15,6 +15,7 @@ package ch.qos.logback.core.rolling.helper;
 
 import java.io.File;
 import java.util.Date;
+import java.util.regex.Pattern;
 
 public class SizeAndTimeBasedArchiveRemover extends DefaultArchiveRemover {
 
@@ -26,8 +27,7 @@ public class SizeAndTimeBasedArchiveRemover extends DefaultArchiveRemover {
   public void cleanByPeriodOffset(Date now, int periodOffset) {
     Date dateOfPeriodToClean = rc.getRelativeDate(now, periodOffset);
 
-    String regex = fileNamePattern.toRegexForFixedDate(dateOfPeriodToClean);
-    String stemRegex = FileFilterUtil.afterLastSlash(regex);
+    Pattern stemRegex = fileNamePattern.toStemRegexPatternForFixedDate(dateOfPeriodToClean);
     File archive0 = new File(fileNamePattern.convertMultipleArguments(
         dateOfPeriodToClean, 0));
     // in case the file has no directory part, i.e. if it's written into the
@@ -15,6 +15,9 @@ package ch.qos.logback.core.util;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -58,6 +61,47 @@ public class ExecutorServiceUtil {
         THREAD_FACTORY);
   }
   
+  /**
+   * Creates a scheduled executor service suitable for use by logback
+   * components.
+   * @return scheduled executor service
+   */
+  static public ScheduledExecutorService newScheduledExecutorService() {
+    return new ScheduledThreadPoolExecutor(CoreConstants.SCHEDULED_EXECUTOR_POOL_SIZE,
+        THREAD_FACTORY);
+  }
+
+  /**
+   * Creates an executor service with a fixed number of threads, suitable for
+   * use by logback components.
+   * @param threadCount the number of threads
+   * @return executor service
+   * @since 1.1.4
+   */
+  static public ExecutorService newFixedThreadPool(int threadCount) {
+    return Executors.newFixedThreadPool(threadCount, THREAD_FACTORY);
+  }
+
+  /**
+   * Creates an executor service with a fixed number of threads, running
+   * submitted tasks in their natural order. The tasks must be
+   * {@link Comparable} and submitted with
+   * {@link ThreadPoolExecutor#execute(Runnable)}. Idle threads are
+   * terminated after the given keep alive time.
+   * @param threadCount the number of threads
+   * @param keepAliveMillis how long idle threads are kept
+   * @return executor service
+   * @since 1.1.4
+   */
+  static public ThreadPoolExecutor newPriorityThreadPool(int threadCount, long keepAliveMillis) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+        keepAliveMillis, TimeUnit.MILLISECONDS,
+        new PriorityBlockingQueue<Runnable>(),
+        THREAD_FACTORY);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   /**
    * Shuts down an executor service.
    * <p>
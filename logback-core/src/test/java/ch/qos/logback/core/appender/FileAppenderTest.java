@@ -17,20 +17,29 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import ch.qos.logback.core.status.StatusChecker;
 import org.junit.Test;
 
 import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.FileAppender;
 import ch.qos.logback.core.encoder.DummyEncoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.layout.EchoLayout;
+import ch.qos.logback.core.recovery.ResilientFileOutputStream;
 import ch.qos.logback.core.encoder.NopEncoder;
 import ch.qos.logback.core.status.Status;
 import ch.qos.logback.core.status.StatusManager;
 import ch.qos.logback.core.testUtil.RandomUtil;
 import ch.qos.logback.core.util.CoreTestConstants;
+import ch.qos.logback.core.util.FileSize;
 
 public class FileAppenderTest extends AbstractAppenderTest<Object> {
 
@@ -128,4 +137,84 @@ public class FileAppenderTest extends AbstractAppenderTest<Object> {
     assertTrue(file.exists());
     assertTrue("failed to delete " + file.getAbsolutePath(), file.delete());
   }
+
+  @Test
+  public void preallocatedFileIsTruncatedOnStop() {
+    String filename = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-preallocated.txt";
+    File file = new File(filename);
+    FileAppender<Object> appender = new FileAppender<Object>();
+    appender.setEncoder(newEchoEncoder());
+    appender.setFile(filename);
+    appender.setPreallocationSize(FileSize.valueOf("1MB"));
+    appender.setName("preallocated");
+    appender.setContext(context);
+    appender.start();
+    assertTrue(appender.isStarted());
+
+    appender.doAppend("hello");
+    assertEquals(FileSize.valueOf("1MB").getSize(), file.length());
+    appender.stop();
+    assertEquals(("hello" + CoreConstants.LINE_SEPARATOR).length(), file.length());
+    assertTrue("failed to delete " + file.getAbsolutePath(), file.delete());
+  }
+
+  @Test
+  public void preallocationRequiresALayoutBasedEncoder() {
+    FileAppender<Object> appender = new FileAppender<Object>();
+    appender.setEncoder(new DummyEncoder<Object>());
+    appender.setFile(CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-preallocated-binary.txt");
+    appender.setPreallocationSize(FileSize.valueOf("1MB"));
+    appender.setContext(context);
+    appender.start();
+    assertFalse(appender.isStarted());
+  }
+
+  LayoutWrappingEncoder<Object> newEchoEncoder() {
+    LayoutWrappingEncoder<Object> encoder = new LayoutWrappingEncoder<Object>();
+    encoder.setLayout(new EchoLayout<Object>());
+    return encoder;
+  }
+
+  @Test
+  public void preallocationIsIncompatibleWithPrudentMode() {
+    FileAppender<Object> appender = new FileAppender<Object>();
+    appender.setEncoder(newEchoEncoder());
+    appender.setFile(CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-preallocated-prudent.txt");
+    appender.setPreallocationSize(FileSize.valueOf("1MB"));
+    appender.setPrudent(true);
+    appender.setContext(context);
+    appender.start();
+    assertFalse(appender.isStarted());
+  }
+
+  @Test
+  public void gzipMemberOfAnIdleAppenderIsCompleted() throws Exception {
+    File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-gzip-idle.log.gz");
+    FileAppender<Object> appender = new FileAppender<Object>();
+    appender.setEncoder(newEchoEncoder());
+    appender.setFile(file.getPath());
+    appender.setGzip(true);
+    appender.setContext(context);
+    appender.start();
+    appender.doAppend("hello");
+
+    long deadline = System.currentTimeMillis() + 10 * ResilientFileOutputStream.GZIP_MAX_MEMBER_DELAY;
+    while (file.length() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals("hello" + CoreConstants.LINE_SEPARATOR, gunzip(file));
+    appender.stop();
+  }
+
+  String gunzip(File file) throws IOException {
+    GZIPInputStream in = new GZIPInputStream(new FileInputStream(file));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buf = new byte[8192];
+    int n;
+    while ((n = in.read(buf)) != -1) {
+      out.write(buf, 0, n);
+    }
+    in.close();
+    return out.toString();
+  }
 }
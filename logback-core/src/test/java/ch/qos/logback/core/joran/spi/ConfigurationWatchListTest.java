@@ -13,19 +13,35 @@
  */
 package ch.qos.logback.core.joran.spi;
 
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 /**
  * @author Ceki G&uuml;c&uuml;
  */
 public class ConfigurationWatchListTest {
 
+  int diff = RandomUtil.getPositiveInt();
+  File dir = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "cwl-" + diff);
+  ConfigurationWatchList cwl = new ConfigurationWatchList();
+
+  {
+    cwl.setContext(new ContextBase());
+  }
+
   @Test
   // See http://jira.qos.ch/browse/LBCORE-119
   public void fileToURLAndBack() throws MalformedURLException {
@@ -35,4 +51,69 @@ public class ConfigurationWatchListTest {
     File back = cwl.convertToFile(url);
     assertEquals(file.getName(), back.getName());
   }
+
+  @Test
+  public void jarURLToJarFile() throws MalformedURLException {
+    URL url = new URL("jar:file:/a%20b/app.jar!/logback.xml");
+    File back = cwl.convertToFile(url);
+    assertEquals(new File("/a b/app.jar"), back);
+  }
+
+  @Test
+  public void pollingDetectsChange() throws IOException {
+    dir.mkdirs();
+    File file = new File(dir, "a.xml");
+    writeToFile(file, "a");
+    cwl.setMainURL(file.toURI().toURL());
+    assertFalse(cwl.changeDetected());
+    file.setLastModified(file.lastModified() + 2000);
+    assertTrue(cwl.changeDetected());
+  }
+
+  @Test(timeout = 4000L)
+  public void watchServiceDetectsChange() throws IOException, InterruptedException {
+    dir.mkdirs();
+    File file = new File(dir, "a.xml");
+    File other = new File(dir, "other.xml");
+    writeToFile(file, "a");
+    cwl.setMainURL(file.toURI().toURL());
+    assumeTrue(cwl.startWatching());
+
+    // changes to files in the same directory are ignored
+    writeToFile(other, "other");
+    Thread.sleep(200);
+    assertFalse(cwl.changeDetected());
+
+    writeToFile(file, "b");
+    while (!cwl.changeDetected()) {
+      Thread.sleep(10);
+    }
+    cwl.stopWatching();
+    assertFalse(cwl.isWatching());
+  }
+
+  @Test(timeout = 4000L)
+  public void changeIsTimedWhenSignalledRatherThanWhenPolled() throws IOException, InterruptedException {
+    assumeTrue(DirectoryWatcher.isAvailable());
+    dir.mkdirs();
+    File file = new File(dir, "a.xml");
+    writeToFile(file, "a");
+    DirectoryWatcher watcher = new DirectoryWatcher(500);
+    try {
+      assertTrue(watcher.watch(file));
+      assertFalse(watcher.changeDetected());
+      writeToFile(file, "b");
+      // the quiet period elapses before the next poll
+      Thread.sleep(1500);
+      assertTrue(watcher.changeDetected());
+    } finally {
+      watcher.close();
+    }
+  }
+
+  void writeToFile(File file, String contents) throws IOException {
+    FileWriter fw = new FileWriter(file);
+    fw.write(contents);
+    fw.close();
+  }
 }
@@ -18,6 +18,8 @@ import ch.qos.logback.core.ContextBase;
 import ch.qos.logback.core.pattern.Converter;
 import ch.qos.logback.core.pattern.Converter123;
 import ch.qos.logback.core.pattern.ConverterHello;
+import ch.qos.logback.core.pattern.IdentityCompositeConverter;
+import ch.qos.logback.core.pattern.color.RedCompositeConverter;
 import ch.qos.logback.core.status.StatusChecker;
 import ch.qos.logback.core.util.StatusPrinter;
 import org.junit.Before;
@@ -230,6 +232,54 @@ public class CompilerTest {
     }
   }
 
+  @Test
+  public void testColorComposite() throws Exception {
+    converterMap.put("red", RedCompositeConverter.class.getName());
+    {
+      Parser<Object> p = new Parser<Object>("xyz %red(ABC %hello)");
+      p.setContext(context);
+      Node t = p.parse();
+      Converter<Object> head = p.compile(t, converterMap);
+      String result = write(head, new Object());
+      assertEquals("xyz \033[31mABC Hello\033[0;39m", result);
+    }
+
+    {
+      Parser<Object> p = new Parser<Object>("xyz %-20red(ABC)");
+      p.setContext(context);
+      Node t = p.parse();
+      Converter<Object> head = p.compile(t, converterMap);
+      String result = write(head, new Object());
+      assertEquals("xyz \033[31mABC\033[0;39m     ", result);
+    }
+  }
+
+  public static class BracketingRedCompositeConverter extends RedCompositeConverter<Object> {
+    @Override
+    protected String transform(Object event, String in) {
+      return "[" + super.transform(event, in) + "]";
+    }
+  }
+
+  public static class UpperCaseCompositeConverter extends IdentityCompositeConverter<Object> {
+    @Override
+    public String convert(Object event) {
+      return super.convert(event).toUpperCase();
+    }
+  }
+
+  @Test
+  public void overriddenTransformOrConvertIsHonored() throws Exception {
+    converterMap.put("bracketingRed", BracketingRedCompositeConverter.class.getName());
+    converterMap.put("upper", UpperCaseCompositeConverter.class.getName());
+    Parser<Object> p = new Parser<Object>("%bracketingRed(ABC) %upper(%hello)");
+    p.setContext(context);
+    Node t = p.parse();
+    Converter<Object> head = p.compile(t, converterMap);
+    String result = write(head, new Object());
+    assertEquals("[\033[31mABC\033[0;39m] HELLO", result);
+  }
+
   @Test
   public void testUnknownWord() throws Exception {
     Parser<Object> p = new Parser<Object>("%unknown");
@@ -0,0 +1,97 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.recovery;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+public class GZIPMemberOutputStreamTest {
+
+  ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+  byte[] decompress(byte[] compressed) throws IOException {
+    GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed));
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    byte[] buf = new byte[8192];
+    int n;
+    while ((n = in.read(buf)) != -1) {
+      result.write(buf, 0, n);
+    }
+    in.close();
+    return result.toByteArray();
+  }
+
+  byte[] line(int i) {
+    return ("2015-06-09 12:00:00 [main] INFO  a.b.C - message " + i + "\n").getBytes();
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    GZIPMemberOutputStream gzos = new GZIPMemberOutputStream(out, Deflater.DEFAULT_COMPRESSION, 1024, Long.MAX_VALUE);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    for (int i = 0; i < 1000; i++) {
+      gzos.write(line(i));
+      expected.write(line(i));
+    }
+    gzos.close();
+    assertTrue(out.size() < expected.size());
+    assertEquals(out.size(), gzos.getCount());
+    assertArrayEquals(expected.toByteArray(), decompress(out.toByteArray()));
+  }
+
+  @Test
+  public void onlyCompleteMembersAreWritten() throws IOException {
+    GZIPMemberOutputStream gzos = new GZIPMemberOutputStream(out, Deflater.DEFAULT_COMPRESSION, 1024, Long.MAX_VALUE);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    while (out.size() == 0) {
+      byte[] line = line(expected.size());
+      gzos.write(line);
+      expected.write(line);
+    }
+    // the file is valid, the remainder of the member is not lost once closed
+    assertTrue(expected.size() >= 1024);
+    assertArrayEquals(expected.toByteArray(), decompress(out.toByteArray()));
+
+    gzos.write(line(0));
+    gzos.flush();
+    assertArrayEquals(expected.toByteArray(), decompress(out.toByteArray()));
+    expected.write(line(0));
+    gzos.close();
+    assertArrayEquals(expected.toByteArray(), decompress(out.toByteArray()));
+  }
+
+  @Test
+  public void flushCompletesMemberAfterDelay() throws IOException {
+    GZIPMemberOutputStream gzos = new GZIPMemberOutputStream(out, Deflater.DEFAULT_COMPRESSION, 1024, 0);
+    gzos.write(line(0));
+    assertEquals(0, out.size());
+    gzos.flush();
+    assertArrayEquals(line(0), decompress(out.toByteArray()));
+    assertEquals(out.size(), gzos.getCount());
+    // nothing to flush
+    gzos.flush();
+    assertEquals(out.size(), gzos.getCount());
+    gzos.close();
+    assertArrayEquals(line(0), decompress(out.toByteArray()));
+  }
+}
@@ -18,6 +18,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({RecoveryCoordinatorTest.class, ResilientOutputStreamTest.class})
+@SuiteClasses({RecoveryCoordinatorTest.class, ResilientOutputStreamTest.class, GZIPMemberOutputStreamTest.class,
+    PreallocatedFileOutputStreamTest.class})
 public class PackageTest  {
 }
\ No newline at end of file
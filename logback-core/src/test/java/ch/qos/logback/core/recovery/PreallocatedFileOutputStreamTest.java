@@ -0,0 +1,153 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.recovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class PreallocatedFileOutputStreamTest {
+
+  static final int PREALLOCATION_SIZE = 1024;
+
+  Context context = new ContextBase();
+  File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "preallocated" + RandomUtil.getPositiveInt() + ".log");
+
+  @Before
+  public void setUp() {
+    file.getParentFile().mkdirs();
+  }
+
+  ResilientFileOutputStream open(boolean append) throws IOException {
+    ResilientFileOutputStream rfos = new ResilientFileOutputStream(file, append, PREALLOCATION_SIZE);
+    rfos.setContext(context);
+    return rfos;
+  }
+
+  String read() throws IOException {
+    FileInputStream fis = new FileInputStream(file);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int b;
+    while ((b = fis.read()) != -1) {
+      out.write(b);
+    }
+    fis.close();
+    return out.toString();
+  }
+
+  @Test
+  public void fileIsTruncatedOnClose() throws IOException {
+    ResilientFileOutputStream rfos = open(false);
+    rfos.write("hello".getBytes());
+    rfos.flush();
+    assertEquals(PREALLOCATION_SIZE, file.length());
+    assertEquals(5, rfos.getLength());
+    rfos.close();
+    assertEquals("hello", read());
+  }
+
+  @Test
+  public void fileIsExtendedAsItFillsUp() throws IOException {
+    ResilientFileOutputStream rfos = open(false);
+    byte[] line = "0123456789abcdef\n".getBytes();
+    int count = 3 * PREALLOCATION_SIZE / line.length;
+    for (int i = 0; i < count; i++) {
+      rfos.write(line);
+    }
+    rfos.flush();
+    long written = (long) count * line.length;
+    assertEquals(written, rfos.getLength());
+    assertTrue(file.length() > written);
+    rfos.close();
+    assertEquals(written, file.length());
+  }
+
+  @Test
+  public void largeWriteAcrossTheAllocatedLength() throws IOException {
+    ResilientFileOutputStream rfos = open(false);
+    byte[] small = new byte[100];
+    Arrays.fill(small, (byte) 'a');
+    for (int i = 0; i < 9; i++) {
+      rfos.write(small);
+    }
+    // larger than the buffer, written to the file right away
+    byte[] large = new byte[20000];
+    Arrays.fill(large, (byte) 'b');
+    rfos.write(large);
+    rfos.close();
+
+    byte[] content = read().getBytes();
+    assertEquals(900 + large.length, content.length);
+    for (int i = 0; i < content.length; i++) {
+      assertEquals("at offset " + i, i < 900 ? 'a' : 'b', content[i]);
+    }
+  }
+
+  @Test
+  public void appendingAfterCrashSkipsTrailingZeros() throws IOException {
+    // as left by a crash
+    FileOutputStream fos = new FileOutputStream(file);
+    fos.write("abc".getBytes());
+    fos.write(new byte[100]);
+    fos.close();
+
+    ResilientFileOutputStream rfos = open(true);
+    assertEquals(3, rfos.getLength());
+    rfos.write("d".getBytes());
+    rfos.close();
+    assertEquals("abcd", read());
+  }
+
+  @Test
+  public void truncatesWhenNotAppending() throws IOException {
+    FileOutputStream fos = new FileOutputStream(file);
+    fos.write("previous".getBytes());
+    fos.close();
+
+    ResilientFileOutputStream rfos = open(false);
+    rfos.write("x".getBytes());
+    rfos.close();
+    assertEquals("x", read());
+  }
+
+  @Test
+  public void recoveryFindsTheLogicalEnd() throws Exception {
+    ResilientFileOutputStream rfos = open(false);
+    rfos.write("a".getBytes());
+    rfos.flush();
+    rfos.getChannel().close();
+    rfos.write("b".getBytes());
+    rfos.flush();
+    Thread.sleep(RecoveryCoordinator.BACKOFF_COEFFICIENT_MIN + 10);
+    rfos.write("c".getBytes());
+    rfos.flush();
+    rfos.write("d".getBytes());
+    rfos.close();
+    assertEquals("ad", read());
+  }
+}
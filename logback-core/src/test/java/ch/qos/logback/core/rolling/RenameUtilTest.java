@@ -17,6 +17,7 @@ import ch.qos.logback.core.Context;
 import ch.qos.logback.core.ContextBase;
 import ch.qos.logback.core.encoder.EchoEncoder;
 import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.rolling.helper.CrossVolumeRenameUtil;
 import ch.qos.logback.core.rolling.helper.RenameUtil;
 import ch.qos.logback.core.status.StatusChecker;
 import ch.qos.logback.core.testUtil.RandomUtil;
@@ -26,10 +27,19 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-
+import java.net.URLEncoder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class RenameUtilTest {
@@ -69,6 +79,99 @@ public class RenameUtilTest {
   }
 
 
+  @Test
+  public void renameReplacesExistingTarget() throws IOException, RolloverFailure {
+    RenameUtil renameUtil = new RenameUtil();
+    renameUtil.setContext(context);
+    String src = randomOutputDirAsStr + "src.txt";
+    String target = randomOutputDirAsStr + "target.txt";
+    write(src, "new");
+    write(target, "old");
+
+    renameUtil.rename(src, target);
+    assertFalse(new File(src).exists());
+    assertEquals("new", read(target));
+  }
+
+  @Test
+  public void renameAsynchronouslyOnSameVolume() throws IOException, RolloverFailure {
+    RenameUtil renameUtil = new RenameUtil();
+    renameUtil.setContext(context);
+    String src = randomOutputDirAsStr + "src.txt";
+    String target = randomOutputDirAsStr + "sub/target.txt";
+    write(src, "hello");
+
+    assertNull(renameUtil.renameAsynchronously(src, target, context.getExecutorService()));
+    assertFalse(new File(src).exists());
+    assertEquals("hello", read(target));
+  }
+
+  @Test
+  public void renameAsynchronouslyAcrossVolumes() throws Exception {
+    RenameUtil renameUtil = new CrossVolumeRenameUtil();
+    renameUtil.setContext(context);
+    String src = randomOutputDirAsStr + "src.txt";
+    String target = randomOutputDirAsStr + "sub/target.txt";
+    write(src, "hello");
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> future = renameUtil.renameAsynchronously(src, target, executor);
+      // the source file can be reopened right away
+      assertFalse(new File(src).exists());
+      future.get();
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals("hello", read(target));
+    // the intermediate file is gone
+    assertEquals(1, randomOutputDir.listFiles().length);
+    assertTrue(statusChecker.isErrorFree(0));
+  }
+
+  @Test
+  public void interruptedCopiesAreResumed() throws Exception {
+    RenameUtil renameUtil = new RenameUtil();
+    renameUtil.setContext(context);
+    String src = randomOutputDirAsStr + "src.txt";
+    File target = new File(randomOutputDirAsStr + "sub/target.txt").getAbsoluteFile();
+    // left by a crash while copying to another file system
+    String pending = src + "." + URLEncoder.encode(target.getPath(), "UTF-8") + ".copying";
+    write(pending, "hello");
+    target.getParentFile().mkdirs();
+    write(target.getPath(), "hel");
+    write(src, "current");
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      renameUtil.resumePendingCopies(src, executor).get();
+      assertNull(renameUtil.resumePendingCopies(src, executor));
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals("hello", read(target.getPath()));
+    assertFalse(new File(pending).exists());
+    assertEquals("current", read(src));
+    assertTrue(statusChecker.isErrorFree(0));
+  }
+
+  void write(String fileName, String content) throws IOException {
+    FileOutputStream fos = new FileOutputStream(fileName);
+    fos.write(content.getBytes());
+    fos.close();
+  }
+
+  String read(String fileName) throws IOException {
+    FileInputStream fis = new FileInputStream(fileName);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int b;
+    while ((b = fis.read()) != -1) {
+      out.write(b);
+    }
+    fis.close();
+    return out.toString();
+  }
+
   @Test
   @Ignore
   public void MANUAL_renamingOnDifferentVolumesOnLinux() throws IOException, RolloverFailure {
@@ -17,16 +17,42 @@ import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.ContextBase;
 import ch.qos.logback.core.appender.AbstractAppenderTest;
+import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.encoder.DummyEncoder;
+import ch.qos.logback.core.encoder.EchoEncoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.layout.EchoLayout;
+import ch.qos.logback.core.rolling.helper.CompressionMode;
+import ch.qos.logback.core.rolling.helper.CompressionScheduler;
+import ch.qos.logback.core.rolling.helper.Compressor;
+import ch.qos.logback.core.rolling.helper.CrossVolumeRenameUtil;
+import ch.qos.logback.core.rolling.helper.DeflateCodec;
 import ch.qos.logback.core.status.Status;
 import ch.qos.logback.core.status.StatusChecker;
 import ch.qos.logback.core.testUtil.RandomUtil;
 import ch.qos.logback.core.util.CoreTestConstants;
+import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.StatusPrinter;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
 import static org.junit.Assert.*;
 
 public class RollingFileAppenderTest extends AbstractAppenderTest<Object> {
@@ -207,4 +233,426 @@ public class RollingFileAppenderTest extends AbstractAppenderTest<Object> {
     assertTrue("Missing error: " + msg, containsMatch);
   }
 
+  @Test(timeout = 4000L)
+  public void appendWaitingForARolloverWritesToTheNewFile() throws InterruptedException {
+    rfa.setContext(context);
+    rfa.setEncoder(new EchoEncoder<Object>());
+    rfa.setFile(randomOutputDir + "blocking.log");
+    final CountDownLatch checkEntered = new CountDownLatch(1);
+    final CountDownLatch checkRelease = new CountDownLatch(1);
+    final AtomicInteger concurrentChecks = new AtomicInteger();
+    TriggeringPolicyBase<Object> blockingPolicy = new TriggeringPolicyBase<Object>() {
+      int inProgress;
+
+      public boolean isTriggeringEvent(File activeFile, Object event) {
+        if (++inProgress > 1) {
+          concurrentChecks.incrementAndGet();
+        }
+        boolean triggering = "block".equals(event);
+        if (triggering) {
+          checkEntered.countDown();
+          try {
+            checkRelease.await();
+          } catch (InterruptedException e) {
+          }
+        }
+        inProgress--;
+        return triggering;
+      }
+    };
+    FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+    fwRollingPolicy.setContext(context);
+    fwRollingPolicy.setFileNamePattern(randomOutputDir + "blocking-%i.log");
+    fwRollingPolicy.setParent(rfa);
+    fwRollingPolicy.start();
+    blockingPolicy.start();
+    rfa.setRollingPolicy(fwRollingPolicy);
+    rfa.setTriggeringPolicy(blockingPolicy);
+    rfa.start();
+
+    rfa.doAppend("first");
+    Thread blocked = new Thread(new Runnable() {
+      public void run() {
+        rfa.doAppend("block");
+      }
+    });
+    blocked.start();
+    checkEntered.await();
+    Thread waiting = new Thread(new Runnable() {
+      public void run() {
+        rfa.doAppend("other");
+      }
+    });
+    waiting.start();
+    while (waiting.getState() != Thread.State.BLOCKED) {
+      Thread.yield();
+    }
+    checkRelease.countDown();
+    blocked.join();
+    waiting.join();
+    rfa.stop();
+
+    assertEquals(0, concurrentChecks.get());
+    String ls = CoreConstants.LINE_SEPARATOR;
+    assertEquals(("first" + ls).length(), new File(randomOutputDir + "blocking-1.log").length());
+    assertEquals(("block" + ls + "other" + ls).length(), new File(randomOutputDir + "blocking.log").length());
+  }
+
+  @Test
+  public void triggeringPolicyIsNotCheckedBelowItsThreshold() {
+    rfa.setContext(context);
+    rfa.setEncoder(new EchoEncoder<Object>());
+    rfa.setFile(randomOutputDir + "gated.log");
+    final AtomicInteger checks = new AtomicInteger();
+    SizeBasedTriggeringPolicy<Object> countingPolicy = new SizeBasedTriggeringPolicy<Object>("100") {
+      @Override
+      public boolean isTriggeringCheckDue() {
+        return super.isTriggeringCheckDue();
+      }
+
+      @Override
+      public boolean isTriggeringEvent(File activeFile, Object event) {
+        checks.incrementAndGet();
+        return super.isTriggeringEvent(activeFile, event);
+      }
+    };
+    countingPolicy.setParent(rfa);
+    FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+    fwRollingPolicy.setContext(context);
+    fwRollingPolicy.setFileNamePattern(randomOutputDir + "gated-%i.log");
+    fwRollingPolicy.setParent(rfa);
+    fwRollingPolicy.start();
+    countingPolicy.start();
+    rfa.setRollingPolicy(fwRollingPolicy);
+    rfa.setTriggeringPolicy(countingPolicy);
+    rfa.start();
+
+    String message = "0123456789";
+    int messagesPerFile = (int) Math.ceil(100.0 / (message + CoreConstants.LINE_SEPARATOR).length());
+    for (int i = 0; i < messagesPerFile; i++) {
+      rfa.doAppend(message);
+    }
+    assertEquals(0, checks.get());
+    rfa.doAppend(message);
+    rfa.stop();
+    assertEquals(1, checks.get());
+    assertTrue(new File(randomOutputDir + "gated-1.log").exists());
+  }
+
+  @Test
+  public void gateOfAPolicyOverridingIsTriggeringEventIsIgnored() {
+    assertNotNull(RollingFileAppender.triggeringCheckGateOf(new SizeBasedTriggeringPolicy<Object>()));
+    assertNull(RollingFileAppender.triggeringCheckGateOf(new SizeBasedTriggeringPolicy<Object>() {
+      @Override
+      public boolean isTriggeringEvent(File activeFile, Object event) {
+        return true;
+      }
+    }));
+  }
+
+  @Test
+  public void gzipActiveFileIsRenamedOnRollover() throws IOException {
+    rfa.setContext(context);
+    rfa.setEncoder(new EchoEncoder<Object>());
+    rfa.setFile(randomOutputDir + "inline.log.gz");
+    rfa.setGzip(true);
+    FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+    fwRollingPolicy.setContext(context);
+    fwRollingPolicy.setFileNamePattern(randomOutputDir + "inline-%i.log.gz");
+    fwRollingPolicy.setParent(rfa);
+    fwRollingPolicy.start();
+    TriggeringPolicyBase<Object> onRoll = new TriggeringPolicyBase<Object>() {
+      public boolean isTriggeringEvent(File activeFile, Object event) {
+        return "roll".equals(event);
+      }
+    };
+    onRoll.start();
+    rfa.setRollingPolicy(fwRollingPolicy);
+    rfa.setTriggeringPolicy(onRoll);
+    rfa.start();
+    assertTrue(rfa.isStarted());
+
+    rfa.doAppend("a");
+    rfa.doAppend("b");
+    rfa.doAppend("roll");
+    rfa.stop();
+
+    String sep = CoreConstants.LINE_SEPARATOR;
+    assertEquals("a" + sep + "b" + sep, gunzip(randomOutputDir + "inline-1.log.gz"));
+    assertEquals("roll" + sep, gunzip(randomOutputDir + "inline.log.gz"));
+  }
+
+  @Test
+  public void codecIsSelectedByFileNamePatternSuffix() throws Exception {
+    rfa.setContext(context);
+    rfa.setEncoder(new EchoEncoder<Object>());
+    rfa.setFile(randomOutputDir + "codec.log");
+    FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+    fwRollingPolicy.setContext(context);
+    fwRollingPolicy.setFileNamePattern(randomOutputDir + "codec-%i.log" + DeflateCodec.SUFFIX);
+    fwRollingPolicy.setParent(rfa);
+    fwRollingPolicy.start();
+    assertEquals(CompressionMode.CODEC, fwRollingPolicy.getCompressionMode());
+    assertTrue(fwRollingPolicy.getCompressionCodec() instanceof DeflateCodec);
+    TriggeringPolicyBase<Object> onRoll = new TriggeringPolicyBase<Object>() {
+      public boolean isTriggeringEvent(File activeFile, Object event) {
+        return "roll".equals(event);
+      }
+    };
+    onRoll.start();
+    rfa.setRollingPolicy(fwRollingPolicy);
+    rfa.setTriggeringPolicy(onRoll);
+    rfa.start();
+
+    rfa.doAppend("a");
+    rfa.doAppend("roll");
+    rfa.stop();
+
+    InputStream in = new InflaterInputStream(new FileInputStream(randomOutputDir + "codec-1.log" + DeflateCodec.SUFFIX));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int b;
+    while ((b = in.read()) != -1) {
+      out.write(b);
+    }
+    in.close();
+    assertEquals("a" + CoreConstants.LINE_SEPARATOR, out.toString());
+  }
+
+  @Test
+  public void preallocatedFileIsTruncatedOnRollover() {
+    rfa.setContext(context);
+    LayoutWrappingEncoder<Object> encoder = new LayoutWrappingEncoder<Object>();
+    encoder.setLayout(new EchoLayout<Object>());
+    rfa.setEncoder(encoder);
+    rfa.setFile(randomOutputDir + "preallocated.log");
+    rfa.setPreallocationSize(FileSize.valueOf("64KB"));
+    FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+    fwRollingPolicy.setContext(context);
+    fwRollingPolicy.setFileNamePattern(randomOutputDir + "preallocated-%i.log");
+    fwRollingPolicy.setParent(rfa);
+    fwRollingPolicy.start();
+    TriggeringPolicyBase<Object> onRoll = new TriggeringPolicyBase<Object>() {
+      public boolean isTriggeringEvent(File activeFile, Object event) {
+        return "roll".equals(event);
+      }
+    };
+    onRoll.start();
+    rfa.setRollingPolicy(fwRollingPolicy);
+    rfa.setTriggeringPolicy(onRoll);
+    rfa.start();
+
+    rfa.doAppend("a");
+    rfa.doAppend("roll");
+    assertEquals(FileSize.valueOf("64KB").getSize(), new File(randomOutputDir + "preallocated.log").length());
+    rfa.stop();
+
+    String sep = CoreConstants.LINE_SEPARATOR;
+    assertEquals(("a" + sep).length(), new File(randomOutputDir + "preallocated-1.log").length());
+    assertEquals(("roll" + sep).length(), new File(randomOutputDir + "preallocated.log").length());
+  }
+
+  @Test
+  public void programmaticSizeBasedTriggeringPolicyReadsTheLogicalLength() {
+    rfa.setContext(context);
+    LayoutWrappingEncoder<Object> encoder = new LayoutWrappingEncoder<Object>();
+    encoder.setLayout(new EchoLayout<Object>());
+    rfa.setEncoder(encoder);
+    rfa.setFile(randomOutputDir + "preallocated.log");
+    rfa.setPreallocationSize(FileSize.valueOf("64KB"));
+    FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+    fwRollingPolicy.setContext(context);
+    fwRollingPolicy.setFileNamePattern(randomOutputDir + "preallocated-%i.log");
+    fwRollingPolicy.setParent(rfa);
+    fwRollingPolicy.start();
+    // the parent is not set, as when configured programmatically
+    SizeBasedTriggeringPolicy<Object> sizeBasedTriggeringPolicy = new SizeBasedTriggeringPolicy<Object>("100");
+    sizeBasedTriggeringPolicy.setContext(context);
+    sizeBasedTriggeringPolicy.start();
+    rfa.setRollingPolicy(fwRollingPolicy);
+    rfa.setTriggeringPolicy(sizeBasedTriggeringPolicy);
+    rfa.start();
+
+    for (int i = 0; i < 32; i++) {
+      rfa.doAppend("a");
+    }
+    assertFalse(new File(randomOutputDir + "preallocated-1.log").exists());
+    for (int i = 0; i < 50; i++) {
+      rfa.doAppend("a");
+    }
+    rfa.stop();
+    assertTrue(new File(randomOutputDir + "preallocated-1.log").exists());
+    assertFalse(new File(randomOutputDir + "preallocated-2.log").exists());
+  }
+
+  @Test
+  public void stopWaitsForAllCopiesAcrossVolumes() {
+    rfa.setContext(context);
+    rfa.setEncoder(new EchoEncoder<Object>());
+    rfa.setFile(randomOutputDir + "copied.log");
+    tbrp.setFileNamePattern(randomOutputDir + "copied-%d{yyyy-MM-dd}.log");
+    long now = System.currentTimeMillis();
+    final String firstArchive = "copied-" + new SimpleDateFormat("yyyy-MM-dd").format(new Date(now)) + ".log";
+    final AtomicInteger copyCount = new AtomicInteger();
+    tbrp.renameUtil = new CrossVolumeRenameUtil() {
+      @Override
+      public void renameByCopying(String src, String target) throws RolloverFailure {
+        copyCount.incrementAndGet();
+        // the first copy completes last
+        if (target.endsWith(firstArchive)) {
+          try {
+            Thread.sleep(500);
+          } catch (InterruptedException e) {
+          }
+        }
+        super.renameByCopying(src, target);
+      }
+    };
+    DefaultTimeBasedFileNamingAndTriggeringPolicy<Object> tbfnatp = new DefaultTimeBasedFileNamingAndTriggeringPolicy<Object>();
+    tbfnatp.setCurrentTime(now);
+    tbrp.setTimeBasedFileNamingAndTriggeringPolicy(tbfnatp);
+    tbrp.start();
+    rfa.setRollingPolicy(tbrp);
+    rfa.start();
+
+    rfa.doAppend("day 0");
+    tbfnatp.setCurrentTime(now + CoreConstants.MILLIS_IN_ONE_DAY);
+    rfa.doAppend("day 1");
+    tbfnatp.setCurrentTime(now + 2 * CoreConstants.MILLIS_IN_ONE_DAY);
+    rfa.doAppend("day 2");
+    rfa.stop();
+
+    assertEquals(2, copyCount.get());
+    File[] archives = new File(randomOutputDir).listFiles(new FilenameFilter() {
+      public boolean accept(File dir, String name) {
+        return name.startsWith("copied-");
+      }
+    });
+    assertEquals(2, archives.length);
+    for (File archive : archives) {
+      assertTrue(archive.length() > 0);
+    }
+    // no intermediate file is left
+    assertEquals(3, new File(randomOutputDir).list().length);
+  }
+
+  @Test
+  public void gzipIsIncompatibleWithZipCompression() {
+    rfa.setContext(context);
+    rfa.setGzip(true);
+    tbrp.setFileNamePattern(randomOutputDir + "toto-%d.log.zip");
+    tbrp.start();
+    rfa.setRollingPolicy(tbrp);
+    rfa.start();
+    assertFalse(rfa.isStarted());
+  }
+
+  @Test
+  public void gzipWithoutGzSuffixIsWarnedAbout() {
+    rfa.setContext(context);
+    rfa.setGzip(true);
+    tbrp.setFileNamePattern(randomOutputDir + "toto-%d.log");
+    tbrp.start();
+    rfa.setRollingPolicy(tbrp);
+    rfa.start();
+    assertTrue(rfa.isStarted());
+    new StatusChecker(context).assertContainsMatch(Status.WARN, "The \"Gzip\" property is set but");
+  }
+
+  @Test
+  public void uncompressedFilesOfElapsedPeriodsAreCompressedOnStart() throws IOException {
+    File leftover = new File(randomOutputDir + "leftover-2015-06-09.log");
+    leftover.getParentFile().mkdirs();
+    leftover.createNewFile();
+    // partially compressed by the previous run
+    File partial = new File(randomOutputDir + "leftover-2015-06-10.log.gz");
+    new File(randomOutputDir + "leftover-2015-06-10.log").createNewFile();
+    partial.createNewFile();
+
+    rfa.setContext(context);
+    tbrp.setFileNamePattern(randomOutputDir + "leftover-%d.log.gz");
+    tbrp.start();
+    rfa.setRollingPolicy(tbrp);
+    rfa.start();
+    rfa.stop();
+
+    assertFalse(leftover.exists());
+    assertEquals("", gunzip(leftover.getPath() + ".gz"));
+    assertFalse(new File(randomOutputDir + "leftover-2015-06-10.log").exists());
+    assertEquals("", gunzip(partial.getPath()));
+    // the active file is left alone
+    assertTrue(new File(tbrp.getActiveFileName()).exists());
+  }
+
+  @Test
+  public void filesStillBeingCompressedAreLeftAloneOnStart() throws Exception {
+    File leftover = new File(randomOutputDir + "inflight-2015-06-09.log");
+    leftover.getParentFile().mkdirs();
+    leftover.createNewFile();
+    final CountDownLatch latch = new CountDownLatch(1);
+    Compressor blockingCompressor = new Compressor(CompressionMode.GZ) {
+      @Override
+      public void compress(String nameOfFile2Compress, String nameOfCompressedFile, String innerEntryName) {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.compress(nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
+      }
+    };
+    blockingCompressor.setContext(context);
+    // the scheduler of a previous policy, stopped before its job completed
+    CompressionScheduler previousScheduler = new CompressionScheduler(1, 1);
+    previousScheduler.setContext(context);
+    previousScheduler.start();
+    Future<?> previousJob = previousScheduler.submit(blockingCompressor, leftover.getPath(), leftover.getPath(),
+        null);
+
+    rfa.setContext(context);
+    tbrp.setFileNamePattern(randomOutputDir + "inflight-%d.log.gz");
+    tbrp.start();
+    rfa.setRollingPolicy(tbrp);
+    rfa.start();
+    rfa.stop();
+    assertTrue(leftover.exists());
+
+    latch.countDown();
+    previousJob.get();
+    previousScheduler.stop();
+    assertFalse(leftover.exists());
+    assertEquals("", gunzip(leftover.getPath() + ".gz"));
+  }
+
+  @Test
+  public void gzipFilesOfElapsedPeriodsAreRenamedOnStart() throws IOException {
+    File leftover = new File(randomOutputDir + "gzleftover-2015-06-09.log");
+    leftover.getParentFile().mkdirs();
+    GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(leftover));
+    out.write("hello".getBytes());
+    out.close();
+
+    rfa.setContext(context);
+    rfa.setGzip(true);
+    tbrp.setFileNamePattern(randomOutputDir + "gzleftover-%d.log.gz");
+    tbrp.start();
+    rfa.setRollingPolicy(tbrp);
+    rfa.start();
+    rfa.stop();
+
+    assertFalse(leftover.exists());
+    // compressed once only
+    assertEquals("hello", gunzip(leftover.getPath() + ".gz"));
+  }
+
+  String gunzip(String fileName) throws IOException {
+    GZIPInputStream in = new GZIPInputStream(new FileInputStream(fileName));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buf = new byte[8192];
+    int n;
+    while ((n = in.read(buf)) != -1) {
+      out.write(buf, 0, n);
+    }
+    in.close();
+    return out.toString();
+  }
 }
@@ -13,15 +13,20 @@
  */
 package ch.qos.logback.core.rolling;
 
+import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.encoder.EchoEncoder;
 import ch.qos.logback.core.util.CoreTestConstants;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 public class SizeBasedRollingTest extends ScaffoldingForRollingTests {
 
   RollingFileAppender<Object> rfa = new RollingFileAppender<Object>();
@@ -115,4 +120,36 @@ public class SizeBasedRollingTest extends ScaffoldingForRollingTests {
     List<String> zipFiles = filterElementsInListBySuffix(".zip");
     zipEntryNameCheck(zipFiles, "sbr-zipped.20\\d{2}-\\d{2}-\\d{2}_\\d{4}");
   }
+
+  @Test
+  public void exactBoundariesWithByteCount() throws IOException {
+    rfa.setName("ROLLING");
+    initRFA(randomOutputDir + "a-sbr-exact.log");
+    sizeBasedTriggeringPolicy.setMaxFileSize("100");
+    // set by Joran when the policy is nested within the appender
+    sizeBasedTriggeringPolicy.setParent(rfa);
+    fwrp.setMinIndex(0);
+    fwrp.setFileNamePattern(randomOutputDir + "sbr-exact.%i");
+
+    rfa.triggeringPolicy = sizeBasedTriggeringPolicy;
+    rfa.rollingPolicy = fwrp;
+
+    fwrp.start();
+    sizeBasedTriggeringPolicy.start();
+    rfa.start();
+
+    String event = "hello";
+    int eventLength = (event + CoreConstants.LINE_SEPARATOR).length();
+    for (int i = 0; i < 70; i++) {
+      assertEquals(rfa.getCurrentFileLength(), new File(rfa.getFile()).length());
+      rfa.doAppend(event);
+    }
+    rfa.stop();
+
+    for (int i = 0; i < 3; i++) {
+      long length = new File(randomOutputDir + "sbr-exact." + i).length();
+      // the size check precedes writing
+      assertTrue("length " + length, length >= 100 && length < 100 + eventLength);
+    }
+  }
 }
@@ -16,9 +16,14 @@ package ch.qos.logback.core.rolling;
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.ContextBase;
 import ch.qos.logback.core.encoder.EchoEncoder;
+import ch.qos.logback.core.rolling.helper.ArchiveRemover;
 import ch.qos.logback.core.rolling.helper.RollingCalendar;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.status.StatusChecker;
 import ch.qos.logback.core.testUtil.RandomUtil;
 import ch.qos.logback.core.util.CoreTestConstants;
+import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.StatusPrinter;
 import org.junit.Before;
 import org.junit.Test;
@@ -53,6 +58,7 @@ public class TimeBasedRollingWithArchiveRemoval_Test extends ScaffoldingForRolli
   int MONTHS_IN_YEAR = 12;
 
   int slashCount = 0;
+  FileSize totalSizeCap;
 
   @Before
   public void setUp() {
@@ -205,6 +211,77 @@ public class TimeBasedRollingWithArchiveRemoval_Test extends ScaffoldingForRolli
   }
 
 
+  @Test
+  public void dailyRolloverWithMaxHistoryAndTotalSizeCap() {
+    // large enough for maxHistory to prevail
+    totalSizeCap = FileSize.valueOf("100MB");
+    int maxHistory = 5;
+    generateDailyRollover(currentTime, maxHistory, maxHistory * 3, 0, 0);
+  }
+
+  @Test
+  public void dailyRolloverWithTotalSizeCap() {
+    // each period writes about 37 KB
+    totalSizeCap = FileSize.valueOf("100KB");
+    String fileNamePattern = randomOutputDir + "clean-%d{" + DAILY_DATE_PATTERN + "}.txt";
+    logOverMultiplePeriodsContinuously(currentTime, fileNamePattern, MILLIS_IN_DAY, 0, 10);
+    List<File> archives = new ArrayList<File>();
+    findFilesInFolderRecursivelyByPatterMatch(new File(randomOutputDir), archives, "clean-.*\\.txt");
+    // the active file and two archives
+    assertEquals(3, archives.size());
+    File activeFile = new File(tbrp.getActiveFileName());
+    long totalSize = 0;
+    for (File archive : archives) {
+      if (!archive.getAbsoluteFile().equals(activeFile.getAbsoluteFile())) {
+        totalSize += archive.length();
+      }
+    }
+    assertTrue(totalSize <= totalSizeCap.getSize());
+  }
+
+  @Test
+  public void dailySizeBasedRolloverWithTotalSizeCap() {
+    SizeAndTimeBasedFNATP<Object> sizeAndTimeBasedFNATP = new SizeAndTimeBasedFNATP<Object>();
+    sizeAndTimeBasedFNATP.setMaxFileSize("10000");
+    tbfnatp = sizeAndTimeBasedFNATP;
+    totalSizeCap = FileSize.valueOf("50KB");
+    logOverMultiplePeriodsContinuously(currentTime, randomOutputDir + "%d{" + DAILY_DATE_PATTERN + "}-clean.%i.txt",
+        MILLIS_IN_DAY, 0, 4);
+    List<File> files = new ArrayList<File>();
+    findFilesInFolderRecursivelyByPatterMatch(new File(randomOutputDir), files, ".*-clean\\.\\d+\\.txt");
+    long totalSize = 0;
+    for (File file : files) {
+      totalSize += file.length();
+    }
+    // archives within the cap, plus the active file
+    assertTrue("totalSize=" + totalSize, totalSize <= totalSizeCap.getSize() + 10000 + 100);
+    assertTrue("totalSize=" + totalSize, totalSize >= totalSizeCap.getSize() - 10000 - 100);
+  }
+
+  @Test
+  public void totalSizeCapIsIgnoredByOtherArchiveRemovers() {
+    final ArchiveRemover otherArchiveRemover = new OtherArchiveRemover();
+    tbfnatp = new DefaultTimeBasedFileNamingAndTriggeringPolicy<Object>() {
+      @Override
+      public ArchiveRemover getArchiveRemover() {
+        return otherArchiveRemover;
+      }
+    };
+    totalSizeCap = FileSize.valueOf("100KB");
+    buildRollingFileAppender(currentTime, randomOutputDir + "clean-%d{" + DAILY_DATE_PATTERN + "}.txt", 5,
+        DO_NOT_CLEAN_HISTORY_ON_START);
+    StatusChecker checker = new StatusChecker(context);
+    checker.assertContainsMatch(Status.WARN, "The archive remover .* does not support the \"TotalSizeCap\" property");
+  }
+
+  static class OtherArchiveRemover extends ContextAwareBase implements ArchiveRemover {
+    public void clean(Date now) {
+    }
+
+    public void setMaxHistory(int maxHistory) {
+    }
+  }
+
   void logOncePeriod(long currentTime, String fileNamePattern, int maxHistory) {
     buildRollingFileAppender(currentTime, fileNamePattern, maxHistory, DO_CLEAN_HISTORY_ON_START);
     rfa.doAppend("Hello ----------------------------------------------------------" + new Date(currentTime));
@@ -273,6 +350,7 @@ public class TimeBasedRollingWithArchiveRemoval_Test extends ScaffoldingForRolli
     tbrp.setMaxHistory(maxHistory);
     tbrp.setParent(rfa);
     tbrp.setCleanHistoryOnStart(cleanHistoryOnStart);
+    tbrp.setTotalSizeCap(totalSizeCap);
     tbrp.timeBasedFileNamingAndTriggeringPolicy = tbfnatp;
     tbrp.timeBasedFileNamingAndTriggeringPolicy.setCurrentTime(currentTime);
     tbrp.start();
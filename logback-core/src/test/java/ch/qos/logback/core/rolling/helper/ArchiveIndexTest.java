@@ -0,0 +1,117 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class ArchiveIndexTest {
+
+  Context context = new ContextBase();
+  String outputDir = CoreTestConstants.OUTPUT_DIR_PREFIX + RandomUtil.getPositiveInt() + "/";
+
+  @Before
+  public void setUp() {
+    new File(outputDir).mkdirs();
+  }
+
+  void createFile(String name, int length) throws IOException {
+    File file = new File(outputDir + name);
+    file.getParentFile().mkdirs();
+    FileOutputStream fos = new FileOutputStream(file);
+    fos.write(new byte[length]);
+    fos.close();
+  }
+
+  @Test
+  public void nonCapturing() {
+    assertEquals("(?:\\+|-)\\d{4}", ArchiveIndex.nonCapturing("(\\+|-)\\d{4}"));
+    assertEquals("\\(x(?:y)(?:z)", ArchiveIndex.nonCapturing("\\(x(y)(?:z)"));
+  }
+
+  @Test
+  public void sortedByPeriodThenIndex() throws IOException {
+    createFile("log-2015-06-10.2.gz", 2);
+    createFile("log-2015-06-09.100.gz", 100);
+    createFile("log-2015-06-09.99.gz", 99);
+    createFile("log-2015-06-10.1.gz", 1);
+    createFile("unrelated.gz", 1000);
+    FileNamePattern fnp = new FileNamePattern(outputDir + "log-%d{yyyy-MM-dd}.%i.gz", context);
+    ArchiveIndex index = new ArchiveIndex(fnp);
+    index.update(new Date());
+    assertEquals(4, index.size());
+    assertEquals(202, index.getTotalSize());
+    assertEquals("log-2015-06-09.99.gz", index.removeOldest().file.getName());
+    assertEquals("log-2015-06-09.100.gz", index.removeOldest().file.getName());
+    assertEquals("log-2015-06-10.1.gz", index.removeOldest().file.getName());
+    assertEquals(2, index.getTotalSize());
+    assertEquals("log-2015-06-10.2.gz", index.removeOldest().file.getName());
+    assertNull(index.removeOldest());
+    assertEquals(0, index.getTotalSize());
+  }
+
+  @Test
+  public void updateListsTheDirectoriesOfTheGivenPeriods() throws IOException, ParseException {
+    createFile("2015-06-09/log.gz", 1);
+    FileNamePattern fnp = new FileNamePattern(outputDir + "%d{yyyy-MM-dd}/log.gz", context);
+    ArchiveIndex index = new ArchiveIndex(fnp);
+    index.update(parse("2015-06-10"));
+    assertEquals(1, index.size());
+
+    createFile("2015-06-10/log.gz", 10);
+    createFile("2015-06-11/log.gz", 100);
+    createFile("2015-06-12/log.gz", 100);
+    // the size of an archive being compressed changes
+    createFile("2015-06-09/log.gz", 1000);
+    index.update(parse("2015-06-12"), parse("2015-06-09"), parse("2015-06-10"));
+    assertEquals(2, index.size());
+    assertEquals(1010, index.getTotalSize());
+  }
+
+  @Test
+  public void filesOfTheCurrentPeriodAreNotIndexed() throws IOException, ParseException {
+    createFile("log-2015-06-09.txt", 1);
+    // the active file, as no File property is set
+    createFile("log-2015-06-10.txt", 10);
+    FileNamePattern fnp = new FileNamePattern(outputDir + "log-%d{yyyy-MM-dd}.txt", context);
+    ArchiveIndex index = new ArchiveIndex(fnp);
+    index.update(parse("2015-06-10"));
+    assertEquals(1, index.size());
+    assertEquals(1, index.getTotalSize());
+
+    // rolled over
+    index.update(parse("2015-06-11"), parse("2015-06-10"));
+    assertEquals(2, index.size());
+    assertEquals(11, index.getTotalSize());
+  }
+
+  Date parse(String date) throws ParseException {
+    return new SimpleDateFormat("yyyy-MM-dd").parse(date);
+  }
+}
@@ -13,14 +13,17 @@
  */
 package ch.qos.logback.core.rolling.helper;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -53,6 +56,7 @@ public class CompressTest {
           + "compress1.txt.gz");
       target.mkdirs();
       target.delete();
+      new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "compress1.txt" + DeflateCodec.SUFFIX).delete();
     }
     {
       File source = new File(CoreTestConstants.TEST_SRC_PREFIX
@@ -109,6 +113,24 @@ public class CompressTest {
         + "witness/compress2.txt.gz"));
   }
 
+  @Test
+  public void parallelGZ() throws Exception {
+    Compressor compressor = new Compressor(CompressionMode.GZ);
+    compressor.setContext(context);
+    compressor.setThreadCount(2);
+    compressor.setLevel(9);
+    compressor.compress(CoreTestConstants.TEST_SRC_PREFIX
+        + "input/compress2.txt", CoreTestConstants.OUTPUT_DIR_PREFIX
+        + "compress2.txt", null);
+
+    StatusChecker checker = new StatusChecker(context);
+    assertTrue(checker.isErrorFree(0));
+
+    assertTrue(Compare.gzCompare(CoreTestConstants.OUTPUT_DIR_PREFIX
+        + "compress2.txt.gz", CoreTestConstants.TEST_SRC_PREFIX
+        + "witness/compress2.txt.gz"));
+  }
+
   @Test
   public void test3() throws Exception {
     Compressor compressor = new Compressor(CompressionMode.ZIP);
@@ -125,6 +147,37 @@ public class CompressTest {
     // + "witness/compress3.txt.zip"));
   }
 
+  @Test
+  public void codec() throws Exception {
+    DeflateCodec codec = new DeflateCodec();
+    codec.setContext(context);
+    codec.setLevel(9);
+    codec.start();
+    Compressor compressor = new Compressor(codec);
+    compressor.setContext(context);
+    assertTrue(compressor.getFileNameSuffix().equals(DeflateCodec.SUFFIX));
+    compressor.compress(CoreTestConstants.TEST_SRC_PREFIX
+        + "input/compress1.txt", CoreTestConstants.OUTPUT_DIR_PREFIX
+        + "compress1.txt", null);
+
+    StatusChecker checker = new StatusChecker(context);
+    assertTrue(checker.isErrorFree(0));
+    assertArrayEquals(read(new FileInputStream(CoreTestConstants.TEST_SRC_PREFIX + "input/compress1.copy")),
+        read(new InflaterInputStream(new FileInputStream(CoreTestConstants.OUTPUT_DIR_PREFIX
+            + "compress1.txt" + DeflateCodec.SUFFIX))));
+  }
+
+  private byte[] read(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buf = new byte[1024];
+    int len;
+    while ((len = in.read(buf)) > 0) {
+      out.write(buf, 0, len);
+    }
+    in.close();
+    return out.toByteArray();
+  }
+
   private void copy(File src, File dst) throws IOException {
     InputStream in = new FileInputStream(src);
     OutputStream out = new FileOutputStream(dst);
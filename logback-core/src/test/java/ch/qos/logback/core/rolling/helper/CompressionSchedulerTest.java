@@ -0,0 +1,147 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class CompressionSchedulerTest {
+
+  Context context = new ContextBase();
+  String outputDir = CoreTestConstants.OUTPUT_DIR_PREFIX + RandomUtil.getPositiveInt() + "/";
+  Compressor compressor = new Compressor(CompressionMode.GZ);
+  CompressionScheduler scheduler = new CompressionScheduler(2, 4);
+
+  @Before
+  public void setUp() {
+    new File(outputDir).mkdirs();
+    compressor.setContext(context);
+    scheduler.setContext(context);
+    scheduler.start();
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.stop();
+  }
+
+  File createFile(String name, int length, long lastModified) throws IOException {
+    File file = new File(outputDir + name);
+    FileOutputStream fos = new FileOutputStream(file);
+    fos.write(new byte[length]);
+    fos.close();
+    file.setLastModified(lastModified);
+    return file;
+  }
+
+  @Test
+  public void compressAndCount() throws Exception {
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    for (int i = 0; i < 10; i++) {
+      File file = createFile("a" + i + ".log", 1000, System.currentTimeMillis());
+      futures.add(scheduler.submit(compressor, file.getPath(), file.getPath(), null));
+    }
+    futures.add(scheduler.submit(compressor, outputDir + "missing.log", outputDir + "missing.log", null));
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    for (int i = 0; i < 10; i++) {
+      assertTrue(new File(outputDir + "a" + i + ".log.gz").exists());
+      assertFalse(new File(outputDir + "a" + i + ".log").exists());
+    }
+    assertEquals(11, scheduler.getCompletedJobCount());
+    assertEquals(1, scheduler.getFailedJobCount());
+    assertEquals(10 * 1000, scheduler.getCompressedByteCount());
+    assertEquals(0, scheduler.getActiveJobCount());
+    assertEquals(0, scheduler.getQueuedJobCount());
+  }
+
+  @Test
+  public void oldestFileFirst() throws IOException {
+    long now = System.currentTimeMillis();
+    // whole seconds, the resolution of some file systems
+    File recent = createFile("recent.log", 1, now - 1000);
+    File old = createFile("old.log", 1, now - 10000);
+    File sameAgeLater = createFile("sameAgeLater.log", 1, now - 1000);
+    List<CompressionScheduler.CompressionJob> jobs = new ArrayList<CompressionScheduler.CompressionJob>();
+    for (File file : new File[] { recent, old, sameAgeLater }) {
+      jobs.add(scheduler.new CompressionJob(new CompressionRunnable(compressor, file.getPath(), file.getPath(),
+          null)));
+    }
+    List<CompressionScheduler.CompressionJob> sorted = new ArrayList<CompressionScheduler.CompressionJob>(jobs);
+    Collections.sort(sorted);
+    assertEquals(jobs.get(1), sorted.get(0));
+    assertEquals(jobs.get(0), sorted.get(1));
+    assertEquals(jobs.get(2), sorted.get(2));
+  }
+
+  @Test
+  public void mbeanIsRegisteredUntilStopped() throws Exception {
+    String name = "ch.qos.logback.core.rolling:type=CompressionScheduler,name=test" + RandomUtil.getPositiveInt();
+    scheduler.registerMBean(name);
+    MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+    ObjectName objectName = new ObjectName(name);
+    assertTrue(mbs.isRegistered(objectName));
+    assertEquals(4, mbs.getAttribute(objectName, "QueueSize"));
+    scheduler.stop();
+    assertFalse(mbs.isRegistered(objectName));
+  }
+
+  @Test
+  public void filesAreInFlightUntilCompressed() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    Compressor blockingCompressor = new Compressor(CompressionMode.GZ) {
+      @Override
+      public void compress(String nameOfFile2Compress, String nameOfCompressedFile, String innerEntryName) {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.compress(nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
+      }
+    };
+    blockingCompressor.setContext(context);
+    File file = createFile("inFlight.log", 10, System.currentTimeMillis());
+    Future<?> future = scheduler.submit(blockingCompressor, file.getPath(), file.getPath(), null);
+    assertTrue(CompressionScheduler.isInFlight(new File(file.getAbsolutePath())));
+    latch.countDown();
+    future.get();
+    assertFalse(CompressionScheduler.isInFlight(file));
+    assertTrue(new File(file.getPath() + ".gz").exists());
+  }
+}
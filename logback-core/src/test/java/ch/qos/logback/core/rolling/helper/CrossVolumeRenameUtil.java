@@ -0,0 +1,28 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.File;
+
+/**
+ * A {@link RenameUtil} which considers all files to be on different volumes,
+ * so that renaming them involves copying.
+ */
+public class CrossVolumeRenameUtil extends RenameUtil {
+
+  @Override
+  boolean areOnDifferentVolumes(File srcFile, File targetFile) {
+    return true;
+  }
+}
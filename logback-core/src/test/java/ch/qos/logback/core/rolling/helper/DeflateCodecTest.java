@@ -0,0 +1,133 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class DeflateCodecTest {
+
+  Context context = new ContextBase();
+  DeflateCodec codec = new DeflateCodec();
+  String dictionaryFileName = CoreTestConstants.OUTPUT_DIR_PREFIX + "dictionary-" + RandomUtil.getPositiveInt() + ".txt";
+
+  static final String DICTIONARY = "2015-06-09 12:00:00 [main] INFO  ch.qos.logback.Sample - Processed request ";
+
+  @Before
+  public void setUp() {
+    codec.setContext(context);
+  }
+
+  byte[] compress(byte[] input) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OutputStream os = codec.newCompressingStream(out);
+    os.write(input);
+    os.close();
+    return out.toByteArray();
+  }
+
+  byte[] decompress(byte[] compressed, byte[] dictionary) throws DataFormatException {
+    Inflater inflater = new Inflater();
+    inflater.setInput(compressed);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buf = new byte[1024];
+    while (!inflater.finished()) {
+      int n = inflater.inflate(buf);
+      if (n == 0 && inflater.needsDictionary()) {
+        assertNotNull(dictionary);
+        inflater.setDictionary(dictionary);
+      }
+      out.write(buf, 0, n);
+    }
+    inflater.end();
+    return out.toByteArray();
+  }
+
+  byte[] input() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      sb.append(DICTIONARY.replace("00:00", "00:0" + i)).append(i).append('\n');
+    }
+    return sb.toString().getBytes();
+  }
+
+  @Test
+  public void roundTrip() throws Exception {
+    codec.start();
+    byte[] input = input();
+    assertArrayEquals(input, decompress(compress(input), null));
+  }
+
+  @Test
+  public void dictionaryImprovesCompression() throws Exception {
+    codec.start();
+    byte[] input = input();
+    int withoutDictionary = compress(input).length;
+
+    File dictionaryFile = new File(dictionaryFileName);
+    dictionaryFile.getParentFile().mkdirs();
+    FileOutputStream fos = new FileOutputStream(dictionaryFile);
+    fos.write(DICTIONARY.getBytes());
+    fos.close();
+    codec.setDictionaryFile(dictionaryFileName);
+    codec.start();
+    byte[] compressed = compress(input);
+    assertTrue(compressed.length < withoutDictionary);
+    assertArrayEquals(input, decompress(compressed, DICTIONARY.getBytes()));
+  }
+
+  @Test
+  public void missingDictionaryFile() throws Exception {
+    codec.setDictionaryFile(dictionaryFileName + ".missing");
+    codec.start();
+    assertTrue(codec.isStarted());
+    assertNull(codec.dictionary);
+    byte[] input = input();
+    assertArrayEquals(input, decompress(compress(input), null));
+  }
+
+  @Test
+  public void level() throws Exception {
+    codec.setLevel(Deflater.NO_COMPRESSION);
+    codec.start();
+    byte[] input = input();
+    byte[] stored = compress(input);
+    assertTrue(stored.length > input.length);
+
+    codec.setLevel(42);
+    codec.start();
+    assertEquals(Deflater.DEFAULT_COMPRESSION, codec.getLevel());
+    assertTrue(compress(input).length < input.length);
+  }
+}
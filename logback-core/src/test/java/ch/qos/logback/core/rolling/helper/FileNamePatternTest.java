@@ -16,9 +16,14 @@ package ch.qos.logback.core.rolling.helper;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
 
 import java.util.Calendar;
 import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.Test;
 
@@ -160,6 +165,25 @@ public class FileNamePatternTest {
     }
   }
 
+  @Test
+  public void stemRegexPatternByDateIsCompiledOncePerPeriod() {
+    Calendar cal = Calendar.getInstance();
+    cal.set(2003, 4, 20, 17, 55);
+    FileNamePattern fnp = new FileNamePattern("\\toto\\foo-%d{yyyy.MM.dd}-%i.txt", context);
+    Pattern p = fnp.toStemRegexPatternForFixedDate(cal.getTime());
+    assertEquals("foo-2003.05.20-(\\d{1,3}).txt", p.pattern());
+    Matcher m = p.matcher("foo-2003.05.20-12.txt");
+    assertTrue(m.matches());
+    assertEquals("12", m.group(1));
+    assertFalse(p.matcher("foo-2003.05.21-12.txt").matches());
+
+    cal.set(Calendar.HOUR_OF_DAY, 3);
+    assertSame(p, fnp.toStemRegexPatternForFixedDate(cal.getTime()));
+    cal.set(Calendar.DAY_OF_MONTH, 21);
+    Pattern next = fnp.toStemRegexPatternForFixedDate(cal.getTime());
+    assertEquals("foo-2003.05.21-(\\d{1,3}).txt", next.pattern());
+  }
+
   @Test
   public void asRegex() {
     {
@@ -0,0 +1,187 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.qos.logback.core.ContextBase;
+
+public class LZ4FrameOutputStreamTest {
+
+  byte[] compress(byte[] input, int chunkSize) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    LZ4FrameOutputStream lz4 = new LZ4FrameOutputStream(out);
+    for (int off = 0; off < input.length; off += chunkSize) {
+      lz4.write(input, off, Math.min(chunkSize, input.length - off));
+    }
+    lz4.close();
+    return out.toByteArray();
+  }
+
+  // a minimal decoder of frames with independent blocks and no checksums
+  byte[] decompress(byte[] frame) {
+    assertEquals(LZ4FrameOutputStream.MAGIC, readInt(frame, 0));
+    assertEquals(LZ4FrameOutputStream.FLG, frame[4] & 0xff);
+    int ip = 7;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    while (true) {
+      int blockSize = readInt(frame, ip);
+      ip += 4;
+      if (blockSize == 0) {
+        assertEquals(frame.length, ip);
+        return out.toByteArray();
+      }
+      if ((blockSize & LZ4FrameOutputStream.UNCOMPRESSED_BLOCK_FLAG) != 0) {
+        blockSize &= ~LZ4FrameOutputStream.UNCOMPRESSED_BLOCK_FLAG;
+        out.write(frame, ip, blockSize);
+      } else {
+        byte[] block = decompressBlock(frame, ip, blockSize);
+        out.write(block, 0, block.length);
+      }
+      ip += blockSize;
+    }
+  }
+
+  byte[] decompressBlock(byte[] src, int ip, int length) {
+    int end = ip + length;
+    byte[] dst = new byte[LZ4FrameOutputStream.BLOCK_SIZE];
+    int op = 0;
+    while (true) {
+      int token = src[ip++] & 0xff;
+      int literalLength = token >>> 4;
+      if (literalLength == 15) {
+        int b;
+        do {
+          b = src[ip++] & 0xff;
+          literalLength += b;
+        } while (b == 255);
+      }
+      System.arraycopy(src, ip, dst, op, literalLength);
+      ip += literalLength;
+      op += literalLength;
+      if (ip == end) {
+        break;
+      }
+      int offset = (src[ip] & 0xff) | (src[ip + 1] & 0xff) << 8;
+      ip += 2;
+      assertTrue(offset > 0 && offset <= op);
+      int matchLength = token & 0xf;
+      if (matchLength == 15) {
+        int b;
+        do {
+          b = src[ip++] & 0xff;
+          matchLength += b;
+        } while (b == 255);
+      }
+      matchLength += LZ4FrameOutputStream.MIN_MATCH;
+      // overlapping copy
+      for (int i = 0; i < matchLength; i++) {
+        dst[op + i] = dst[op - offset + i];
+      }
+      op += matchLength;
+      // the last sequence is made of literals only
+      assertTrue(op <= LZ4FrameOutputStream.BLOCK_SIZE - LZ4FrameOutputStream.LAST_LITERALS);
+    }
+    byte[] block = new byte[op];
+    System.arraycopy(dst, 0, block, 0, op);
+    return block;
+  }
+
+  static int readInt(byte[] b, int i) {
+    return (b[i] & 0xff) | (b[i + 1] & 0xff) << 8 | (b[i + 2] & 0xff) << 16 | (b[i + 3] & 0xff) << 24;
+  }
+
+  byte[] logLikeInput(int length) {
+    Random random = new Random(1);
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < length) {
+      sb.append("2015-06-09 12:00:").append(random.nextInt(60)).append(" [main] INFO  a.b.C - message ")
+          .append(random.nextInt(1000)).append('\n');
+    }
+    return sb.substring(0, length).getBytes();
+  }
+
+  @Test
+  public void header() throws IOException {
+    byte[] compressed = compress(new byte[0], 1);
+    // magic number, FLG, BD, header checksum, end mark
+    assertArrayEquals(new byte[] { 0x04, 0x22, 0x4D, 0x18, 0x60, 0x40, (byte) 0x82, 0, 0, 0, 0 }, compressed);
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    // spans several blocks, written in odd chunks
+    byte[] input = logLikeInput(3 * LZ4FrameOutputStream.BLOCK_SIZE + 4567);
+    byte[] compressed = compress(input, 1000);
+    assertTrue(compressed.length < input.length / 2);
+    assertArrayEquals(input, decompress(compressed));
+  }
+
+  @Test
+  public void longRepeats() throws IOException {
+    byte[] input = new byte[LZ4FrameOutputStream.BLOCK_SIZE + 10];
+    for (int i = 0; i < input.length; i++) {
+      input[i] = (byte) (i % 3);
+    }
+    byte[] compressed = compress(input, input.length);
+    assertTrue(compressed.length < 1024);
+    assertArrayEquals(input, decompress(compressed));
+  }
+
+  @Test
+  public void incompressibleInput() throws IOException {
+    byte[] input = new byte[2 * LZ4FrameOutputStream.BLOCK_SIZE];
+    new Random(2).nextBytes(input);
+    byte[] compressed = compress(input, 8192);
+    // stored as is
+    assertTrue(compressed.length <= input.length + 7 + 3 * 4);
+    assertArrayEquals(input, decompress(compressed));
+  }
+
+  @Test
+  public void shortInput() throws IOException {
+    for (int length = 1; length < 40; length++) {
+      byte[] input = logLikeInput(length);
+      assertArrayEquals(input, decompress(compress(input, 7)));
+    }
+  }
+
+  @Test
+  public void flushWritesABlock() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    LZ4FrameOutputStream lz4 = new LZ4FrameOutputStream(out);
+    byte[] input = logLikeInput(1000);
+    lz4.write(input, 0, 500);
+    lz4.flush();
+    assertTrue(out.size() > 7);
+    lz4.write(input, 500, 500);
+    lz4.close();
+    assertArrayEquals(input, decompress(out.toByteArray()));
+  }
+
+  @Test
+  public void codecIsFoundBySuffix() {
+    CompressionCodec codec = CompressionCodecUtil.findByFileName("foo-%d.log" + LZ4Codec.SUFFIX, new ContextBase());
+    assertTrue(codec instanceof LZ4Codec);
+    assertTrue(codec.isStarted());
+  }
+}
@@ -20,8 +20,9 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses( { CompressTest.class, FileNamePatternTest.class,
-    RollingCalendarTest.class, DatePatternToRegexTest.class })
+@Suite.SuiteClasses( { CompressTest.class, ParallelGZIPCompressorTest.class, LZ4FrameOutputStreamTest.class,
+    DeflateCodecTest.class, CompressionSchedulerTest.class,
+    ArchiveIndexTest.class, FileNamePatternTest.class, RollingCalendarTest.class, DatePatternToRegexTest.class })
 public class PackageTest extends TestCase {
 
 }
@@ -0,0 +1,86 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+public class ParallelGZIPCompressorTest {
+
+  static final int BLOCK_SIZE = 32 * 1024;
+
+  byte[] compress(byte[] input, int threadCount) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new ParallelGZIPCompressor(-1, BLOCK_SIZE, threadCount).compress(new ByteArrayInputStream(input), out);
+    return out.toByteArray();
+  }
+
+  byte[] decompress(byte[] compressed) throws IOException {
+    GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buf = new byte[8192];
+    int n;
+    while ((n = in.read(buf)) != -1) {
+      out.write(buf, 0, n);
+    }
+    in.close();
+    return out.toByteArray();
+  }
+
+  byte[] logLikeInput(int length) {
+    Random random = new Random(1);
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < length) {
+      sb.append("2015-06-09 12:00:").append(random.nextInt(60)).append(" [main] INFO  a.b.C - message ")
+          .append(random.nextLong()).append('\n');
+    }
+    return sb.substring(0, length).getBytes();
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    // not a multiple of the block size
+    byte[] input = logLikeInput(10 * BLOCK_SIZE + 123);
+    byte[] compressed = compress(input, 3);
+    assertTrue(compressed.length < input.length);
+    assertArrayEquals(input, decompress(compressed));
+  }
+
+  @Test
+  public void incompressibleInput() throws IOException {
+    byte[] input = new byte[3 * BLOCK_SIZE];
+    new Random(2).nextBytes(input);
+    assertArrayEquals(input, decompress(compress(input, 2)));
+  }
+
+  @Test
+  public void emptyInput() throws IOException {
+    assertEquals(0, decompress(compress(new byte[0], 2)).length);
+  }
+
+  @Test
+  public void sameOutputRegardlessOfThreadCount() throws IOException {
+    byte[] input = logLikeInput(5 * BLOCK_SIZE);
+    assertArrayEquals(compress(input, 1), compress(input, 4));
+  }
+}